@@ -696,7 +696,7 @@ FREQ
 // Compressor Type Keywords
 
 COMPRESSOR_VALUE
-    : GZIP | LZ4 | SNAPPY | UNCOMPRESSED
+    : GZIP | LZ4 | SNAPPY | UNCOMPRESSED | ZSTD
     ;
 
 GZIP
@@ -715,6 +715,10 @@ UNCOMPRESSED
     : U N C O M P R E S S E D
     ;
 
+ZSTD
+    : Z S T D
+    ;
+
 
 // Privileges Keywords
 
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Compare two JSON result files written by {@link BenchmarkRunner}, for example results of a base
+ * commit and a new commit. The relative change of each benchmark is printed, and the process exits
+ * with 1 if any benchmark regresses more than the threshold.
+ *
+ * <p>Usage: java -cp iotdb-benchmarks.jar org.apache.iotdb.benchmark.BenchmarkResultComparator
+ * [base result] [new result] [threshold, default 0.1]
+ */
+public class BenchmarkResultComparator {
+
+  private static final double DEFAULT_THRESHOLD = 0.1;
+
+  private BenchmarkResultComparator() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.out.println("Usage: BenchmarkResultComparator <base result> <new result> [threshold]");
+      return;
+    }
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+    Map<String, Score> baseScores = readScores(args[0]);
+    Map<String, Score> newScores = readScores(args[1]);
+
+    boolean regressed = false;
+    for (Entry<String, Score> entry : newScores.entrySet()) {
+      Score baseScore = baseScores.get(entry.getKey());
+      Score newScore = entry.getValue();
+      if (baseScore == null || baseScore.value == 0) {
+        System.out.println(String.format("%-100s %s (new)", entry.getKey(), newScore));
+        continue;
+      }
+      // a positive change is always an improvement, no matter the benchmark mode
+      double change = (newScore.value - baseScore.value) / baseScore.value;
+      if (!newScore.higherIsBetter) {
+        change = -change;
+      }
+      regressed |= change < -threshold;
+      System.out.println(
+          String.format(
+              "%-100s %s -> %s %+.2f%%", entry.getKey(), baseScore, newScore, change * 100));
+    }
+    if (regressed) {
+      System.exit(1);
+    }
+  }
+
+  private static Map<String, Score> readScores(String resultFile) throws IOException {
+    Map<String, Score> scores = new LinkedHashMap<>();
+    try (Reader reader = Files.newBufferedReader(Paths.get(resultFile), StandardCharsets.UTF_8)) {
+      JsonArray results = new JsonParser().parse(reader).getAsJsonArray();
+      for (JsonElement element : results) {
+        JsonObject result = element.getAsJsonObject();
+        StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+        if (result.has("params")) {
+          for (Entry<String, JsonElement> param : result.getAsJsonObject("params").entrySet()) {
+            key.append(' ').append(param.getKey()).append('=');
+            key.append(param.getValue().getAsString());
+          }
+        }
+        String mode = result.get("mode").getAsString();
+        JsonObject primaryMetric = result.getAsJsonObject("primaryMetric");
+        scores.put(
+            key.toString(),
+            new Score(
+                primaryMetric.get("score").getAsDouble(),
+                primaryMetric.get("scoreUnit").getAsString(),
+                "thrpt".equals(mode)));
+      }
+    }
+    return scores;
+  }
+
+  private static class Score {
+    private final double value;
+    private final String unit;
+    private final boolean higherIsBetter;
+
+    private Score(double value, String unit, boolean higherIsBetter) {
+      this.value = value;
+      this.unit = unit;
+      this.higherIsBetter = higherIsBetter;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%.3f %s", value, unit);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Entry of iotdb-benchmarks.jar. It runs the benchmarks whose names match the given regex and
+ * writes the results as JSON, so results of two commits can be compared by {@link
+ * BenchmarkResultComparator}.
+ *
+ * <p>Usage: java -jar iotdb-benchmarks.jar [include regex] [result file]
+ */
+public class BenchmarkRunner {
+
+  private static final String DEFAULT_INCLUDE = "org.apache.iotdb.benchmark.*";
+  private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  private BenchmarkRunner() {}
+
+  public static void main(String[] args) throws RunnerException {
+    String include = args.length > 0 ? args[0] : DEFAULT_INCLUDE;
+    String resultFile = args.length > 1 ? args[1] : DEFAULT_RESULT_FILE;
+
+    File parent = new File(resultFile).getAbsoluteFile().getParentFile();
+    if (parent != null && !parent.exists() && !parent.mkdirs()) {
+      throw new IllegalArgumentException("Can not create directory " + parent);
+    }
+
+    Options options =
+        new OptionsBuilder()
+            .include(include)
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile)
+            .shouldFailOnError(true)
+            .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark;
+
+import org.apache.iotdb.db.engine.compaction.utils.CompactionFileGeneratorUtils;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.metadata.IllegalPathException;
+import org.apache.iotdb.db.query.control.FileReaderManager;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Generate sequence TsFiles for benchmarks which need files on disk. */
+public class BenchmarkTsFileGenerator {
+
+  public static final String STORAGE_GROUP = "root.bench";
+
+  /** the layout of data dir is kept, because cache keys are parsed from file paths */
+  private static final String SEQ_DIR =
+      "target"
+          + File.separator
+          + "benchmark-data"
+          + File.separator
+          + "sequence"
+          + File.separator
+          + STORAGE_GROUP
+          + File.separator
+          + "0"
+          + File.separator
+          + "0";
+
+  private BenchmarkTsFileGenerator() {}
+
+  public static String getDevice(int deviceIndex) {
+    return STORAGE_GROUP + ".d" + deviceIndex;
+  }
+
+  public static String getMeasurement(int measurementIndex) {
+    return "s" + measurementIndex;
+  }
+
+  /**
+   * Generate files whose time ranges don't overlap, each series of each file has one chunk with
+   * pageNum pages, and each page has pointsPerPage INT64 points.
+   */
+  public static List<TsFileResource> generateSeqFiles(
+      int fileNum, int deviceNum, int measurementNum, int pageNum, long pointsPerPage)
+      throws IOException, IllegalPathException {
+    Set<String> fullPaths = new LinkedHashSet<>();
+    for (int i = 0; i < deviceNum; i++) {
+      for (int j = 0; j < measurementNum; j++) {
+        fullPaths.add(getDevice(i) + "." + getMeasurement(j));
+      }
+    }
+    List<List<Long>> chunkPagePointsNum =
+        Collections.singletonList(Collections.nCopies(pageNum, pointsPerPage));
+
+    List<TsFileResource> resources = new ArrayList<>();
+    for (int i = 0; i < fileNum; i++) {
+      TsFileResource resource =
+          new TsFileResource(
+              new File(SEQ_DIR, String.format("%d-%d-0-0.tsfile", i + 1, i + 1)).getAbsoluteFile());
+      CompactionFileGeneratorUtils.writeTsFile(
+          fullPaths, chunkPagePointsNum, i * pageNum * pointsPerPage, resource);
+      resources.add(resource);
+    }
+    return resources;
+  }
+
+  /** Close all readers and remove all generated files. */
+  public static void clean() throws IOException {
+    FileReaderManager.getInstance().closeAndRemoveAllOpenedReaders();
+    FileUtils.deleteDirectory(new File("target" + File.separator + "benchmark-data"));
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark.cache;
+
+import org.apache.iotdb.benchmark.BenchmarkTsFileGenerator;
+import org.apache.iotdb.db.engine.cache.ChunkCache;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Look up chunks through ChunkCache, both when they are cached and when they must be loaded. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(4)
+public class ChunkCacheBenchmark {
+
+  private static final int DEVICE_NUM = 10;
+  private static final int MEASUREMENT_NUM = 100;
+
+  private final List<ChunkMetadata> chunkMetadataList = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void prepare() throws Exception {
+    List<TsFileResource> resources =
+        BenchmarkTsFileGenerator.generateSeqFiles(1, DEVICE_NUM, MEASUREMENT_NUM, 1, 1000);
+    String filePath = resources.get(0).getTsFilePath();
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(filePath)) {
+      for (int i = 0; i < DEVICE_NUM; i++) {
+        for (int j = 0; j < MEASUREMENT_NUM; j++) {
+          Path path =
+              new Path(
+                  BenchmarkTsFileGenerator.getDevice(i), BenchmarkTsFileGenerator.getMeasurement(j));
+          for (ChunkMetadata chunkMetadata : reader.getChunkMetadataList(path)) {
+            chunkMetadata.setFilePath(filePath);
+            chunkMetadata.setClosed(true);
+            chunkMetadataList.add(chunkMetadata);
+          }
+        }
+      }
+    }
+    for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+      ChunkCache.getInstance().get(chunkMetadata);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void clean() throws IOException {
+    ChunkCache.getInstance().clear();
+    BenchmarkTsFileGenerator.clean();
+  }
+
+  @Benchmark
+  public Chunk hit() throws IOException {
+    return ChunkCache.getInstance().get(randomChunkMetadata());
+  }
+
+  @Benchmark
+  public Chunk miss() throws IOException {
+    ChunkMetadata chunkMetadata = randomChunkMetadata();
+    ChunkCache.getInstance().remove(chunkMetadata);
+    return ChunkCache.getInstance().get(chunkMetadata);
+  }
+
+  private ChunkMetadata randomChunkMetadata() {
+    return chunkMetadataList.get(ThreadLocalRandom.current().nextInt(chunkMetadataList.size()));
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark.cache;
+
+import org.apache.iotdb.benchmark.BenchmarkTsFileGenerator;
+import org.apache.iotdb.db.engine.cache.BloomFilterCache;
+import org.apache.iotdb.db.engine.cache.TimeSeriesMetadataCache;
+import org.apache.iotdb.db.engine.cache.TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Look up TimeseriesMetadata through TimeSeriesMetadataCache, both when they are cached and when
+ * they must be read from the metadata index of the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(4)
+public class TimeSeriesMetadataCacheBenchmark {
+
+  private static final int DEVICE_NUM = 100;
+  private static final int MEASUREMENT_NUM = 100;
+
+  private final List<TimeSeriesMetadataCacheKey> keys = new ArrayList<>();
+  /** sensors of the query which looks up keys.get(i) */
+  private final List<Set<String>> allSensors = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void prepare() throws Exception {
+    List<TsFileResource> resources =
+        BenchmarkTsFileGenerator.generateSeqFiles(1, DEVICE_NUM, MEASUREMENT_NUM, 1, 100);
+    String filePath = resources.get(0).getTsFilePath();
+    for (int i = 0; i < DEVICE_NUM; i++) {
+      for (int j = 0; j < MEASUREMENT_NUM; j++) {
+        keys.add(
+            new TimeSeriesMetadataCacheKey(
+                filePath,
+                BenchmarkTsFileGenerator.getDevice(i),
+                BenchmarkTsFileGenerator.getMeasurement(j)));
+        allSensors.add(Collections.singleton(BenchmarkTsFileGenerator.getMeasurement(j)));
+      }
+    }
+    for (int i = 0; i < keys.size(); i++) {
+      get(i);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void clean() throws IOException {
+    TimeSeriesMetadataCache.getInstance().clear();
+    BloomFilterCache.getInstance().clear();
+    BenchmarkTsFileGenerator.clean();
+  }
+
+  @Benchmark
+  public TimeseriesMetadata hit() throws IOException {
+    return get(randomIndex());
+  }
+
+  @Benchmark
+  public TimeseriesMetadata miss() throws IOException {
+    int index = randomIndex();
+    TimeSeriesMetadataCache.getInstance().remove(keys.get(index));
+    return get(index);
+  }
+
+  private TimeseriesMetadata get(int index) throws IOException {
+    return TimeSeriesMetadataCache.getInstance()
+        .get(keys.get(index), allSensors.get(index), false, false);
+  }
+
+  private int randomIndex() {
+    return ThreadLocalRandom.current().nextInt(keys.size());
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark.compaction;
+
+import org.apache.iotdb.benchmark.BenchmarkTsFileGenerator;
+import org.apache.iotdb.db.engine.compaction.performer.impl.ReadChunkCompactionPerformer;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Compact several sequence files into one file by ReadChunkCompactionPerformer. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReadChunkCompactionPerformerBenchmark {
+
+  private static final int DEVICE_NUM = 10;
+  private static final int MEASUREMENT_NUM = 100;
+  private static final int PAGE_NUM = 10;
+
+  @Param({"2", "10"})
+  private int fileNum;
+
+  /** small pages make chunks be merged by pages, large pages make chunks be flushed directly */
+  @Param({"100", "10000"})
+  private long pointsPerPage;
+
+  private List<TsFileResource> sourceFiles;
+  private TsFileResource targetFile;
+
+  @Setup(Level.Trial)
+  public void prepare() throws Exception {
+    sourceFiles =
+        BenchmarkTsFileGenerator.generateSeqFiles(
+            fileNum, DEVICE_NUM, MEASUREMENT_NUM, PAGE_NUM, pointsPerPage);
+  }
+
+  @TearDown(Level.Trial)
+  public void clean() throws IOException {
+    BenchmarkTsFileGenerator.clean();
+  }
+
+  @Setup(Level.Invocation)
+  public void createTargetFile() {
+    File firstFile = sourceFiles.get(0).getTsFile();
+    targetFile = new TsFileResource(new File(firstFile.getParentFile(), "1-1-1-0.tsfile"));
+  }
+
+  @TearDown(Level.Invocation)
+  public void deleteTargetFile() throws IOException {
+    Files.deleteIfExists(targetFile.getTsFile().toPath());
+    Files.deleteIfExists(
+        new File(targetFile.getTsFilePath() + TsFileResource.RESOURCE_SUFFIX).toPath());
+  }
+
+  @Benchmark
+  public TsFileResource compact() throws Exception {
+    new ReadChunkCompactionPerformer(sourceFiles, targetFile).perform();
+    return targetFile;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark.memtable;
+
+import org.apache.iotdb.db.engine.memtable.IMemTable;
+import org.apache.iotdb.db.engine.memtable.PrimitiveMemTable;
+import org.apache.iotdb.db.metadata.idtable.entry.DeviceIDFactory;
+import org.apache.iotdb.db.metadata.idtable.entry.IDeviceID;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.schema.IMeasurementSchema;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Write rows of one device into a PrimitiveMemTable, the score is throughput of rows. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PrimitiveMemTableWriteBenchmark {
+
+  private static final int ROWS_PER_INVOCATION = 10_000;
+
+  @Param({"1", "100"})
+  private int measurementNum;
+
+  private IDeviceID deviceID;
+  private List<IMeasurementSchema> schemaList;
+  private Object[] values;
+  private IMemTable memTable;
+
+  @Setup(Level.Trial)
+  public void prepareSchema() {
+    deviceID = DeviceIDFactory.getInstance().getDeviceID("root.sg.d0");
+    schemaList = new ArrayList<>(measurementNum);
+    values = new Object[measurementNum];
+    for (int i = 0; i < measurementNum; i++) {
+      schemaList.add(new MeasurementSchema("s" + i, TSDataType.INT64, TSEncoding.PLAIN));
+      values[i] = (long) i;
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void createMemTable() {
+    memTable = new PrimitiveMemTable();
+  }
+
+  @TearDown(Level.Invocation)
+  public void releaseMemTable() {
+    memTable.release();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS_PER_INVOCATION)
+  public IMemTable write() {
+    for (int i = 0; i < ROWS_PER_INVOCATION; i++) {
+      memTable.write(deviceID, schemaList, i, values);
+    }
+    return memTable;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark.memtable;
+
+import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Sort a TVList of the given size, whose timestamps are out of order by the given ratio. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TVListSortBenchmark {
+
+  @Param({"10000", "1000000"})
+  private int size;
+
+  /** ratio of points which are not in time order */
+  @Param({"0.0", "0.01", "0.5"})
+  private double disorderRatio;
+
+  private long[] timestamps;
+  private TVList tvList;
+
+  @Setup(Level.Trial)
+  public void generateTimestamps() {
+    Random random = new Random(size);
+    timestamps = new long[size];
+    for (int i = 0; i < size; i++) {
+      timestamps[i] = random.nextDouble() < disorderRatio ? random.nextInt(size) : i;
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void fillTVList() {
+    tvList = TVList.newList(TSDataType.INT64);
+    for (long timestamp : timestamps) {
+      tvList.putLong(timestamp, timestamp);
+    }
+  }
+
+  @TearDown(Level.Invocation)
+  public void clearTVList() {
+    tvList.clear();
+  }
+
+  @Benchmark
+  public TVList sort() {
+    tvList.sort();
+    return tvList;
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark.metadata;
+
+import org.apache.iotdb.db.metadata.idtable.IDTable;
+import org.apache.iotdb.db.metadata.idtable.IDTableHashmapImpl;
+import org.apache.iotdb.db.metadata.idtable.entry.SchemaEntry;
+import org.apache.iotdb.db.metadata.idtable.entry.TimeseriesID;
+import org.apache.iotdb.db.metadata.path.PartialPath;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.utils.TsPrimitiveType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Update and read last cache of the id table concurrently. Run it with different thread numbers,
+ * for example "-t 1", "-t 8" and "-t 64", to see how the id table scales with writers. The
+ * synchronized variant holds the table monitor around every call, which is how the methods of
+ * IDTableHashmapImpl were synchronized before the table was striped, so it is the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IDTableBenchmark {
+
+  private static final int DEVICE_NUM = 1000;
+  private static final int MEASUREMENT_NUM = 10;
+
+  /** striped: call the id table directly, synchronized: lock the whole table for every call */
+  @Param({"striped", "synchronized"})
+  private String lock;
+
+  private boolean tableLevelLock;
+  private IDTable idTable;
+  private TimeseriesID[] timeseriesIDs;
+
+  @Setup(Level.Trial)
+  public void prepare() throws Exception {
+    tableLevelLock = "synchronized".equals(lock);
+    idTable =
+        new IDTableHashmapImpl(
+            new File("target" + File.separator + "benchmark-data" + File.separator + "idtable"));
+    timeseriesIDs = new TimeseriesID[DEVICE_NUM * MEASUREMENT_NUM];
+    for (int i = 0; i < DEVICE_NUM; i++) {
+      String device = "root.bench.d" + i;
+      for (int j = 0; j < MEASUREMENT_NUM; j++) {
+        idTable.putSchemaEntry(device, "s" + j, new SchemaEntry(TSDataType.INT64), false);
+        timeseriesIDs[i * MEASUREMENT_NUM + j] = new TimeseriesID(new PartialPath(device, "s" + j));
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void clean() throws IOException {
+    idTable.clear();
+  }
+
+  @Benchmark
+  public void updateLastCache() throws Exception {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long time = random.nextLong();
+    TimeseriesID timeseriesID = timeseriesIDs[random.nextInt(timeseriesIDs.length)];
+    TimeValuePair pair = new TimeValuePair(time, new TsPrimitiveType.TsLong(time));
+    if (tableLevelLock) {
+      synchronized (idTable) {
+        idTable.updateLastCache(timeseriesID, pair, true, Long.MIN_VALUE);
+      }
+    } else {
+      idTable.updateLastCache(timeseriesID, pair, true, Long.MIN_VALUE);
+    }
+  }
+
+  @Benchmark
+  public TimeValuePair getLastCache() throws Exception {
+    TimeseriesID timeseriesID =
+        timeseriesIDs[ThreadLocalRandom.current().nextInt(timeseriesIDs.length)];
+    if (tableLevelLock) {
+      synchronized (idTable) {
+        return idTable.getLastCache(timeseriesID);
+      }
+    }
+    return idTable.getLastCache(timeseriesID);
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark.session;
+
+import org.apache.iotdb.db.utils.QueryDataSetUtils;
+import org.apache.iotdb.session.util.SessionUtils;
+import org.apache.iotdb.session.util.TabletBufferPool;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.BitMap;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize a Tablet like Session.insertTablet does, then deserialize it like the server does when
+ * it builds an InsertTabletNode. The Tablet has two columns of each numeric data type, and a score
+ * of 1 op/s means rowCount rows/s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TabletSerdeBenchmark {
+
+  private static final TSDataType[] DATA_TYPES = {
+    TSDataType.INT32, TSDataType.INT64, TSDataType.FLOAT, TSDataType.DOUBLE, TSDataType.BOOLEAN
+  };
+
+  @Param({"10000"})
+  private int rowCount;
+
+  @Param({"false", "true"})
+  private boolean withNull;
+
+  private final TabletBufferPool bufferPool = new TabletBufferPool();
+  private Tablet tablet;
+  private List<Integer> types;
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    List<MeasurementSchema> schemas = new ArrayList<>();
+    types = new ArrayList<>();
+    for (int i = 0; i < DATA_TYPES.length * 2; i++) {
+      TSDataType dataType = DATA_TYPES[i % DATA_TYPES.length];
+      schemas.add(new MeasurementSchema("s" + i, dataType));
+      types.add(dataType.ordinal());
+    }
+    tablet = new Tablet("root.sg.d1", schemas, rowCount);
+    if (withNull) {
+      tablet.bitMaps = new BitMap[schemas.size()];
+    }
+    for (int row = 0; row < rowCount; row++) {
+      tablet.addTimestamp(row, row);
+      for (int i = 0; i < schemas.size(); i++) {
+        tablet.addValue(schemas.get(i).getMeasurementId(), row, value(DATA_TYPES[i % 5], row));
+      }
+    }
+    tablet.rowSize = rowCount;
+    if (withNull) {
+      for (int i = 0; i < schemas.size(); i++) {
+        tablet.bitMaps[i] = new BitMap(rowCount);
+        tablet.bitMaps[i].mark(i);
+      }
+    }
+  }
+
+  private static Object value(TSDataType dataType, int row) {
+    switch (dataType) {
+      case INT32:
+        return row;
+      case INT64:
+        return (long) row;
+      case FLOAT:
+        return row + row / 10F;
+      case DOUBLE:
+        return row + row / 10D;
+      default:
+        return row % 2 == 0;
+    }
+  }
+
+  @Benchmark
+  public void serialize(Blackhole blackhole) {
+    blackhole.consume(SessionUtils.getTimeBuffer(tablet));
+    blackhole.consume(SessionUtils.getValueBuffer(tablet));
+  }
+
+  @Benchmark
+  public void serializeWithPool(Blackhole blackhole) {
+    ByteBuffer timeBuffer = SessionUtils.getTimeBuffer(tablet, bufferPool);
+    ByteBuffer valueBuffer = SessionUtils.getValueBuffer(tablet, bufferPool);
+    blackhole.consume(timeBuffer);
+    blackhole.consume(valueBuffer);
+    bufferPool.release(timeBuffer);
+    bufferPool.release(valueBuffer);
+  }
+
+  /** Client serialization with the pool plus server deserialization. */
+  @Benchmark
+  public void endToEnd(Blackhole blackhole) {
+    ByteBuffer timeBuffer = SessionUtils.getTimeBuffer(tablet, bufferPool);
+    ByteBuffer valueBuffer = SessionUtils.getValueBuffer(tablet, bufferPool);
+    // thrift hands the server a heap buffer which wraps the received bytes
+    ByteBuffer receivedTimes = ByteBuffer.wrap(timeBuffer.array(), 0, timeBuffer.limit());
+    ByteBuffer receivedValues = ByteBuffer.wrap(valueBuffer.array(), 0, valueBuffer.limit());
+    blackhole.consume(QueryDataSetUtils.readTimesFromBuffer(receivedTimes, rowCount));
+    blackhole.consume(
+        QueryDataSetUtils.readTabletValuesFromBuffer(
+            receivedValues, types, types.size(), rowCount));
+    blackhole.consume(
+        QueryDataSetUtils.readBitMapsFromBuffer(receivedValues, types.size(), rowCount));
+    bufferPool.release(timeBuffer);
+    bufferPool.release(valueBuffer);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark.tsfile;
+
+import org.apache.iotdb.tsfile.compress.ICompressor;
+import org.apache.iotdb.tsfile.compress.IUnCompressor;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compress and uncompress the same input with every compressor. The input is repeated readable
+ * text, which is closer to encoded pages than random bytes. The score is the number of times the
+ * whole input is processed per second, and the compression ratio is printed once per trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompressionBenchmark {
+
+  @Param({"SNAPPY", "LZ4", "GZIP", "ZSTD"})
+  private CompressionType compressionType;
+
+  private ICompressor compressor;
+  private IUnCompressor unCompressor;
+  private byte[] uncompressed;
+  private byte[] compressed;
+
+  @Setup(Level.Trial)
+  public void prepare() throws IOException {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      builder.append("root.sg.d").append(i % 100).append(".s").append(i % 7).append(',');
+    }
+    uncompressed = builder.toString().getBytes(StandardCharsets.UTF_8);
+    compressor = ICompressor.getCompressor(compressionType);
+    unCompressor = IUnCompressor.getUnCompressor(compressionType);
+    compressed = compressor.compress(uncompressed);
+    System.out.printf(
+        "%n%s compression ratio: %.4f%n",
+        compressionType, (double) compressed.length / uncompressed.length);
+  }
+
+  @Benchmark
+  public byte[] compress() throws IOException {
+    return compressor.compress(uncompressed);
+  }
+
+  @Benchmark
+  public byte[] uncompress() throws IOException {
+    return unCompressor.uncompress(compressed);
+  }
+}
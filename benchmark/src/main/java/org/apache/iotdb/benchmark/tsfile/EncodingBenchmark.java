@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark.tsfile;
+
+import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.TSEncodingBuilder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode one page of values for every pair of encoder and decoder supported by
+ * TSEncodingBuilder. Values are a slowly changing random walk, which is the common shape of sensor
+ * data. The score is throughput of values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EncodingBenchmark {
+
+  private static final int VALUES_PER_PAGE = 10_000;
+
+  /** encoding:dataType */
+  @Param({
+    "PLAIN:BOOLEAN",
+    "RLE:BOOLEAN",
+    "PLAIN:INT32",
+    "RLE:INT32",
+    "TS_2DIFF:INT32",
+    "REGULAR:INT32",
+    "GORILLA:INT32",
+    "ZIGZAG:INT32",
+    "FREQ:INT32",
+    "PLAIN:INT64",
+    "RLE:INT64",
+    "TS_2DIFF:INT64",
+    "REGULAR:INT64",
+    "GORILLA:INT64",
+    "ZIGZAG:INT64",
+    "FREQ:INT64",
+    "PLAIN:FLOAT",
+    "RLE:FLOAT",
+    "TS_2DIFF:FLOAT",
+    "GORILLA_V1:FLOAT",
+    "GORILLA:FLOAT",
+    "FREQ:FLOAT",
+    "PLAIN:DOUBLE",
+    "RLE:DOUBLE",
+    "TS_2DIFF:DOUBLE",
+    "GORILLA_V1:DOUBLE",
+    "GORILLA:DOUBLE",
+    "FREQ:DOUBLE",
+    "PLAIN:TEXT",
+    "DICTIONARY:TEXT"
+  })
+  private String encodingAndType;
+
+  private TSEncoding encoding;
+  private TSDataType dataType;
+
+  private boolean[] booleans;
+  private int[] ints;
+  private long[] longs;
+  private float[] floats;
+  private double[] doubles;
+  private Binary[] binaries;
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private ByteBuffer encodedPage;
+
+  @Setup(Level.Trial)
+  public void prepare() throws IOException {
+    String[] split = encodingAndType.split(":");
+    encoding = TSEncoding.valueOf(split[0]);
+    dataType = TSDataType.valueOf(split[1]);
+
+    Random random = new Random(VALUES_PER_PAGE);
+    booleans = new boolean[VALUES_PER_PAGE];
+    ints = new int[VALUES_PER_PAGE];
+    longs = new long[VALUES_PER_PAGE];
+    floats = new float[VALUES_PER_PAGE];
+    doubles = new double[VALUES_PER_PAGE];
+    binaries = new Binary[VALUES_PER_PAGE];
+    long current = 0;
+    for (int i = 0; i < VALUES_PER_PAGE; i++) {
+      current += random.nextInt(21) - 10;
+      booleans[i] = current % 2 == 0;
+      ints[i] = (int) current;
+      longs[i] = current;
+      floats[i] = current / 10f;
+      doubles[i] = current / 100d;
+      binaries[i] = new Binary("value" + (current % 100));
+    }
+
+    encode();
+    encodedPage = ByteBuffer.wrap(out.toByteArray());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES_PER_PAGE)
+  public int encode() throws IOException {
+    out.reset();
+    Encoder encoder = TSEncodingBuilder.getEncodingBuilder(encoding).getEncoder(dataType);
+    for (int i = 0; i < VALUES_PER_PAGE; i++) {
+      switch (dataType) {
+        case BOOLEAN:
+          encoder.encode(booleans[i], out);
+          break;
+        case INT32:
+          encoder.encode(ints[i], out);
+          break;
+        case INT64:
+          encoder.encode(longs[i], out);
+          break;
+        case FLOAT:
+          encoder.encode(floats[i], out);
+          break;
+        case DOUBLE:
+          encoder.encode(doubles[i], out);
+          break;
+        case TEXT:
+          encoder.encode(binaries[i], out);
+          break;
+        default:
+          throw new UnsupportedOperationException(dataType.toString());
+      }
+    }
+    encoder.flush(out);
+    return out.size();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VALUES_PER_PAGE)
+  public void decode(Blackhole blackhole) throws IOException {
+    ByteBuffer page = encodedPage.duplicate();
+    Decoder decoder = Decoder.getDecoderByType(encoding, dataType);
+    while (decoder.hasNext(page)) {
+      switch (dataType) {
+        case BOOLEAN:
+          blackhole.consume(decoder.readBoolean(page));
+          break;
+        case INT32:
+          blackhole.consume(decoder.readInt(page));
+          break;
+        case INT64:
+          blackhole.consume(decoder.readLong(page));
+          break;
+        case FLOAT:
+          blackhole.consume(decoder.readFloat(page));
+          break;
+        case DOUBLE:
+          blackhole.consume(decoder.readDouble(page));
+          break;
+        case TEXT:
+          blackhole.consume(decoder.readBinary(page));
+          break;
+        default:
+          throw new UnsupportedOperationException(dataType.toString());
+      }
+    }
+  }
+}
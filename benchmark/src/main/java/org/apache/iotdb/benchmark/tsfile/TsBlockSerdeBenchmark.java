@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.benchmark.tsfile;
+
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
+import org.apache.iotdb.tsfile.read.common.block.column.TsBlockSerde;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Serialize and deserialize a TsBlock which has one column of each data type. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TsBlockSerdeBenchmark {
+
+  @Param({"1000", "10000"})
+  private int positionCount;
+
+  private final TsBlockSerde tsBlockSerde = new TsBlockSerde();
+  private TsBlock tsBlock;
+  private ByteBuffer serializedTsBlock;
+
+  @Setup(Level.Trial)
+  public void prepare() throws IOException {
+    List<TSDataType> dataTypes =
+        Arrays.asList(
+            TSDataType.INT32,
+            TSDataType.FLOAT,
+            TSDataType.INT64,
+            TSDataType.DOUBLE,
+            TSDataType.BOOLEAN,
+            TSDataType.TEXT);
+    TsBlockBuilder tsBlockBuilder = new TsBlockBuilder(dataTypes);
+    ColumnBuilder timeColumnBuilder = tsBlockBuilder.getTimeColumnBuilder();
+    for (int i = 0; i < positionCount; i++) {
+      timeColumnBuilder.writeLong(i);
+      tsBlockBuilder.getColumnBuilder(0).writeInt(i);
+      tsBlockBuilder.getColumnBuilder(1).writeFloat(i + i / 10F);
+      tsBlockBuilder.getColumnBuilder(2).writeLong(i);
+      tsBlockBuilder.getColumnBuilder(3).writeDouble(i + i / 10D);
+      tsBlockBuilder.getColumnBuilder(4).writeBoolean(i % 2 == 0);
+      tsBlockBuilder.getColumnBuilder(5).writeBinary(new Binary("value" + i));
+      tsBlockBuilder.declarePosition();
+    }
+    tsBlock = tsBlockBuilder.build();
+    serializedTsBlock = tsBlockSerde.serialize(tsBlock);
+  }
+
+  @Benchmark
+  public ByteBuffer serialize() throws IOException {
+    return tsBlockSerde.serialize(tsBlock);
+  }
+
+  @Benchmark
+  public TsBlock deserialize() {
+    ByteBuffer input = serializedTsBlock.duplicate();
+    input.rewind();
+    return tsBlockSerde.deserialize(input);
+  }
+}
@@ -37,13 +37,18 @@ public enum ThreadName {
   DATA_REGION_RECOVER_SERVICE("Data-Region-Recover"),
   FLUSH_SERVICE("Flush"),
   FLUSH_SUB_TASK_SERVICE("Flush-SubTask"),
+  TVLIST_SORT_SERVICE("TVList-Sort"),
+  METADATA_CACHE_SNAPSHOT("Metadata-Cache-Snapshot"),
+  METADATA_CACHE_PREFETCH("Metadata-Cache-Prefetch"),
   COMPACTION_SERVICE("Compaction"),
   COMPACTION_SUB_SERVICE("Sub-Compaction"),
   COMPACTION_SCHEDULE("Compaction_Schedule"),
   WAL_SERIALIZE("WAL-Serialize"),
+  WAL_SERIALIZE_LANE("WAL-Serialize-Lane"),
   WAL_SYNC("WAL-Sync"),
   WAL_DELETE("WAL-Delete"),
   WAL_RECOVER("WAL-Recover"),
+  WAL_RECOVER_REDO("WAL-Recover-Redo"),
   INDEX_SERVICE("Index"),
   SYNC_CLIENT("Sync-Client"),
   SYNC_SERVER("Sync"),
@@ -55,6 +60,7 @@ public enum ThreadName {
   TTL_CHECK_SERVICE("TTL-CHECK"),
   TIMED_FlUSH_SEQ_MEMTABLE("Timed-Flush-Seq-Memtable"),
   TIMED_FlUSH_UNSEQ_MEMTABLE("Timed-Flush-Unseq-Memtable"),
+  TIERED_STORAGE_MIGRATION("Tiered-Storage-Migration"),
   SETTLE_SERVICE("Settle"),
   SYNC_SENDER_PIPE("Sync-Pipe"),
   SYNC_SENDER_HEARTBEAT("Sync-Heartbeat"),
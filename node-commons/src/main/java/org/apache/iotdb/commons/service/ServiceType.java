@@ -46,6 +46,7 @@ public enum ServiceType {
   UDF_REGISTRATION_SERVICE("UDF Registration Service", ""),
   TEMPORARY_QUERY_DATA_FILE_SERVICE("Temporary Query Data File Service", ""),
   TRIGGER_REGISTRATION_SERVICE("Trigger Registration Service", ""),
+  METADATA_CACHE_SNAPSHOT_SERVICE("Metadata Cache Snapshot Service", ""),
   CACHE_HIT_RATIO_DISPLAY_SERVICE(
       "CACHE_HIT_RATIO_DISPLAY_SERVICE",
       generateJmxName("org.apache.iotdb.service", "Cache Hit Ratio")),
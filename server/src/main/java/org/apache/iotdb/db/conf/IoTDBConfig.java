@@ -37,6 +37,7 @@ import org.apache.iotdb.rpc.RpcTransportFactory;
 import org.apache.iotdb.rpc.RpcUtils;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.fileSystem.FSType;
@@ -175,6 +176,22 @@ public class IoTDBConfig {
   /** Blocking queue capacity of each wal buffer */
   private int walBufferQueueCapacity = 10_000;
 
+  /**
+   * Number of serialize lanes of each wal buffer. When it's greater than 1, WALEntries are
+   * serialized in parallel by these lanes and then written into wal file in order with one fsync.
+   */
+  private int walBufferSerializeLaneNum = 1;
+
+  /**
+   * Number of redo threads of each wal node during recovery. TsFiles of one wal node are spread
+   * over these threads, so logs of different data regions and time partitions are redone in
+   * parallel. When it's 1, logs are redone by the thread reading wal files.
+   */
+  private int walRecoverRedoThreadNum = 4;
+
+  /** Max number of WALEntries read ahead but not redone yet of each wal node during recovery */
+  private int walRecoverReadAheadNum = 1_000;
+
   /** Size threshold of each wal file. Unit: byte */
   private volatile long walFileSizeThresholdInByte = 10 * 1024 * 1024;
 
@@ -259,6 +276,36 @@ public class IoTDBConfig {
   /** Strategy of multiple directories. */
   private String multiDirStrategyClassName = null;
 
+  /**
+   * Directories of the cold storage tier, e.g. cheap disks. Sealed TsFiles of cold time partitions
+   * are moved here from dataDirs. Empty means tiered storage is disabled.
+   */
+  private String[] coldDataDirs = {};
+
+  /** How often sealed TsFiles are checked for migration between storage tiers, in ms. */
+  private long tieredStorageCheckIntervalInMs = 3_600_000L;
+
+  /** A time partition is cold when its newest data is older than this threshold, in ms. */
+  private long coldDataAgeThresholdInMs = 7 * 24 * 3_600_000L;
+
+  /**
+   * A TsFile of a cold time partition is moved to the cold tier only when it has been read no more
+   * than this many times since the last check.
+   */
+  private int coldDataMaxAccessCount = 0;
+
+  /**
+   * A TsFile in the cold tier is moved back to dataDirs when it has been read at least this many
+   * times since the last check. 0 means TsFiles are never moved back.
+   */
+  private int hotDataMinAccessCount = 100;
+
+  /**
+   * Compression type used to rewrite TsFiles moved to the cold tier. Null means the TsFiles are
+   * copied as they are.
+   */
+  private CompressionType coldDataCompressor = null;
+
   /** Consensus directory. */
   private String consensusDir = DEFAULT_BASE_DIR + File.separator + "consensus";
 
@@ -443,6 +490,42 @@ public class IoTDBConfig {
   /** Memory allocated for chunk cache in read process */
   private long allocateMemoryForChunkCache = allocateMemoryForRead * 100 / 1001;
 
+  /**
+   * If a query has loaded more chunks than this threshold, it is regarded as a large scan and its
+   * following chunks will not be put into the main area of ChunkCache. 0 means disabled.
+   */
+  private int chunkCacheScanThreshold = 0;
+
+  /**
+   * Chunks of large scans bypass ChunkCache if true, otherwise they are put into a small
+   * probationary area of ChunkCache.
+   */
+  private boolean chunkCacheScanBypass = false;
+
+  /** Whether to keep chunks evicted from ChunkCache in a compressed tier of ChunkCache. */
+  private boolean enableCompressedChunkCache = false;
+
+  /**
+   * Whether to persist the hottest keys of TimeSeriesMetadataCache and BloomFilterCache and reload
+   * them in background after restart.
+   */
+  private boolean enableMetadataCacheSnapshot = false;
+
+  /** Interval in ms to write the snapshot of metadata cache keys, it is also written at shutdown */
+  private long metadataCacheSnapshotIntervalInMs = 10 * 60 * 1000L;
+
+  /** Max number of TimeSeriesMetadataCache keys kept in the snapshot */
+  private int metadataCacheSnapshotMaxKeyNum = 100_000;
+
+  /** Max number of cache entries reloaded per second by the prefetcher after restart */
+  private int metadataCachePrefetchEntriesPerSecond = 1000;
+
+  /**
+   * Memory in bytes of the cache of parsed mods files and their deletion indexes, 0 means the mods
+   * file is parsed in each query.
+   */
+  private long modificationIndexCacheSizeInByte = 32 * 1024 * 1024L;
+
   /** Whether to enable Last cache */
   private boolean lastCacheEnable = true;
 
@@ -587,6 +670,27 @@ public class IoTDBConfig {
   /** The limit of compaction merge can reach per second */
   private int compactionWriteThroughputMbPerSec = 16;
 
+  /**
+   * When enabled, compaction tasks of the time partitions whose queries suffer the most read
+   * amplification (unsequence files, overlapped chunks and mods files) are executed first, and the
+   * concurrency and write throughput of compaction are lowered when ingestion is heavy.
+   */
+  private boolean enableAdaptiveCompactionSchedule = false;
+
+  /**
+   * The ingestion rate (points per second) at which compaction is throttled to its minimum
+   * concurrency and write throughput. Only takes effect when adaptive compaction schedule is
+   * enabled. Set to 0 to disable throttling.
+   */
+  private long compactionThrottleIngestionPointsPerSec = 0L;
+
+  /**
+   * When enabled, compaction rewrites the chunks compressed by another compressor than the one in
+   * TSFileConfig with it. Otherwise each series keeps its own compressor, and its chunks are copied
+   * without being decompressed when possible.
+   */
+  private boolean enableCompactionRecompress = false;
+
   /**
    * How many thread will be set up to perform compaction, 10 by default. Set to 1 when less than or
    * equal to 0.
@@ -692,6 +796,24 @@ public class IoTDBConfig {
   /** The default value of primitive array size in array pool */
   private int primitiveArraySize = 32;
 
+  /**
+   * Whether to store the time column of TVList in pooled off-heap slabs instead of on-heap long
+   * arrays, which reduces old-gen GC pressure of large memtables.
+   */
+  private boolean enableOffHeapTVListTime = false;
+
+  /** Max total size of off-heap slabs for TVList time column, in byte. 1GB by default. */
+  private long offHeapTVListTimeMemory = 1024L * 1024 * 1024;
+
+  /**
+   * TVLists with more rows than this threshold are sorted by run merging or parallel radix sort
+   * instead of the in-place merge sort of TVList.
+   */
+  private int tvListRadixSortThreshold = 4096;
+
+  /** Max number of threads used to sort one large TVList. */
+  private int tvListSortParallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
   /** whether enable data partition. If disabled, all data belongs to partition 0 */
   private boolean enablePartition = false;
 
@@ -783,6 +905,12 @@ public class IoTDBConfig {
   /** the size of ioTaskQueue */
   private int ioTaskQueueSizeForFlushing = 10;
 
+  /**
+   * the max number of chunks of one memtable encoded in parallel when flushing. If it is 1, chunks
+   * are encoded one by one in the encoding task.
+   */
+  private int flushEncodingParallelism = 1;
+
   /** the number of data regions per user-defined storage group */
   private int dataRegionNum = 1;
 
@@ -1008,6 +1136,9 @@ public class IoTDBConfig {
       for (int i = 0; i < dataDirs.length; i++) {
         dataDirs[i] = addHomeDir(dataDirs[i]);
       }
+      for (int i = 0; i < coldDataDirs.length; i++) {
+        coldDataDirs[i] = addHomeDir(coldDataDirs[i]);
+      }
     }
   }
 
@@ -1076,6 +1207,58 @@ public class IoTDBConfig {
     this.dataDirs = dataDirs;
   }
 
+  public String[] getColdDataDirs() {
+    return coldDataDirs;
+  }
+
+  public void setColdDataDirs(String[] coldDataDirs) {
+    this.coldDataDirs = coldDataDirs;
+  }
+
+  public boolean isEnableTieredStorage() {
+    return coldDataDirs.length > 0;
+  }
+
+  public long getTieredStorageCheckIntervalInMs() {
+    return tieredStorageCheckIntervalInMs;
+  }
+
+  public void setTieredStorageCheckIntervalInMs(long tieredStorageCheckIntervalInMs) {
+    this.tieredStorageCheckIntervalInMs = tieredStorageCheckIntervalInMs;
+  }
+
+  public long getColdDataAgeThresholdInMs() {
+    return coldDataAgeThresholdInMs;
+  }
+
+  public void setColdDataAgeThresholdInMs(long coldDataAgeThresholdInMs) {
+    this.coldDataAgeThresholdInMs = coldDataAgeThresholdInMs;
+  }
+
+  public int getColdDataMaxAccessCount() {
+    return coldDataMaxAccessCount;
+  }
+
+  public void setColdDataMaxAccessCount(int coldDataMaxAccessCount) {
+    this.coldDataMaxAccessCount = coldDataMaxAccessCount;
+  }
+
+  public int getHotDataMinAccessCount() {
+    return hotDataMinAccessCount;
+  }
+
+  public void setHotDataMinAccessCount(int hotDataMinAccessCount) {
+    this.hotDataMinAccessCount = hotDataMinAccessCount;
+  }
+
+  public CompressionType getColdDataCompressor() {
+    return coldDataCompressor;
+  }
+
+  public void setColdDataCompressor(CompressionType coldDataCompressor) {
+    this.coldDataCompressor = coldDataCompressor;
+  }
+
   public String getRpcAddress() {
     return rpcAddress;
   }
@@ -1462,6 +1645,30 @@ public class IoTDBConfig {
     this.walBufferQueueCapacity = walBufferQueueCapacity;
   }
 
+  public int getWalBufferSerializeLaneNum() {
+    return walBufferSerializeLaneNum;
+  }
+
+  public void setWalBufferSerializeLaneNum(int walBufferSerializeLaneNum) {
+    this.walBufferSerializeLaneNum = walBufferSerializeLaneNum;
+  }
+
+  public int getWalRecoverRedoThreadNum() {
+    return walRecoverRedoThreadNum;
+  }
+
+  public void setWalRecoverRedoThreadNum(int walRecoverRedoThreadNum) {
+    this.walRecoverRedoThreadNum = walRecoverRedoThreadNum;
+  }
+
+  public int getWalRecoverReadAheadNum() {
+    return walRecoverReadAheadNum;
+  }
+
+  public void setWalRecoverReadAheadNum(int walRecoverReadAheadNum) {
+    this.walRecoverReadAheadNum = walRecoverReadAheadNum;
+  }
+
   public long getWalFileSizeThresholdInByte() {
     return walFileSizeThresholdInByte;
   }
@@ -1696,6 +1903,31 @@ public class IoTDBConfig {
     this.compactionWriteThroughputMbPerSec = compactionWriteThroughputMbPerSec;
   }
 
+  public boolean isEnableAdaptiveCompactionSchedule() {
+    return enableAdaptiveCompactionSchedule;
+  }
+
+  public void setEnableAdaptiveCompactionSchedule(boolean enableAdaptiveCompactionSchedule) {
+    this.enableAdaptiveCompactionSchedule = enableAdaptiveCompactionSchedule;
+  }
+
+  public long getCompactionThrottleIngestionPointsPerSec() {
+    return compactionThrottleIngestionPointsPerSec;
+  }
+
+  public void setCompactionThrottleIngestionPointsPerSec(
+      long compactionThrottleIngestionPointsPerSec) {
+    this.compactionThrottleIngestionPointsPerSec = compactionThrottleIngestionPointsPerSec;
+  }
+
+  public boolean isEnableCompactionRecompress() {
+    return enableCompactionRecompress;
+  }
+
+  public void setEnableCompactionRecompress(boolean enableCompactionRecompress) {
+    this.enableCompactionRecompress = enableCompactionRecompress;
+  }
+
   public boolean isEnableMemControl() {
     return enableMemControl;
   }
@@ -1817,6 +2049,70 @@ public class IoTDBConfig {
     this.allocateMemoryForChunkCache = allocateMemoryForChunkCache;
   }
 
+  public int getChunkCacheScanThreshold() {
+    return chunkCacheScanThreshold;
+  }
+
+  public void setChunkCacheScanThreshold(int chunkCacheScanThreshold) {
+    this.chunkCacheScanThreshold = chunkCacheScanThreshold;
+  }
+
+  public boolean isChunkCacheScanBypass() {
+    return chunkCacheScanBypass;
+  }
+
+  public void setChunkCacheScanBypass(boolean chunkCacheScanBypass) {
+    this.chunkCacheScanBypass = chunkCacheScanBypass;
+  }
+
+  public boolean isEnableCompressedChunkCache() {
+    return enableCompressedChunkCache;
+  }
+
+  public void setEnableCompressedChunkCache(boolean enableCompressedChunkCache) {
+    this.enableCompressedChunkCache = enableCompressedChunkCache;
+  }
+
+  public boolean isEnableMetadataCacheSnapshot() {
+    return enableMetadataCacheSnapshot;
+  }
+
+  public void setEnableMetadataCacheSnapshot(boolean enableMetadataCacheSnapshot) {
+    this.enableMetadataCacheSnapshot = enableMetadataCacheSnapshot;
+  }
+
+  public long getMetadataCacheSnapshotIntervalInMs() {
+    return metadataCacheSnapshotIntervalInMs;
+  }
+
+  public void setMetadataCacheSnapshotIntervalInMs(long metadataCacheSnapshotIntervalInMs) {
+    this.metadataCacheSnapshotIntervalInMs = metadataCacheSnapshotIntervalInMs;
+  }
+
+  public int getMetadataCacheSnapshotMaxKeyNum() {
+    return metadataCacheSnapshotMaxKeyNum;
+  }
+
+  public void setMetadataCacheSnapshotMaxKeyNum(int metadataCacheSnapshotMaxKeyNum) {
+    this.metadataCacheSnapshotMaxKeyNum = metadataCacheSnapshotMaxKeyNum;
+  }
+
+  public int getMetadataCachePrefetchEntriesPerSecond() {
+    return metadataCachePrefetchEntriesPerSecond;
+  }
+
+  public void setMetadataCachePrefetchEntriesPerSecond(int metadataCachePrefetchEntriesPerSecond) {
+    this.metadataCachePrefetchEntriesPerSecond = metadataCachePrefetchEntriesPerSecond;
+  }
+
+  public long getModificationIndexCacheSizeInByte() {
+    return modificationIndexCacheSizeInByte;
+  }
+
+  public void setModificationIndexCacheSizeInByte(long modificationIndexCacheSizeInByte) {
+    this.modificationIndexCacheSizeInByte = modificationIndexCacheSizeInByte;
+  }
+
   public boolean isLastCacheEnabled() {
     return lastCacheEnable;
   }
@@ -2234,6 +2530,38 @@ public class IoTDBConfig {
     this.primitiveArraySize = primitiveArraySize;
   }
 
+  public boolean isEnableOffHeapTVListTime() {
+    return enableOffHeapTVListTime;
+  }
+
+  public void setEnableOffHeapTVListTime(boolean enableOffHeapTVListTime) {
+    this.enableOffHeapTVListTime = enableOffHeapTVListTime;
+  }
+
+  public long getOffHeapTVListTimeMemory() {
+    return offHeapTVListTimeMemory;
+  }
+
+  public void setOffHeapTVListTimeMemory(long offHeapTVListTimeMemory) {
+    this.offHeapTVListTimeMemory = offHeapTVListTimeMemory;
+  }
+
+  public int getTvListRadixSortThreshold() {
+    return tvListRadixSortThreshold;
+  }
+
+  public void setTvListRadixSortThreshold(int tvListRadixSortThreshold) {
+    this.tvListRadixSortThreshold = tvListRadixSortThreshold;
+  }
+
+  public int getTvListSortParallelism() {
+    return tvListSortParallelism;
+  }
+
+  public void setTvListSortParallelism(int tvListSortParallelism) {
+    this.tvListSortParallelism = tvListSortParallelism;
+  }
+
   public String getOpenIdProviderUrl() {
     return openIdProviderUrl;
   }
@@ -2417,6 +2745,14 @@ public class IoTDBConfig {
     this.ioTaskQueueSizeForFlushing = ioTaskQueueSizeForFlushing;
   }
 
+  public int getFlushEncodingParallelism() {
+    return flushEncodingParallelism;
+  }
+
+  public void setFlushEncodingParallelism(int flushEncodingParallelism) {
+    this.flushEncodingParallelism = flushEncodingParallelism;
+  }
+
   public String getAdminName() {
     return adminName;
   }
@@ -39,6 +39,7 @@ import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
 import org.apache.iotdb.metrics.config.ReloadLevel;
 import org.apache.iotdb.rpc.RpcTransportFactory;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.fileSystem.FSType;
@@ -226,6 +227,65 @@ public class IoTDBDescriptor {
               properties.getProperty(
                   "meta_data_cache_enable", Boolean.toString(conf.isMetaDataCacheEnable()))));
 
+      int chunkCacheScanThreshold =
+          Integer.parseInt(
+              properties.getProperty(
+                  "chunk_cache_scan_threshold",
+                  Integer.toString(conf.getChunkCacheScanThreshold())));
+      if (chunkCacheScanThreshold >= 0) {
+        conf.setChunkCacheScanThreshold(chunkCacheScanThreshold);
+      }
+
+      conf.setChunkCacheScanBypass(
+          Boolean.parseBoolean(
+              properties.getProperty(
+                  "chunk_cache_scan_bypass", Boolean.toString(conf.isChunkCacheScanBypass()))));
+
+      conf.setEnableCompressedChunkCache(
+          Boolean.parseBoolean(
+              properties.getProperty(
+                  "enable_compressed_chunk_cache",
+                  Boolean.toString(conf.isEnableCompressedChunkCache()))));
+
+      conf.setEnableMetadataCacheSnapshot(
+          Boolean.parseBoolean(
+              properties.getProperty(
+                  "enable_metadata_cache_snapshot",
+                  Boolean.toString(conf.isEnableMetadataCacheSnapshot()))));
+
+      long metadataCacheSnapshotInterval =
+          Long.parseLong(
+              properties.getProperty(
+                  "metadata_cache_snapshot_interval_in_ms",
+                  Long.toString(conf.getMetadataCacheSnapshotIntervalInMs())));
+      if (metadataCacheSnapshotInterval > 0) {
+        conf.setMetadataCacheSnapshotIntervalInMs(metadataCacheSnapshotInterval);
+      }
+
+      int metadataCacheSnapshotMaxKeyNum =
+          Integer.parseInt(
+              properties.getProperty(
+                  "metadata_cache_snapshot_max_key_num",
+                  Integer.toString(conf.getMetadataCacheSnapshotMaxKeyNum())));
+      if (metadataCacheSnapshotMaxKeyNum > 0) {
+        conf.setMetadataCacheSnapshotMaxKeyNum(metadataCacheSnapshotMaxKeyNum);
+      }
+
+      int metadataCachePrefetchEntriesPerSecond =
+          Integer.parseInt(
+              properties.getProperty(
+                  "metadata_cache_prefetch_entries_per_second",
+                  Integer.toString(conf.getMetadataCachePrefetchEntriesPerSecond())));
+      if (metadataCachePrefetchEntriesPerSecond > 0) {
+        conf.setMetadataCachePrefetchEntriesPerSecond(metadataCachePrefetchEntriesPerSecond);
+      }
+
+      conf.setModificationIndexCacheSizeInByte(
+          Long.parseLong(
+              properties.getProperty(
+                  "modification_index_cache_size_in_byte",
+                  Long.toString(conf.getModificationIndexCacheSizeInByte()))));
+
       conf.setEnableLastCache(
           Boolean.parseBoolean(
               properties.getProperty(
@@ -256,6 +316,11 @@ public class IoTDBDescriptor {
 
       conf.setDataDirs(properties.getProperty("data_dirs", conf.getDataDirs()[0]).split(","));
 
+      String coldDataDirs = properties.getProperty("cold_data_dirs", "").trim();
+      if (!coldDataDirs.isEmpty()) {
+        conf.setColdDataDirs(coldDataDirs.split(","));
+      }
+
       conf.setSyncDir(properties.getProperty("sync_dir", conf.getSyncDir()));
 
       conf.setConsensusDir(properties.getProperty("consensus_dir", conf.getConsensusDir()));
@@ -341,6 +406,15 @@ public class IoTDBDescriptor {
                   "io_task_queue_size_for_flushing",
                   Integer.toString(conf.getIoTaskQueueSizeForFlushing()))));
 
+      int flushEncodingParallelism =
+          Integer.parseInt(
+              properties.getProperty(
+                  "flush_encoding_parallelism",
+                  Integer.toString(conf.getFlushEncodingParallelism())));
+      if (flushEncodingParallelism > 0) {
+        conf.setFlushEncodingParallelism(flushEncodingParallelism);
+      }
+
       conf.setCompactionScheduleIntervalInMs(
           Long.parseLong(
               properties.getProperty(
@@ -588,6 +662,49 @@ public class IoTDBDescriptor {
               properties.getProperty(
                   "compaction_write_throughput_mb_per_sec",
                   Integer.toString(conf.getCompactionWriteThroughputMbPerSec()))));
+      conf.setEnableAdaptiveCompactionSchedule(
+          Boolean.parseBoolean(
+              properties.getProperty(
+                  "enable_adaptive_compaction_schedule",
+                  Boolean.toString(conf.isEnableAdaptiveCompactionSchedule()))));
+      long compactionThrottleIngestionPointsPerSec =
+          Long.parseLong(
+              properties.getProperty(
+                  "compaction_throttle_ingestion_points_per_sec",
+                  Long.toString(conf.getCompactionThrottleIngestionPointsPerSec())));
+      if (compactionThrottleIngestionPointsPerSec >= 0) {
+        conf.setCompactionThrottleIngestionPointsPerSec(compactionThrottleIngestionPointsPerSec);
+      }
+      conf.setEnableCompactionRecompress(
+          Boolean.parseBoolean(
+              properties.getProperty(
+                  "enable_compaction_recompress",
+                  Boolean.toString(conf.isEnableCompactionRecompress()))));
+
+      conf.setTieredStorageCheckIntervalInMs(
+          Long.parseLong(
+              properties.getProperty(
+                  "tiered_storage_check_interval_in_ms",
+                  Long.toString(conf.getTieredStorageCheckIntervalInMs()))));
+      conf.setColdDataAgeThresholdInMs(
+          Long.parseLong(
+              properties.getProperty(
+                  "cold_data_age_threshold_in_ms",
+                  Long.toString(conf.getColdDataAgeThresholdInMs()))));
+      conf.setColdDataMaxAccessCount(
+          Integer.parseInt(
+              properties.getProperty(
+                  "cold_data_max_access_count",
+                  Integer.toString(conf.getColdDataMaxAccessCount()))));
+      conf.setHotDataMinAccessCount(
+          Integer.parseInt(
+              properties.getProperty(
+                  "hot_data_min_access_count",
+                  Integer.toString(conf.getHotDataMinAccessCount()))));
+      String coldDataCompressor = properties.getProperty("cold_data_compressor", "").trim();
+      if (!coldDataCompressor.isEmpty()) {
+        conf.setColdDataCompressor(CompressionType.valueOf(coldDataCompressor));
+      }
 
       conf.setEnablePartialInsert(
           Boolean.parseBoolean(
@@ -684,6 +801,38 @@ public class IoTDBDescriptor {
               properties.getProperty(
                   "primitive_array_size", String.valueOf(conf.getPrimitiveArraySize())))));
 
+      conf.setEnableOffHeapTVListTime(
+          Boolean.parseBoolean(
+              properties.getProperty(
+                  "enable_off_heap_tvlist_time",
+                  String.valueOf(conf.isEnableOffHeapTVListTime()))));
+
+      long offHeapTVListTimeMemory =
+          Long.parseLong(
+              properties.getProperty(
+                  "off_heap_tvlist_time_memory",
+                  Long.toString(conf.getOffHeapTVListTimeMemory())));
+      if (offHeapTVListTimeMemory > 0) {
+        conf.setOffHeapTVListTimeMemory(offHeapTVListTimeMemory);
+      }
+
+      int tvListRadixSortThreshold =
+          Integer.parseInt(
+              properties.getProperty(
+                  "tvlist_radix_sort_threshold",
+                  Integer.toString(conf.getTvListRadixSortThreshold())));
+      if (tvListRadixSortThreshold > 0) {
+        conf.setTvListRadixSortThreshold(tvListRadixSortThreshold);
+      }
+
+      int tvListSortParallelism =
+          Integer.parseInt(
+              properties.getProperty(
+                  "tvlist_sort_parallelism", Integer.toString(conf.getTvListSortParallelism())));
+      if (tvListSortParallelism > 0) {
+        conf.setTvListSortParallelism(tvListSortParallelism);
+      }
+
       conf.setThriftMaxFrameSize(
           Integer.parseInt(
               properties.getProperty(
@@ -989,6 +1138,32 @@ public class IoTDBDescriptor {
       conf.setWalBufferQueueCapacity(walBufferQueueCapacity);
     }
 
+    int walBufferSerializeLaneNum =
+        Integer.parseInt(
+            properties.getProperty(
+                "wal_buffer_serialize_lane_num",
+                Integer.toString(conf.getWalBufferSerializeLaneNum())));
+    if (walBufferSerializeLaneNum > 0) {
+      conf.setWalBufferSerializeLaneNum(walBufferSerializeLaneNum);
+    }
+
+    int walRecoverRedoThreadNum =
+        Integer.parseInt(
+            properties.getProperty(
+                "wal_recover_redo_thread_num",
+                Integer.toString(conf.getWalRecoverRedoThreadNum())));
+    if (walRecoverRedoThreadNum > 0) {
+      conf.setWalRecoverRedoThreadNum(walRecoverRedoThreadNum);
+    }
+
+    int walRecoverReadAheadNum =
+        Integer.parseInt(
+            properties.getProperty(
+                "wal_recover_read_ahead_num", Integer.toString(conf.getWalRecoverReadAheadNum())));
+    if (walRecoverReadAheadNum > 0) {
+      conf.setWalRecoverReadAheadNum(walRecoverReadAheadNum);
+    }
+
     loadWALHotModifiedProps(properties);
   }
 
@@ -1169,6 +1344,30 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "compressor",
                 TSFileDescriptor.getInstance().getConfig().getCompressor().toString()));
+    TSFileDescriptor.getInstance()
+        .getConfig()
+        .setZstdLevel(
+            Integer.parseInt(
+                properties.getProperty(
+                    "zstd_level",
+                    String.valueOf(TSFileDescriptor.getInstance().getConfig().getZstdLevel()))));
+    TSFileDescriptor.getInstance()
+        .getConfig()
+        .setEnableMmapRead(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "enable_mmap_read",
+                    String.valueOf(
+                        TSFileDescriptor.getInstance().getConfig().isEnableMmapRead()))));
+    long maxMappedSizeInByte =
+        Long.parseLong(
+            properties.getProperty(
+                "max_mapped_size_in_byte",
+                String.valueOf(
+                    TSFileDescriptor.getInstance().getConfig().getMaxMappedSizeInByte())));
+    if (maxMappedSizeInByte > 0) {
+      TSFileDescriptor.getInstance().getConfig().setMaxMappedSizeInByte(maxMappedSizeInByte);
+    }
     TSFileDescriptor.getInstance()
         .getConfig()
         .setMaxDegreeOfIndexNode(
@@ -1177,6 +1376,14 @@ public class IoTDBDescriptor {
                     "max_degree_of_index_node",
                     Integer.toString(
                         TSFileDescriptor.getInstance().getConfig().getMaxDegreeOfIndexNode()))));
+    TSFileDescriptor.getInstance()
+        .getConfig()
+        .setEnableDeviceIndex(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "enable_device_index",
+                    String.valueOf(
+                        TSFileDescriptor.getInstance().getConfig().isEnableDeviceIndex()))));
   }
 
   // Mqtt related
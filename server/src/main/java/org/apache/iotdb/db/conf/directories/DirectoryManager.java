@@ -40,8 +40,12 @@ public class DirectoryManager {
 
   private List<String> sequenceFileFolders;
   private List<String> unsequenceFileFolders;
+  private List<String> coldSequenceFileFolders;
+  private List<String> coldUnsequenceFileFolders;
   private DirectoryStrategy sequenceStrategy;
   private DirectoryStrategy unsequenceStrategy;
+  private DirectoryStrategy coldSequenceStrategy;
+  private DirectoryStrategy coldUnsequenceStrategy;
 
   private DirectoryManager() {
     sequenceFileFolders =
@@ -60,6 +64,18 @@ public class DirectoryManager {
     }
     mkDataDirs(unsequenceFileFolders);
 
+    String[] coldDataDirs = IoTDBDescriptor.getInstance().getConfig().getColdDataDirs();
+    coldSequenceFileFolders = new ArrayList<>();
+    coldUnsequenceFileFolders = new ArrayList<>();
+    for (String coldDataDir : coldDataDirs) {
+      coldSequenceFileFolders.add(
+          coldDataDir + File.separator + IoTDBConstant.SEQUENCE_FLODER_NAME);
+      coldUnsequenceFileFolders.add(
+          coldDataDir + File.separator + IoTDBConstant.UNSEQUENCE_FLODER_NAME);
+    }
+    mkDataDirs(coldSequenceFileFolders);
+    mkDataDirs(coldUnsequenceFileFolders);
+
     String strategyName = "";
     try {
       strategyName = IoTDBDescriptor.getInstance().getConfig().getMultiDirStrategyClassName();
@@ -68,6 +84,12 @@ public class DirectoryManager {
       sequenceStrategy.setFolders(sequenceFileFolders);
       unsequenceStrategy = (DirectoryStrategy) clazz.newInstance();
       unsequenceStrategy.setFolders(unsequenceFileFolders);
+      if (!coldSequenceFileFolders.isEmpty()) {
+        coldSequenceStrategy = (DirectoryStrategy) clazz.newInstance();
+        coldSequenceStrategy.setFolders(coldSequenceFileFolders);
+        coldUnsequenceStrategy = (DirectoryStrategy) clazz.newInstance();
+        coldUnsequenceStrategy.setFolders(coldUnsequenceFileFolders);
+      }
     } catch (DiskSpaceInsufficientException e) {
       logger.error("All disks of folders are full.", e);
     } catch (Exception e) {
@@ -152,6 +174,21 @@ public class DirectoryManager {
     return new ArrayList<>(sequenceFileFolders);
   }
 
+  /** @return sequence folders of both data dirs and cold data dirs */
+  public List<String> getAllSequenceFileFoldersWithColdDirs() {
+    List<String> folders = new ArrayList<>(sequenceFileFolders);
+    folders.addAll(coldSequenceFileFolders);
+    return folders;
+  }
+
+  public String getNextFolderForColdSequenceFile() throws DiskSpaceInsufficientException {
+    return coldSequenceFileFolders.get(coldSequenceStrategy.nextFolderIndex());
+  }
+
+  public List<String> getAllColdSequenceFileFolders() {
+    return new ArrayList<>(coldSequenceFileFolders);
+  }
+
   private static class DirectoriesHolder {
 
     private static final DirectoryManager INSTANCE = new DirectoryManager();
@@ -185,4 +222,19 @@ public class DirectoryManager {
   public List<String> getAllUnSequenceFileFolders() {
     return new ArrayList<>(unsequenceFileFolders);
   }
+
+  /** @return unsequence folders of both data dirs and cold data dirs */
+  public List<String> getAllUnSequenceFileFoldersWithColdDirs() {
+    List<String> folders = new ArrayList<>(unsequenceFileFolders);
+    folders.addAll(coldUnsequenceFileFolders);
+    return folders;
+  }
+
+  public String getNextFolderForColdUnSequenceFile() throws DiskSpaceInsufficientException {
+    return coldUnsequenceFileFolders.get(coldUnsequenceStrategy.nextFolderIndex());
+  }
+
+  public List<String> getAllColdUnSequenceFileFolders() {
+    return new ArrayList<>(coldUnsequenceFileFolders);
+  }
 }
@@ -131,6 +131,7 @@ public class StorageEngine implements IService {
   private ScheduledExecutorService ttlCheckThread;
   private ScheduledExecutorService seqMemtableTimedFlushCheckThread;
   private ScheduledExecutorService unseqMemtableTimedFlushCheckThread;
+  private ScheduledExecutorService tieredStorageCheckThread;
 
   private TsFileFlushPolicy fileFlushPolicy = new DirectFlushPolicy();
   private ExecutorService recoveryThreadPool;
@@ -344,6 +345,18 @@ public class StorageEngine implements IService {
           TimeUnit.MILLISECONDS);
       logger.info("start unsequence memtable timed flush check thread successfully.");
     }
+    // move sealed TsFiles between data dirs and cold data dirs
+    if (config.isEnableTieredStorage()) {
+      tieredStorageCheckThread =
+          IoTDBThreadPoolFactory.newSingleThreadScheduledExecutor(
+              ThreadName.TIERED_STORAGE_MIGRATION.getName());
+      tieredStorageCheckThread.scheduleWithFixedDelay(
+          this::checkTieredStorage,
+          config.getTieredStorageCheckIntervalInMs(),
+          config.getTieredStorageCheckIntervalInMs(),
+          TimeUnit.MILLISECONDS);
+      logger.info("start tiered storage check thread successfully.");
+    }
   }
 
   private void timedFlushSeqMemTable() {
@@ -366,6 +379,16 @@ public class StorageEngine implements IService {
     }
   }
 
+  private void checkTieredStorage() {
+    try {
+      for (StorageGroupManager processor : processorMap.values()) {
+        processor.checkTieredStorage();
+      }
+    } catch (Exception e) {
+      logger.error("An error occurred when checking tiered storage", e);
+    }
+  }
+
   @Override
   public void stop() {
     for (StorageGroupManager storageGroupManager : processorMap.values()) {
@@ -377,6 +400,7 @@ public class StorageEngine implements IService {
         seqMemtableTimedFlushCheckThread, ThreadName.TIMED_FlUSH_SEQ_MEMTABLE);
     ThreadUtils.stopThreadPool(
         unseqMemtableTimedFlushCheckThread, ThreadName.TIMED_FlUSH_UNSEQ_MEMTABLE);
+    ThreadUtils.stopThreadPool(tieredStorageCheckThread, ThreadName.TIERED_STORAGE_MIGRATION);
     recoveryThreadPool.shutdownNow();
     processorMap.clear();
   }
@@ -394,6 +418,7 @@ public class StorageEngine implements IService {
     shutdownTimedService(ttlCheckThread, "TTlCheckThread");
     shutdownTimedService(seqMemtableTimedFlushCheckThread, "SeqMemtableTimedFlushCheckThread");
     shutdownTimedService(unseqMemtableTimedFlushCheckThread, "UnseqMemtableTimedFlushCheckThread");
+    shutdownTimedService(tieredStorageCheckThread, "TieredStorageCheckThread");
     recoveryThreadPool.shutdownNow();
     processorMap.clear();
   }
@@ -418,6 +443,7 @@ public class StorageEngine implements IService {
     stopTimedServiceAndThrow(seqMemtableTimedFlushCheckThread, "SeqMemtableTimedFlushCheckThread");
     stopTimedServiceAndThrow(
         unseqMemtableTimedFlushCheckThread, "UnseqMemtableTimedFlushCheckThread");
+    stopTimedServiceAndThrow(tieredStorageCheckThread, "TieredStorageCheckThread");
 
     logger.info("Stop all timed service successfully, and now restart them.");
 
@@ -115,6 +115,7 @@ public class StorageEngineV2 implements IService {
   private ScheduledExecutorService ttlCheckThread;
   private ScheduledExecutorService seqMemtableTimedFlushCheckThread;
   private ScheduledExecutorService unseqMemtableTimedFlushCheckThread;
+  private ScheduledExecutorService tieredStorageCheckThread;
 
   private TsFileFlushPolicy fileFlushPolicy = new DirectFlushPolicy();
   private ExecutorService recoveryThreadPool;
@@ -360,6 +361,18 @@ public class StorageEngineV2 implements IService {
           TimeUnit.MILLISECONDS);
       logger.info("start unsequence memtable timed flush check thread successfully.");
     }
+    // move sealed TsFiles between data dirs and cold data dirs
+    if (config.isEnableTieredStorage()) {
+      tieredStorageCheckThread =
+          IoTDBThreadPoolFactory.newSingleThreadScheduledExecutor(
+              ThreadName.TIERED_STORAGE_MIGRATION.getName());
+      tieredStorageCheckThread.scheduleWithFixedDelay(
+          this::checkTieredStorage,
+          config.getTieredStorageCheckIntervalInMs(),
+          config.getTieredStorageCheckIntervalInMs(),
+          TimeUnit.MILLISECONDS);
+      logger.info("start tiered storage check thread successfully.");
+    }
   }
 
   private void timedFlushSeqMemTable() {
@@ -386,6 +399,18 @@ public class StorageEngineV2 implements IService {
     }
   }
 
+  private void checkTieredStorage() {
+    try {
+      for (DataRegion dataRegion : dataRegionMap.values()) {
+        if (dataRegion != null) {
+          dataRegion.checkTieredStorage();
+        }
+      }
+    } catch (Exception e) {
+      logger.error("An error occurred when checking tiered storage", e);
+    }
+  }
+
   @Override
   public void stop() {
     for (DataRegion dataRegion : dataRegionMap.values()) {
@@ -400,6 +425,7 @@ public class StorageEngineV2 implements IService {
         seqMemtableTimedFlushCheckThread, ThreadName.TIMED_FlUSH_SEQ_MEMTABLE);
     ThreadUtils.stopThreadPool(
         unseqMemtableTimedFlushCheckThread, ThreadName.TIMED_FlUSH_UNSEQ_MEMTABLE);
+    ThreadUtils.stopThreadPool(tieredStorageCheckThread, ThreadName.TIERED_STORAGE_MIGRATION);
     recoveryThreadPool.shutdownNow();
     dataRegionMap.clear();
   }
@@ -418,6 +444,7 @@ public class StorageEngineV2 implements IService {
     shutdownTimedService(ttlCheckThread, "TTlCheckThread");
     shutdownTimedService(seqMemtableTimedFlushCheckThread, "SeqMemtableTimedFlushCheckThread");
     shutdownTimedService(unseqMemtableTimedFlushCheckThread, "UnseqMemtableTimedFlushCheckThread");
+    shutdownTimedService(tieredStorageCheckThread, "TieredStorageCheckThread");
     recoveryThreadPool.shutdownNow();
     dataRegionMap.clear();
   }
@@ -35,7 +35,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
 /** This class is used to cache <code>BloomFilter</code> in IoTDB. The caching strategy is LRU. */
@@ -141,6 +143,15 @@ public class BloomFilterCache {
     return lruCache.getIfPresent(key);
   }
 
+  /** @return at most limit keys, ordered from the most likely to be retained to the least */
+  public Set<BloomFilterCacheKey> getHottestKeys(int limit) {
+    return lruCache
+        .policy()
+        .eviction()
+        .map(eviction -> eviction.hottest(limit).keySet())
+        .orElse(Collections.emptySet());
+  }
+
   public static class BloomFilterCacheKey {
 
     // There is no need to add this field size while calculating the size of BloomFilterCacheKey,
@@ -161,6 +172,10 @@ public class BloomFilterCache {
       this.compactionVersion = tsFilePrefixPathAndTsFileVersionPair.right[1];
     }
 
+    public String getFilePath() {
+      return filePath;
+    }
+
     @Override
     public boolean equals(Object o) {
       if (this == o) {
@@ -22,69 +22,163 @@ package org.apache.iotdb.db.engine.cache;
 import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.service.metrics.Metric;
 import org.apache.iotdb.db.service.metrics.MetricsService;
 import org.apache.iotdb.db.service.metrics.Tag;
 import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
 import org.apache.iotdb.metrics.utils.MetricLevel;
+import org.apache.iotdb.tsfile.compress.ICompressor;
+import org.apache.iotdb.tsfile.compress.IUnCompressor;
+import org.apache.iotdb.tsfile.file.MetaMarker;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
 import org.apache.iotdb.tsfile.utils.RamUsageEstimator;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.github.benmanes.caffeine.cache.Weigher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is used to cache <code>Chunk</code> of <code>ChunkMetaData</code> in IoTDB. The
  * caching strategy is LRU.
+ *
+ * <p>To protect hot chunks from large scans, chunks read by a query which has loaded more than
+ * chunk_cache_scan_threshold chunks either bypass the cache or are put into a small probationary
+ * cache, and they are promoted to the main cache only when they are read again by other queries.
+ * Optionally, chunks evicted from the main cache are kept in a compressed tier. In that case, the
+ * pages of the chunks in the main cache are kept decompressed, so that a hit in the main cache
+ * needs no decompression, and the compressed tier keeps the LZ4 compressed chunks.
  */
 public class ChunkCache {
 
   private static final Logger logger = LoggerFactory.getLogger(ChunkCache.class);
   private static final Logger DEBUG_LOGGER = LoggerFactory.getLogger("QUERY_DEBUG");
   private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
-  private static final long MEMORY_THRESHOLD_IN_CHUNK_CACHE =
-      config.getAllocateMemoryForChunkCache();
   private static final boolean CACHE_ENABLE = config.isMetaDataCacheEnable();
 
+  /** query type of chunks read by large scans */
+  private static final String SCAN_QUERY_TYPE = "scan";
+
+  private static final Weigher<ChunkMetadata, Chunk> CHUNK_WEIGHER =
+      (chunkMetadata, chunk) ->
+          (int) (RamUsageEstimator.NUM_BYTES_OBJECT_REF + RamUsageEstimator.sizeOf(chunk));
+
+  private final long memoryThresholdInChunkCache;
+  private final int scanThreshold;
+
   private final LoadingCache<ChunkMetadata, Chunk> lruCache;
 
+  /** chunks read by large scans, null if disabled */
+  private final Cache<ChunkMetadata, Chunk> probationCache;
+
+  /** chunks evicted from lruCache, null if disabled */
+  private final Cache<ChunkMetadata, CompressedChunk> compressedTier;
+
+  /** query type -> hit statistics of ChunkCache */
+  private final Map<String, HitCounter> hitCounters = new ConcurrentHashMap<>();
+
   private final AtomicLong entryAverageSize = new AtomicLong(0);
 
   private ChunkCache() {
+    this(
+        config.getAllocateMemoryForChunkCache(),
+        config.getChunkCacheScanThreshold(),
+        config.isChunkCacheScanBypass(),
+        config.isEnableCompressedChunkCache(),
+        ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param memoryThreshold memory of the main cache, the probationary cache and the compressed tier
+   * @param scanThreshold a query loading more than this number of chunks is treated as a scan, 0
+   *     means no query is a scan
+   * @param scanBypass whether chunks of scans bypass the cache, or enter the probationary cache
+   * @param enableCompressedTier whether chunks evicted from the main cache are kept compressed
+   * @param executor runs the maintenance of the caches, e.g. moving evicted chunks to the
+   *     compressed tier
+   */
+  ChunkCache(
+      long memoryThreshold,
+      int scanThreshold,
+      boolean scanBypass,
+      boolean enableCompressedTier,
+      Executor executor) {
+    this.memoryThresholdInChunkCache = memoryThreshold;
+    this.scanThreshold = scanThreshold;
+    boolean enableProbation = scanThreshold > 0 && !scanBypass;
+    long memoryThresholdInProbationCache = enableProbation ? memoryThreshold / 10 : 0;
+    long memoryThresholdInCompressedTier = enableCompressedTier ? memoryThreshold / 4 : 0;
+    long memoryThresholdInMainCache =
+        memoryThreshold - memoryThresholdInProbationCache - memoryThresholdInCompressedTier;
     if (CACHE_ENABLE) {
-      logger.info("ChunkCache size = " + MEMORY_THRESHOLD_IN_CHUNK_CACHE);
+      logger.info(
+          "ChunkCache size = {}, probation size = {}, compressed tier size = {}",
+          memoryThreshold,
+          memoryThresholdInProbationCache,
+          memoryThresholdInCompressedTier);
     }
-    lruCache =
+    probationCache =
+        enableProbation
+            ? Caffeine.newBuilder()
+                .maximumWeight(memoryThresholdInProbationCache)
+                .weigher(CHUNK_WEIGHER)
+                .executor(executor)
+                .build()
+            : null;
+    compressedTier =
+        enableCompressedTier
+            ? Caffeine.newBuilder()
+                .maximumWeight(memoryThresholdInCompressedTier)
+                .weigher(
+                    (Weigher<ChunkMetadata, CompressedChunk>)
+                        (chunkMetadata, compressedChunk) ->
+                            (int)
+                                (RamUsageEstimator.NUM_BYTES_OBJECT_REF
+                                    + RamUsageEstimator.sizeOf(compressedChunk.data)))
+                .executor(executor)
+                .build()
+            : null;
+    Caffeine<ChunkMetadata, Chunk> builder =
         Caffeine.newBuilder()
-            .maximumWeight(MEMORY_THRESHOLD_IN_CHUNK_CACHE)
-            .weigher(
-                (Weigher<ChunkMetadata, Chunk>)
-                    (chunkMetadata, chunk) ->
-                        (int)
-                            (RamUsageEstimator.NUM_BYTES_OBJECT_REF
-                                + RamUsageEstimator.sizeOf(chunk)))
-            .recordStats()
-            .build(
-                chunkMetadata -> {
-                  try {
-                    TsFileSequenceReader reader =
-                        FileReaderManager.getInstance()
-                            .get(chunkMetadata.getFilePath(), chunkMetadata.isClosed());
-                    return reader.readMemChunk(chunkMetadata);
-                  } catch (IOException e) {
-                    logger.error("Something wrong happened in reading {}", chunkMetadata, e);
-                    throw e;
-                  }
-                });
+            .maximumWeight(memoryThresholdInMainCache)
+            .weigher(CHUNK_WEIGHER)
+            .executor(executor)
+            .recordStats();
+    if (enableCompressedTier) {
+      builder.removalListener(
+          (ChunkMetadata chunkMetadata, Chunk chunk, RemovalCause cause) -> {
+            if (cause.wasEvicted() && chunkMetadata != null && chunk != null) {
+              putIntoCompressedTier(chunkMetadata, chunk);
+            }
+          });
+    }
+    lruCache = builder.build(key -> loadIntoMainCache(key, Collections.emptyMap()));
 
     // add metrics
     if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
@@ -109,11 +203,49 @@ public class ChunkCache {
   }
 
   public Chunk get(ChunkMetadata chunkMetaData, boolean debug) throws IOException {
+    return get(chunkMetaData, null, debug);
+  }
+
+  public Chunk get(ChunkMetadata chunkMetaData, QueryContext context) throws IOException {
+    return get(chunkMetaData, context, context.isDebug());
+  }
+
+  /**
+   * Get the chunks in batch. Chunks which are not cached are read together by {@link
+   * TsFileSequenceReader#readMemChunks(List)}, so neighbouring chunks of the same file, e.g. the
+   * time chunk and the value chunks of an aligned series, are fetched with one I/O.
+   *
+   * @param context the query reading the chunks, null if unknown
+   * @return chunks in the same order as chunkMetadataList
+   */
+  public List<Chunk> get(
+      List<ChunkMetadata> chunkMetadataList, QueryContext context, boolean debug)
+      throws IOException {
+    Map<ChunkMetadata, Chunk> prefetchedChunks = readUncachedChunks(chunkMetadataList);
+    List<Chunk> chunks = new ArrayList<>(chunkMetadataList.size());
+    for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+      chunks.add(get(chunkMetadata, context, debug, prefetchedChunks));
+    }
+    return chunks;
+  }
+
+  private Chunk get(ChunkMetadata chunkMetaData, QueryContext context, boolean debug)
+      throws IOException {
+    return get(chunkMetaData, context, debug, Collections.emptyMap());
+  }
+
+  /**
+   * @param prefetchedChunks chunks already read from disk, a chunk in it is used instead of reading
+   *     the file when it's missed by the cache
+   */
+  private Chunk get(
+      ChunkMetadata chunkMetaData,
+      QueryContext context,
+      boolean debug,
+      Map<ChunkMetadata, Chunk> prefetchedChunks)
+      throws IOException {
     if (!CACHE_ENABLE) {
-      TsFileSequenceReader reader =
-          FileReaderManager.getInstance()
-              .get(chunkMetaData.getFilePath(), chunkMetaData.isClosed());
-      Chunk chunk = reader.readMemChunk(chunkMetaData);
+      Chunk chunk = readChunk(chunkMetaData, prefetchedChunks);
       return new Chunk(
           chunk.getHeader(),
           chunk.getData().duplicate(),
@@ -121,7 +253,44 @@ public class ChunkCache {
           chunkMetaData.getStatistics());
     }
 
-    Chunk chunk = lruCache.get(chunkMetaData);
+    boolean isScan =
+        scanThreshold > 0
+            && context != null
+            && context.increaseAndGetLoadedChunkNum() > scanThreshold;
+    String queryType =
+        isScan ? SCAN_QUERY_TYPE : (context == null ? "query" : context.getQueryType());
+
+    Chunk chunk;
+    boolean hit;
+    try {
+      if (isScan) {
+        chunk = lruCache.getIfPresent(chunkMetaData);
+        hit = chunk != null;
+        if (chunk == null && probationCache != null) {
+          chunk = probationCache.getIfPresent(chunkMetaData);
+          hit = chunk != null;
+          if (chunk == null) {
+            chunk = readChunk(chunkMetaData, prefetchedChunks);
+            probationCache.put(chunkMetaData, chunk);
+          }
+        } else if (chunk == null) {
+          chunk = readChunk(chunkMetaData, prefetchedChunks);
+        }
+      } else {
+        boolean[] loaded = new boolean[1];
+        chunk =
+            lruCache.get(
+                chunkMetaData,
+                key -> {
+                  loaded[0] = true;
+                  return loadIntoMainCache(key, prefetchedChunks);
+                });
+        hit = !loaded[0];
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    recordHit(queryType, hit);
 
     if (debug) {
       DEBUG_LOGGER.info("get chunk from cache whose meta data is: " + chunkMetaData);
@@ -134,16 +303,206 @@ public class ChunkCache {
         chunkMetaData.getStatistics());
   }
 
+  /**
+   * Load a chunk missed by lruCache. Chunks in the probationary cache or compressed tier are
+   * promoted, others are read from disk.
+   */
+  private Chunk loadIntoMainCache(
+      ChunkMetadata chunkMetadata, Map<ChunkMetadata, Chunk> prefetchedChunks) {
+    try {
+      if (probationCache != null) {
+        Chunk chunk = probationCache.asMap().remove(chunkMetadata);
+        if (chunk != null) {
+          return decompressPagesIfNeeded(chunkMetadata, chunk);
+        }
+      }
+      if (compressedTier != null) {
+        CompressedChunk compressedChunk = compressedTier.asMap().remove(chunkMetadata);
+        if (compressedChunk != null) {
+          return compressedChunk.decompress();
+        }
+      }
+      return decompressPagesIfNeeded(chunkMetadata, readChunk(chunkMetadata, prefetchedChunks));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Chunk readChunk(ChunkMetadata chunkMetadata, Map<ChunkMetadata, Chunk> prefetchedChunks)
+      throws IOException {
+    Chunk chunk = prefetchedChunks.isEmpty() ? null : prefetchedChunks.remove(chunkMetadata);
+    if (chunk != null) {
+      return chunk;
+    }
+    try {
+      TsFileSequenceReader reader =
+          FileReaderManager.getInstance()
+              .get(chunkMetadata.getFilePath(), chunkMetadata.isClosed());
+      return reader.readMemChunk(chunkMetadata);
+    } catch (IOException e) {
+      logger.error("Something wrong happened in reading {}", chunkMetadata, e);
+      throw e;
+    }
+  }
+
+  /**
+   * With the compressed tier, chunks in the main cache are kept with their pages decompressed. The
+   * chunks of old TsFiles are kept as they are, as their pages are in a different format.
+   */
+  private Chunk decompressPagesIfNeeded(ChunkMetadata chunkMetadata, Chunk chunk)
+      throws IOException {
+    if (compressedTier == null || chunkMetadata.isFromOldTsFile()) {
+      return chunk;
+    }
+    return decompressPages(chunk);
+  }
+
+  /**
+   * Rewrite the chunk with all its pages decompressed, the page headers are kept except that the
+   * compressed size is set to the uncompressed size.
+   *
+   * @return the chunk of compression type UNCOMPRESSED
+   */
+  static Chunk decompressPages(Chunk chunk) throws IOException {
+    ChunkHeader header = chunk.getHeader();
+    if (header.getCompressionType() == CompressionType.UNCOMPRESSED) {
+      return chunk;
+    }
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(header.getCompressionType());
+    // the page header of a chunk with only one page has no statistics
+    boolean hasStatistics =
+        (byte) (header.getChunkType() & 0x3F) != MetaMarker.ONLY_ONE_PAGE_CHUNK_HEADER;
+    ByteBuffer data = chunk.getData().duplicate();
+    PublicBAOS output = new PublicBAOS(data.remaining());
+    while (data.hasRemaining()) {
+      int uncompressedSize = ReadWriteForEncodingUtils.readUnsignedVarInt(data);
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(uncompressedSize, output);
+      if (uncompressedSize == 0) {
+        // empty page, which has no compressed size or data
+        continue;
+      }
+      int compressedSize = ReadWriteForEncodingUtils.readUnsignedVarInt(data);
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(uncompressedSize, output);
+      if (hasStatistics) {
+        int statisticsStart = data.position();
+        Statistics.deserialize(data, header.getDataType());
+        byte[] statistics = new byte[data.position() - statisticsStart];
+        ByteBuffer statisticsBuffer = data.duplicate();
+        statisticsBuffer.position(statisticsStart);
+        statisticsBuffer.get(statistics);
+        output.write(statistics);
+      }
+      byte[] compressed = new byte[compressedSize];
+      data.get(compressed);
+      byte[] uncompressed = new byte[uncompressedSize];
+      unCompressor.uncompress(compressed, 0, compressedSize, uncompressed, 0);
+      output.write(uncompressed);
+    }
+    ChunkHeader uncompressedHeader =
+        new ChunkHeader(
+            header.getChunkType(),
+            header.getMeasurementID(),
+            output.size(),
+            header.getDataType(),
+            CompressionType.UNCOMPRESSED,
+            header.getEncodingType());
+    return new Chunk(
+        uncompressedHeader,
+        ByteBuffer.wrap(output.toByteArray()),
+        chunk.getDeleteIntervalList(),
+        chunk.getChunkStatistic());
+  }
+
+  /** Read the chunks which are in none of the caches, the chunks of each file are read in batch. */
+  private Map<ChunkMetadata, Chunk> readUncachedChunks(List<ChunkMetadata> chunkMetadataList)
+      throws IOException {
+    Map<String, List<ChunkMetadata>> fileToUncachedChunks = new LinkedHashMap<>();
+    for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+      if (!isCached(chunkMetadata)) {
+        fileToUncachedChunks
+            .computeIfAbsent(chunkMetadata.getFilePath(), k -> new ArrayList<>())
+            .add(chunkMetadata);
+      }
+    }
+    Map<ChunkMetadata, Chunk> chunks = new HashMap<>();
+    for (List<ChunkMetadata> uncachedChunks : fileToUncachedChunks.values()) {
+      // a single chunk is read by the normal path
+      if (uncachedChunks.size() < 2) {
+        continue;
+      }
+      ChunkMetadata first = uncachedChunks.get(0);
+      try {
+        TsFileSequenceReader reader =
+            FileReaderManager.getInstance().get(first.getFilePath(), first.isClosed());
+        List<Chunk> readChunks = reader.readMemChunks(uncachedChunks);
+        for (int i = 0; i < uncachedChunks.size(); i++) {
+          chunks.put(uncachedChunks.get(i), readChunks.get(i));
+        }
+      } catch (IOException e) {
+        logger.error("Something wrong happened in reading chunks of {}", first.getFilePath(), e);
+        throw e;
+      }
+    }
+    return chunks;
+  }
+
+  private boolean isCached(ChunkMetadata chunkMetadata) {
+    return CACHE_ENABLE
+        && (lruCache.asMap().containsKey(chunkMetadata)
+            || (probationCache != null && probationCache.asMap().containsKey(chunkMetadata))
+            || (compressedTier != null && compressedTier.asMap().containsKey(chunkMetadata)));
+  }
+
+  private void putIntoCompressedTier(ChunkMetadata chunkMetadata, Chunk chunk) {
+    try {
+      compressedTier.put(chunkMetadata, CompressedChunk.compress(chunk));
+    } catch (IOException e) {
+      logger.warn("Failed to compress chunk {} evicted from ChunkCache", chunkMetadata, e);
+    }
+  }
+
+  private void recordHit(String queryType, boolean hit) {
+    HitCounter hitCounter = hitCounters.get(queryType);
+    if (hitCounter == null) {
+      hitCounter = hitCounters.computeIfAbsent(queryType, this::createHitCounter);
+    }
+    hitCounter.record(hit);
+  }
+
+  private HitCounter createHitCounter(String queryType) {
+    HitCounter hitCounter = new HitCounter();
+    if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
+      MetricsService.getInstance()
+          .getMetricManager()
+          .getOrCreateAutoGauge(
+              Metric.CACHE_HIT.toString(),
+              MetricLevel.IMPORTANT,
+              hitCounter,
+              c -> (long) (c.hitRate() * 100),
+              Tag.NAME.toString(),
+              "chunk",
+              Tag.TYPE.toString(),
+              queryType);
+    }
+    return hitCounter;
+  }
+
   public double calculateChunkHitRatio() {
     return lruCache.stats().hitRate();
   }
 
+  /** @return hit ratio of given query type, like query, mpp, compaction and scan */
+  public double calculateChunkHitRatio(String queryType) {
+    HitCounter hitCounter = hitCounters.get(queryType);
+    return hitCounter == null ? 0 : hitCounter.hitRate();
+  }
+
   public long getEvictionCount() {
     return lruCache.stats().evictionCount();
   }
 
   public long getMaxMemory() {
-    return MEMORY_THRESHOLD_IN_CHUNK_CACHE;
+    return memoryThresholdInChunkCache;
   }
 
   public double getAverageLoadPenalty() {
@@ -158,10 +517,24 @@ public class ChunkCache {
   public void clear() {
     lruCache.invalidateAll();
     lruCache.cleanUp();
+    if (probationCache != null) {
+      probationCache.invalidateAll();
+      probationCache.cleanUp();
+    }
+    if (compressedTier != null) {
+      compressedTier.invalidateAll();
+      compressedTier.cleanUp();
+    }
   }
 
   public void remove(ChunkMetadata chunkMetaData) {
     lruCache.invalidate(chunkMetaData);
+    if (probationCache != null) {
+      probationCache.invalidate(chunkMetaData);
+    }
+    if (compressedTier != null) {
+      compressedTier.invalidate(chunkMetaData);
+    }
   }
 
   @TestOnly
@@ -169,6 +542,73 @@ public class ChunkCache {
     return lruCache.asMap().isEmpty();
   }
 
+  @TestOnly
+  boolean isInMainCache(ChunkMetadata chunkMetadata) {
+    return lruCache.asMap().containsKey(chunkMetadata);
+  }
+
+  @TestOnly
+  boolean isInProbationCache(ChunkMetadata chunkMetadata) {
+    return probationCache != null && probationCache.asMap().containsKey(chunkMetadata);
+  }
+
+  @TestOnly
+  boolean isInCompressedTier(ChunkMetadata chunkMetadata) {
+    return compressedTier != null && compressedTier.asMap().containsKey(chunkMetadata);
+  }
+
+  /** Hit statistics of one query type. */
+  private static class HitCounter {
+
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong requestCount = new AtomicLong(0);
+
+    private void record(boolean hit) {
+      requestCount.incrementAndGet();
+      if (hit) {
+        hitCount.incrementAndGet();
+      }
+    }
+
+    private double hitRate() {
+      long requests = requestCount.get();
+      return requests == 0 ? 1.0 : (double) hitCount.get() / requests;
+    }
+  }
+
+  /** Chunk kept in the compressed tier, whose data is compressed by LZ4. */
+  private static class CompressedChunk {
+
+    private static final CompressionType TIER_COMPRESSION_TYPE = CompressionType.LZ4;
+
+    private final ChunkHeader header;
+    private final byte[] data;
+    private final int uncompressedLength;
+
+    private CompressedChunk(ChunkHeader header, byte[] data, int uncompressedLength) {
+      this.header = header;
+      this.data = data;
+      this.uncompressedLength = uncompressedLength;
+    }
+
+    private static CompressedChunk compress(Chunk chunk) throws IOException {
+      ByteBuffer buffer = chunk.getData().duplicate();
+      byte[] data = new byte[buffer.remaining()];
+      buffer.get(data);
+      return new CompressedChunk(
+          chunk.getHeader(),
+          ICompressor.getCompressor(TIER_COMPRESSION_TYPE).compress(data),
+          data.length);
+    }
+
+    private Chunk decompress() throws IOException {
+      byte[] uncompressed = new byte[uncompressedLength];
+      IUnCompressor.getUnCompressor(TIER_COMPRESSION_TYPE)
+          .uncompress(data, 0, data.length, uncompressed, 0);
+      return new Chunk(header, ByteBuffer.wrap(uncompressed), null, null);
+    }
+  }
+
   /** singleton pattern. */
   private static class ChunkCacheHolder {
 
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.commons.concurrent.ThreadName;
+import org.apache.iotdb.commons.exception.StartupException;
+import org.apache.iotdb.commons.service.IService;
+import org.apache.iotdb.commons.service.ServiceType;
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.cache.BloomFilterCache.BloomFilterCacheKey;
+import org.apache.iotdb.db.engine.cache.TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey;
+import org.apache.iotdb.db.utils.ThreadUtils;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+import com.google.common.util.concurrent.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This service keeps the hottest keys of {@link TimeSeriesMetadataCache} and {@link
+ * BloomFilterCache} in a snapshot file, which is written periodically and at shutdown. After
+ * restart, a background prefetcher reloads the entries of still existing TsFiles into the caches
+ * with a limited rate, so the first queries don't have to warm up the caches by themselves.
+ *
+ * <p>The service is registered after all storage groups are recovered, so the prefetcher doesn't
+ * compete with recovery for disk I/O.
+ */
+public class MetadataCacheSnapshotService implements IService {
+
+  private static final Logger logger = LoggerFactory.getLogger(MetadataCacheSnapshotService.class);
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  static final String SNAPSHOT_FILE_NAME = "metadata_cache.snapshot";
+  private static final String TMP_SUFFIX = ".tmp";
+  private static final int SNAPSHOT_VERSION = 1;
+
+  private final File snapshotFile;
+
+  private ScheduledExecutorService snapshotThread;
+  private ExecutorService prefetchThread;
+  /** snapshot is not overwritten before prefetch ends, otherwise hot keys not reloaded are lost */
+  private volatile boolean prefetchFinished = true;
+
+  private MetadataCacheSnapshotService() {
+    this(new File(config.getSystemDir(), SNAPSHOT_FILE_NAME));
+  }
+
+  @TestOnly
+  MetadataCacheSnapshotService(File snapshotFile) {
+    this.snapshotFile = snapshotFile;
+  }
+
+  public static MetadataCacheSnapshotService getInstance() {
+    return MetadataCacheSnapshotServiceHolder.INSTANCE;
+  }
+
+  @Override
+  public synchronized void start() throws StartupException {
+    if (!config.isEnableMetadataCacheSnapshot() || !config.isMetaDataCacheEnable()) {
+      return;
+    }
+    if (snapshotFile.exists()) {
+      prefetchFinished = false;
+      prefetchThread =
+          IoTDBThreadPoolFactory.newSingleThreadExecutor(
+              ThreadName.METADATA_CACHE_PREFETCH.getName());
+      prefetchThread.submit(this::prefetch);
+    }
+    snapshotThread =
+        IoTDBThreadPoolFactory.newSingleThreadScheduledExecutor(
+            ThreadName.METADATA_CACHE_SNAPSHOT.getName());
+    snapshotThread.scheduleWithFixedDelay(
+        this::takeSnapshotSafely,
+        config.getMetadataCacheSnapshotIntervalInMs(),
+        config.getMetadataCacheSnapshotIntervalInMs(),
+        TimeUnit.MILLISECONDS);
+    logger.info("Metadata cache snapshot service started, snapshot file: {}", snapshotFile);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (snapshotThread == null) {
+      return;
+    }
+    ThreadUtils.stopThreadPool(prefetchThread, ThreadName.METADATA_CACHE_PREFETCH);
+    ThreadUtils.stopThreadPool(snapshotThread, ThreadName.METADATA_CACHE_SNAPSHOT);
+    takeSnapshotSafely();
+    prefetchThread = null;
+    snapshotThread = null;
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.METADATA_CACHE_SNAPSHOT_SERVICE;
+  }
+
+  private void takeSnapshotSafely() {
+    if (!prefetchFinished) {
+      return;
+    }
+    try {
+      takeSnapshot();
+    } catch (IOException e) {
+      logger.warn("Failed to write metadata cache snapshot {}", snapshotFile, e);
+    }
+  }
+
+  /**
+   * Write the hottest keys into the snapshot file. Keys of TimeSeriesMetadataCache are grouped by
+   * file and device, so that the prefetcher reads all measurements of a device in one pass.
+   */
+  void takeSnapshot() throws IOException {
+    int maxKeyNum = config.getMetadataCacheSnapshotMaxKeyNum();
+    Set<String> bloomFilterFiles = new LinkedHashSet<>();
+    for (BloomFilterCacheKey key : BloomFilterCache.getInstance().getHottestKeys(maxKeyNum)) {
+      bloomFilterFiles.add(key.getFilePath());
+    }
+    Map<String, Map<String, Set<String>>> timeseriesMetadata = new LinkedHashMap<>();
+    for (TimeSeriesMetadataCacheKey key :
+        TimeSeriesMetadataCache.getInstance().getHottestKeys(maxKeyNum)) {
+      timeseriesMetadata
+          .computeIfAbsent(key.getFilePath(), k -> new LinkedHashMap<>())
+          .computeIfAbsent(key.getDevice(), k -> new LinkedHashSet<>())
+          .add(key.getMeasurement());
+    }
+
+    File tmpFile = new File(snapshotFile.getPath() + TMP_SUFFIX);
+    if (!tmpFile.getParentFile().exists() && !tmpFile.getParentFile().mkdirs()) {
+      throw new IOException("Failed to create directory of " + tmpFile);
+    }
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+      ReadWriteIOUtils.write(SNAPSHOT_VERSION, out);
+      ReadWriteIOUtils.write(bloomFilterFiles.size(), out);
+      for (String filePath : bloomFilterFiles) {
+        ReadWriteIOUtils.write(filePath, out);
+      }
+      ReadWriteIOUtils.write(timeseriesMetadata.size(), out);
+      for (Map.Entry<String, Map<String, Set<String>>> fileEntry : timeseriesMetadata.entrySet()) {
+        ReadWriteIOUtils.write(fileEntry.getKey(), out);
+        ReadWriteIOUtils.write(fileEntry.getValue().size(), out);
+        for (Map.Entry<String, Set<String>> deviceEntry : fileEntry.getValue().entrySet()) {
+          ReadWriteIOUtils.write(deviceEntry.getKey(), out);
+          ReadWriteIOUtils.write(deviceEntry.getValue().size(), out);
+          for (String measurement : deviceEntry.getValue()) {
+            ReadWriteIOUtils.write(measurement, out);
+          }
+        }
+      }
+    }
+    Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    logger.debug(
+        "Metadata cache snapshot is written, {} bloom filters, {} files of timeseries metadata",
+        bloomFilterFiles.size(),
+        timeseriesMetadata.size());
+  }
+
+  /** Reload entries of the snapshot into caches, files removed since the snapshot are skipped. */
+  void prefetch() {
+    long startTime = System.currentTimeMillis();
+    RateLimiter rateLimiter = RateLimiter.create(config.getMetadataCachePrefetchEntriesPerSecond());
+    int loadedNum = 0;
+    try (InputStream in = new BufferedInputStream(new FileInputStream(snapshotFile))) {
+      int version = ReadWriteIOUtils.readInt(in);
+      if (version != SNAPSHOT_VERSION) {
+        logger.warn("Ignore metadata cache snapshot {} of version {}", snapshotFile, version);
+        return;
+      }
+      int bloomFilterNum = ReadWriteIOUtils.readInt(in);
+      for (int i = 0; i < bloomFilterNum && !Thread.currentThread().isInterrupted(); i++) {
+        String filePath = ReadWriteIOUtils.readString(in);
+        if (!new File(filePath).exists()) {
+          continue;
+        }
+        rateLimiter.acquire();
+        try {
+          BloomFilterCache.getInstance().get(new BloomFilterCacheKey(filePath));
+          loadedNum++;
+        } catch (IOException e) {
+          logger.debug("Failed to prefetch bloom filter of {}", filePath, e);
+        }
+      }
+      int fileNum = ReadWriteIOUtils.readInt(in);
+      for (int i = 0; i < fileNum && !Thread.currentThread().isInterrupted(); i++) {
+        String filePath = ReadWriteIOUtils.readString(in);
+        boolean exists = new File(filePath).exists();
+        int deviceNum = ReadWriteIOUtils.readInt(in);
+        for (int j = 0; j < deviceNum; j++) {
+          String device = ReadWriteIOUtils.readString(in);
+          int measurementNum = ReadWriteIOUtils.readInt(in);
+          List<String> measurements = new ArrayList<>(measurementNum);
+          for (int k = 0; k < measurementNum; k++) {
+            measurements.add(ReadWriteIOUtils.readString(in));
+          }
+          if (exists && !Thread.currentThread().isInterrupted()) {
+            loadedNum += prefetchDevice(filePath, device, measurements, rateLimiter);
+          }
+        }
+      }
+    } catch (IOException e) {
+      logger.warn("Failed to read metadata cache snapshot {}", snapshotFile, e);
+    } finally {
+      prefetchFinished = true;
+      logger.info(
+          "Metadata cache prefetch ends, {} entries are loaded in {}ms",
+          loadedNum,
+          System.currentTimeMillis() - startTime);
+    }
+  }
+
+  private int prefetchDevice(
+      String filePath, String device, List<String> measurements, RateLimiter rateLimiter) {
+    if (measurements.isEmpty()) {
+      return 0;
+    }
+    rateLimiter.acquire(measurements.size());
+    try {
+      // all measurements of the device are put into cache by one read
+      TimeSeriesMetadataCache.getInstance()
+          .get(
+              new TimeSeriesMetadataCacheKey(filePath, device, measurements.get(0)),
+              new LinkedHashSet<>(measurements),
+              true,
+              false);
+      return measurements.size();
+    } catch (IOException e) {
+      logger.debug("Failed to prefetch timeseries metadata of {} in {}", device, filePath, e);
+      return 0;
+    }
+  }
+
+  private static class MetadataCacheSnapshotServiceHolder {
+
+    private static final MetadataCacheSnapshotService INSTANCE =
+        new MetadataCacheSnapshotService();
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.modification.ModificationFile;
+import org.apache.iotdb.db.engine.modification.ModificationIndex;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class caches the {@link ModificationIndex} of mods files, so that a mods file is parsed and
+ * indexed once instead of once per query. The caching strategy is LRU.
+ *
+ * <p>Mods files are append-only, so a cached index is reused only if the length of its mods file
+ * is not changed. Otherwise, the mods file is read again.
+ */
+public class ModificationIndexCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(ModificationIndexCache.class);
+  private static final long MEMORY_THRESHOLD_IN_MODIFICATION_INDEX_CACHE =
+      IoTDBDescriptor.getInstance().getConfig().getModificationIndexCacheSizeInByte();
+  private static final boolean CACHE_ENABLE = MEMORY_THRESHOLD_IN_MODIFICATION_INDEX_CACHE > 0;
+
+  private final Cache<String, ModificationIndex> lruCache;
+
+  private ModificationIndexCache() {
+    if (CACHE_ENABLE) {
+      logger.info("ModificationIndexCache size = {}", MEMORY_THRESHOLD_IN_MODIFICATION_INDEX_CACHE);
+    }
+    lruCache =
+        Caffeine.newBuilder()
+            .maximumWeight(Math.max(MEMORY_THRESHOLD_IN_MODIFICATION_INDEX_CACHE, 0))
+            .weigher(
+                (Weigher<String, ModificationIndex>)
+                    (filePath, index) ->
+                        (int)
+                            Math.min(
+                                Integer.MAX_VALUE, 2L * filePath.length() + index.getRamSize()))
+            .recordStats()
+            .build();
+  }
+
+  public static ModificationIndexCache getInstance() {
+    return ModificationIndexCacheHolder.INSTANCE;
+  }
+
+  /** @return the index of all modifications in the mods file */
+  public ModificationIndex get(ModificationFile modFile) {
+    String filePath = modFile.getFilePath();
+    // the length is got before reading, so the index is read again next time if the file is
+    // appended concurrently
+    long fileLength = FSFactoryProducer.getFSFactory().getFile(filePath).length();
+    if (fileLength == 0) {
+      // the mods file does not exist or is empty
+      return ModificationIndex.EMPTY;
+    }
+    if (!CACHE_ENABLE) {
+      return new ModificationIndex(modFile.getModifications(), fileLength);
+    }
+    ModificationIndex index = lruCache.getIfPresent(filePath);
+    if (index == null || index.getFileLength() != fileLength) {
+      index = new ModificationIndex(modFile.getModifications(), fileLength);
+      lruCache.put(filePath, index);
+    }
+    return index;
+  }
+
+  /** Remove the index of a mods file, called when the mods file is removed. */
+  public void remove(String filePath) {
+    lruCache.invalidate(filePath);
+  }
+
+  public double calculateHitRatio() {
+    return lruCache.stats().hitRate();
+  }
+
+  public long getEvictionCount() {
+    return lruCache.stats().evictionCount();
+  }
+
+  /** clear LRUCache. */
+  public void clear() {
+    lruCache.invalidateAll();
+    lruCache.cleanUp();
+  }
+
+  @TestOnly
+  public ModificationIndex getIfPresent(String filePath) {
+    return lruCache.getIfPresent(filePath);
+  }
+
+  /** singleton pattern. */
+  private static class ModificationIndexCacheHolder {
+
+    private static final ModificationIndexCache INSTANCE = new ModificationIndexCache();
+  }
+}
@@ -264,6 +264,15 @@ public class TimeSeriesMetadataCache {
     return lruCache.asMap().isEmpty();
   }
 
+  /** @return at most limit keys, ordered from the most likely to be retained to the least */
+  public Set<TimeSeriesMetadataCacheKey> getHottestKeys(int limit) {
+    return lruCache
+        .policy()
+        .eviction()
+        .map(eviction -> eviction.hottest(limit).keySet())
+        .orElse(Collections.emptySet());
+  }
+
   public static class TimeSeriesMetadataCacheKey {
 
     private final String filePath;
@@ -285,6 +294,18 @@ public class TimeSeriesMetadataCache {
       this.measurement = measurement;
     }
 
+    public String getFilePath() {
+      return filePath;
+    }
+
+    public String getDevice() {
+      return device;
+    }
+
+    public String getMeasurement() {
+      return measurement;
+    }
+
     @Override
     public boolean equals(Object o) {
       if (this == o) {
@@ -68,10 +68,11 @@ public class CompactionRecoverManager {
 
   private void recoverCompaction(boolean isInnerSpace, boolean isLogSequence) {
     List<String> dirs;
+    // files in cold data dirs may be compacted as well
     if (isLogSequence) {
-      dirs = DirectoryManager.getInstance().getAllSequenceFileFolders();
+      dirs = DirectoryManager.getInstance().getAllSequenceFileFoldersWithColdDirs();
     } else {
-      dirs = DirectoryManager.getInstance().getAllUnSequenceFileFolders();
+      dirs = DirectoryManager.getInstance().getAllUnSequenceFileFoldersWithColdDirs();
     }
     for (String dir : dirs) {
       File storageGroupDir =
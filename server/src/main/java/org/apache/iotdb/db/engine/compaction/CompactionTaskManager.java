@@ -82,6 +82,9 @@ public class CompactionTaskManager implements IService {
 
   private final RateLimiter mergeWriteRateLimiter = RateLimiter.create(Double.MAX_VALUE);
 
+  // the ratio of write throughput compaction can use, lowered when ingestion is heavy
+  private volatile double writeThrottleFactor = 1;
+
   public static CompactionTaskManager getInstance() {
     return INSTANCE;
   }
@@ -217,6 +220,9 @@ public class CompactionTaskManager implements IService {
       throws InterruptedException {
     if (!candidateCompactionTaskQueue.contains(compactionTask) && !isTaskRunning(compactionTask)) {
       compactionTask.setSourceFilesToCompactionCandidate();
+      if (IoTDBDescriptor.getInstance().getConfig().isEnableAdaptiveCompactionSchedule()) {
+        compactionTask.updateReadAmplificationScore();
+      }
       candidateCompactionTaskQueue.put(compactionTask);
 
       // add metrics
@@ -241,8 +247,12 @@ public class CompactionTaskManager implements IService {
    */
   public synchronized void submitTaskFromTaskQueue() {
     try {
-      while (currentTaskNum.get()
-              < IoTDBDescriptor.getInstance().getConfig().getConcurrentCompactionThread()
+      int maxConcurrentTaskNum =
+          IoTDBDescriptor.getInstance().getConfig().getConcurrentCompactionThread();
+      if (IoTDBDescriptor.getInstance().getConfig().isEnableAdaptiveCompactionSchedule()) {
+        maxConcurrentTaskNum = adaptToWorkload(maxConcurrentTaskNum);
+      }
+      while (currentTaskNum.get() < maxConcurrentTaskNum
           && !candidateCompactionTaskQueue.isEmpty()) {
         AbstractCompactionTask task = candidateCompactionTaskQueue.take();
 
@@ -261,9 +271,34 @@ public class CompactionTaskManager implements IService {
     }
   }
 
+  /**
+   * Reorder the waiting tasks by the latest read amplification of their time partitions, and
+   * throttle compaction according to the ingestion rate.
+   *
+   * @return the number of compaction tasks allowed to run concurrently
+   */
+  private int adaptToWorkload(int maxConcurrentTaskNum) throws InterruptedException {
+    CompactionWorkloadMonitor monitor = CompactionWorkloadMonitor.getInstance();
+    monitor.sample();
+    candidateCompactionTaskQueue.reorder(AbstractCompactionTask::updateReadAmplificationScore);
+    double throttleFactor = monitor.getThrottleFactor();
+    if (throttleFactor != writeThrottleFactor) {
+      logger.debug(
+          "Ingestion rate is {} points/s, compaction is throttled to {} of its capacity",
+          monitor.getIngestionPointsPerSec(),
+          throttleFactor);
+    }
+    writeThrottleFactor = throttleFactor;
+    return Math.max(1, (int) Math.ceil(maxConcurrentTaskNum * throttleFactor));
+  }
+
   public RateLimiter getMergeWriteRateLimiter() {
-    setWriteMergeRate(
-        IoTDBDescriptor.getInstance().getConfig().getCompactionWriteThroughputMbPerSec());
+    double throughputMbPerSec =
+        IoTDBDescriptor.getInstance().getConfig().getCompactionWriteThroughputMbPerSec();
+    if (IoTDBDescriptor.getInstance().getConfig().isEnableAdaptiveCompactionSchedule()) {
+      throughputMbPerSec *= writeThrottleFactor;
+    }
+    setWriteMergeRate(throughputMbPerSec);
     return mergeWriteRateLimiter;
   }
 
@@ -140,8 +140,8 @@ public class CompactionUtils {
           // we have to set modification offset to MAX_VALUE, as the offset of source chunk may
           // change after compaction
           modification.setFileOffset(Long.MAX_VALUE);
-          modificationFile.write(modification);
         }
+        modificationFile.write(modifications);
       }
     }
   }
@@ -150,20 +150,18 @@ public class CompactionUtils {
       TsFileResource targetFile, TsFileResource seqFile, List<TsFileResource> unseqFiles)
       throws IOException {
     // write mods in the seq file
+    List<Modification> modifications = new ArrayList<>();
     if (seqFile != null) {
       ModificationFile seqCompactionModificationFile = ModificationFile.getCompactionMods(seqFile);
-      for (Modification modification : seqCompactionModificationFile.getModifications()) {
-        targetFile.getModFile().write(modification);
-      }
+      modifications.addAll(seqCompactionModificationFile.getModifications());
     }
     // write mods in all unseq files
     for (TsFileResource unseqFile : unseqFiles) {
       ModificationFile compactionUnseqModificationFile =
           ModificationFile.getCompactionMods(unseqFile);
-      for (Modification modification : compactionUnseqModificationFile.getModifications()) {
-        targetFile.getModFile().write(modification);
-      }
+      modifications.addAll(compactionUnseqModificationFile.getModifications());
     }
+    targetFile.getModFile().write(modifications);
     targetFile.getModFile().close();
   }
 
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.compaction;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CompactionWorkloadMonitor collects the workload that compaction scheduling adapts to. On the read
+ * side, it records the read amplification of each time partition, i.e. how many unsequence files,
+ * overlapped chunks and mods files queries have to deal with. The scores decay exponentially so
+ * that they reflect recent queries. On the write side, it records the ingested points to estimate
+ * the ingestion rate, which is used to throttle compaction.
+ */
+public class CompactionWorkloadMonitor {
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  /** the read amplification score halves every 5 minutes */
+  private static final long SCORE_HALF_LIFE_IN_MS = 5 * 60 * 1000L;
+  /** scores lower than this are considered as no read amplification and are removed */
+  private static final double MIN_SCORE = 0.01;
+  /** compaction keeps at least this ratio of its concurrency and write throughput */
+  static final double MIN_THROTTLE_FACTOR = 0.2;
+
+  /** <fullStorageGroupName, <timePartition, score>> */
+  private final Map<String, Map<Long, DecayedScore>> readAmplificationScores =
+      new ConcurrentHashMap<>();
+
+  private final LongAdder insertedPoints = new LongAdder();
+  private long lastSampledPoints = 0;
+  private long lastSampleTime = -1;
+  private double ingestionPointsPerSec = 0;
+
+  CompactionWorkloadMonitor() {}
+
+  public static CompactionWorkloadMonitor getInstance() {
+    return CompactionWorkloadMonitorHolder.INSTANCE;
+  }
+
+  /** get the key of the data region that a TsFile belongs to, the same as compaction tasks */
+  public static String getFullStorageGroupName(TsFileResource resource) {
+    File dataRegionDir = resource.getTsFile().getParentFile().getParentFile();
+    return dataRegionDir.getParentFile().getName() + "-" + dataRegionDir.getName();
+  }
+
+  /** a query reads an unsequence file, which has to be merged with sequence data */
+  public void recordUnseqFileRead(TsFileResource resource) {
+    if (config.isEnableAdaptiveCompactionSchedule()) {
+      addScore(
+          getFullStorageGroupName(resource),
+          resource.getTimePartition(),
+          1,
+          System.currentTimeMillis());
+    }
+  }
+
+  /** a query reads chunks whose time ranges overlap, so they can not be read without merging */
+  public void recordOverlappedChunkRead(
+      String fullStorageGroupName, long timePartition, int overlappedChunkNum) {
+    if (config.isEnableAdaptiveCompactionSchedule() && overlappedChunkNum > 0) {
+      addScore(fullStorageGroupName, timePartition, overlappedChunkNum, System.currentTimeMillis());
+    }
+  }
+
+  /** a query applies the modifications in the mods file of a TsFile */
+  public void recordModsFileRead(TsFileResource resource) {
+    if (config.isEnableAdaptiveCompactionSchedule()) {
+      addScore(
+          getFullStorageGroupName(resource),
+          resource.getTimePartition(),
+          1,
+          System.currentTimeMillis());
+    }
+  }
+
+  public void recordPointsInserted(long pointNum) {
+    if (config.isEnableAdaptiveCompactionSchedule()) {
+      insertedPoints.add(pointNum);
+    }
+  }
+
+  void addScore(String fullStorageGroupName, long timePartition, double score, long currentTime) {
+    readAmplificationScores
+        .computeIfAbsent(fullStorageGroupName, k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(timePartition, k -> new DecayedScore(currentTime))
+        .add(score, currentTime);
+  }
+
+  public double getReadAmplificationScore(String fullStorageGroupName, long timePartition) {
+    return getReadAmplificationScore(
+        fullStorageGroupName, timePartition, System.currentTimeMillis());
+  }
+
+  double getReadAmplificationScore(
+      String fullStorageGroupName, long timePartition, long currentTime) {
+    Map<Long, DecayedScore> partitionScores = readAmplificationScores.get(fullStorageGroupName);
+    if (partitionScores == null) {
+      return 0;
+    }
+    DecayedScore score = partitionScores.get(timePartition);
+    return score == null ? 0 : score.get(currentTime);
+  }
+
+  /**
+   * Estimate the ingestion rate by the points inserted since last sample and remove the scores
+   * that have decayed away. It is called periodically by the compaction task submission thread.
+   */
+  public void sample() {
+    sample(System.currentTimeMillis());
+  }
+
+  synchronized void sample(long currentTime) {
+    long points = insertedPoints.sum();
+    if (lastSampleTime >= 0 && currentTime > lastSampleTime) {
+      double rate = (points - lastSampledPoints) * 1000.0 / (currentTime - lastSampleTime);
+      // smooth the rate so that a short burst doesn't stop compaction immediately
+      ingestionPointsPerSec = (ingestionPointsPerSec + rate) / 2;
+    }
+    lastSampledPoints = points;
+    lastSampleTime = currentTime;
+
+    for (Map<Long, DecayedScore> partitionScores : readAmplificationScores.values()) {
+      partitionScores.values().removeIf(score -> score.get(currentTime) < MIN_SCORE);
+    }
+    readAmplificationScores.values().removeIf(Map::isEmpty);
+  }
+
+  public synchronized double getIngestionPointsPerSec() {
+    return ingestionPointsPerSec;
+  }
+
+  /**
+   * Get the ratio of concurrency and write throughput compaction is allowed to use, it decreases
+   * linearly from 1 to {@link #MIN_THROTTLE_FACTOR} as the ingestion rate approaches the threshold.
+   */
+  public double getThrottleFactor() {
+    long threshold = config.getCompactionThrottleIngestionPointsPerSec();
+    if (!config.isEnableAdaptiveCompactionSchedule() || threshold <= 0) {
+      return 1;
+    }
+    double pressure = Math.min(1, getIngestionPointsPerSec() / threshold);
+    return Math.max(MIN_THROTTLE_FACTOR, 1 - pressure);
+  }
+
+  synchronized void clear() {
+    readAmplificationScores.clear();
+    insertedPoints.reset();
+    lastSampledPoints = 0;
+    lastSampleTime = -1;
+    ingestionPointsPerSec = 0;
+  }
+
+  private static class DecayedScore {
+    private double value = 0;
+    private long lastUpdateTime;
+
+    private DecayedScore(long currentTime) {
+      this.lastUpdateTime = currentTime;
+    }
+
+    private synchronized void add(double score, long currentTime) {
+      decay(currentTime);
+      value += score;
+    }
+
+    private synchronized double get(long currentTime) {
+      decay(currentTime);
+      return value;
+    }
+
+    private void decay(long currentTime) {
+      if (currentTime > lastUpdateTime) {
+        value *= Math.pow(0.5, (double) (currentTime - lastUpdateTime) / SCORE_HALF_LIFE_IN_MS);
+        lastUpdateTime = currentTime;
+      }
+    }
+  }
+
+  private static class CompactionWorkloadMonitorHolder {
+    private static final CompactionWorkloadMonitor INSTANCE = new CompactionWorkloadMonitor();
+
+    private CompactionWorkloadMonitorHolder() {}
+  }
+}
@@ -34,6 +34,11 @@ public class DefaultCompactionTaskComparatorImpl implements ICompactionTaskCompa
 
   @Override
   public int compare(AbstractCompactionTask o1, AbstractCompactionTask o2) {
+    if (config.isEnableAdaptiveCompactionSchedule()
+        && o1.getReadAmplificationScore() != o2.getReadAmplificationScore()) {
+      // we prefer the task of the time partition whose queries suffer more read amplification
+      return Double.compare(o2.getReadAmplificationScore(), o1.getReadAmplificationScore());
+    }
     if ((((o1 instanceof InnerSpaceCompactionTask) && (o2 instanceof CrossSpaceCompactionTask))
         || ((o2 instanceof InnerSpaceCompactionTask)
             && (o1 instanceof CrossSpaceCompactionTask)))) {
@@ -19,20 +19,26 @@
 package org.apache.iotdb.db.engine.compaction.constant;
 
 import org.apache.iotdb.db.engine.compaction.performer.ICrossCompactionPerformer;
+import org.apache.iotdb.db.engine.compaction.performer.impl.ReadPageCompactionPerformer;
 import org.apache.iotdb.db.engine.compaction.performer.impl.ReadPointCompactionPerformer;
 
 public enum CrossCompactionPerformer {
-  READ_POINT;
+  READ_POINT,
+  READ_PAGE;
 
   public static CrossCompactionPerformer getCrossCompactionPerformer(String name) {
     if (READ_POINT.toString().equalsIgnoreCase(name)) {
       return READ_POINT;
+    } else if (READ_PAGE.toString().equalsIgnoreCase(name)) {
+      return READ_PAGE;
     }
     throw new RuntimeException("Illegal compaction performer for cross compaction " + name);
   }
 
   public ICrossCompactionPerformer createInstance() {
     switch (this) {
+      case READ_PAGE:
+        return new ReadPageCompactionPerformer();
       case READ_POINT:
       default:
         return new ReadPointCompactionPerformer();
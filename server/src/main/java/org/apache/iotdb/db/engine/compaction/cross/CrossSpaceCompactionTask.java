@@ -132,6 +132,9 @@ public class CrossSpaceCompactionTask extends AbstractCompactionTask {
             timePartition,
             true);
 
+        // queries using older snapshots of the file lists may still read the source files
+        tsFileManager.waitForStaleSnapshots();
+
         releaseReadAndLockWrite(selectedSequenceFiles);
         releaseReadAndLockWrite(selectedUnsequenceFiles);
 
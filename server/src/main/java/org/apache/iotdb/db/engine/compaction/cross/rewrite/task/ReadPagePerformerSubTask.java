@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.compaction.cross.rewrite.task;
+
+import org.apache.iotdb.commons.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.compaction.writer.CrossSpaceCompactionWriter;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.metadata.PathNotExistException;
+import org.apache.iotdb.db.metadata.idtable.IDTableManager;
+import org.apache.iotdb.db.metadata.path.PartialPath;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.db.query.reader.chunk.ChunkDataIterator;
+import org.apache.iotdb.db.query.reader.universal.PriorityMergeReader;
+import org.apache.iotdb.db.query.reader.universal.PriorityMergeReader.MergeReaderPriority;
+import org.apache.iotdb.db.service.IoTDB;
+import org.apache.iotdb.db.utils.QueryUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.compress.IUnCompressor;
+import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.file.MetaMarker;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.read.reader.page.PageReader;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.write.schema.IMeasurementSchema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * This class compacts not aligned measurements of cross space compaction at page granularity. For
+ * each measurement, the chunks of unsequence files are merged by a {@link PriorityMergeReader}, and
+ * the pages of sequence files are visited in time order:
+ *
+ * <ul>
+ *   <li>unsequence points earlier than the page are written first;
+ *   <li>if no unsequence point or deletion falls into the time range of the page, and the page is
+ *       encoded and compressed as the target chunk, the compressed page is copied into the target
+ *       chunk with its statistics;
+ *   <li>otherwise the page is decoded and merged with the overlapped unsequence points.
+ * </ul>
+ */
+public class ReadPagePerformerSubTask implements Callable<Void> {
+  private static final Logger logger =
+      LoggerFactory.getLogger(IoTDBConstant.COMPACTION_LOGGER_NAME);
+  private final String device;
+  private final Set<String> measurementList;
+  private final QueryContext queryContext;
+  private final QueryDataSource queryDataSource;
+  private final List<TsFileResource> seqFiles;
+  private final List<TsFileResource> unseqFiles;
+  private final CrossSpaceCompactionWriter compactionWriter;
+  private final int taskId;
+
+  private final Decoder timeDecoder =
+      Decoder.getDecoderByType(
+          TSEncoding.valueOf(TSFileDescriptor.getInstance().getConfig().getTimeEncoder()),
+          TSDataType.INT64);
+
+  // how many pages are copied or decoded, used for logging
+  private long copiedPageNum = 0;
+  private long decodedPageNum = 0;
+
+  public ReadPagePerformerSubTask(
+      String device,
+      Set<String> measurementList,
+      QueryContext queryContext,
+      QueryDataSource queryDataSource,
+      List<TsFileResource> seqFiles,
+      List<TsFileResource> unseqFiles,
+      CrossSpaceCompactionWriter compactionWriter,
+      int taskId) {
+    this.device = device;
+    this.measurementList = measurementList;
+    this.queryContext = queryContext;
+    this.queryDataSource = queryDataSource;
+    this.seqFiles = seqFiles;
+    this.unseqFiles = unseqFiles;
+    this.compactionWriter = compactionWriter;
+    this.taskId = taskId;
+  }
+
+  @Override
+  public Void call() throws Exception {
+    for (String measurement : measurementList) {
+      IMeasurementSchema measurementSchema;
+      try {
+        if (IoTDBDescriptor.getInstance().getConfig().isEnableIDTable()) {
+          measurementSchema = IDTableManager.getInstance().getSeriesSchema(device, measurement);
+        } else {
+          measurementSchema =
+              IoTDB.schemaProcessor.getSeriesSchema(new PartialPath(device, measurement));
+        }
+      } catch (PathNotExistException e) {
+        logger.info("A deleted path is skipped: {}", e.getMessage());
+        continue;
+      }
+
+      PartialPath seriesPath = new PartialPath(device, measurement);
+      List<Pair<TsFileResource, List<ChunkMetadata>>> seqChunkMetadata =
+          getChunkMetadataList(seqFiles, seriesPath);
+      List<Pair<TsFileResource, List<ChunkMetadata>>> unseqChunkMetadata =
+          getChunkMetadataList(unseqFiles, seriesPath);
+      if (seqChunkMetadata.isEmpty() && unseqChunkMetadata.isEmpty()) {
+        continue;
+      }
+      if (isFromOldTsFile(seqChunkMetadata) || isFromOldTsFile(unseqChunkMetadata)) {
+        // pages of old TsFiles are in another format, compact them point by point
+        new ReadPointPerformerSubTask(
+                device,
+                Collections.singleton(measurement),
+                queryContext,
+                queryDataSource,
+                compactionWriter,
+                taskId)
+            .call();
+        continue;
+      }
+
+      compactionWriter.startMeasurement(Collections.singletonList(measurementSchema), taskId);
+      compactSeries(measurementSchema, seqChunkMetadata, unseqChunkMetadata);
+      compactionWriter.endMeasurement(taskId);
+    }
+    logger.debug(
+        "{} [Compaction] {} pages are copied and {} pages are decoded in sub task {}",
+        device,
+        copiedPageNum,
+        decodedPageNum,
+        taskId);
+    return null;
+  }
+
+  private void compactSeries(
+      IMeasurementSchema measurementSchema,
+      List<Pair<TsFileResource, List<ChunkMetadata>>> seqChunkMetadata,
+      List<Pair<TsFileResource, List<ChunkMetadata>>> unseqChunkMetadata)
+      throws IOException {
+    PriorityMergeReader mergeReader = new PriorityMergeReader();
+    try {
+      for (Pair<TsFileResource, List<ChunkMetadata>> pair : unseqChunkMetadata) {
+        TsFileSequenceReader reader =
+            FileReaderManager.getInstance().get(pair.left.getTsFilePath(), true);
+        for (ChunkMetadata chunkMetadata : pair.right) {
+          Chunk chunk = reader.readMemChunk(chunkMetadata);
+          mergeReader.addReader(
+              new ChunkDataIterator(new ChunkReader(chunk, null)),
+              new MergeReaderPriority(
+                  pair.left.getVersion(), chunkMetadata.getOffsetOfChunkHeader()),
+              chunkMetadata.getEndTime(),
+              queryContext);
+        }
+      }
+
+      for (Pair<TsFileResource, List<ChunkMetadata>> pair : seqChunkMetadata) {
+        TsFileSequenceReader reader =
+            FileReaderManager.getInstance().get(pair.left.getTsFilePath(), true);
+        for (ChunkMetadata chunkMetadata : pair.right) {
+          compactSeqChunk(
+              reader.readMemChunk(chunkMetadata),
+              new MergeReaderPriority(
+                  pair.left.getVersion(), chunkMetadata.getOffsetOfChunkHeader()),
+              measurementSchema,
+              mergeReader);
+        }
+      }
+
+      // the remaining unsequence points are later than all the sequence data
+      writeMergedPoints(mergeReader, Long.MAX_VALUE);
+    } finally {
+      mergeReader.close();
+    }
+  }
+
+  private void compactSeqChunk(
+      Chunk chunk,
+      MergeReaderPriority priority,
+      IMeasurementSchema measurementSchema,
+      PriorityMergeReader mergeReader)
+      throws IOException {
+    ChunkHeader chunkHeader = chunk.getHeader();
+    ByteBuffer chunkDataBuffer = chunk.getData();
+    boolean canCopyPage =
+        chunkHeader.getDataType() == measurementSchema.getType()
+            && chunkHeader.getEncodingType() == measurementSchema.getEncodingType()
+            && chunkHeader.getCompressionType() == measurementSchema.getCompressor();
+    while (chunkDataBuffer.remaining() > 0) {
+      PageHeader pageHeader;
+      if (((byte) (chunkHeader.getChunkType() & 0x3F)) == MetaMarker.ONLY_ONE_PAGE_CHUNK_HEADER) {
+        pageHeader = PageHeader.deserializeFrom(chunkDataBuffer, chunk.getChunkStatistic());
+      } else {
+        pageHeader = PageHeader.deserializeFrom(chunkDataBuffer, chunkHeader.getDataType());
+      }
+      if (pageHeader.getUncompressedSize() == 0) {
+        // empty page
+        continue;
+      }
+      ByteBuffer compressedPageData = chunkDataBuffer.slice();
+      compressedPageData.limit(pageHeader.getCompressedSize());
+      chunkDataBuffer.position(chunkDataBuffer.position() + pageHeader.getCompressedSize());
+
+      writeMergedPoints(mergeReader, pageHeader.getStartTime() - 1);
+      boolean isOverlapped =
+          mergeReader.hasNextTimeValuePair()
+              && mergeReader.currentTimeValuePair().getTimestamp() <= pageHeader.getEndTime();
+      if (canCopyPage && !isOverlapped && !isDeleted(pageHeader, chunk.getDeleteIntervalList())) {
+        compactionWriter.writePage(pageHeader, compressedPageData, taskId);
+        copiedPageNum++;
+        continue;
+      }
+
+      decodedPageNum++;
+      BatchData batchData = decodePage(chunkHeader, pageHeader, compressedPageData, chunk);
+      if (isOverlapped) {
+        mergeReader.addReader(
+            batchData.getBatchDataIterator(), priority, pageHeader.getEndTime(), queryContext);
+        writeMergedPoints(mergeReader, pageHeader.getEndTime());
+      } else {
+        while (batchData.hasCurrent()) {
+          compactionWriter.write(batchData.currentTime(), batchData.currentValue(), taskId);
+          batchData.next();
+        }
+      }
+    }
+  }
+
+  private BatchData decodePage(
+      ChunkHeader chunkHeader, PageHeader pageHeader, ByteBuffer compressedPageData, Chunk chunk)
+      throws IOException {
+    byte[] compressedPageBody = new byte[pageHeader.getCompressedSize()];
+    compressedPageData.duplicate().get(compressedPageBody);
+    byte[] uncompressedPageBody = new byte[pageHeader.getUncompressedSize()];
+    IUnCompressor.getUnCompressor(chunkHeader.getCompressionType())
+        .uncompress(compressedPageBody, 0, compressedPageBody.length, uncompressedPageBody, 0);
+    PageReader pageReader =
+        new PageReader(
+            pageHeader,
+            ByteBuffer.wrap(uncompressedPageBody),
+            chunkHeader.getDataType(),
+            Decoder.getDecoderByType(chunkHeader.getEncodingType(), chunkHeader.getDataType()),
+            timeDecoder,
+            null);
+    pageReader.setDeleteIntervalList(chunk.getDeleteIntervalList());
+    return pageReader.getAllSatisfiedPageData(true);
+  }
+
+  /** write the merged points whose timestamps are not greater than the given time */
+  private void writeMergedPoints(PriorityMergeReader mergeReader, long endTime)
+      throws IOException {
+    while (mergeReader.hasNextTimeValuePair()
+        && mergeReader.currentTimeValuePair().getTimestamp() <= endTime) {
+      TimeValuePair timeValuePair = mergeReader.nextTimeValuePair();
+      compactionWriter.write(
+          timeValuePair.getTimestamp(), timeValuePair.getValue().getValue(), taskId);
+    }
+  }
+
+  private boolean isDeleted(PageHeader pageHeader, List<TimeRange> deleteIntervalList) {
+    if (deleteIntervalList == null) {
+      return false;
+    }
+    TimeRange pageTimeRange = new TimeRange(pageHeader.getStartTime(), pageHeader.getEndTime());
+    for (TimeRange deleteInterval : deleteIntervalList) {
+      if (deleteInterval.overlaps(pageTimeRange)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** get the chunk metadata of the series in each file with modifications applied */
+  private List<Pair<TsFileResource, List<ChunkMetadata>>> getChunkMetadataList(
+      List<TsFileResource> resources, PartialPath seriesPath) throws IOException {
+    List<Pair<TsFileResource, List<ChunkMetadata>>> result = new ArrayList<>();
+    for (TsFileResource resource : resources) {
+      List<ChunkMetadata> chunkMetadataList =
+          FileReaderManager.getInstance()
+              .get(resource.getTsFilePath(), true)
+              .getChunkMetadataList(new Path(device, seriesPath.getMeasurement()), true);
+      if (chunkMetadataList.isEmpty()) {
+        continue;
+      }
+      List<Modification> modifications =
+          queryContext.getPathModifications(resource.getModFile(), seriesPath);
+      if (!modifications.isEmpty()) {
+        QueryUtils.modifyChunkMetaData(chunkMetadataList, modifications);
+      }
+      if (!chunkMetadataList.isEmpty()) {
+        result.add(new Pair<>(resource, chunkMetadataList));
+      }
+    }
+    return result;
+  }
+
+  private boolean isFromOldTsFile(List<Pair<TsFileResource, List<ChunkMetadata>>> metadataList) {
+    for (Pair<TsFileResource, List<ChunkMetadata>> pair : metadataList) {
+      for (ChunkMetadata chunkMetadata : pair.right) {
+        if (chunkMetadata.isFromOldTsFile()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -154,6 +154,9 @@ public class InnerSpaceCompactionTask extends AbstractCompactionTask {
             false);
       }
 
+      // queries using older snapshots of the file lists may still read the source files
+      tsFileManager.waitForStaleSnapshots();
+
       LOGGER.info(
           "{} [Compaction] Compacted target files, try to get the write lock of source files",
           fullStorageGroupName);
@@ -24,6 +24,8 @@ import org.apache.iotdb.db.engine.compaction.CompactionTaskManager;
 import org.apache.iotdb.db.engine.compaction.constant.CompactionType;
 import org.apache.iotdb.db.engine.compaction.constant.ProcessChunkType;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.metadata.AlignedChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.IChunkMetadata;
 import org.apache.iotdb.tsfile.read.TsFileAlignedSeriesReaderIterator;
@@ -42,10 +44,10 @@ import com.google.common.util.concurrent.RateLimiter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 public class AlignedSeriesCompactionExecutor {
   private final String device;
@@ -64,12 +66,15 @@ public class AlignedSeriesCompactionExecutor {
       IoTDBDescriptor.getInstance().getConfig().getTargetChunkSize();
   private final long chunkPointNumThreshold =
       IoTDBDescriptor.getInstance().getConfig().getTargetChunkPointNum();
+  private final boolean enableRecompress =
+      IoTDBDescriptor.getInstance().getConfig().isEnableCompactionRecompress();
 
   public AlignedSeriesCompactionExecutor(
       String device,
       TsFileResource targetResource,
       LinkedList<Pair<TsFileSequenceReader, List<AlignedChunkMetadata>>> readerAndChunkMetadataList,
-      TsFileIOWriter writer) {
+      TsFileIOWriter writer)
+      throws IOException {
     this.device = device;
     this.readerAndChunkMetadataList = readerAndChunkMetadataList;
     this.writer = writer;
@@ -80,15 +85,17 @@ public class AlignedSeriesCompactionExecutor {
 
   /**
    * collect the measurement schema from list of alignedChunkMetadata list, and sort them in
-   * dictionary order.
+   * dictionary order. The encoding and compressor of each measurement are read from the header of
+   * its first value chunk, so that the measurement keeps them after compaction.
    *
    * @param readerAndChunkMetadataList
    * @return
    */
   private List<IMeasurementSchema> collectSchemaFromAlignedChunkMetadataList(
       LinkedList<Pair<TsFileSequenceReader, List<AlignedChunkMetadata>>>
-          readerAndChunkMetadataList) {
-    Set<MeasurementSchema> schemaSet = new HashSet<>();
+          readerAndChunkMetadataList)
+      throws IOException {
+    Map<String, IMeasurementSchema> schemaMap = new HashMap<>();
     for (Pair<TsFileSequenceReader, List<AlignedChunkMetadata>> readerListPair :
         readerAndChunkMetadataList) {
       List<AlignedChunkMetadata> alignedChunkMetadataList = readerListPair.right;
@@ -99,13 +106,23 @@ public class AlignedSeriesCompactionExecutor {
           if (chunkMetadata == null) {
             continue;
           }
-          schemaSet.add(
+          if (schemaMap.containsKey(chunkMetadata.getMeasurementUid())) {
+            continue;
+          }
+          ChunkHeader chunkHeader = readerListPair.left.readChunkHeader(chunkMetadata);
+          schemaMap.put(
+              chunkMetadata.getMeasurementUid(),
               new MeasurementSchema(
-                  chunkMetadata.getMeasurementUid(), chunkMetadata.getDataType()));
+                  chunkMetadata.getMeasurementUid(),
+                  chunkMetadata.getDataType(),
+                  chunkHeader.getEncodingType(),
+                  enableRecompress
+                      ? TSFileDescriptor.getInstance().getConfig().getCompressor()
+                      : chunkHeader.getCompressionType()));
         }
       }
     }
-    List<IMeasurementSchema> schemaList = new ArrayList<>(schemaSet);
+    List<IMeasurementSchema> schemaList = new ArrayList<>(schemaMap.values());
     schemaList.sort(Comparator.comparing(IMeasurementSchema::getMeasurementId));
     return schemaList;
   }
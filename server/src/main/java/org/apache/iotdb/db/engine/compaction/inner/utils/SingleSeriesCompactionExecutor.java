@@ -26,6 +26,7 @@ import org.apache.iotdb.db.engine.compaction.constant.ProcessChunkType;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.metadata.path.PartialPath;
 import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.read.TimeValuePair;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
@@ -36,6 +37,7 @@ import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.schema.IMeasurementSchema;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
 
 import com.google.common.util.concurrent.RateLimiter;
@@ -72,6 +74,8 @@ public class SingleSeriesCompactionExecutor {
       IoTDBDescriptor.getInstance().getConfig().getChunkPointNumLowerBoundInCompaction();
   private final boolean enableMetrics =
       MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric();
+  private final boolean enableRecompress =
+      IoTDBDescriptor.getInstance().getConfig().isEnableCompactionRecompress();
 
   public SingleSeriesCompactionExecutor(
       PartialPath series,
@@ -82,7 +86,18 @@ public class SingleSeriesCompactionExecutor {
     this.device = series.getDevice();
     this.readerAndChunkMetadataList = readerAndChunkMetadataList;
     this.fileWriter = fileWriter;
-    this.schema = measurementSchema;
+    if (enableRecompress) {
+      // chunks compressed by another compressor than the configured one are rewritten with it
+      this.schema =
+          new MeasurementSchema(
+              measurementSchema.getMeasurementId(),
+              measurementSchema.getType(),
+              measurementSchema.getEncodingType(),
+              TSFileDescriptor.getInstance().getConfig().getCompressor(),
+              measurementSchema.getProps());
+    } else {
+      this.schema = measurementSchema;
+    }
     this.chunkWriter = new ChunkWriterImpl(this.schema);
     this.cachedChunk = null;
     this.cachedChunkMetadata = null;
@@ -104,8 +119,10 @@ public class SingleSeriesCompactionExecutor {
         CompactionMetricsManager.recordReadInfo(
             currentChunk.getHeader().getSerializedSize() + currentChunk.getHeader().getDataSize());
 
-        // if this chunk is modified, deserialize it into points
-        if (chunkMetadata.getDeleteIntervalList() != null) {
+        // if this chunk is modified or compressed by another compressor than the one in schema,
+        // deserialize it into points, so that it will be rewritten with the compressor in schema
+        if (chunkMetadata.getDeleteIntervalList() != null
+            || currentChunk.getHeader().getCompressionType() != schema.getCompressor()) {
           processModifiedChunk(currentChunk);
           continue;
         }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.compaction.performer.impl;
+
+import org.apache.iotdb.db.engine.compaction.cross.rewrite.task.ReadPagePerformerSubTask;
+import org.apache.iotdb.db.engine.compaction.writer.AbstractCompactionWriter;
+import org.apache.iotdb.db.engine.compaction.writer.CrossSpaceCompactionWriter;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.query.context.QueryContext;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * ReadPageCompactionPerformer compacts not aligned series of cross space compaction at page
+ * granularity. The pages of sequence files that don't overlap any unsequence data or deletion are
+ * copied to the target files without decompressing and decoding, and only the overlapped pages are
+ * decoded and merged with unsequence data. Aligned series and inner space compaction are still
+ * compacted point by point like {@link ReadPointCompactionPerformer}.
+ */
+public class ReadPageCompactionPerformer extends ReadPointCompactionPerformer {
+
+  public ReadPageCompactionPerformer(
+      List<TsFileResource> seqFiles,
+      List<TsFileResource> unseqFiles,
+      List<TsFileResource> targetFiles) {
+    super(seqFiles, unseqFiles, targetFiles);
+  }
+
+  public ReadPageCompactionPerformer() {}
+
+  @Override
+  protected Callable<Void> createSubTask(
+      String device,
+      Set<String> measurements,
+      QueryContext queryContext,
+      QueryDataSource queryDataSource,
+      AbstractCompactionWriter compactionWriter,
+      int subTaskId) {
+    if (!(compactionWriter instanceof CrossSpaceCompactionWriter)) {
+      return super.createSubTask(
+          device, measurements, queryContext, queryDataSource, compactionWriter, subTaskId);
+    }
+    return new ReadPagePerformerSubTask(
+        device,
+        measurements,
+        queryContext,
+        queryDataSource,
+        seqFiles,
+        unseqFiles,
+        (CrossSpaceCompactionWriter) compactionWriter,
+        subTaskId);
+  }
+}
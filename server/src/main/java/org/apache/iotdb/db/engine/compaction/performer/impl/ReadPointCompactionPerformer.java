@@ -61,6 +61,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
@@ -68,8 +69,8 @@ import java.util.stream.Collectors;
 public class ReadPointCompactionPerformer
     implements ICrossCompactionPerformer, IUnseqCompactionPerformer {
   private Logger LOGGER = LoggerFactory.getLogger(IoTDBConstant.COMPACTION_LOGGER_NAME);
-  private List<TsFileResource> seqFiles = Collections.emptyList();
-  private List<TsFileResource> unseqFiles = Collections.emptyList();
+  protected List<TsFileResource> seqFiles = Collections.emptyList();
+  protected List<TsFileResource> unseqFiles = Collections.emptyList();
   private static final int subTaskNum =
       IoTDBDescriptor.getInstance().getConfig().getSubCompactionTaskNum();
 
@@ -96,7 +97,7 @@ public class ReadPointCompactionPerformer
   public void perform()
       throws IOException, MetadataException, StorageEngineException, InterruptedException {
     long queryId = QueryResourceManager.getInstance().assignCompactionQueryId();
-    QueryContext queryContext = new QueryContext(queryId);
+    QueryContext queryContext = new QueryContext(queryId).setQueryType("compaction");
     QueryDataSource queryDataSource = new QueryDataSource(seqFiles, unseqFiles);
     QueryResourceManager.getInstance()
         .getQueryFileManager()
@@ -216,7 +217,7 @@ public class ReadPointCompactionPerformer
       futures.add(
           CompactionTaskManager.getInstance()
               .submitSubTask(
-                  new ReadPointPerformerSubTask(
+                  createSubTask(
                       device,
                       measurementsForEachSubTask[i],
                       queryContext,
@@ -239,6 +240,18 @@ public class ReadPointCompactionPerformer
     compactionWriter.endChunkGroup();
   }
 
+  /** create the sub task to compact a part of the measurements of a not aligned device */
+  protected Callable<Void> createSubTask(
+      String device,
+      Set<String> measurements,
+      QueryContext queryContext,
+      QueryDataSource queryDataSource,
+      AbstractCompactionWriter compactionWriter,
+      int subTaskId) {
+    return new ReadPointPerformerSubTask(
+        device, measurements, queryContext, queryDataSource, compactionWriter, subTaskId);
+  }
+
   private static void updateDeviceStartTimeAndEndTime(
       List<TsFileResource> targetResources, AbstractCompactionWriter compactionWriter) {
     List<TsFileIOWriter> targetFileWriters = compactionWriter.getFileIOWriter();
@@ -21,6 +21,7 @@ package org.apache.iotdb.db.engine.compaction.task;
 
 import org.apache.iotdb.commons.conf.IoTDBConstant;
 import org.apache.iotdb.db.engine.compaction.CompactionTaskManager;
+import org.apache.iotdb.db.engine.compaction.CompactionWorkloadMonitor;
 import org.apache.iotdb.db.engine.compaction.performer.ICompactionPerformer;
 import org.apache.iotdb.db.engine.storagegroup.TsFileManager;
 
@@ -47,6 +48,9 @@ public abstract class AbstractCompactionTask implements Callable<Void> {
   protected volatile boolean ran = false;
   protected volatile boolean finished = false;
   protected ICompactionPerformer performer;
+  // snapshot of the read amplification of the time partition, used to prioritize tasks. It is only
+  // refreshed while the task is out of the priority queue to keep the order of the queue consistent
+  protected double readAmplificationScore = 0;
 
   public AbstractCompactionTask(
       String fullStorageGroupName,
@@ -93,6 +97,16 @@ public abstract class AbstractCompactionTask implements Callable<Void> {
     return timePartition;
   }
 
+  public double getReadAmplificationScore() {
+    return readAmplificationScore;
+  }
+
+  public void updateReadAmplificationScore() {
+    readAmplificationScore =
+        CompactionWorkloadMonitor.getInstance()
+            .getReadAmplificationScore(fullStorageGroupName, timePartition);
+  }
+
   public abstract boolean equalsOtherTask(AbstractCompactionTask otherTask);
 
   /**
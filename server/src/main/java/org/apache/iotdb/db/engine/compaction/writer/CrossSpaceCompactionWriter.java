@@ -18,12 +18,19 @@
  */
 package org.apache.iotdb.db.engine.compaction.writer;
 
+import org.apache.iotdb.db.engine.compaction.CompactionMetricsManager;
+import org.apache.iotdb.db.engine.compaction.constant.CompactionType;
+import org.apache.iotdb.db.engine.compaction.constant.ProcessChunkType;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.tsfile.exception.write.PageException;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
+import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -107,6 +114,35 @@ public class CrossSpaceCompactionWriter extends AbstractCompactionWriter {
   @Override
   public void write(long[] timestamps, Object values) {}
 
+  /**
+   * Write a page of a sequence file into the current chunk without decompressing and decoding. The
+   * page must be encoded and compressed in the same way as the chunk writer, and it must be later
+   * than all the data written into the current chunk.
+   */
+  public void writePage(PageHeader pageHeader, ByteBuffer compressedPageData, int subTaskId)
+      throws IOException {
+    checkTimeAndMayFlushChunkToCurrentFile(pageHeader.getStartTime(), subTaskId);
+    ChunkWriterImpl chunkWriter = (ChunkWriterImpl) chunkWriters[subTaskId];
+    // the points written before must be sealed into a page ahead of this page
+    chunkWriter.sealCurrentPage();
+    try {
+      chunkWriter.writePageHeaderAndDataIntoBuff(compressedPageData, pageHeader);
+    } catch (PageException e) {
+      throw new IOException(e);
+    }
+    int fileIndex = seqFileIndexArray[subTaskId];
+    if (checkChunkSize(subTaskId)) {
+      CompactionMetricsManager.recordWriteInfo(
+          CompactionType.CROSS_COMPACTION,
+          ProcessChunkType.MERGE_CHUNK,
+          false,
+          chunkWriter.estimateMaxSeriesMemSize());
+      flushChunkToFileWriter(fileWriterList.get(fileIndex), subTaskId);
+    }
+    isDeviceExistedInTargetFiles[fileIndex] = true;
+    isEmptyFile[fileIndex] = false;
+  }
+
   @Override
   public void endFile() throws IOException {
     for (int i = 0; i < isEmptyFile.length; i++) {
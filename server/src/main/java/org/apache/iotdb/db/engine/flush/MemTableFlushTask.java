@@ -40,14 +40,22 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * flush task to flush one memtable using a pipeline model to flush, which is sort memtable ->
  * encoding -> write to disk (io task)
+ *
+ * <p>If flush_encoding_parallelism is larger than 1, the encoding task submits chunks of different
+ * series to FlushSubTaskPoolManager and puts the futures into ioTaskQueue, so chunks are encoded in
+ * parallel while the io task still writes them in the order of chunk groups and series.
  */
 public class MemTableFlushTask {
 
@@ -69,8 +77,16 @@ public class MemTableFlushTask {
 
   private IMemTable memTable;
 
-  private volatile long memSerializeTime = 0L;
+  /** limit the number of chunks being encoded in parallel, null if encoding one by one */
+  private final Semaphore encodingPermits =
+      config.getFlushEncodingParallelism() > 1
+          ? new Semaphore(config.getFlushEncodingParallelism())
+          : null;
+
+  private final AtomicLong memSerializeTime = new AtomicLong(0L);
   private volatile long ioTime = 0L;
+  /** time of io task waiting for encoded chunks */
+  private volatile long ioWaitTime = 0L;
 
   /**
    * @param memTable the memTable to flush
@@ -136,6 +152,9 @@ public class MemTableFlushTask {
 
     try {
       encodingTaskFuture.get();
+    } catch (CancellationException e) {
+      // the encoding task is cancelled by the io task when the io task fails, so that it won't be
+      // blocked on the full ioTaskQueue forever. The error of the io task is thrown below.
     } catch (InterruptedException | ExecutionException e) {
       ioTaskFuture.cancel(true);
       throw e;
@@ -149,11 +168,16 @@ public class MemTableFlushTask {
       throw new ExecutionException(e);
     }
 
+    // in parallel mode, memSerializeTime is the sum of encoding time of all workers
+    long encodingTime =
+        encodingPermits == null
+            ? memSerializeTime.get()
+            : memSerializeTime.get() / config.getFlushEncodingParallelism();
     if (config.isEnableMemControl()) {
       if (estimatedTemporaryMemSize != 0) {
         SystemInfo.getInstance().releaseTemporaryMemoryForFlushing(estimatedTemporaryMemSize);
       }
-      SystemInfo.getInstance().setEncodingFasterThanIo(ioTime >= memSerializeTime);
+      SystemInfo.getInstance().setEncodingFasterThanIo(ioTime >= encodingTime);
     }
 
     if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
@@ -166,6 +190,10 @@ public class MemTableFlushTask {
               MetricLevel.IMPORTANT,
               Tag.NAME.toString(),
               "flush");
+      recordFlushStageCost("sort", sortTime);
+      recordFlushStageCost("encoding", encodingTime);
+      recordFlushStageCost("io", ioTime);
+      recordFlushStageCost("io_wait", ioWaitTime);
     }
 
     LOGGER.info(
@@ -175,6 +203,45 @@ public class MemTableFlushTask {
         System.currentTimeMillis() - start);
   }
 
+  private void recordFlushStageCost(String stage, long costInMs) {
+    MetricsService.getInstance()
+        .getMetricManager()
+        .timer(
+            costInMs,
+            TimeUnit.MILLISECONDS,
+            Metric.COST_TASK.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            "flush_stage",
+            Tag.TYPE.toString(),
+            stage);
+  }
+
+  private void recordQueueDepth(String queueName, int depth) {
+    if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
+      MetricsService.getInstance()
+          .getMetricManager()
+          .getOrCreateGauge(
+              Metric.QUEUE.toString(),
+              MetricLevel.IMPORTANT,
+              Tag.NAME.toString(),
+              queueName,
+              Tag.STATUS.toString(),
+              "waiting")
+          .set(depth);
+    }
+  }
+
+  private IChunkWriter encodeSeries(IWritableMemChunk writableMemChunk) {
+    long starTime = System.currentTimeMillis();
+    IChunkWriter seriesWriter = writableMemChunk.createIChunkWriter();
+    writableMemChunk.encode(seriesWriter);
+    seriesWriter.sealCurrentPage();
+    seriesWriter.clearPageWriter();
+    memSerializeTime.addAndGet(System.currentTimeMillis() - starTime);
+    return seriesWriter;
+  }
+
   /** encoding task (second task of pipeline) */
   private Runnable encodingTask =
       new Runnable() {
@@ -196,6 +263,7 @@ public class MemTableFlushTask {
               Thread.currentThread().interrupt();
               break;
             }
+            recordQueueDepth("flush_encoding_queue", encodingTaskQueue.size());
             if (task instanceof StartFlushGroupIOTask || task instanceof EndChunkGroupIoTask) {
               try {
                 ioTaskQueue.put(task);
@@ -213,19 +281,27 @@ public class MemTableFlushTask {
             } else if (task instanceof TaskEnd) {
               break;
             } else {
-              long starTime = System.currentTimeMillis();
               IWritableMemChunk writableMemChunk = (IWritableMemChunk) task;
-              IChunkWriter seriesWriter = writableMemChunk.createIChunkWriter();
-              writableMemChunk.encode(seriesWriter);
-              seriesWriter.sealCurrentPage();
-              seriesWriter.clearPageWriter();
               try {
-                ioTaskQueue.put(seriesWriter);
+                if (encodingPermits == null) {
+                  ioTaskQueue.put(encodeSeries(writableMemChunk));
+                } else {
+                  encodingPermits.acquire();
+                  Callable<IChunkWriter> encodingSubTask =
+                      () -> {
+                        try {
+                          return encodeSeries(writableMemChunk);
+                        } finally {
+                          encodingPermits.release();
+                        }
+                      };
+                  // futures are put into ioTaskQueue in order, so the order of chunks is kept
+                  ioTaskQueue.put(SUB_TASK_POOL_MANAGER.submit(encodingSubTask));
+                }
               } catch (InterruptedException e) {
                 LOGGER.error("Put task into ioTaskQueue Interrupted");
                 Thread.currentThread().interrupt();
               }
-              memSerializeTime += System.currentTimeMillis() - starTime;
             }
           }
           try {
@@ -239,7 +315,7 @@ public class MemTableFlushTask {
               "Storage group {}, flushing memtable {} into disk: Encoding data cost " + "{} ms.",
               storageGroup,
               writer.getFile().getName(),
-              memSerializeTime);
+              memSerializeTime.get());
         }
       };
 
@@ -253,14 +329,28 @@ public class MemTableFlushTask {
             writer.getFile().getName());
         while (true) {
           Object ioMessage = null;
+          long waitStartTime = System.currentTimeMillis();
           try {
             ioMessage = ioTaskQueue.take();
+            if (ioMessage instanceof Future) {
+              ioMessage = ((Future<?>) ioMessage).get();
+            }
           } catch (InterruptedException e1) {
             LOGGER.error("take task from ioTaskQueue Interrupted");
             Thread.currentThread().interrupt();
             break;
+          } catch (ExecutionException e) {
+            LOGGER.error(
+                "Storage group {} memtable {}, encoding sub task meets error.",
+                storageGroup,
+                memTable,
+                e);
+            encodingTaskFuture.cancel(true);
+            throw new FlushRunTimeException(e);
           }
           long starTime = System.currentTimeMillis();
+          ioWaitTime += starTime - waitStartTime;
+          recordQueueDepth("flush_io_queue", ioTaskQueue.size());
           try {
             if (ioMessage instanceof StartFlushGroupIOTask) {
               this.writer.startChunkGroup(((StartFlushGroupIOTask) ioMessage).deviceId);
@@ -276,6 +366,7 @@ public class MemTableFlushTask {
           } catch (IOException e) {
             LOGGER.error(
                 "Storage group {} memtable {}, io task meets error.", storageGroup, memTable, e);
+            encodingTaskFuture.cancel(true);
             throw new FlushRunTimeException(e);
           }
           ioTime += System.currentTimeMillis() - starTime;
@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.engine.memtable;
 
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.compaction.CompactionWorkloadMonitor;
 import org.apache.iotdb.db.engine.flush.FlushStatus;
 import org.apache.iotdb.db.engine.flush.NotifyFlushMemTable;
 import org.apache.iotdb.db.engine.modification.Modification;
@@ -182,6 +183,7 @@ public abstract class AbstractMemTable implements IMemTable {
         insertRowPlan.getMeasurements().length - insertRowPlan.getFailedMeasurementNumber();
 
     totalPointsNum += pointsInserted;
+    CompactionWorkloadMonitor.getInstance().recordPointsInserted(pointsInserted);
 
     if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
       MetricsService.getInstance()
@@ -225,6 +227,7 @@ public abstract class AbstractMemTable implements IMemTable {
     int pointsInserted = insertRowNode.getMeasurements().length;
 
     totalPointsNum += pointsInserted;
+    CompactionWorkloadMonitor.getInstance().recordPointsInserted(pointsInserted);
 
     if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
       MetricsService.getInstance()
@@ -270,6 +273,7 @@ public abstract class AbstractMemTable implements IMemTable {
     int pointsInserted =
         insertRowPlan.getMeasurements().length - insertRowPlan.getFailedMeasurementNumber();
     totalPointsNum += pointsInserted;
+    CompactionWorkloadMonitor.getInstance().recordPointsInserted(pointsInserted);
 
     if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
       MetricsService.getInstance()
@@ -316,6 +320,7 @@ public abstract class AbstractMemTable implements IMemTable {
         insertRowNode.getValues());
     int pointsInserted = insertRowNode.getMeasurements().length;
     totalPointsNum += pointsInserted;
+    CompactionWorkloadMonitor.getInstance().recordPointsInserted(pointsInserted);
 
     if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
       MetricsService.getInstance()
@@ -340,6 +345,7 @@ public abstract class AbstractMemTable implements IMemTable {
           (insertTabletPlan.getDataTypes().length - insertTabletPlan.getFailedMeasurementNumber())
               * (end - start);
       totalPointsNum += pointsInserted;
+      CompactionWorkloadMonitor.getInstance().recordPointsInserted(pointsInserted);
       if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
         MetricsService.getInstance()
             .getMetricManager()
@@ -366,6 +372,7 @@ public abstract class AbstractMemTable implements IMemTable {
           (insertTabletPlan.getDataTypes().length - insertTabletPlan.getFailedMeasurementNumber())
               * (end - start);
       totalPointsNum += pointsInserted;
+      CompactionWorkloadMonitor.getInstance().recordPointsInserted(pointsInserted);
       if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
         MetricsService.getInstance()
             .getMetricManager()
@@ -392,6 +399,7 @@ public abstract class AbstractMemTable implements IMemTable {
       memSize += MemUtils.getTabletSize(insertTabletNode, start, end, disableMemControl);
       int pointsInserted = insertTabletNode.getDataTypes().length * (end - start);
       totalPointsNum += pointsInserted;
+      CompactionWorkloadMonitor.getInstance().recordPointsInserted(pointsInserted);
       if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
         MetricsService.getInstance()
             .getMetricManager()
@@ -418,6 +426,7 @@ public abstract class AbstractMemTable implements IMemTable {
       memSize += MemUtils.getAlignedTabletSize(insertTabletNode, start, end, disableMemControl);
       int pointsInserted = insertTabletNode.getDataTypes().length * (end - start);
       totalPointsNum += pointsInserted;
+      CompactionWorkloadMonitor.getInstance().recordPointsInserted(pointsInserted);
       if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
         MetricsService.getInstance()
             .getMetricManager()
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.modification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An immutable interval tree of the deletions of one timeseries in a mods file, so that a chunk
+ * only needs to visit the deletions overlapping its time range instead of all of them.
+ *
+ * <p>Deletions are sorted by start time and the sorted array is used as an implicit balanced
+ * binary search tree, in which the root of [lo, hi] is (lo + hi) / 2. Each node also records the
+ * max end time of its subtree.
+ */
+public class DeletionIntervalTree {
+
+  public static final DeletionIntervalTree EMPTY =
+      new DeletionIntervalTree(Collections.emptyList());
+
+  /** modifications in the order they are written */
+  private final List<Modification> modifications;
+
+  private final Deletion[] sortedDeletions;
+  /** maxEndTimes[i] is the max end time of the subtree whose root is sortedDeletions[i] */
+  private final long[] maxEndTimes;
+
+  public DeletionIntervalTree(List<Modification> modifications) {
+    this.modifications = Collections.unmodifiableList(modifications);
+    List<Deletion> deletions = new ArrayList<>(modifications.size());
+    for (Modification modification : modifications) {
+      if (modification instanceof Deletion) {
+        deletions.add((Deletion) modification);
+      }
+    }
+    deletions.sort(Comparator.comparingLong(Deletion::getStartTime));
+    this.sortedDeletions = deletions.toArray(new Deletion[0]);
+    this.maxEndTimes = new long[sortedDeletions.length];
+    buildMaxEndTimes(0, sortedDeletions.length - 1);
+  }
+
+  private long buildMaxEndTimes(int lo, int hi) {
+    if (lo > hi) {
+      return Long.MIN_VALUE;
+    }
+    int mid = (lo + hi) >>> 1;
+    long maxEndTime =
+        Math.max(
+            sortedDeletions[mid].getEndTime(),
+            Math.max(buildMaxEndTimes(lo, mid - 1), buildMaxEndTimes(mid + 1, hi)));
+    maxEndTimes[mid] = maxEndTime;
+    return maxEndTime;
+  }
+
+  public boolean isEmpty() {
+    return modifications.isEmpty();
+  }
+
+  public int size() {
+    return modifications.size();
+  }
+
+  /** @return all modifications of the timeseries in the order they are written */
+  public List<Modification> getModifications() {
+    return modifications;
+  }
+
+  /** Visit the deletions whose time range overlaps [startTime, endTime]. */
+  public void forEachOverlapped(long startTime, long endTime, Consumer<Deletion> consumer) {
+    forEachOverlapped(0, sortedDeletions.length - 1, startTime, endTime, consumer);
+  }
+
+  private void forEachOverlapped(
+      int lo, int hi, long startTime, long endTime, Consumer<Deletion> consumer) {
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      if (maxEndTimes[mid] < startTime) {
+        // all deletions in this subtree end before the range
+        return;
+      }
+      forEachOverlapped(lo, mid - 1, startTime, endTime, consumer);
+      Deletion deletion = sortedDeletions[mid];
+      if (deletion.getStartTime() > endTime) {
+        // this deletion and all deletions in the right subtree start after the range
+        return;
+      }
+      if (deletion.getEndTime() >= startTime) {
+        consumer.accept(deletion);
+      }
+      lo = mid + 1;
+    }
+  }
+
+  /** @return the deletions whose time range overlaps [startTime, endTime] */
+  public List<Deletion> getOverlapped(long startTime, long endTime) {
+    List<Deletion> overlapped = new ArrayList<>();
+    forEachOverlapped(startTime, endTime, overlapped::add);
+    return overlapped;
+  }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.iotdb.db.engine.modification;
 
+import org.apache.iotdb.db.engine.cache.ModificationIndexCache;
 import org.apache.iotdb.db.engine.modification.io.LocalTextModificationAccessor;
 import org.apache.iotdb.db.engine.modification.io.ModificationReader;
 import org.apache.iotdb.db.engine.modification.io.ModificationWriter;
@@ -41,7 +42,10 @@ import java.util.Random;
 
 /**
  * ModificationFile stores the Modifications of a TsFile or unseq file in another file in the same
- * directory. Methods in this class are highly synchronized for concurrency safety.
+ * directory. Writes are synchronized on the ModificationFile, while reads of the loaded
+ * modifications take no lock: the loaded list is never changed once published, and every write
+ * publishes a new one. Queries should read modifications through {@link ModificationIndexCache}
+ * instead of parsing the whole file each time.
  */
 public class ModificationFile implements AutoCloseable {
 
@@ -49,8 +53,8 @@ public class ModificationFile implements AutoCloseable {
   public static final String FILE_SUFFIX = ".mods";
   public static final String COMPACTION_FILE_SUFFIX = ".compaction.mods";
 
-  // lazy loaded, set null when closed
-  private List<Modification> modifications;
+  // lazy loaded, set null when closed, replaced instead of changed by writes
+  private volatile List<Modification> modifications;
   private ModificationWriter writer;
   private ModificationReader reader;
   private String filePath;
@@ -68,16 +72,18 @@ public class ModificationFile implements AutoCloseable {
     this.filePath = filePath;
   }
 
-  private void init() {
-    synchronized (this) {
-      modifications = (List<Modification>) reader.read();
-    }
-  }
-
-  private void checkInit() {
-    if (modifications == null) {
-      init();
+  private List<Modification> checkInit() {
+    List<Modification> loaded = modifications;
+    if (loaded == null) {
+      synchronized (this) {
+        loaded = modifications;
+        if (loaded == null) {
+          loaded = new ArrayList<>(reader.read());
+          modifications = loaded;
+        }
+      }
     }
+    return loaded;
   }
 
   /** Release resources such as streams and caches. */
@@ -92,8 +98,11 @@ public class ModificationFile implements AutoCloseable {
   public void abort() throws IOException {
     synchronized (this) {
       writer.abort();
-      if (modifications != null && !modifications.isEmpty()) {
-        modifications.remove(modifications.size() - 1);
+      // the cached index still has the aborted modification
+      ModificationIndexCache.getInstance().remove(filePath);
+      List<Modification> loaded = modifications;
+      if (loaded != null && !loaded.isEmpty()) {
+        modifications = new ArrayList<>(loaded.subList(0, loaded.size() - 1));
       }
     }
   }
@@ -108,8 +117,36 @@ public class ModificationFile implements AutoCloseable {
   public void write(Modification mod) throws IOException {
     synchronized (this) {
       writer.write(mod);
-      if (modifications != null) {
-        modifications.add(mod);
+      List<Modification> loaded = modifications;
+      if (loaded != null) {
+        List<Modification> newModifications = new ArrayList<>(loaded.size() + 1);
+        newModifications.addAll(loaded);
+        newModifications.add(mod);
+        modifications = newModifications;
+      }
+    }
+  }
+
+  /**
+   * Write a batch of modifications in this file with only one flush. The modifications will first
+   * be written to the persistent store then the memory cache. Notice that {@link #abort()} only
+   * aborts the last modification of the batch.
+   *
+   * @param mods the modifications to be written.
+   * @throws IOException if IOException is thrown when writing the modifications to the store.
+   */
+  public void write(Collection<Modification> mods) throws IOException {
+    if (mods.isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      writer.write(mods);
+      List<Modification> loaded = modifications;
+      if (loaded != null) {
+        List<Modification> newModifications = new ArrayList<>(loaded.size() + mods.size());
+        newModifications.addAll(loaded);
+        newModifications.addAll(mods);
+        modifications = newModifications;
       }
     }
   }
@@ -120,10 +157,7 @@ public class ModificationFile implements AutoCloseable {
    * @return an ArrayList of modifications.
    */
   public Collection<Modification> getModifications() {
-    synchronized (this) {
-      checkInit();
-      return new ArrayList<>(modifications);
-    }
+    return new ArrayList<>(checkInit());
   }
 
   public String getFilePath() {
@@ -137,6 +171,7 @@ public class ModificationFile implements AutoCloseable {
   public void remove() throws IOException {
     close();
     FSFactoryProducer.getFSFactory().getFile(filePath).delete();
+    ModificationIndexCache.getInstance().remove(filePath);
   }
 
   public boolean exists() {
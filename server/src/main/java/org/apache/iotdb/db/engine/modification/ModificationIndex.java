@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.modification;
+
+import org.apache.iotdb.db.metadata.path.PartialPath;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.iotdb.commons.conf.IoTDBConstant.ONE_LEVEL_PATH_WILDCARD;
+
+/**
+ * An immutable in-memory index of all modifications in a mods file. Modifications of plain paths
+ * are grouped by path, so a query does not need to match its series against every modification,
+ * and the modifications of each series are organized as a {@link DeletionIntervalTree}.
+ */
+public class ModificationIndex {
+
+  public static final ModificationIndex EMPTY =
+      new ModificationIndex(Collections.emptyList(), 0);
+
+  /** estimated memory of a Deletion and its path, except the characters of the path */
+  private static final long MODIFICATION_BASE_SIZE = 160;
+  /** max number of series whose deletions are cached when there are path patterns */
+  private static final int MAX_CACHED_PATTERN_SERIES_NUM = 10_000;
+
+  /** length of the mods file when it is read, used to find out whether the index is outdated */
+  private final long fileLength;
+
+  private final int modificationNum;
+  private final long ramSize;
+  private final Map<String, DeletionIntervalTree> plainPathDeletions = new HashMap<>();
+  /** modifications whose path contains wildcards */
+  private final List<Modification> patternModifications = new ArrayList<>();
+  /** deletions of series matched by any patterns, computed lazily */
+  private final Map<String, DeletionIntervalTree> patternSeriesDeletions =
+      new ConcurrentHashMap<>();
+
+  /**
+   * @param modifications modifications in the order they are written, they are copied so that the
+   *     index is not affected by the changes of the given modifications
+   * @param fileLength length of the mods file the modifications are read from
+   */
+  public ModificationIndex(Collection<Modification> modifications, long fileLength) {
+    this.fileLength = fileLength;
+    this.modificationNum = modifications.size();
+    Map<String, List<Modification>> plainPathModifications = new HashMap<>();
+    long size = 0;
+    for (Modification modification : modifications) {
+      if (!(modification instanceof Deletion)) {
+        continue;
+      }
+      Deletion deletion = (Deletion) modification;
+      Deletion copy =
+          new Deletion(
+              deletion.getPath(),
+              deletion.getFileOffset(),
+              deletion.getStartTime(),
+              deletion.getEndTime());
+      String pathString = deletion.getPathString();
+      size += MODIFICATION_BASE_SIZE + 4L * pathString.length();
+      if (pathString.contains(ONE_LEVEL_PATH_WILDCARD)) {
+        patternModifications.add(copy);
+      } else {
+        plainPathModifications.computeIfAbsent(pathString, k -> new ArrayList<>()).add(copy);
+      }
+    }
+    for (Map.Entry<String, List<Modification>> entry : plainPathModifications.entrySet()) {
+      plainPathDeletions.put(entry.getKey(), new DeletionIntervalTree(entry.getValue()));
+    }
+    this.ramSize = size;
+  }
+
+  /** @return the deletions which affect the series, an empty tree if there is none */
+  public DeletionIntervalTree getDeletions(PartialPath seriesPath) {
+    String fullPath = seriesPath.getFullPath();
+    DeletionIntervalTree plainDeletions =
+        plainPathDeletions.getOrDefault(fullPath, DeletionIntervalTree.EMPTY);
+    if (patternModifications.isEmpty()) {
+      return plainDeletions;
+    }
+    DeletionIntervalTree deletions = patternSeriesDeletions.get(fullPath);
+    if (deletions == null) {
+      List<Modification> seriesModifications = new ArrayList<>(plainDeletions.getModifications());
+      for (Modification modification : patternModifications) {
+        if (modification.getPath().matchFullPath(seriesPath)) {
+          seriesModifications.add(modification);
+        }
+      }
+      deletions =
+          seriesModifications.isEmpty()
+              ? DeletionIntervalTree.EMPTY
+              : new DeletionIntervalTree(seriesModifications);
+      if (patternSeriesDeletions.size() < MAX_CACHED_PATTERN_SERIES_NUM) {
+        patternSeriesDeletions.put(fullPath, deletions);
+      }
+    }
+    return deletions;
+  }
+
+  public boolean isEmpty() {
+    return modificationNum == 0;
+  }
+
+  public long getFileLength() {
+    return fileLength;
+  }
+
+  /** @return estimated memory of the index, excluding the lazily computed pattern matches */
+  public long getRamSize() {
+    return ramSize;
+  }
+}
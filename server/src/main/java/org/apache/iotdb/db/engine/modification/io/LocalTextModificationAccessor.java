@@ -133,6 +133,18 @@ public class LocalTextModificationAccessor
     writer.flush();
   }
 
+  @Override
+  public void write(Collection<Modification> mods) throws IOException {
+    if (writer == null) {
+      writer = FSFactoryProducer.getFSFactory().getBufferedWriter(filePath, true);
+    }
+    for (Modification mod : mods) {
+      writer.write(encodeModification(mod));
+      writer.newLine();
+    }
+    writer.flush();
+  }
+
   private static String encodeModification(Modification mod) {
     if (mod instanceof Deletion) {
       return encodeDeletion((Deletion) mod);
@@ -22,6 +22,7 @@ package org.apache.iotdb.db.engine.modification.io;
 import org.apache.iotdb.db.engine.modification.Modification;
 
 import java.io.IOException;
+import java.util.Collection;
 
 /**
  * ModificationWriter provides methods for writing a modification to a persistent medium like file
@@ -37,6 +38,13 @@ public interface ModificationWriter {
    */
   void write(Modification mod) throws IOException;
 
+  /**
+   * Write a batch of modifications to the persistent medium, they are flushed once together.
+   *
+   * @param mods the modifications to be written.
+   */
+  void write(Collection<Modification> mods) throws IOException;
+
   /** Release resources like streams. */
   void close() throws IOException;
 
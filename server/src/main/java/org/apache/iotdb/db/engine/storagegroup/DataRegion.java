@@ -38,6 +38,7 @@ import org.apache.iotdb.db.engine.flush.TsFileFlushPolicy;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.tiered.TieredStorageManager;
 import org.apache.iotdb.db.engine.trigger.executor.TriggerEngine;
 import org.apache.iotdb.db.engine.trigger.executor.TriggerEvent;
 import org.apache.iotdb.db.engine.upgrade.UpgradeCheckStatus;
@@ -211,6 +212,9 @@ public class DataRegion {
   /** manage seqFileList and unSeqFileList */
   private TsFileManager tsFileManager;
 
+  /** move sealed TsFiles between data dirs and cold data dirs */
+  private TieredStorageManager tieredStorageManager;
+
   /** manage tsFileResource degrade */
   private TsFileResourceManager tsFileResourceManager = TsFileResourceManager.getInstance();
 
@@ -283,6 +287,7 @@ public class DataRegion {
     storageGroupSysDir = SystemFileFactory.INSTANCE.getFile(systemDir, dataRegionId);
     this.tsFileManager =
         new TsFileManager(logicalStorageGroupName, dataRegionId, storageGroupSysDir.getPath());
+    this.tieredStorageManager = new TieredStorageManager(tsFileManager);
     if (storageGroupSysDir.mkdirs()) {
       logger.info(
           "Storage Group system Directory {} doesn't exist, create it",
@@ -388,15 +393,25 @@ public class DataRegion {
       throw new DataRegionException(e);
     }
 
+    // clean up the migrations between storage tiers interrupted by the restart
+    TieredStorageManager.recover(
+        DirectoryManager.getInstance().getAllSequenceFileFoldersWithColdDirs(),
+        logicalStorageGroupName,
+        dataRegionId);
+    TieredStorageManager.recover(
+        DirectoryManager.getInstance().getAllUnSequenceFileFoldersWithColdDirs(),
+        logicalStorageGroupName,
+        dataRegionId);
+
     try {
       // collect candidate TsFiles from sequential and unsequential data directory
       Pair<List<TsFileResource>, List<TsFileResource>> seqTsFilesPair =
-          getAllFiles(DirectoryManager.getInstance().getAllSequenceFileFolders());
+          getAllFiles(DirectoryManager.getInstance().getAllSequenceFileFoldersWithColdDirs());
       List<TsFileResource> tmpSeqTsFiles = seqTsFilesPair.left;
       List<TsFileResource> oldSeqTsFiles = seqTsFilesPair.right;
       upgradeSeqFileList.addAll(oldSeqTsFiles);
       Pair<List<TsFileResource>, List<TsFileResource>> unseqTsFilesPair =
-          getAllFiles(DirectoryManager.getInstance().getAllUnSequenceFileFolders());
+          getAllFiles(DirectoryManager.getInstance().getAllUnSequenceFileFoldersWithColdDirs());
       List<TsFileResource> tmpUnseqTsFiles = unseqTsFilesPair.left;
       List<TsFileResource> oldUnseqTsFiles = unseqTsFilesPair.right;
       upgradeUnseqFileList.addAll(oldUnseqTsFiles);
@@ -1591,8 +1606,8 @@ public class DataRegion {
       // normally, mergingModification is just need to be closed by after a merge task is finished.
       // we close it here just for IT test.
       closeAllResources();
-      List<String> folder = DirectoryManager.getInstance().getAllSequenceFileFolders();
-      folder.addAll(DirectoryManager.getInstance().getAllUnSequenceFileFolders());
+      List<String> folder = DirectoryManager.getInstance().getAllSequenceFileFoldersWithColdDirs();
+      folder.addAll(DirectoryManager.getInstance().getAllUnSequenceFileFoldersWithColdDirs());
       deleteAllSGFolders(folder);
 
       this.workSequenceTsFileProcessors.clear();
@@ -1666,6 +1681,11 @@ public class DataRegion {
     }
   }
 
+  /** Move sealed TsFiles between data dirs and cold data dirs by their age and access count. */
+  public void checkTieredStorage() {
+    tieredStorageManager.checkAndMigrate();
+  }
+
   public void timedFlushSeqMemTable() {
     writeLock("timedFlushSeqMemTable");
     try {
@@ -1801,37 +1821,19 @@ public class DataRegion {
       Filter timeFilter)
       throws QueryProcessException {
     readLock();
+    TsFileListSnapshot snapshot = tsFileManager.acquireSnapshot();
     try {
-      List<TsFileResource> seqResources =
-          getFileResourceListForQuery(
-              tsFileManager.getTsFileList(true),
-              upgradeSeqFileList,
-              pathList,
-              singleDeviceId,
-              context,
-              timeFilter,
-              true);
-      List<TsFileResource> unseqResources =
-          getFileResourceListForQuery(
-              tsFileManager.getTsFileList(false),
-              upgradeUnseqFileList,
-              pathList,
-              singleDeviceId,
-              context,
-              timeFilter,
-              false);
-      QueryDataSource dataSource = new QueryDataSource(seqResources, unseqResources);
-      // used files should be added before mergeLock is unlocked, or they may be deleted by
-      // running merge
+      QueryDataSource dataSource =
+          queryFromSnapshot(pathList, singleDeviceId, context, timeFilter, snapshot);
+      // used files should be added before the snapshot is released, or they may be deleted by
+      // running compaction
       // is null only in tests
       if (filePathsManager != null) {
         filePathsManager.addUsedFilesForQuery(context.getQueryId(), dataSource);
       }
-      dataSource.setDataTTL(dataTTL);
       return dataSource;
-    } catch (MetadataException e) {
-      throw new QueryProcessException(e);
     } finally {
+      tsFileManager.releaseSnapshot(snapshot);
       readUnlock();
     }
   }
@@ -1840,10 +1842,29 @@ public class DataRegion {
   public QueryDataSource query(
       List<PartialPath> pathList, String singleDeviceId, QueryContext context, Filter timeFilter)
       throws QueryProcessException {
+    TsFileListSnapshot snapshot = tsFileManager.acquireSnapshot();
+    try {
+      return queryFromSnapshot(pathList, singleDeviceId, context, timeFilter, snapshot);
+    } finally {
+      tsFileManager.releaseSnapshot(snapshot);
+    }
+  }
+
+  /**
+   * used for mpp, build query data source from the given snapshot of TsFile lists without locking
+   * the lists. The caller should hold the snapshot until the used files are locked for query.
+   */
+  public QueryDataSource queryFromSnapshot(
+      List<PartialPath> pathList,
+      String singleDeviceId,
+      QueryContext context,
+      Filter timeFilter,
+      TsFileListSnapshot snapshot)
+      throws QueryProcessException {
     try {
       List<TsFileResource> seqResources =
           getFileResourceListForQuery(
-              tsFileManager.getTsFileList(true),
+              snapshot.getSequenceFiles(),
               upgradeSeqFileList,
               pathList,
               singleDeviceId,
@@ -1852,7 +1873,7 @@ public class DataRegion {
               true);
       List<TsFileResource> unseqResources =
           getFileResourceListForQuery(
-              tsFileManager.getTsFileList(false),
+              snapshot.getUnsequenceFiles(),
               upgradeUnseqFileList,
               pathList,
               singleDeviceId,
@@ -1867,17 +1888,17 @@ public class DataRegion {
     }
   }
 
-  /** lock the read lock of the insert lock */
+  /**
+   * lock the read lock of the insert lock. TsFile lists are read from {@link TsFileListSnapshot}
+   * so the lock of {@link TsFileManager} is not needed here.
+   */
   public void readLock() {
     // apply read lock for SG insert lock to prevent inconsistent with concurrently writing memtable
     insertLock.readLock().lock();
-    // apply read lock for TsFileResource list
-    tsFileManager.readLock();
   }
 
   /** unlock the read lock of insert lock */
   public void readUnlock() {
-    tsFileManager.readUnlock();
     insertLock.readLock().unlock();
   }
 
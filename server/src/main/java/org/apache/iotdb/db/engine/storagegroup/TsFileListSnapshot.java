@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An immutable view of the sequence and unsequence TsFile lists of a {@link TsFileManager}. A new
+ * snapshot is published each time the lists are modified, so readers can use a snapshot without
+ * holding any lock.
+ *
+ * <p>A snapshot is reference counted. The TsFileManager holds one reference while the snapshot is
+ * the latest one, and each reader holds one from {@link TsFileManager#acquireSnapshot()} to {@link
+ * TsFileManager#releaseSnapshot(TsFileListSnapshot)}. Files removed from the lists must not be
+ * deleted before all snapshots that still contain them are released, see {@link
+ * TsFileManager#waitForStaleSnapshots()}.
+ */
+public class TsFileListSnapshot {
+
+  private final long version;
+  private final List<TsFileResource> sequenceFiles;
+  private final List<TsFileResource> unsequenceFiles;
+  private final AtomicInteger referenceCount = new AtomicInteger(1);
+
+  TsFileListSnapshot(
+      long version, List<TsFileResource> sequenceFiles, List<TsFileResource> unsequenceFiles) {
+    this.version = version;
+    this.sequenceFiles = Collections.unmodifiableList(sequenceFiles);
+    this.unsequenceFiles = Collections.unmodifiableList(unsequenceFiles);
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  /** @return sequence TsFiles ordered by time partition and then by their order in the list */
+  public List<TsFileResource> getSequenceFiles() {
+    return sequenceFiles;
+  }
+
+  /** @return unsequence TsFiles ordered by time partition and then by their order in the list */
+  public List<TsFileResource> getUnsequenceFiles() {
+    return unsequenceFiles;
+  }
+
+  public List<TsFileResource> getTsFileList(boolean sequence) {
+    return sequence ? sequenceFiles : unsequenceFiles;
+  }
+
+  /** @return false if the snapshot has been released by all holders and cannot be used anymore */
+  boolean tryRetain() {
+    int count;
+    do {
+      count = referenceCount.get();
+      if (count <= 0) {
+        return false;
+      }
+    } while (!referenceCount.compareAndSet(count, count + 1));
+    return true;
+  }
+
+  /** @return the number of remaining holders */
+  int release() {
+    return referenceCount.decrementAndGet();
+  }
+
+  int getReferenceCount() {
+    return referenceCount.get();
+  }
+}
@@ -35,8 +35,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static org.apache.iotdb.commons.conf.IoTDBConstant.FILE_NAME_SEPARATOR;
@@ -49,7 +50,7 @@ public class TsFileManager {
   private String storageGroupDir;
 
   /** Serialize queries, delete resource files, compaction cleanup files */
-  private final ReadWriteLock resourceListLock = new ReentrantReadWriteLock();
+  private final ReentrantReadWriteLock resourceListLock = new ReentrantReadWriteLock();
 
   private String writeLockHolder;
   // time partition -> double linked list of tsfiles
@@ -59,17 +60,31 @@ public class TsFileManager {
   private List<TsFileResource> sequenceRecoverTsFileResources = new ArrayList<>();
   private List<TsFileResource> unsequenceRecoverTsFileResources = new ArrayList<>();
 
+  /**
+   * The latest immutable view of sequenceFiles and unsequenceFiles, it is rebuilt and published
+   * every time the outermost write lock is released, so queries can read it without locking.
+   */
+  private final AtomicReference<TsFileListSnapshot> latestSnapshot;
+
+  /** Replaced snapshots which are still held by some queries */
+  private final Set<TsFileListSnapshot> staleSnapshots = ConcurrentHashMap.newKeySet();
+
   private boolean allowCompaction = true;
 
   public TsFileManager(String storageGroupName, String dataRegion, String storageGroupDir) {
     this.storageGroupName = storageGroupName;
     this.storageGroupDir = storageGroupDir;
     this.dataRegion = dataRegion;
+    this.latestSnapshot =
+        new AtomicReference<>(new TsFileListSnapshot(0, new ArrayList<>(), new ArrayList<>()));
   }
 
   public List<TsFileResource> getTsFileList(boolean sequence) {
-    // the iteration of ConcurrentSkipListMap is not concurrent secure
-    // so we must add read lock here
+    if (!resourceListLock.isWriteLockedByCurrentThread()) {
+      // the snapshot is immutable, so there is no need to lock
+      return new ArrayList<>(latestSnapshot.get().getTsFileList(sequence));
+    }
+    // the current thread is modifying the lists and the snapshot may be out of date
     readLock();
     try {
       List<TsFileResource> allResources = new ArrayList<>();
@@ -134,7 +149,7 @@ public class TsFileManager {
         TsFileResourceManager.getInstance().removeTsFileResource(resource);
       }
     } finally {
-      writeLock("removeAll");
+      writeUnlock();
     }
   }
 
@@ -321,8 +336,88 @@ public class TsFileManager {
   }
 
   public void writeUnlock() {
-    resourceListLock.writeLock().unlock();
+    if (resourceListLock.getWriteHoldCount() == 1) {
+      // the lists may have been modified through the outermost write lock, publish them before
+      // other threads can modify them again
+      publishSnapshot();
+    }
     writeLockHolder = "";
+    resourceListLock.writeLock().unlock();
+  }
+
+  /** Must be called with the write lock held. */
+  private void publishSnapshot() {
+    TsFileListSnapshot oldSnapshot = latestSnapshot.get();
+    TsFileListSnapshot newSnapshot =
+        new TsFileListSnapshot(
+            oldSnapshot.getVersion() + 1,
+            collectFromPartitions(sequenceFiles),
+            collectFromPartitions(unsequenceFiles));
+    latestSnapshot.set(newSnapshot);
+    // the snapshot must be visible as stale before the reference of this manager is dropped, so
+    // that waitForStaleSnapshots() will not miss it
+    staleSnapshots.add(oldSnapshot);
+    releaseSnapshot(oldSnapshot);
+  }
+
+  private List<TsFileResource> collectFromPartitions(Map<Long, TsFileResourceList> partitions) {
+    List<TsFileResource> allResources = new ArrayList<>();
+    for (TsFileResourceList resourceList : partitions.values()) {
+      allResources.addAll(resourceList.getArrayList());
+    }
+    return allResources;
+  }
+
+  /**
+   * Get the latest snapshot of the TsFile lists without locking. The returned snapshot must be
+   * released by {@link #releaseSnapshot(TsFileListSnapshot)}, and TsFiles in it will not be deleted
+   * by compaction or migration before that.
+   */
+  public TsFileListSnapshot acquireSnapshot() {
+    while (true) {
+      TsFileListSnapshot snapshot = latestSnapshot.get();
+      if (snapshot.tryRetain()) {
+        return snapshot;
+      }
+      // the snapshot has been replaced and released by all holders just now, retry the new one
+    }
+  }
+
+  public void releaseSnapshot(TsFileListSnapshot snapshot) {
+    if (snapshot.release() == 0) {
+      synchronized (staleSnapshots) {
+        staleSnapshots.remove(snapshot);
+        staleSnapshots.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Block until all snapshots older than the latest one are released. Call it after removing
+   * TsFiles from the lists and before deleting them from disk, so that no query which got its file
+   * list from an older snapshot still reads them.
+   */
+  public void waitForStaleSnapshots() throws InterruptedException {
+    long latestVersion = latestSnapshot.get().getVersion();
+    synchronized (staleSnapshots) {
+      while (hasStaleSnapshotBefore(latestVersion)) {
+        staleSnapshots.wait(1000);
+      }
+    }
+  }
+
+  private boolean hasStaleSnapshotBefore(long version) {
+    for (TsFileListSnapshot snapshot : staleSnapshots) {
+      if (snapshot.getVersion() < version && snapshot.getReferenceCount() > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** @return the number of replaced snapshots still held by queries, only for test */
+  int getStaleSnapshotNum() {
+    return staleSnapshots.size();
   }
 
   public String getStorageGroupName() {
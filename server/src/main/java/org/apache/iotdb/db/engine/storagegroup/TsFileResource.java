@@ -61,6 +61,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.iotdb.commons.conf.IoTDBConstant.FILE_NAME_SEPARATOR;
 import static org.apache.iotdb.db.engine.storagegroup.TsFileNameGenerator.getTsFileName;
@@ -134,6 +135,9 @@ public class TsFileResource {
 
   private TsFileProcessor processor;
 
+  /** number of queries that have read this TsFile since the last tiered storage check */
+  private final AtomicInteger accessCount = new AtomicInteger();
+
   /**
    * Chunk metadata list of unsealed tsfile. Only be set in a temporal TsFileResource in a query
    * process.
@@ -864,6 +868,15 @@ public class TsFileResource {
     }
   }
 
+  public void increaseAccessCount() {
+    accessCount.incrementAndGet();
+  }
+
+  /** @return the number of queries that have read this TsFile since the last call */
+  public int getAndResetAccessCount() {
+    return accessCount.getAndSet(0);
+  }
+
   public long getMaxPlanIndex() {
     return maxPlanIndex;
   }
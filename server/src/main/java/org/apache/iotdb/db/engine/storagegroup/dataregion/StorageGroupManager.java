@@ -125,6 +125,15 @@ public class StorageGroupManager {
     }
   }
 
+  /** push check tiered storage down to all sg */
+  public void checkTieredStorage() {
+    for (DataRegion dataRegion : this.dataRegion) {
+      if (dataRegion != null) {
+        dataRegion.checkTieredStorage();
+      }
+    }
+  }
+
   /** push check unsequence memtable flush interval down to all sg */
   public void timedFlushUnseqMemTable() {
     for (DataRegion dataRegion : this.dataRegion) {
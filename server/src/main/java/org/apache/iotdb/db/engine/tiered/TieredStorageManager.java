@@ -0,0 +1,454 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.tiered;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.conf.directories.DirectoryManager;
+import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.ModificationFile;
+import org.apache.iotdb.db.engine.storagegroup.TsFileManager;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResourceStatus;
+import org.apache.iotdb.db.exception.DiskSpaceInsufficientException;
+import org.apache.iotdb.db.qp.utils.DatetimeUtils;
+import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.fileSystem.fsFactory.FSFactory;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.TSFILE_SUFFIX;
+
+/**
+ * TieredStorageManager moves sealed TsFiles of a data region between the hot tier (data dirs) and
+ * the cold tier (cold data dirs). TsFiles of time partitions whose newest data is older than the
+ * configured threshold are moved to the cold tier if they are rarely read, and TsFiles in the cold
+ * tier that are read frequently again are moved back.
+ *
+ * <p>A TsFile is migrated like a compaction with a single source file: it is marked as compacting
+ * so that compactions skip it and deletions on it are also recorded with Long.MAX_VALUE offset,
+ * then the target file is written, replaces the source in the {@link TsFileManager}, and the source
+ * is deleted once no query is reading it. Queries that start before the replacement keep reading
+ * the source file, and queries that start after it read the target file.
+ */
+public class TieredStorageManager {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TieredStorageManager.class);
+
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  private static final FSFactory fsFactory = FSFactoryProducer.getFSFactory();
+
+  /** suffix of a target TsFile that is being written */
+  public static final String MIGRATING_SUFFIX = ".migrating";
+
+  /** suffix of the marker file of a source TsFile whose target TsFile may have been completed */
+  public static final String MIGRATED_SUFFIX = ".migrated";
+
+  private final TsFileManager tsFileManager;
+
+  public TieredStorageManager(TsFileManager tsFileManager) {
+    this.tsFileManager = tsFileManager;
+  }
+
+  /**
+   * Check all sealed TsFiles of the data region, move the cold ones to the cold tier and move the
+   * hot ones in the cold tier back. The access count of each TsFile is reset by this check.
+   */
+  public synchronized void checkAndMigrate() {
+    if (!config.isEnableTieredStorage()) {
+      return;
+    }
+    long coldTimeBound =
+        DatetimeUtils.currentTime()
+            - DatetimeUtils.timestampPrecisionStringToTimeUnit(config.getTimestampPrecision())
+                .convert(config.getColdDataAgeThresholdInMs(), TimeUnit.MILLISECONDS);
+    List<TsFileResource> seqFiles = tsFileManager.getTsFileList(true);
+    List<TsFileResource> unseqFiles = tsFileManager.getTsFileList(false);
+    Set<Long> coldPartitions = getColdTimePartitions(seqFiles, unseqFiles, coldTimeBound);
+
+    for (TsFileResource resource : seqFiles) {
+      checkAndMigrate(resource, coldPartitions, true);
+    }
+    for (TsFileResource resource : unseqFiles) {
+      checkAndMigrate(resource, coldPartitions, false);
+    }
+  }
+
+  /**
+   * A time partition is cold when all its TsFiles are sealed and its newest data is older than the
+   * bound.
+   */
+  private Set<Long> getColdTimePartitions(
+      List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles, long coldTimeBound) {
+    Map<Long, Long> partitionEndTimes = new HashMap<>();
+    Set<Long> unsealedPartitions = new HashSet<>();
+    List<TsFileResource> allFiles = new ArrayList<>(seqFiles);
+    allFiles.addAll(unseqFiles);
+    for (TsFileResource resource : allFiles) {
+      if (!resource.isClosed()) {
+        unsealedPartitions.add(resource.getTimePartition());
+      } else {
+        partitionEndTimes.merge(
+            resource.getTimePartition(), resource.getFileEndTime(), Math::max);
+      }
+    }
+    Set<Long> coldPartitions = new HashSet<>();
+    for (Map.Entry<Long, Long> entry : partitionEndTimes.entrySet()) {
+      if (!unsealedPartitions.contains(entry.getKey()) && entry.getValue() < coldTimeBound) {
+        coldPartitions.add(entry.getKey());
+      }
+    }
+    return coldPartitions;
+  }
+
+  private void checkAndMigrate(TsFileResource resource, Set<Long> coldPartitions, boolean isSeq) {
+    int accessCount = resource.getAndResetAccessCount();
+    if (resource.getStatus() != TsFileResourceStatus.CLOSED) {
+      return;
+    }
+    try {
+      if (!isInColdTier(resource, isSeq)) {
+        if (coldPartitions.contains(resource.getTimePartition())
+            && accessCount <= config.getColdDataMaxAccessCount()) {
+          String targetFolder =
+              isSeq
+                  ? DirectoryManager.getInstance().getNextFolderForColdSequenceFile()
+                  : DirectoryManager.getInstance().getNextFolderForColdUnSequenceFile();
+          migrate(resource, isSeq, targetFolder, config.getColdDataCompressor());
+        }
+      } else if (config.getHotDataMinAccessCount() > 0
+          && accessCount >= config.getHotDataMinAccessCount()) {
+        String targetFolder =
+            isSeq
+                ? DirectoryManager.getInstance().getNextFolderForSequenceFile()
+                : DirectoryManager.getInstance().getNextFolderForUnSequenceFile();
+        migrate(resource, isSeq, targetFolder, null);
+      }
+    } catch (DiskSpaceInsufficientException e) {
+      LOGGER.error("No folder is available to migrate {}", resource.getTsFilePath(), e);
+    }
+  }
+
+  private boolean isInColdTier(TsFileResource resource, boolean isSeq) {
+    String baseFolder = getBaseFolder(resource.getTsFile()).getAbsolutePath();
+    List<String> coldFolders =
+        isSeq
+            ? DirectoryManager.getInstance().getAllColdSequenceFileFolders()
+            : DirectoryManager.getInstance().getAllColdUnSequenceFileFolders();
+    for (String coldFolder : coldFolders) {
+      if (fsFactory.getFile(coldFolder).getAbsolutePath().equals(baseFolder)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Move a sealed TsFile with its resource file and mods file into the target folder, keeping its
+   * storage group, data region and time partition sub folders.
+   *
+   * @param isSeq whether the TsFile is a sequence file
+   * @param targetFolder a sequence or unsequence folder of a data dir or a cold data dir
+   * @param compressionType the compression type to rewrite the TsFile with, null means the TsFile
+   *     is copied as it is
+   * @return true if the TsFile is migrated, false if it is skipped or the migration fails
+   */
+  public boolean migrate(
+      TsFileResource resource,
+      boolean isSeq,
+      String targetFolder,
+      CompressionType compressionType) {
+    File targetFile = getTargetFile(resource.getTsFile(), targetFolder);
+    if (targetFile.exists()) {
+      LOGGER.warn("{} already exists, skip migrating {}", targetFile, resource.getTsFilePath());
+      return false;
+    }
+    resource.readLock();
+    if (!markAsMigrating(resource)) {
+      resource.readUnlock();
+      return false;
+    }
+
+    long startTime = System.currentTimeMillis();
+    File tmpTargetFile = fsFactory.getFile(targetFile.getPath() + MIGRATING_SUFFIX);
+    File markerFile = fsFactory.getFile(resource.getTsFilePath() + MIGRATED_SUFFIX);
+    TsFileResource targetResource;
+    int copiedModsNum;
+    try {
+      if (!targetFile.getParentFile().exists() && !targetFile.getParentFile().mkdirs()) {
+        throw new IOException("Cannot create folder " + targetFile.getParentFile());
+      }
+      if (compressionType != null) {
+        new TsFileRecompressor(compressionType).rewrite(resource, tmpTargetFile);
+      } else {
+        FileUtils.copyFile(resource.getTsFile(), tmpTargetFile);
+      }
+      FileUtils.copyFile(
+          fsFactory.getFile(resource.getTsFilePath() + TsFileResource.RESOURCE_SUFFIX),
+          fsFactory.getFile(targetFile.getPath() + TsFileResource.RESOURCE_SUFFIX));
+      targetResource = new TsFileResource(targetFile);
+      targetResource.deserialize();
+      targetResource.setSeq(isSeq);
+      targetResource.setStatus(TsFileResourceStatus.CLOSED);
+      copiedModsNum = copyMods(resource, targetResource, 0);
+
+      // once the target file is renamed, the source file is deleted in recovery
+      if (!markerFile.createNewFile()) {
+        throw new IOException("Cannot create marker file " + markerFile);
+      }
+      fsFactory.moveFile(tmpTargetFile, targetFile);
+      tsFileManager.replace(
+          isSeq ? Collections.singletonList(resource) : Collections.emptyList(),
+          isSeq ? Collections.emptyList() : Collections.singletonList(resource),
+          Collections.singletonList(targetResource),
+          resource.getTimePartition(),
+          isSeq);
+    } catch (Exception e) {
+      LOGGER.error("Failed to migrate {} to {}", resource.getTsFilePath(), targetFolder, e);
+      cleanFailedMigration(targetFile, tmpTargetFile, markerFile);
+      resource.readUnlock();
+      resource.setStatus(TsFileResourceStatus.CLOSED);
+      return false;
+    }
+
+    // wait for the queries which may still see the source file in their snapshots, and then the
+    // queries on the source file to finish
+    resource.readUnlock();
+    try {
+      tsFileManager.waitForStaleSnapshots();
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted when waiting for queries on {}", resource.getTsFilePath());
+      Thread.currentThread().interrupt();
+    }
+    resource.writeLock();
+    try {
+      // deletions may be written to the source file before they see the target file
+      copyMods(resource, targetResource, copiedModsNum);
+      FileReaderManager.getInstance().closeFileAndRemoveReader(resource.getTsFilePath());
+      resource.setStatus(TsFileResourceStatus.DELETED);
+      resource.getCompactionModFile().remove();
+      resource.remove();
+      fsFactory.deleteIfExists(markerFile);
+    } catch (IOException e) {
+      LOGGER.error("Failed to delete {} after migration", resource.getTsFilePath(), e);
+    } finally {
+      resource.writeUnlock();
+    }
+    LOGGER.info(
+        "Migrated {} to {} in {} ms",
+        resource.getTsFilePath(),
+        targetFile,
+        System.currentTimeMillis() - startTime);
+    return true;
+  }
+
+  private boolean markAsMigrating(TsFileResource resource) {
+    if (resource.getStatus() != TsFileResourceStatus.CLOSED || !resource.getTsFile().exists()) {
+      return false;
+    }
+    try {
+      resource.setStatus(TsFileResourceStatus.COMPACTION_CANDIDATE);
+      resource.setStatus(TsFileResourceStatus.COMPACTING);
+      return true;
+    } catch (RuntimeException e) {
+      // the TsFile has been selected by a compaction concurrently
+      LOGGER.debug("{} is selected by a compaction, skip migrating it", resource, e);
+      return false;
+    }
+  }
+
+  /**
+   * Copy the modifications of the source file starting from the given index to the target file.
+   * Their offsets are set to Long.MAX_VALUE because the offsets of chunks may change.
+   *
+   * @return the number of modifications of the source file
+   */
+  private int copyMods(TsFileResource source, TsFileResource target, int startIndex)
+      throws IOException {
+    ModificationFile sourceModFile = source.getModFile();
+    if (!sourceModFile.exists()) {
+      return 0;
+    }
+    List<Modification> modifications = new ArrayList<>(sourceModFile.getModifications());
+    if (modifications.size() <= startIndex) {
+      return modifications.size();
+    }
+    ModificationFile targetModFile = target.getModFile();
+    targetModFile.write(
+        toMigratedDeletions(modifications.subList(startIndex, modifications.size())));
+    targetModFile.close();
+    return modifications.size();
+  }
+
+  /** Copy the deletions with offsets set to Long.MAX_VALUE, the given ones are not changed. */
+  private static List<Modification> toMigratedDeletions(Collection<Modification> modifications) {
+    List<Modification> deletions = new ArrayList<>();
+    for (Modification modification : modifications) {
+      if (modification instanceof Deletion) {
+        Deletion deletion = (Deletion) modification;
+        deletions.add(
+            new Deletion(
+                deletion.getPath(),
+                Long.MAX_VALUE,
+                deletion.getStartTime(),
+                deletion.getEndTime()));
+      }
+    }
+    return deletions;
+  }
+
+  private void cleanFailedMigration(File targetFile, File tmpTargetFile, File markerFile) {
+    try {
+      if (!targetFile.exists()) {
+        fsFactory.deleteIfExists(tmpTargetFile);
+        fsFactory.deleteIfExists(
+            fsFactory.getFile(targetFile.getPath() + TsFileResource.RESOURCE_SUFFIX));
+        fsFactory.deleteIfExists(
+            fsFactory.getFile(targetFile.getPath() + ModificationFile.FILE_SUFFIX));
+        fsFactory.deleteIfExists(markerFile);
+      }
+    } catch (IOException e) {
+      LOGGER.error("Failed to clean the target file {} of a failed migration", targetFile, e);
+    }
+  }
+
+  /**
+   * Clean up the migrations interrupted by a restart. A target file that is still being written is
+   * deleted. A source file with a marker is deleted if its target file has been completed,
+   * otherwise only the marker is deleted.
+   *
+   * @param folders all sequence or all unsequence folders of both tiers
+   */
+  public static void recover(List<String> folders, String storageGroupName, String dataRegionId) {
+    for (String folder : folders) {
+      File regionFolder =
+          fsFactory.getFile(
+              folder + File.separator + storageGroupName + File.separator + dataRegionId);
+      File[] partitionFolders = regionFolder.listFiles();
+      if (partitionFolders == null) {
+        continue;
+      }
+      for (File partitionFolder : partitionFolders) {
+        if (!partitionFolder.isDirectory()) {
+          continue;
+        }
+        File[] migratingFiles =
+            fsFactory.listFilesBySuffix(
+                partitionFolder.getAbsolutePath(), TSFILE_SUFFIX + MIGRATING_SUFFIX);
+        File[] markerFiles =
+            fsFactory.listFilesBySuffix(
+                partitionFolder.getAbsolutePath(), TSFILE_SUFFIX + MIGRATED_SUFFIX);
+        try {
+          for (File migratingFile : migratingFiles) {
+            fsFactory.deleteIfExists(migratingFile);
+          }
+          for (File markerFile : markerFiles) {
+            recoverMigratedFile(markerFile, folders);
+          }
+        } catch (IOException e) {
+          LOGGER.error("Failed to recover migrations in {}", partitionFolder, e);
+        }
+      }
+    }
+  }
+
+  private static void recoverMigratedFile(File markerFile, List<String> folders)
+      throws IOException {
+    String markerPath = markerFile.getPath();
+    File sourceFile =
+        fsFactory.getFile(markerPath.substring(0, markerPath.length() - MIGRATED_SUFFIX.length()));
+    String sourceBaseFolder = getBaseFolder(sourceFile).getAbsolutePath();
+    for (String folder : folders) {
+      if (fsFactory.getFile(folder).getAbsolutePath().equals(sourceBaseFolder)) {
+        continue;
+      }
+      File targetFile = getTargetFile(sourceFile, folder);
+      if (targetFile.exists()) {
+        LOGGER.info("{} has been migrated to {}, delete it", sourceFile, targetFile);
+        mergeMods(sourceFile, targetFile);
+        new TsFileResource(sourceFile).remove();
+        break;
+      }
+    }
+    fsFactory.deleteIfExists(markerFile);
+  }
+
+  /**
+   * The restart may happen before the deletions written to the source file after the first copy
+   * are copied to the target file, so add the deletions of the source file that the target file
+   * does not have yet.
+   */
+  private static void mergeMods(File sourceFile, File targetFile) throws IOException {
+    File sourceModsFile = fsFactory.getFile(sourceFile.getPath() + ModificationFile.FILE_SUFFIX);
+    if (!sourceModsFile.exists()) {
+      return;
+    }
+    try (ModificationFile sourceModFile = new ModificationFile(sourceModsFile.getPath());
+        ModificationFile targetModFile =
+            new ModificationFile(targetFile.getPath() + ModificationFile.FILE_SUFFIX)) {
+      Set<Modification> targetModifications = new HashSet<>(targetModFile.getModifications());
+      List<Modification> missingModifications = new ArrayList<>();
+      for (Modification deletion : toMigratedDeletions(sourceModFile.getModifications())) {
+        if (!targetModifications.contains(deletion)) {
+          missingModifications.add(deletion);
+        }
+      }
+      targetModFile.write(missingModifications);
+    }
+  }
+
+  /** @return the sequence or unsequence folder the TsFile is in */
+  private static File getBaseFolder(File tsFile) {
+    // tsFile -> time partition -> data region -> storage group -> base folder
+    return tsFile.getParentFile().getParentFile().getParentFile().getParentFile();
+  }
+
+  static File getTargetFile(File tsFile, String targetFolder) {
+    File partitionFolder = tsFile.getParentFile();
+    File regionFolder = partitionFolder.getParentFile();
+    File storageGroupFolder = regionFolder.getParentFile();
+    return fsFactory.getFile(
+        targetFolder
+            + File.separator
+            + storageGroupFolder.getName()
+            + File.separator
+            + regionFolder.getName()
+            + File.separator
+            + partitionFolder.getName(),
+        tsFile.getName());
+  }
+}
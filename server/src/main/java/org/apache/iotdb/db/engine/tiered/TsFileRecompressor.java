@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.tiered;
+
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.compress.ICompressor;
+import org.apache.iotdb.tsfile.compress.IUnCompressor;
+import org.apache.iotdb.tsfile.file.MetaMarker;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites a sealed TsFile with another compression type. Pages are decompressed and compressed
+ * again one by one, while chunk layout, encodings and statistics are kept, so chunks and pages of
+ * the rewritten file are exactly those of the source file.
+ */
+public class TsFileRecompressor {
+
+  private final ICompressor compressor;
+
+  public TsFileRecompressor(CompressionType compressionType) {
+    this.compressor = ICompressor.getCompressor(compressionType);
+  }
+
+  /**
+   * @param source the sealed TsFile to be rewritten, it is not modified
+   * @param target the file to write, it must not exist
+   */
+  public void rewrite(TsFileResource source, File target) throws IOException {
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(source.getTsFilePath())) {
+      TsFileIOWriter writer = new TsFileIOWriter(target);
+      try {
+        for (String device : reader.getAllDevices()) {
+          Map<String, List<ChunkMetadata>> chunkMetadataMap =
+              reader.readChunkMetadataInDevice(device);
+          writer.startChunkGroup(device);
+          for (List<ChunkMetadata> chunkMetadataList : chunkMetadataMap.values()) {
+            for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+              rewriteChunk(reader.readMemChunk(chunkMetadata), chunkMetadata, writer);
+            }
+          }
+          writer.endChunkGroup();
+        }
+        writer.setMinPlanIndex(source.getMinPlanIndex());
+        writer.setMaxPlanIndex(source.getMaxPlanIndex());
+        writer.writePlanIndices();
+        writer.endFile();
+      } finally {
+        if (writer.canWrite()) {
+          writer.close();
+        }
+      }
+    }
+  }
+
+  private void rewriteChunk(Chunk chunk, ChunkMetadata chunkMetadata, TsFileIOWriter writer)
+      throws IOException {
+    ChunkHeader header = chunk.getHeader();
+    ByteBuffer chunkData = chunk.getData().duplicate();
+    boolean onlyOnePage =
+        ((byte) (header.getChunkType() & 0x3F)) == MetaMarker.ONLY_ONE_PAGE_CHUNK_HEADER;
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(header.getCompressionType());
+
+    PublicBAOS pageBuffer = new PublicBAOS();
+    // the number of pages is not serialized in the chunk header, so count it here
+    int numOfPages = 0;
+    while (chunkData.hasRemaining()) {
+      numOfPages++;
+      PageHeader pageHeader =
+          onlyOnePage
+              ? PageHeader.deserializeFrom(chunkData, chunkMetadata.getStatistics())
+              : PageHeader.deserializeFrom(chunkData, header.getDataType());
+      if (pageHeader.getUncompressedSize() == 0) {
+        // empty page of a value chunk, only its size is serialized
+        ReadWriteForEncodingUtils.writeUnsignedVarInt(0, pageBuffer);
+        continue;
+      }
+      byte[] compressedPage = new byte[pageHeader.getCompressedSize()];
+      chunkData.get(compressedPage);
+      byte[] uncompressedPage = new byte[pageHeader.getUncompressedSize()];
+      unCompressor.uncompress(compressedPage, 0, compressedPage.length, uncompressedPage, 0);
+      byte[] recompressedPage = compressor.compress(uncompressedPage);
+
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(uncompressedPage.length, pageBuffer);
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(recompressedPage.length, pageBuffer);
+      if (!onlyOnePage) {
+        pageHeader.getStatistics().serialize(pageBuffer);
+      }
+      pageBuffer.write(recompressedPage);
+    }
+
+    writer.startFlushChunk(
+        header.getMeasurementID(),
+        compressor.getType(),
+        header.getDataType(),
+        header.getEncodingType(),
+        chunkMetadata.getStatistics(),
+        pageBuffer.size(),
+        numOfPages,
+        header.getChunkType() & 0xC0);
+    writer.writeBytesToStream(pageBuffer);
+    writer.endCurrentChunk();
+  }
+}
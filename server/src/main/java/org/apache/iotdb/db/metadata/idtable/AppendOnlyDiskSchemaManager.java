@@ -123,7 +123,7 @@ public class AppendOnlyDiskSchemaManager implements IDiskSchemaManager {
   }
 
   @Override
-  public long serialize(DiskSchemaEntry schemaEntry) {
+  public synchronized long serialize(DiskSchemaEntry schemaEntry) {
     long beforeLoc = loc;
     try {
       loc += schemaEntry.serialize(outputStream);
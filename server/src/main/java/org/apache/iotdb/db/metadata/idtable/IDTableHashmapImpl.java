@@ -47,11 +47,19 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
-/** id table belongs to a storage group and mapping timeseries path to it's schema */
+/**
+ * id table belongs to a storage group and mapping timeseries path to it's schema
+ *
+ * <p>Reads are lock-free, and last cache is updated by CAS in {@link SchemaEntry}. Only writes that
+ * create or modify schema lock the slot of the device they touch, so inserts of different devices
+ * don't block each other.
+ */
 public class IDTableHashmapImpl implements IDTable {
 
   // number of table slot
@@ -65,6 +73,9 @@ public class IDTableHashmapImpl implements IDTable {
    */
   private Map<IDeviceID, DeviceEntry>[] idTables;
 
+  /** one lock for each slot of idTables, protecting schema creation and modification */
+  private final Lock[] slotLocks;
+
   /** disk schema manager to manage disk schema entry */
   private IDiskSchemaManager IDiskSchemaManager;
   /** iotdb config */
@@ -72,8 +83,10 @@ public class IDTableHashmapImpl implements IDTable {
 
   public IDTableHashmapImpl(File storageGroupDir) {
     idTables = new Map[NUM_OF_SLOTS];
+    slotLocks = new Lock[NUM_OF_SLOTS];
     for (int i = 0; i < NUM_OF_SLOTS; i++) {
-      idTables[i] = new HashMap<>();
+      idTables[i] = new ConcurrentHashMap<>();
+      slotLocks[i] = new ReentrantLock();
     }
     if (config.isEnableIDTableLogFile()) {
       IDiskSchemaManager = new AppendOnlyDiskSchemaManager(storageGroupDir);
@@ -87,23 +100,29 @@ public class IDTableHashmapImpl implements IDTable {
    * @param plan create aligned timeseries plan
    * @throws MetadataException if the device is not aligned, throw it
    */
-  public synchronized void createAlignedTimeseries(CreateAlignedTimeSeriesPlan plan)
+  public void createAlignedTimeseries(CreateAlignedTimeSeriesPlan plan)
       throws MetadataException {
     DeviceEntry deviceEntry = getDeviceEntryWithAlignedCheck(plan.getPrefixPath().toString(), true);
 
-    for (int i = 0; i < plan.getMeasurements().size(); i++) {
-      PartialPath fullPath =
-          new PartialPath(plan.getPrefixPath().toString(), plan.getMeasurements().get(i));
-      SchemaEntry schemaEntry =
-          new SchemaEntry(
-              plan.getDataTypes().get(i),
-              plan.getEncodings().get(i),
-              plan.getCompressors().get(i),
-              deviceEntry.getDeviceID(),
-              fullPath,
-              true,
-              IDiskSchemaManager);
-      deviceEntry.putSchemaEntry(plan.getMeasurements().get(i), schemaEntry);
+    Lock slotLock = getSlotLock(deviceEntry.getDeviceID());
+    slotLock.lock();
+    try {
+      for (int i = 0; i < plan.getMeasurements().size(); i++) {
+        PartialPath fullPath =
+            new PartialPath(plan.getPrefixPath().toString(), plan.getMeasurements().get(i));
+        SchemaEntry schemaEntry =
+            new SchemaEntry(
+                plan.getDataTypes().get(i),
+                plan.getEncodings().get(i),
+                plan.getCompressors().get(i),
+                deviceEntry.getDeviceID(),
+                fullPath,
+                true,
+                IDiskSchemaManager);
+        deviceEntry.putSchemaEntry(plan.getMeasurements().get(i), schemaEntry);
+      }
+    } finally {
+      slotLock.unlock();
     }
   }
 
@@ -113,18 +132,24 @@ public class IDTableHashmapImpl implements IDTable {
    * @param plan create timeseries plan
    * @throws MetadataException if the device is aligned, throw it
    */
-  public synchronized void createTimeseries(CreateTimeSeriesPlan plan) throws MetadataException {
+  public void createTimeseries(CreateTimeSeriesPlan plan) throws MetadataException {
     DeviceEntry deviceEntry = getDeviceEntryWithAlignedCheck(plan.getPath().getDevice(), false);
-    SchemaEntry schemaEntry =
-        new SchemaEntry(
-            plan.getDataType(),
-            plan.getEncoding(),
-            plan.getCompressor(),
-            deviceEntry.getDeviceID(),
-            plan.getPath(),
-            false,
-            IDiskSchemaManager);
-    deviceEntry.putSchemaEntry(plan.getPath().getMeasurement(), schemaEntry);
+    Lock slotLock = getSlotLock(deviceEntry.getDeviceID());
+    slotLock.lock();
+    try {
+      SchemaEntry schemaEntry =
+          new SchemaEntry(
+              plan.getDataType(),
+              plan.getEncoding(),
+              plan.getCompressor(),
+              deviceEntry.getDeviceID(),
+              plan.getPath(),
+              false,
+              IDiskSchemaManager);
+      deviceEntry.putSchemaEntry(plan.getPath().getMeasurement(), schemaEntry);
+    } finally {
+      slotLock.unlock();
+    }
   }
 
   /**
@@ -134,7 +159,7 @@ public class IDTableHashmapImpl implements IDTable {
    * @return reusable device id
    * @throws MetadataException if insert plan's aligned value is inconsistent with device
    */
-  public synchronized IDeviceID getSeriesSchemas(InsertPlan plan) throws MetadataException {
+  public IDeviceID getSeriesSchemas(InsertPlan plan) throws MetadataException {
     PartialPath devicePath = plan.getDevicePath();
     String[] measurementList = plan.getMeasurements();
     IMeasurementMNode[] measurementMNodes = plan.getMeasurementMNodes();
@@ -200,12 +225,18 @@ public class IDTableHashmapImpl implements IDTable {
    * @param measurementMNode the timeseries measurement mnode
    * @throws MetadataException if the timeseries is not exits
    */
-  public synchronized void registerTrigger(PartialPath fullPath, IMeasurementMNode measurementMNode)
+  public void registerTrigger(PartialPath fullPath, IMeasurementMNode measurementMNode)
       throws MetadataException {
     boolean isAligned = measurementMNode.getParent().isAligned();
     DeviceEntry deviceEntry = getDeviceEntryWithAlignedCheck(fullPath.getDevice(), isAligned);
 
-    deviceEntry.getSchemaEntry(fullPath.getMeasurement()).setUsingTrigger();
+    Lock slotLock = getSlotLock(deviceEntry.getDeviceID());
+    slotLock.lock();
+    try {
+      deviceEntry.getSchemaEntry(fullPath.getMeasurement()).setUsingTrigger();
+    } finally {
+      slotLock.unlock();
+    }
   }
 
   /**
@@ -215,12 +246,18 @@ public class IDTableHashmapImpl implements IDTable {
    * @param measurementMNode the timeseries measurement mnode
    * @throws MetadataException if the timeseries is not exits
    */
-  public synchronized void deregisterTrigger(
-      PartialPath fullPath, IMeasurementMNode measurementMNode) throws MetadataException {
+  public void deregisterTrigger(PartialPath fullPath, IMeasurementMNode measurementMNode)
+      throws MetadataException {
     boolean isAligned = measurementMNode.getParent().isAligned();
     DeviceEntry deviceEntry = getDeviceEntryWithAlignedCheck(fullPath.getDevice(), isAligned);
 
-    deviceEntry.getSchemaEntry(fullPath.getMeasurement()).setUnUsingTrigger();
+    Lock slotLock = getSlotLock(deviceEntry.getDeviceID());
+    slotLock.lock();
+    try {
+      deviceEntry.getSchemaEntry(fullPath.getMeasurement()).setUnUsingTrigger();
+    } finally {
+      slotLock.unlock();
+    }
   }
 
   /**
@@ -229,7 +266,7 @@ public class IDTableHashmapImpl implements IDTable {
    * @param timeseriesID timeseries ID of the timeseries
    * @throws MetadataException if the timeseries is not exits
    */
-  public synchronized TimeValuePair getLastCache(TimeseriesID timeseriesID)
+  public TimeValuePair getLastCache(TimeseriesID timeseriesID)
       throws MetadataException {
     return getSchemaEntry(timeseriesID).getCachedLast();
   }
@@ -243,7 +280,7 @@ public class IDTableHashmapImpl implements IDTable {
    * @param latestFlushedTime last flushed time
    * @throws MetadataException if the timeseries is not exits
    */
-  public synchronized void updateLastCache(
+  public void updateLastCache(
       TimeseriesID timeseriesID,
       TimeValuePair pair,
       boolean highPriorityUpdate,
@@ -316,7 +353,13 @@ public class IDTableHashmapImpl implements IDTable {
       String devicePath, String measurement, SchemaEntry schemaEntry, boolean isAligned)
       throws MetadataException {
     DeviceEntry deviceEntry = getDeviceEntryWithAlignedCheck(devicePath, isAligned);
-    deviceEntry.putSchemaEntry(measurement, schemaEntry);
+    Lock slotLock = getSlotLock(deviceEntry.getDeviceID());
+    slotLock.lock();
+    try {
+      deviceEntry.putSchemaEntry(measurement, schemaEntry);
+    } finally {
+      slotLock.unlock();
+    }
   }
 
   /**
@@ -332,8 +375,33 @@ public class IDTableHashmapImpl implements IDTable {
 
     SchemaEntry schemaEntry = deviceEntry.getSchemaEntry(measurementName);
 
-    // if not exist, we create it
+    // if not exist, we create it under the slot lock, and check again because another insert of
+    // the same device may have created it
     if (schemaEntry == null) {
+      schemaEntry = createMeasurementIfNotExist(deviceEntry, plan, measurementName, seriesKey);
+    }
+
+    // timeseries is using trigger, we should get trigger from SchemaProcessor
+    if (schemaEntry.isUsingTrigger()) {
+      IMeasurementMNode measurementMNode = IoTDB.schemaProcessor.getMeasurementMNode(seriesKey);
+      return new InsertMeasurementMNode(
+          measurementName, schemaEntry, measurementMNode.getTriggerExecutor());
+    }
+
+    return new InsertMeasurementMNode(measurementName, schemaEntry);
+  }
+
+  private SchemaEntry createMeasurementIfNotExist(
+      DeviceEntry deviceEntry, InsertPlan plan, String measurementName, PartialPath seriesKey)
+      throws MetadataException {
+    Lock slotLock = getSlotLock(deviceEntry.getDeviceID());
+    slotLock.lock();
+    try {
+      SchemaEntry schemaEntry = deviceEntry.getSchemaEntry(measurementName);
+      if (schemaEntry != null) {
+        return schemaEntry;
+      }
+
       // we have to copy plan's mnode for using id table's last cache
       IMeasurementMNode[] insertPlanMNodeBackup =
           new IMeasurementMNode[plan.getMeasurementMNodes().length];
@@ -368,17 +436,10 @@ public class IDTableHashmapImpl implements IDTable {
       System.arraycopy(
           insertPlanMNodeBackup, 0, plan.getMeasurementMNodes(), 0, insertPlanMNodeBackup.length);
 
-      schemaEntry = deviceEntry.getSchemaEntry(measurementName);
-    }
-
-    // timeseries is using trigger, we should get trigger from SchemaProcessor
-    if (schemaEntry.isUsingTrigger()) {
-      IMeasurementMNode measurementMNode = IoTDB.schemaProcessor.getMeasurementMNode(seriesKey);
-      return new InsertMeasurementMNode(
-          measurementName, schemaEntry, measurementMNode.getTriggerExecutor());
+      return deviceEntry.getSchemaEntry(measurementName);
+    } finally {
+      slotLock.unlock();
     }
-
-    return new InsertMeasurementMNode(measurementName, schemaEntry);
   }
 
   /**
@@ -394,13 +455,16 @@ public class IDTableHashmapImpl implements IDTable {
     int slot = calculateSlot(deviceID);
 
     DeviceEntry deviceEntry = idTables[slot].get(deviceID);
-    // new device
+    // new device, computeIfAbsent makes sure only one device entry is created
     if (deviceEntry == null) {
-      deviceEntry = new DeviceEntry(deviceID);
-      deviceEntry.setAligned(isAligned);
-      idTables[slot].put(deviceID, deviceEntry);
-
-      return deviceEntry;
+      deviceEntry =
+          idTables[slot].computeIfAbsent(
+              deviceID,
+              k -> {
+                DeviceEntry newDeviceEntry = new DeviceEntry(k);
+                newDeviceEntry.setAligned(isAligned);
+                return newDeviceEntry;
+              });
     }
 
     // check aligned
@@ -426,6 +490,16 @@ public class IDTableHashmapImpl implements IDTable {
     return Math.abs(hashVal == Integer.MIN_VALUE ? 0 : hashVal) % NUM_OF_SLOTS;
   }
 
+  /**
+   * get the lock of slot that this deviceID should in
+   *
+   * @param deviceID device id
+   * @return lock of the slot
+   */
+  private Lock getSlotLock(IDeviceID deviceID) {
+    return slotLocks[calculateSlot(deviceID)];
+  }
+
   /**
    * get schema entry
    *
@@ -20,6 +20,8 @@
 package org.apache.iotdb.db.mpp.buffer;
 
 import org.apache.iotdb.common.rpc.thrift.TEndPoint;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.mpp.execution.FragmentInstanceContext;
 import org.apache.iotdb.db.mpp.memory.LocalMemoryManager;
 import org.apache.iotdb.mpp.rpc.thrift.DataBlockService;
@@ -39,8 +41,10 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
@@ -50,17 +54,17 @@ public class DataBlockManager implements IDataBlockManager {
   private static final Logger logger = LoggerFactory.getLogger(DataBlockManager.class);
 
   public interface SourceHandleListener {
-    void onFinished(SourceHandle sourceHandle);
+    void onFinished(ISourceHandle sourceHandle);
 
-    void onClosed(SourceHandle sourceHandle);
+    void onClosed(ISourceHandle sourceHandle);
   }
 
   public interface SinkHandleListener {
-    void onFinish(SinkHandle sinkHandle);
+    void onFinish(ISinkHandle sinkHandle);
 
-    void onClosed(SinkHandle sinkHandle);
+    void onClosed(ISinkHandle sinkHandle);
 
-    void onAborted(SinkHandle sinkHandle);
+    void onAborted(ISinkHandle sinkHandle);
 
     void onFailure(Throwable t);
   }
@@ -75,14 +79,8 @@ public class DataBlockManager implements IDataBlockManager {
           req.getStartSequenceId(),
           req.getEndSequenceId(),
           req.getSourceFragmentInstanceId());
-      if (!sinkHandles.containsKey(req.getSourceFragmentInstanceId())) {
-        throw new TException(
-            "Source fragment instance not found. Fragment instance ID: "
-                + req.getSourceFragmentInstanceId()
-                + ".");
-      }
+      SinkHandle sinkHandle = getRemoteSinkHandle(req.getSourceFragmentInstanceId());
       TGetDataBlockResponse resp = new TGetDataBlockResponse();
-      SinkHandle sinkHandle = sinkHandles.get(req.getSourceFragmentInstanceId());
       for (int i = req.getStartSequenceId(); i < req.getEndSequenceId(); i++) {
         try {
           ByteBuffer serializedTsBlock = sinkHandle.getSerializedTsBlock(i);
@@ -101,14 +99,7 @@ public class DataBlockManager implements IDataBlockManager {
           e.getStartSequenceId(),
           e.getEndSequenceId(),
           e.getSourceFragmentInstanceId());
-      if (!sinkHandles.containsKey(e.getSourceFragmentInstanceId())) {
-        throw new TException(
-            "Source fragment instance not found. Fragment instance ID: "
-                + e.getSourceFragmentInstanceId()
-                + ".");
-      }
-      sinkHandles
-          .get(e.getSourceFragmentInstanceId())
+      getRemoteSinkHandle(e.getSourceFragmentInstanceId())
           .acknowledgeTsBlock(e.getStartSequenceId(), e.getEndSequenceId());
     }
 
@@ -119,22 +110,8 @@ public class DataBlockManager implements IDataBlockManager {
           e.getTargetPlanNodeId(),
           e.getTargetFragmentInstanceId(),
           e.getSourceFragmentInstanceId());
-      if (!sourceHandles.containsKey(e.getTargetFragmentInstanceId())
-          || !sourceHandles
-              .get(e.getTargetFragmentInstanceId())
-              .containsKey(e.getTargetPlanNodeId())
-          || sourceHandles
-              .get(e.getTargetFragmentInstanceId())
-              .get(e.getTargetPlanNodeId())
-              .isClosed()) {
-        throw new TException(
-            "Target fragment instance not found. Fragment instance ID: "
-                + e.getTargetFragmentInstanceId()
-                + ".");
-      }
-
       SourceHandle sourceHandle =
-          sourceHandles.get(e.getTargetFragmentInstanceId()).get(e.getTargetPlanNodeId());
+          getRemoteSourceHandle(e.getTargetFragmentInstanceId(), e.getTargetPlanNodeId());
       sourceHandle.updatePendingDataBlockInfo(e.getStartSequenceId(), e.getBlockSizes());
     }
 
@@ -145,24 +122,37 @@ public class DataBlockManager implements IDataBlockManager {
           e.getTargetPlanNodeId(),
           e.getTargetFragmentInstanceId(),
           e.getSourceFragmentInstanceId());
-      if (!sourceHandles.containsKey(e.getTargetFragmentInstanceId())
-          || !sourceHandles
-              .get(e.getTargetFragmentInstanceId())
-              .containsKey(e.getTargetPlanNodeId())
-          || sourceHandles
-              .get(e.getTargetFragmentInstanceId())
-              .get(e.getTargetPlanNodeId())
-              .isClosed()) {
+      SourceHandle sourceHandle =
+          getRemoteSourceHandle(e.getTargetFragmentInstanceId(), e.getTargetPlanNodeId());
+      sourceHandle.setNoMoreTsBlocks(e.getLastSequenceId());
+    }
+
+    private SinkHandle getRemoteSinkHandle(TFragmentInstanceId sourceFragmentInstanceId)
+        throws TException {
+      ISinkHandle sinkHandle = sinkHandles.get(sourceFragmentInstanceId);
+      // local sink handles never communicate through thrift
+      if (!(sinkHandle instanceof SinkHandle)) {
         throw new TException(
-            "Target fragment instance not found. Fragment instance ID: "
-                + e.getTargetFragmentInstanceId()
+            "Source fragment instance not found. Fragment instance ID: "
+                + sourceFragmentInstanceId
                 + ".");
       }
-      SourceHandle sourceHandle =
+      return (SinkHandle) sinkHandle;
+    }
+
+    private SourceHandle getRemoteSourceHandle(
+        TFragmentInstanceId targetFragmentInstanceId, String targetPlanNodeId) throws TException {
+      ISourceHandle sourceHandle =
           sourceHandles
-              .getOrDefault(e.getTargetFragmentInstanceId(), Collections.emptyMap())
-              .get(e.getTargetPlanNodeId());
-      sourceHandle.setNoMoreTsBlocks(e.getLastSequenceId());
+              .getOrDefault(targetFragmentInstanceId, Collections.emptyMap())
+              .get(targetPlanNodeId);
+      if (!(sourceHandle instanceof SourceHandle) || sourceHandle.isClosed()) {
+        throw new TException(
+            "Target fragment instance not found. Fragment instance ID: "
+                + targetFragmentInstanceId
+                + ".");
+      }
+      return (SourceHandle) sourceHandle;
     }
   }
 
@@ -170,7 +160,7 @@ public class DataBlockManager implements IDataBlockManager {
   class SourceHandleListenerImpl implements SourceHandleListener {
 
     @Override
-    public void onFinished(SourceHandle sourceHandle) {
+    public void onFinished(ISourceHandle sourceHandle) {
       logger.info("Release resources of finished source handle {}", sourceHandle);
       if (!sourceHandles.containsKey(sourceHandle.getLocalFragmentInstanceId())
           || !sourceHandles
@@ -187,10 +177,14 @@ public class DataBlockManager implements IDataBlockManager {
           && sourceHandles.get(sourceHandle.getLocalFragmentInstanceId()).isEmpty()) {
         sourceHandles.remove(sourceHandle.getLocalFragmentInstanceId());
       }
+      if (sourceHandle instanceof LocalSourceHandle) {
+        removeSharedTsBlockQueue(
+            sourceHandle.getLocalFragmentInstanceId(), sourceHandle.getLocalPlanNodeId());
+      }
     }
 
     @Override
-    public void onClosed(SourceHandle sourceHandle) {
+    public void onClosed(ISourceHandle sourceHandle) {
       onFinished(sourceHandle);
     }
   }
@@ -205,7 +199,7 @@ public class DataBlockManager implements IDataBlockManager {
     }
 
     @Override
-    public void onFinish(SinkHandle sinkHandle) {
+    public void onFinish(ISinkHandle sinkHandle) {
       logger.info("Release resources of finished sink handle {}", sourceHandles);
       if (!sinkHandles.containsKey(sinkHandle.getLocalFragmentInstanceId())) {
         logger.info("Resources of finished sink handle {} has already been released", sinkHandle);
@@ -215,12 +209,12 @@ public class DataBlockManager implements IDataBlockManager {
     }
 
     @Override
-    public void onClosed(SinkHandle sinkHandle) {
+    public void onClosed(ISinkHandle sinkHandle) {
       context.transitionToFlushing();
     }
 
     @Override
-    public void onAborted(SinkHandle sinkHandle) {
+    public void onAborted(ISinkHandle sinkHandle) {
       logger.info("Release resources of aborted sink handle {}", sourceHandles);
       if (!sinkHandles.containsKey(sinkHandle.getLocalFragmentInstanceId())) {
         logger.info("Resources of aborted sink handle {} has already been released", sinkHandle);
@@ -238,8 +232,16 @@ public class DataBlockManager implements IDataBlockManager {
   private final Supplier<TsBlockSerde> tsBlockSerdeFactory;
   private final ExecutorService executorService;
   private final DataBlockServiceClientFactory clientFactory;
-  private final Map<TFragmentInstanceId, Map<String, SourceHandle>> sourceHandles;
-  private final Map<TFragmentInstanceId, SinkHandle> sinkHandles;
+  private final Map<TFragmentInstanceId, Map<String, ISourceHandle>> sourceHandles;
+  private final Map<TFragmentInstanceId, ISinkHandle> sinkHandles;
+  /** Endpoints of the data block service of this node, exchanges to them are done in memory. */
+  private final Set<TEndPoint> localEndpoints;
+  /**
+   * Queues of local exchanges, indexed by the downstream fragment instance and plan node. A queue
+   * whose source handle is closed before the sink handle is created stays here as a closed local
+   * channel, so that the late sink handle gets the destroyed queue instead of an orphan one.
+   */
+  private final Map<TFragmentInstanceId, Map<String, SharedTsBlockQueue>> sharedTsBlockQueues;
 
   private DataBlockServiceImpl dataBlockService;
 
@@ -248,12 +250,94 @@ public class DataBlockManager implements IDataBlockManager {
       Supplier<TsBlockSerde> tsBlockSerdeFactory,
       ExecutorService executorService,
       DataBlockServiceClientFactory clientFactory) {
+    this(
+        localMemoryManager,
+        tsBlockSerdeFactory,
+        executorService,
+        clientFactory,
+        getLocalEndpointsFromConfig());
+  }
+
+  public DataBlockManager(
+      LocalMemoryManager localMemoryManager,
+      Supplier<TsBlockSerde> tsBlockSerdeFactory,
+      ExecutorService executorService,
+      DataBlockServiceClientFactory clientFactory,
+      Set<TEndPoint> localEndpoints) {
     this.localMemoryManager = Validate.notNull(localMemoryManager);
     this.tsBlockSerdeFactory = Validate.notNull(tsBlockSerdeFactory);
     this.executorService = Validate.notNull(executorService);
     this.clientFactory = Validate.notNull(clientFactory);
+    this.localEndpoints = Validate.notNull(localEndpoints);
     sourceHandles = new ConcurrentHashMap<>();
     sinkHandles = new ConcurrentHashMap<>();
+    sharedTsBlockQueues = new ConcurrentHashMap<>();
+  }
+
+  private static Set<TEndPoint> getLocalEndpointsFromConfig() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    Set<TEndPoint> endpoints = new HashSet<>();
+    // fragment instances are addressed by internal ip, while the coordinator uses rpc address
+    endpoints.add(new TEndPoint(config.getInternalIp(), config.getDataBlockManagerPort()));
+    endpoints.add(new TEndPoint(config.getRpcAddress(), config.getDataBlockManagerPort()));
+    return endpoints;
+  }
+
+  private boolean isLocal(TEndPoint endpoint) {
+    return localEndpoints.contains(endpoint);
+  }
+
+  private SharedTsBlockQueue getOrCreateSharedTsBlockQueue(
+      TFragmentInstanceId downstreamFragmentInstanceId, String downstreamPlanNodeId) {
+    SharedTsBlockQueue[] queue = new SharedTsBlockQueue[1];
+    // the inner map is updated under the lock of the outer entry, so it can not be removed
+    // concurrently by removeSharedTsBlockQueue
+    sharedTsBlockQueues.compute(
+        downstreamFragmentInstanceId,
+        (key, queues) -> {
+          if (queues == null) {
+            queues = new ConcurrentHashMap<>();
+          }
+          queue[0] =
+              queues.computeIfAbsent(
+                  downstreamPlanNodeId,
+                  planNodeId ->
+                      new SharedTsBlockQueue(
+                          downstreamFragmentInstanceId, localMemoryManager, executorService));
+          return queues;
+        });
+    return queue[0];
+  }
+
+  /**
+   * Called when the source side releases the queue. The queue is removed if the sink handle has
+   * been created, otherwise it is kept as a closed local channel for the sink handle created later.
+   */
+  private void removeSharedTsBlockQueue(
+      TFragmentInstanceId downstreamFragmentInstanceId, String downstreamPlanNodeId) {
+    sharedTsBlockQueues.computeIfPresent(
+        downstreamFragmentInstanceId,
+        (key, queues) -> {
+          queues.computeIfPresent(
+              downstreamPlanNodeId,
+              (planNodeId, queue) -> queue.getSinkHandle() == null ? queue : null);
+          return queues.isEmpty() ? null : queues;
+        });
+  }
+
+  private void removeClosedSharedTsBlockQueue(
+      TFragmentInstanceId downstreamFragmentInstanceId, String downstreamPlanNodeId) {
+    sharedTsBlockQueues.computeIfPresent(
+        downstreamFragmentInstanceId,
+        (key, queues) -> {
+          queues.computeIfPresent(
+              downstreamPlanNodeId, (planNodeId, queue) -> queue.isDestroyed() ? null : queue);
+          return queues.isEmpty() ? null : queues;
+        });
+  }
+
+  public LocalMemoryManager getLocalMemoryManager() {
+    return localMemoryManager;
   }
 
   public DataBlockServiceImpl getOrCreateDataBlockServiceImpl() {
@@ -274,6 +358,25 @@ public class DataBlockManager implements IDataBlockManager {
       throw new IllegalStateException("Sink handle for " + localFragmentInstanceId + " exists.");
     }
 
+    if (isLocal(remoteEndpoint)) {
+      logger.debug(
+          "Create local sink handle to plan node {} of {} for {}",
+          remotePlanNodeId,
+          remoteFragmentInstanceId,
+          localFragmentInstanceId);
+      LocalSinkHandle localSinkHandle =
+          new LocalSinkHandle(
+              remoteFragmentInstanceId,
+              remotePlanNodeId,
+              localFragmentInstanceId,
+              getOrCreateSharedTsBlockQueue(remoteFragmentInstanceId, remotePlanNodeId),
+              new SinkHandleListenerImpl(instanceContext));
+      sinkHandles.put(localFragmentInstanceId, localSinkHandle);
+      // the closed local channel is not needed anymore if the source handle has been closed
+      removeClosedSharedTsBlockQueue(remoteFragmentInstanceId, remotePlanNodeId);
+      return localSinkHandle;
+    }
+
     logger.debug(
         "Create sink handle to plan node {} of {} for {}",
         remotePlanNodeId,
@@ -311,6 +414,25 @@ public class DataBlockManager implements IDataBlockManager {
               + " exists.");
     }
 
+    if (isLocal(remoteEndpoint)) {
+      logger.debug(
+          "Create local source handle from {} for plan node {} of {}",
+          remoteFragmentInstanceId,
+          localPlanNodeId,
+          localFragmentInstanceId);
+      LocalSourceHandle localSourceHandle =
+          new LocalSourceHandle(
+              remoteFragmentInstanceId,
+              localFragmentInstanceId,
+              localPlanNodeId,
+              getOrCreateSharedTsBlockQueue(localFragmentInstanceId, localPlanNodeId),
+              new SourceHandleListenerImpl());
+      sourceHandles
+          .computeIfAbsent(localFragmentInstanceId, key -> new ConcurrentHashMap<>())
+          .put(localPlanNodeId, localSourceHandle);
+      return localSourceHandle;
+    }
+
     logger.debug(
         "Create source handle from {} for plan node {} of {}",
         remoteFragmentInstanceId,
@@ -349,12 +471,21 @@ public class DataBlockManager implements IDataBlockManager {
       sinkHandles.remove(fragmentInstanceId);
     }
     if (sourceHandles.containsKey(fragmentInstanceId)) {
-      Map<String, SourceHandle> planNodeIdToSourceHandle = sourceHandles.get(fragmentInstanceId);
-      for (Entry<String, SourceHandle> entry : planNodeIdToSourceHandle.entrySet()) {
+      Map<String, ISourceHandle> planNodeIdToSourceHandle = sourceHandles.get(fragmentInstanceId);
+      for (Entry<String, ISourceHandle> entry : planNodeIdToSourceHandle.entrySet()) {
         logger.info("Close source handle {}", sourceHandles);
         entry.getValue().close();
       }
       sourceHandles.remove(fragmentInstanceId);
     }
+    // The queues whose source handle has not been created are destroyed. The ones without sink
+    // handle are kept as closed local channels for the sink handles created later.
+    Map<String, SharedTsBlockQueue> queues = sharedTsBlockQueues.get(fragmentInstanceId);
+    if (queues != null) {
+      for (Entry<String, SharedTsBlockQueue> entry : queues.entrySet()) {
+        entry.getValue().destroy();
+        removeSharedTsBlockQueue(fragmentInstanceId, entry.getKey());
+      }
+    }
   }
 }
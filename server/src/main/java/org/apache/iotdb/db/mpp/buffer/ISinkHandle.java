@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.db.mpp.buffer;
 
+import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
 import org.apache.iotdb.tsfile.read.common.block.TsBlock;
 
 import com.google.common.util.concurrent.ListenableFuture;
@@ -27,6 +28,9 @@ import java.util.List;
 
 public interface ISinkHandle {
 
+  /** Get the ID of the fragment instance who sends tsblocks to this handle. */
+  TFragmentInstanceId getLocalFragmentInstanceId();
+
   /** Get the total amount of memory used by buffered tsblocks. */
   long getBufferRetainedSizeInBytes();
 
@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.db.mpp.buffer;
 
+import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
 import org.apache.iotdb.tsfile.read.common.block.TsBlock;
 
 import com.google.common.util.concurrent.ListenableFuture;
@@ -27,6 +28,12 @@ import java.io.IOException;
 
 public interface ISourceHandle extends Closeable {
 
+  /** Get the ID of the fragment instance who receives tsblocks from this handle. */
+  TFragmentInstanceId getLocalFragmentInstanceId();
+
+  /** Get the ID of the plan node who receives tsblocks from this handle. */
+  String getLocalPlanNodeId();
+
   /** Get the total amount of memory used by buffered tsblocks. */
   long getBufferRetainedSizeInBytes();
 
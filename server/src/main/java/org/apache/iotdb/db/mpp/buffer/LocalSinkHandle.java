@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.buffer;
+
+import org.apache.iotdb.db.mpp.buffer.DataBlockManager.SinkHandleListener;
+import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
+
+/** A sink handle who hands TsBlocks to a downstream fragment instance in the same JVM. */
+public class LocalSinkHandle implements ISinkHandle {
+
+  private static final Logger logger = LoggerFactory.getLogger(LocalSinkHandle.class);
+
+  private final TFragmentInstanceId remoteFragmentInstanceId;
+  private final String remotePlanNodeId;
+  private final TFragmentInstanceId localFragmentInstanceId;
+  private final SharedTsBlockQueue queue;
+  private final SinkHandleListener sinkHandleListener;
+
+  private volatile ListenableFuture<Void> blocked;
+  private boolean closed;
+  private boolean finished;
+
+  public LocalSinkHandle(
+      TFragmentInstanceId remoteFragmentInstanceId,
+      String remotePlanNodeId,
+      TFragmentInstanceId localFragmentInstanceId,
+      SharedTsBlockQueue queue,
+      SinkHandleListener sinkHandleListener) {
+    this.remoteFragmentInstanceId = Validate.notNull(remoteFragmentInstanceId);
+    this.remotePlanNodeId = Validate.notNull(remotePlanNodeId);
+    this.localFragmentInstanceId = Validate.notNull(localFragmentInstanceId);
+    this.queue = Validate.notNull(queue);
+    this.sinkHandleListener = Validate.notNull(sinkHandleListener);
+    this.blocked = queue.isFull();
+    queue.setSinkHandle(this);
+  }
+
+  @Override
+  public ListenableFuture<Void> isFull() {
+    if (closed) {
+      throw new IllegalStateException("Sink handle is closed.");
+    }
+    return nonCancellationPropagating(blocked);
+  }
+
+  @Override
+  public void send(List<TsBlock> tsBlocks) {
+    Validate.notNull(tsBlocks, "tsBlocks is null");
+    if (closed) {
+      throw new IllegalStateException("Sink handle is closed.");
+    }
+    if (!blocked.isDone()) {
+      throw new IllegalStateException("Sink handle is blocked.");
+    }
+    if (queue.hasNoMoreTsBlocks()) {
+      return;
+    }
+    blocked = queue.add(tsBlocks);
+  }
+
+  @Override
+  public void send(int partition, List<TsBlock> tsBlocks) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setNoMoreTsBlocks() {
+    queue.setNoMoreTsBlocks(true);
+  }
+
+  @Override
+  public void close() {
+    logger.info("Local sink handle {} is being closed.", this);
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    queue.setNoMoreTsBlocks(true);
+    sinkHandleListener.onClosed(this);
+    checkAndInvokeOnFinished();
+    logger.info("Local sink handle {} is closed.", this);
+  }
+
+  /** Called by both sides, the listener is notified once all TsBlocks are consumed. */
+  void checkAndInvokeOnFinished() {
+    synchronized (this) {
+      if (finished || !closed || !queue.isFinished()) {
+        return;
+      }
+      finished = true;
+    }
+    sinkHandleListener.onFinish(this);
+  }
+
+  @Override
+  public void abort() {
+    logger.info("Local sink handle {} is being aborted.", this);
+    synchronized (this) {
+      closed = true;
+      finished = true;
+    }
+    queue.destroy();
+    sinkHandleListener.onAborted(this);
+    logger.info("Local sink handle {} is aborted", this);
+  }
+
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public boolean isFinished() {
+    return queue.isFinished();
+  }
+
+  @Override
+  public long getBufferRetainedSizeInBytes() {
+    return queue.getBufferRetainedSizeInBytes();
+  }
+
+  @Override
+  public int getNumOfBufferedTsBlocks() {
+    return queue.getNumOfBufferedTsBlocks();
+  }
+
+  @Override
+  public TFragmentInstanceId getLocalFragmentInstanceId() {
+    return localFragmentInstanceId;
+  }
+
+  TFragmentInstanceId getRemoteFragmentInstanceId() {
+    return remoteFragmentInstanceId;
+  }
+
+  String getRemotePlanNodeId() {
+    return remotePlanNodeId;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", LocalSinkHandle.class.getSimpleName() + "[", "]")
+        .add("remoteFragmentInstanceId=" + remoteFragmentInstanceId)
+        .add("remotePlanNodeId='" + remotePlanNodeId + "'")
+        .add("localFragmentInstanceId=" + localFragmentInstanceId)
+        .toString();
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.buffer;
+
+import org.apache.iotdb.db.mpp.buffer.DataBlockManager.SourceHandleListener;
+import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.commons.lang3.Validate;
+
+import java.util.StringJoiner;
+
+import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
+
+/** A source handle who takes TsBlocks from an upstream fragment instance in the same JVM. */
+public class LocalSourceHandle implements ISourceHandle {
+
+  private final TFragmentInstanceId remoteFragmentInstanceId;
+  private final TFragmentInstanceId localFragmentInstanceId;
+  private final String localPlanNodeId;
+  private final SharedTsBlockQueue queue;
+  private final SourceHandleListener sourceHandleListener;
+
+  private boolean closed;
+
+  public LocalSourceHandle(
+      TFragmentInstanceId remoteFragmentInstanceId,
+      TFragmentInstanceId localFragmentInstanceId,
+      String localPlanNodeId,
+      SharedTsBlockQueue queue,
+      SourceHandleListener sourceHandleListener) {
+    this.remoteFragmentInstanceId = Validate.notNull(remoteFragmentInstanceId);
+    this.localFragmentInstanceId = Validate.notNull(localFragmentInstanceId);
+    this.localPlanNodeId = Validate.notNull(localPlanNodeId);
+    this.queue = Validate.notNull(queue);
+    this.sourceHandleListener = Validate.notNull(sourceHandleListener);
+  }
+
+  @Override
+  public TsBlock receive() {
+    if (closed) {
+      throw new IllegalStateException("Source handle is closed.");
+    }
+    if (!queue.isBlocked().isDone()) {
+      throw new IllegalStateException("Source handle is blocked.");
+    }
+    TsBlock tsBlock = queue.isEmpty() ? null : queue.remove();
+    if (isFinished()) {
+      sourceHandleListener.onFinished(this);
+      notifySinkHandle();
+    }
+    return tsBlock;
+  }
+
+  @Override
+  public boolean isFinished() {
+    return queue.isFinished();
+  }
+
+  @Override
+  public ListenableFuture<Void> isBlocked() {
+    if (closed) {
+      throw new IllegalStateException("Source handle is closed.");
+    }
+    return nonCancellationPropagating(queue.isBlocked());
+  }
+
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    queue.destroy();
+    sourceHandleListener.onClosed(this);
+    // upstream fragment instance can finish without waiting for the closed consumer
+    notifySinkHandle();
+  }
+
+  private void notifySinkHandle() {
+    LocalSinkHandle sinkHandle = queue.getSinkHandle();
+    if (sinkHandle != null) {
+      sinkHandle.checkAndInvokeOnFinished();
+    }
+  }
+
+  @Override
+  public long getBufferRetainedSizeInBytes() {
+    return queue.getBufferRetainedSizeInBytes();
+  }
+
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public TFragmentInstanceId getLocalFragmentInstanceId() {
+    return localFragmentInstanceId;
+  }
+
+  @Override
+  public String getLocalPlanNodeId() {
+    return localPlanNodeId;
+  }
+
+  TFragmentInstanceId getRemoteFragmentInstanceId() {
+    return remoteFragmentInstanceId;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", LocalSourceHandle.class.getSimpleName() + "[", "]")
+        .add("remoteFragmentInstanceId=" + remoteFragmentInstanceId)
+        .add("localFragmentInstanceId=" + localFragmentInstanceId)
+        .add("localPlanNodeId='" + localPlanNodeId + "'")
+        .toString();
+  }
+}
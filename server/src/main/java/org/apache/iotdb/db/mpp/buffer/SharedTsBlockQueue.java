@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.buffer;
+
+import org.apache.iotdb.db.mpp.memory.LocalMemoryManager;
+import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.apache.iotdb.tsfile.read.common.block.TsBlockBuilderStatus.DEFAULT_MAX_TSBLOCK_SIZE_IN_BYTES;
+
+/**
+ * A queue shared by a {@link LocalSinkHandle} and a {@link LocalSourceHandle} whose fragment
+ * instances run in the same JVM. TsBlocks are passed by reference without serialization.
+ *
+ * <p>Memory of the buffered TsBlocks is reserved from the query pool of {@link LocalMemoryManager}
+ * once, instead of twice on both sides of a remote exchange. A TsBlock is visible to the consumer
+ * only after its memory is reserved, and the producer is blocked until then.
+ *
+ * <p>The queue is also bounded by maxBufferedBytes, so that one exchange can not take all the
+ * memory of its query. Once the buffered TsBlocks reach the bound, the producer is blocked until
+ * the consumer removes enough of them.
+ */
+public class SharedTsBlockQueue {
+
+  public static final long DEFAULT_MAX_BUFFERED_BYTES = 8L * DEFAULT_MAX_TSBLOCK_SIZE_IN_BYTES;
+
+  private final TFragmentInstanceId localFragmentInstanceId;
+  private final LocalMemoryManager localMemoryManager;
+  private final ExecutorService executorService;
+  private final long maxBufferedBytes;
+
+  private final Queue<TsBlock> queue = new LinkedList<>();
+  /** TsBlocks waiting for memory reservation, there is at most one batch of them. */
+  private List<TsBlock> pendingTsBlocks = Collections.emptyList();
+
+  /** Completed when the queue is not empty or no more TsBlocks will be added. */
+  private SettableFuture<Void> blocked = SettableFuture.create();
+  /** Completed when memory of the last added TsBlock is reserved. */
+  private ListenableFuture<Void> blockedOnMemory = immediateFuture(null);
+  /** Completed when the buffered TsBlocks are below maxBufferedBytes. */
+  private SettableFuture<Void> notFull = SettableFuture.create();
+
+  private long bufferRetainedSizeInBytes = 0L;
+  private boolean noMoreTsBlocks = false;
+  private boolean destroyed = false;
+
+  private LocalSinkHandle sinkHandle;
+
+  public SharedTsBlockQueue(
+      TFragmentInstanceId localFragmentInstanceId,
+      LocalMemoryManager localMemoryManager,
+      ExecutorService executorService) {
+    this(localFragmentInstanceId, localMemoryManager, executorService, DEFAULT_MAX_BUFFERED_BYTES);
+  }
+
+  public SharedTsBlockQueue(
+      TFragmentInstanceId localFragmentInstanceId,
+      LocalMemoryManager localMemoryManager,
+      ExecutorService executorService,
+      long maxBufferedBytes) {
+    Validate.isTrue(maxBufferedBytes > 0L, "maxBufferedBytes should be larger than 0.");
+    this.localFragmentInstanceId = Validate.notNull(localFragmentInstanceId);
+    this.localMemoryManager = Validate.notNull(localMemoryManager);
+    this.executorService = Validate.notNull(executorService);
+    this.maxBufferedBytes = maxBufferedBytes;
+    notFull.set(null);
+  }
+
+  public synchronized boolean hasNoMoreTsBlocks() {
+    return noMoreTsBlocks;
+  }
+
+  public synchronized long getBufferRetainedSizeInBytes() {
+    return bufferRetainedSizeInBytes;
+  }
+
+  public synchronized int getNumOfBufferedTsBlocks() {
+    return queue.size() + pendingTsBlocks.size();
+  }
+
+  public synchronized boolean isEmpty() {
+    return queue.isEmpty() && pendingTsBlocks.isEmpty();
+  }
+
+  /** The queue is finished if no more TsBlocks will be added and all of them are consumed. */
+  public synchronized boolean isFinished() {
+    return destroyed || (noMoreTsBlocks && isEmpty());
+  }
+
+  public synchronized ListenableFuture<Void> isBlocked() {
+    return blocked;
+  }
+
+  public synchronized boolean isDestroyed() {
+    return destroyed;
+  }
+
+  /**
+   * Completed when memory of the last added TsBlock is reserved and the buffered TsBlocks are below
+   * maxBufferedBytes.
+   */
+  public synchronized ListenableFuture<Void> isFull() {
+    if (notFull.isDone()) {
+      return blockedOnMemory;
+    }
+    return Futures.whenAllSucceed(blockedOnMemory, notFull).call(() -> null, directExecutor());
+  }
+
+  synchronized LocalSinkHandle getSinkHandle() {
+    return sinkHandle;
+  }
+
+  synchronized void setSinkHandle(LocalSinkHandle sinkHandle) {
+    this.sinkHandle = sinkHandle;
+  }
+
+  /**
+   * Add a batch of TsBlocks to the queue. The returned future is completed when the memory of the
+   * batch is reserved and the queue is not full, the producer should not add another batch before
+   * that.
+   */
+  public synchronized ListenableFuture<Void> add(List<TsBlock> tsBlocks) {
+    if (destroyed || tsBlocks.isEmpty()) {
+      return immediateFuture(null);
+    }
+    Validate.isTrue(!noMoreTsBlocks, "No more TsBlocks should be added.");
+    Validate.isTrue(pendingTsBlocks.isEmpty(), "Queue is blocked on memory reservation.");
+
+    long retainedSizeInBytes = getRetainedSizeInBytes(tsBlocks);
+    bufferRetainedSizeInBytes += retainedSizeInBytes;
+    blockedOnMemory =
+        localMemoryManager
+            .getQueryPool()
+            .reserve(localFragmentInstanceId.getQueryId(), retainedSizeInBytes);
+    if (blockedOnMemory.isDone()) {
+      enqueue(tsBlocks);
+    } else {
+      pendingTsBlocks = new ArrayList<>(tsBlocks);
+      // not a direct executor, the future is completed while holding the lock of memory pool
+      blockedOnMemory.addListener(this::onMemoryReserved, executorService);
+    }
+    if (bufferRetainedSizeInBytes >= maxBufferedBytes && notFull.isDone()) {
+      notFull = SettableFuture.create();
+    }
+    return isFull();
+  }
+
+  private synchronized void onMemoryReserved() {
+    if (pendingTsBlocks.isEmpty() || blockedOnMemory.isCancelled()) {
+      return;
+    }
+    List<TsBlock> tsBlocks = pendingTsBlocks;
+    pendingTsBlocks = Collections.emptyList();
+    if (destroyed) {
+      localMemoryManager
+          .getQueryPool()
+          .free(localFragmentInstanceId.getQueryId(), getRetainedSizeInBytes(tsBlocks));
+      return;
+    }
+    enqueue(tsBlocks);
+  }
+
+  private void enqueue(List<TsBlock> tsBlocks) {
+    queue.addAll(tsBlocks);
+    if (!blocked.isDone()) {
+      blocked.set(null);
+    }
+  }
+
+  private static long getRetainedSizeInBytes(List<TsBlock> tsBlocks) {
+    long retainedSizeInBytes = 0L;
+    for (TsBlock tsBlock : tsBlocks) {
+      retainedSizeInBytes += tsBlock.getRetainedSizeInBytes();
+    }
+    return retainedSizeInBytes;
+  }
+
+  /** Remove the first TsBlock of the queue and free its memory. */
+  public synchronized TsBlock remove() {
+    if (destroyed) {
+      throw new IllegalStateException("Queue has been destroyed.");
+    }
+    TsBlock tsBlock = queue.remove();
+    bufferRetainedSizeInBytes -= tsBlock.getRetainedSizeInBytes();
+    localMemoryManager
+        .getQueryPool()
+        .free(localFragmentInstanceId.getQueryId(), tsBlock.getRetainedSizeInBytes());
+    if (queue.isEmpty() && !noMoreTsBlocks && blocked.isDone()) {
+      blocked = SettableFuture.create();
+    }
+    if (bufferRetainedSizeInBytes < maxBufferedBytes && !notFull.isDone()) {
+      notFull.set(null);
+    }
+    return tsBlock;
+  }
+
+  public synchronized void setNoMoreTsBlocks(boolean noMoreTsBlocks) {
+    this.noMoreTsBlocks = noMoreTsBlocks;
+    if (noMoreTsBlocks && !blocked.isDone()) {
+      blocked.set(null);
+    }
+  }
+
+  /** Discard all buffered TsBlocks and free their memory. */
+  public synchronized void destroy() {
+    if (destroyed) {
+      return;
+    }
+    destroyed = true;
+    if (!blocked.isDone()) {
+      blocked.cancel(true);
+    }
+    // memory of pending TsBlocks is either never reserved if the reservation is cancelled, or
+    // freed by onMemoryReserved
+    long reservedBytes = bufferRetainedSizeInBytes - getRetainedSizeInBytes(pendingTsBlocks);
+    if (!pendingTsBlocks.isEmpty() && blockedOnMemory.cancel(true)) {
+      pendingTsBlocks = Collections.emptyList();
+    }
+    queue.clear();
+    bufferRetainedSizeInBytes = 0L;
+    if (!notFull.isDone()) {
+      notFull.set(null);
+    }
+    if (reservedBytes > 0L) {
+      localMemoryManager.getQueryPool().free(localFragmentInstanceId.getQueryId(), reservedBytes);
+    }
+  }
+}
@@ -301,7 +301,8 @@ public class SinkHandle implements ISinkHandle {
     return remotePlanNodeId;
   }
 
-  TFragmentInstanceId getLocalFragmentInstanceId() {
+  @Override
+  public TFragmentInstanceId getLocalFragmentInstanceId() {
     return localFragmentInstanceId;
   }
 
@@ -258,11 +258,13 @@ public class SourceHandle implements ISourceHandle {
     return remoteFragmentInstanceId.deepCopy();
   }
 
-  TFragmentInstanceId getLocalFragmentInstanceId() {
+  @Override
+  public TFragmentInstanceId getLocalFragmentInstanceId() {
     return localFragmentInstanceId;
   }
 
-  String getLocalPlanNodeId() {
+  @Override
+  public String getLocalPlanNodeId() {
     return localPlanNodeId;
   }
 
@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.mpp.buffer;
 
 import org.apache.iotdb.db.mpp.execution.FragmentInstanceContext;
+import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
 import org.apache.iotdb.tsfile.read.common.block.TsBlock;
 
 import com.google.common.util.concurrent.ListenableFuture;
@@ -43,6 +44,11 @@ public class StubSinkHandle implements ISinkHandle {
     this.instanceContext = instanceContext;
   }
 
+  @Override
+  public TFragmentInstanceId getLocalFragmentInstanceId() {
+    return instanceContext.getId().toThrift();
+  }
+
   @Override
   public long getBufferRetainedSizeInBytes() {
     return 0;
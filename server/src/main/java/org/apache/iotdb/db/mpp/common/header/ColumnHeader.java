@@ -53,6 +53,14 @@ public class ColumnHeader {
     this.dataType = dataType;
   }
 
+  public String getPathName() {
+    return pathName;
+  }
+
+  public String getFunctionName() {
+    return functionName;
+  }
+
   public String getColumnName() {
     if (alias != null) {
       return alias;
@@ -20,6 +20,8 @@ package org.apache.iotdb.db.mpp.execution;
 
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.storagegroup.DataRegion;
+import org.apache.iotdb.db.engine.storagegroup.TsFileListSnapshot;
+import org.apache.iotdb.db.engine.storagegroup.TsFileManager;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.metadata.idtable.IDTable;
@@ -123,6 +125,8 @@ public class DataDriver extends Driver {
     DataDriverContext context = (DataDriverContext) driverContext;
     DataRegion dataRegion = context.getDataRegion();
     dataRegion.readLock();
+    TsFileManager tsFileManager = dataRegion.getTsFileManager();
+    TsFileListSnapshot snapshot = tsFileManager.acquireSnapshot();
     try {
       List<PartialPath> pathList =
           context.getPaths().stream().map(IDTable::translateQueryPath).collect(Collectors.toList());
@@ -132,18 +136,20 @@ public class DataDriver extends Driver {
           pathList.stream().map(PartialPath::getDevice).collect(Collectors.toSet());
 
       QueryDataSource dataSource =
-          dataRegion.query(
+          dataRegion.queryFromSnapshot(
               pathList,
               selectedDeviceIdSet.size() == 1 ? selectedDeviceIdSet.iterator().next() : null,
               driverContext.getFragmentInstanceContext(),
-              context.getTimeFilter());
+              context.getTimeFilter(),
+              snapshot);
 
-      // used files should be added before mergeLock is unlocked, or they may be deleted by
-      // running merge
+      // used files should be added before the snapshot is released, or they may be deleted by
+      // running compaction
       addUsedFilesForQuery(dataSource);
 
       return dataSource;
     } finally {
+      tsFileManager.releaseSnapshot(snapshot);
       dataRegion.readUnlock();
     }
   }
@@ -188,6 +194,7 @@ public class DataDriver extends Driver {
     if (!pathSet.contains(tsFile)) {
       pathSet.add(tsFile);
       FileReaderManager.getInstance().increaseFileReaderReference(tsFile, isClosed);
+      tsFile.increaseAccessCount();
     }
   }
 }
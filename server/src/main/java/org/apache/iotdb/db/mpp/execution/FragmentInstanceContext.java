@@ -76,6 +76,7 @@ public class FragmentInstanceContext extends QueryContext {
     this.id = id;
     this.stateMachine = stateMachine;
     this.executionEndTime.set(END_TIME_INITIAL_VALUE);
+    setQueryType("mpp");
   }
 
   public void start() {
@@ -89,6 +89,10 @@ public class MemoryPool {
     return maxBytes;
   }
 
+  public long getMaxBytesPerQuery() {
+    return maxBytesPerQuery;
+  }
+
   public ListenableFuture<Void> reserve(String queryId, long bytes) {
     Validate.notNull(queryId);
     Validate.isTrue(
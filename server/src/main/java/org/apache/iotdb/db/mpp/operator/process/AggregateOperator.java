@@ -7,7 +7,7 @@
  * "License"); you may not use this file except in compliance
  * with the License.  You may obtain a copy of the License at
  *
- *      http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing,
  * software distributed under the License is distributed on an
@@ -18,40 +18,207 @@
  */
 package org.apache.iotdb.db.mpp.operator.process;
 
+import org.apache.iotdb.db.mpp.operator.Operator;
 import org.apache.iotdb.db.mpp.operator.OperatorContext;
+import org.apache.iotdb.db.mpp.operator.process.aggregate.Aggregator;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
+import org.apache.iotdb.tsfile.read.common.block.column.TimeColumnBuilder;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * AggregateOperator merges the partial aggregation results of its children, e.g.
+ * SeriesAggregateScanOperators of the same series in different data regions, into the final
+ * results.
+ *
+ * <p>Every child returns one row for each time window, whose time is the start time of the window,
+ * and all children return the same windows in the same order. If there is no time split parameter,
+ * there is only one window. Every time next() is invoked, the windows which are available in all
+ * the children are merged one column at a time by {@link Aggregator}s, one for each output column.
+ *
+ * <p>If outputPartialResult is true, the partial results of the aggregators are output instead of
+ * the final results, so that they can be merged again by the downstream operator.
+ */
 public class AggregateOperator implements ProcessOperator {
 
+  private final OperatorContext operatorContext;
+
+  private final List<Operator> children;
+
+  private final int inputCount;
+
+  private final TsBlock[] inputTsBlocks;
+
+  /** start index for each input TsBlocks and size of it is equal to inputTsBlocks */
+  private final int[] inputIndex;
+
+  private final boolean[] noMoreTsBlocks;
+
+  private final List<Aggregator> aggregators;
+
+  private final boolean outputPartialResult;
+
+  private final TsBlockBuilder tsBlockBuilder;
+
+  public AggregateOperator(
+      OperatorContext operatorContext, List<Operator> children, List<Aggregator> aggregators) {
+    this(operatorContext, children, aggregators, false);
+  }
+
+  public AggregateOperator(
+      OperatorContext operatorContext,
+      List<Operator> children,
+      List<Aggregator> aggregators,
+      boolean outputPartialResult) {
+    checkArgument(
+        children != null && children.size() > 0,
+        "child size of AggregateOperator should be larger than 0");
+    this.operatorContext = operatorContext;
+    this.children = children;
+    this.inputCount = children.size();
+    this.inputTsBlocks = new TsBlock[inputCount];
+    this.inputIndex = new int[inputCount];
+    this.noMoreTsBlocks = new boolean[inputCount];
+    this.aggregators = aggregators;
+    this.outputPartialResult = outputPartialResult;
+    List<TSDataType> dataTypes = new ArrayList<>();
+    for (Aggregator aggregator : aggregators) {
+      if (outputPartialResult) {
+        dataTypes.addAll(aggregator.getPartialOutputDataTypes());
+      } else {
+        dataTypes.add(aggregator.getOutputDataType());
+      }
+    }
+    this.tsBlockBuilder = new TsBlockBuilder(dataTypes);
+  }
+
   @Override
   public OperatorContext getOperatorContext() {
-    return null;
+    return operatorContext;
   }
 
   @Override
   public ListenableFuture<Void> isBlocked() {
-    return ProcessOperator.super.isBlocked();
+    for (int i = 0; i < inputCount; i++) {
+      if (!noMoreTsBlocks[i] && inputTsBlocks[i] == null) {
+        ListenableFuture<Void> blocked = children.get(i).isBlocked();
+        if (!blocked.isDone()) {
+          return blocked;
+        }
+      }
+    }
+    return NOT_BLOCKED;
   }
 
   @Override
   public TsBlock next() {
-    return null;
+    tsBlockBuilder.reset();
+    // number of windows which are available in all the children
+    int positionCount = Integer.MAX_VALUE;
+    int firstInput = -1;
+    for (int i = 0; i < inputCount; i++) {
+      if (!noMoreTsBlocks[i] && inputTsBlocks[i] == null) {
+        if (children.get(i).hasNext()) {
+          inputIndex[i] = 0;
+          inputTsBlocks[i] = children.get(i).next();
+          if (inputTsBlocks[i] == null || inputTsBlocks[i].isEmpty()) {
+            // the child has no data for now, wait for it
+            inputTsBlocks[i] = null;
+            return tsBlockBuilder.build();
+          }
+        } else {
+          noMoreTsBlocks[i] = true;
+          continue;
+        }
+      }
+      if (inputTsBlocks[i] != null) {
+        positionCount =
+            Math.min(positionCount, inputTsBlocks[i].getPositionCount() - inputIndex[i]);
+        if (firstInput < 0) {
+          firstInput = i;
+        } else {
+          checkState(
+              inputTsBlocks[i].getTimeByIndex(inputIndex[i])
+                  == inputTsBlocks[firstInput].getTimeByIndex(inputIndex[firstInput]),
+              "time windows of the children of AggregateOperator are not aligned");
+        }
+      }
+    }
+    if (firstInput < 0) {
+      return tsBlockBuilder.build();
+    }
+
+    TimeColumnBuilder timeColumnBuilder = tsBlockBuilder.getTimeColumnBuilder();
+    TsBlock timeSource = inputTsBlocks[firstInput];
+    for (int row = 0; row < positionCount; row++) {
+      timeColumnBuilder.writeLong(timeSource.getTimeByIndex(inputIndex[firstInput] + row));
+    }
+    int columnIndex = 0;
+    for (Aggregator aggregator : aggregators) {
+      aggregator.aggregate(inputTsBlocks, inputIndex, positionCount);
+      if (outputPartialResult) {
+        int partialColumnCount = aggregator.getPartialOutputDataTypes().size();
+        ColumnBuilder[] columnBuilders = new ColumnBuilder[partialColumnCount];
+        for (int i = 0; i < partialColumnCount; i++) {
+          columnBuilders[i] = tsBlockBuilder.getColumnBuilder(columnIndex++);
+        }
+        aggregator.outputPartial(columnBuilders);
+      } else {
+        aggregator.output(tsBlockBuilder.getColumnBuilder(columnIndex++));
+      }
+    }
+    tsBlockBuilder.declarePositions(positionCount);
+
+    for (int i = 0; i < inputCount; i++) {
+      if (inputTsBlocks[i] != null) {
+        inputIndex[i] += positionCount;
+        if (inputIndex[i] == inputTsBlocks[i].getPositionCount()) {
+          inputTsBlocks[i] = null;
+        }
+      }
+    }
+    return tsBlockBuilder.build();
   }
 
   @Override
   public boolean hasNext() {
+    for (int i = 0; i < inputCount; i++) {
+      if (inputTsBlocks[i] != null) {
+        return true;
+      } else if (!noMoreTsBlocks[i]) {
+        if (children.get(i).hasNext()) {
+          return true;
+        } else {
+          noMoreTsBlocks[i] = true;
+        }
+      }
+    }
     return false;
   }
 
   @Override
   public void close() throws Exception {
-    ProcessOperator.super.close();
+    for (Operator child : children) {
+      child.close();
+    }
   }
 
   @Override
   public boolean isFinished() {
-    return false;
+    for (int i = 0; i < inputCount; i++) {
+      if (!noMoreTsBlocks[i] || inputTsBlocks[i] != null) {
+        return false;
+      }
+    }
+    return true;
   }
 }
@@ -7,7 +7,7 @@
  * "License"); you may not use this file except in compliance
  * with the License.  You may obtain a copy of the License at
  *
- *      http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing,
  * software distributed under the License is distributed on an
@@ -18,39 +18,320 @@
  */
 package org.apache.iotdb.db.mpp.operator.process;
 
+import org.apache.iotdb.db.mpp.operator.Operator;
 import org.apache.iotdb.db.mpp.operator.OperatorContext;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.OutputColumn;
+import org.apache.iotdb.db.mpp.sql.statement.component.OrderBy;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
+import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
+import org.apache.iotdb.tsfile.utils.Binary;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * DeviceMergeOperator outputs the rows of its children ordered by device and then by time, i.e. the
+ * result of align by device. The first value column of the output TsBlock is the device, and the
+ * others are the measurement columns of DeviceMergeNode.
+ *
+ * <p>There are two kinds of children:
+ *
+ * <ul>
+ *   <li>the child of one device, whose TsBlocks have no device column, e.g. the TimeJoinOperator of
+ *       the series of the device;
+ *   <li>the child of a merged stream, whose TsBlocks have the device as the first value column
+ *       and are already ordered by device and time, e.g. the DeviceMergeOperator of another data
+ *       region.
+ * </ul>
+ *
+ * <p>All the children are merged in a streaming way by a binary heap of the children with a
+ * current row, which keeps at most one TsBlock for each child in it. The children of one device
+ * are only read after all the rows of the devices before it are output, so the memory does not
+ * grow with the number of devices. If the TsBlock of a child is used up, no row is output until the
+ * next TsBlock of the child is ready, and {@link #isBlocked()} returns the future of the child.
+ */
 public class DeviceMergeOperator implements ProcessOperator {
+
+  private final OperatorContext operatorContext;
+  private final List<Operator> children;
+  private final boolean ascending;
+
+  // device of each child, or null if the child outputs the device column
+  private final Binary[] childDevices;
+  // valueColumnIndexes[i][j] is the column of child i for output measurement j, -1 if absent
+  private final int[][] valueColumnIndexes;
+
+  private final TsBlockBuilder tsBlockBuilder;
+
+  // children of one device ordered by device, which are activated when their device is reached
+  private final int[] pendingChildren;
+  private int nextPendingChild = 0;
+
+  // active children whose next TsBlock is needed
+  private final int[] waitingChildren;
+  private int waitingChildCount = 0;
+
+  private final TsBlock[] inputTsBlocks;
+  private final int[] inputIndex;
+
+  // active children with a current row, ordered by their current device and time
+  private final int[] heap;
+  private int heapSize = 0;
+
+  /**
+   * @param childDevices device of each child, or null if the child outputs the device column
+   * @param dataTypes data types of the measurement columns
+   * @param outputColumns the input locations of each measurement column. The location of a child
+   *     which outputs the device column also counts the device column.
+   */
+  public DeviceMergeOperator(
+      OperatorContext operatorContext,
+      List<Operator> children,
+      List<String> childDevices,
+      OrderBy mergeOrder,
+      List<TSDataType> dataTypes,
+      List<OutputColumn> outputColumns) {
+    checkArgument(
+        children.size() == childDevices.size(),
+        "each child of DeviceMergeOperator should have a device or null");
+    checkArgument(
+        dataTypes.size() == outputColumns.size(),
+        "each measurement column of DeviceMergeOperator should have its input locations");
+    this.operatorContext = operatorContext;
+    this.children = children;
+    this.ascending = mergeOrder != OrderBy.TIMESTAMP_DESC;
+
+    int inputCount = children.size();
+    this.childDevices = new Binary[inputCount];
+    this.valueColumnIndexes = new int[inputCount][outputColumns.size()];
+    for (int i = 0; i < inputCount; i++) {
+      Arrays.fill(valueColumnIndexes[i], -1);
+    }
+    for (int j = 0; j < outputColumns.size(); j++) {
+      for (InputLocation inputLocation : outputColumns.get(j).getSourceLocations()) {
+        valueColumnIndexes[inputLocation.getTsBlockIndex()][j] =
+            inputLocation.getValueColumnIndex();
+      }
+    }
+
+    List<Integer> deviceChildren = new ArrayList<>();
+    this.waitingChildren = new int[inputCount];
+    for (int i = 0; i < inputCount; i++) {
+      if (childDevices.get(i) == null) {
+        waitingChildren[waitingChildCount++] = i;
+      } else {
+        this.childDevices[i] = new Binary(childDevices.get(i));
+        deviceChildren.add(i);
+      }
+    }
+    // stable, so the children of the same device keep their order
+    deviceChildren.sort(Comparator.comparing(i -> this.childDevices[i]));
+    this.pendingChildren = deviceChildren.stream().mapToInt(Integer::intValue).toArray();
+
+    this.inputTsBlocks = new TsBlock[inputCount];
+    this.inputIndex = new int[inputCount];
+    this.heap = new int[inputCount];
+
+    List<TSDataType> outputDataTypes = new ArrayList<>(dataTypes.size() + 1);
+    outputDataTypes.add(TSDataType.TEXT);
+    outputDataTypes.addAll(dataTypes);
+    this.tsBlockBuilder = new TsBlockBuilder(outputDataTypes);
+  }
+
   @Override
   public OperatorContext getOperatorContext() {
-    return null;
+    return operatorContext;
   }
 
   @Override
   public ListenableFuture<Void> isBlocked() {
-    return ProcessOperator.super.isBlocked();
+    for (int i = 0; i < waitingChildCount; i++) {
+      ListenableFuture<Void> blocked = children.get(waitingChildren[i]).isBlocked();
+      if (!blocked.isDone()) {
+        return blocked;
+      }
+    }
+    return NOT_BLOCKED;
   }
 
   @Override
   public TsBlock next() {
-    return null;
+    if (!prepareInput()) {
+      return null;
+    }
+
+    tsBlockBuilder.reset();
+    Binary lastDevice = null;
+    while (heapSize > 0 && !tsBlockBuilder.isFull()) {
+      int child = heap[0];
+      Binary device = currentDevice(child);
+      if (lastDevice == null || !lastDevice.equals(device)) {
+        // the children of the new device should be merged before its first row is output
+        if (nextPendingChild < pendingChildren.length
+            && childDevices[pendingChildren[nextPendingChild]].compareTo(device) <= 0) {
+          break;
+        }
+        lastDevice = device;
+      }
+      appendRow(child, device);
+
+      inputIndex[child]++;
+      if (inputIndex[child] < inputTsBlocks[child].getPositionCount()) {
+        percolateDown(0);
+      } else {
+        // the next row of the child is unknown until its next TsBlock is ready
+        inputTsBlocks[child] = null;
+        heap[0] = heap[--heapSize];
+        percolateDown(0);
+        waitingChildren[waitingChildCount++] = child;
+        break;
+      }
+    }
+    return tsBlockBuilder.build();
+  }
+
+  /**
+   * Get the next TsBlock of the waiting children and activate the children of the devices which
+   * are not after the current device.
+   *
+   * @return false if some child is not ready
+   */
+  private boolean prepareInput() {
+    while (true) {
+      while (waitingChildCount > 0) {
+        int child = waitingChildren[waitingChildCount - 1];
+        if (children.get(child).hasNext()) {
+          TsBlock tsBlock = children.get(child).next();
+          if (tsBlock == null || tsBlock.isEmpty()) {
+            return false;
+          }
+          inputTsBlocks[child] = tsBlock;
+          inputIndex[child] = 0;
+          heap[heapSize] = child;
+          percolateUp(heapSize++);
+        }
+        waitingChildCount--;
+      }
+
+      if (nextPendingChild >= pendingChildren.length) {
+        return true;
+      }
+      Binary device = childDevices[pendingChildren[nextPendingChild]];
+      if (heapSize > 0 && device.compareTo(currentDevice(heap[0])) > 0) {
+        return true;
+      }
+      // activate all the children of the device
+      while (nextPendingChild < pendingChildren.length
+          && childDevices[pendingChildren[nextPendingChild]].equals(device)) {
+        waitingChildren[waitingChildCount++] = pendingChildren[nextPendingChild++];
+      }
+    }
+  }
+
+  private void appendRow(int child, Binary device) {
+    TsBlock tsBlock = inputTsBlocks[child];
+    int index = inputIndex[child];
+    tsBlockBuilder.getTimeColumnBuilder().writeLong(tsBlock.getTimeByIndex(index));
+    tsBlockBuilder.getColumnBuilder(0).writeBinary(device);
+    int[] columnIndexes = valueColumnIndexes[child];
+    for (int j = 0; j < columnIndexes.length; j++) {
+      ColumnBuilder columnBuilder = tsBlockBuilder.getColumnBuilder(j + 1);
+      if (columnIndexes[j] < 0) {
+        columnBuilder.appendNull();
+        continue;
+      }
+      Column column = tsBlock.getColumn(columnIndexes[j]);
+      if (column.isNull(index)) {
+        columnBuilder.appendNull();
+      } else {
+        columnBuilder.write(column, index);
+      }
+    }
+    tsBlockBuilder.declarePosition();
+  }
+
+  private Binary currentDevice(int child) {
+    return childDevices[child] != null
+        ? childDevices[child]
+        : inputTsBlocks[child].getColumn(0).getBinary(inputIndex[child]);
+  }
+
+  private boolean before(int child, int otherChild) {
+    Binary device = currentDevice(child);
+    Binary otherDevice = currentDevice(otherChild);
+    if (device != otherDevice) {
+      int result = device.compareTo(otherDevice);
+      if (result != 0) {
+        return result < 0;
+      }
+    }
+    long time = inputTsBlocks[child].getTimeByIndex(inputIndex[child]);
+    long otherTime = inputTsBlocks[otherChild].getTimeByIndex(inputIndex[otherChild]);
+    if (time != otherTime) {
+      return ascending ? time < otherTime : time > otherTime;
+    }
+    return child < otherChild;
+  }
+
+  private void percolateUp(int index) {
+    int element = heap[index];
+    while (index > 0) {
+      int parentIndex = (index - 1) >>> 1;
+      if (!before(element, heap[parentIndex])) {
+        break;
+      }
+      heap[index] = heap[parentIndex];
+      index = parentIndex;
+    }
+    heap[index] = element;
+  }
+
+  private void percolateDown(int index) {
+    if (heapSize == 0) {
+      return;
+    }
+    int element = heap[index];
+    while (true) {
+      int childIndex = (index << 1) + 1;
+      if (childIndex >= heapSize) {
+        break;
+      }
+      if (childIndex + 1 < heapSize && before(heap[childIndex + 1], heap[childIndex])) {
+        childIndex++;
+      }
+      if (!before(heap[childIndex], element)) {
+        break;
+      }
+      heap[index] = heap[childIndex];
+      index = childIndex;
+    }
+    heap[index] = element;
   }
 
   @Override
   public boolean hasNext() {
-    return false;
+    return !isFinished();
   }
 
   @Override
   public void close() throws Exception {
-    ProcessOperator.super.close();
+    for (Operator child : children) {
+      child.close();
+    }
   }
 
   @Override
   public boolean isFinished() {
-    return false;
+    return heapSize == 0 && waitingChildCount == 0 && nextPendingChild >= pendingChildren.length;
   }
 }
@@ -7,7 +7,7 @@
  * "License"); you may not use this file except in compliance
  * with the License.  You may obtain a copy of the License at
  *
- *      http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing,
  * software distributed under the License is distributed on an
@@ -18,40 +18,47 @@
  */
 package org.apache.iotdb.db.mpp.operator.process;
 
+import org.apache.iotdb.db.mpp.operator.Operator;
 import org.apache.iotdb.db.mpp.operator.OperatorContext;
-import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.db.mpp.operator.process.aggregate.Aggregator;
+import org.apache.iotdb.db.mpp.operator.process.aggregate.AggregatorFactory;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.OutputColumn;
+import org.apache.iotdb.db.query.aggregation.AggregationType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 
-import com.google.common.util.concurrent.ListenableFuture;
+import java.util.List;
 
-public class GroupByLevelOperator implements ProcessOperator {
-
-  @Override
-  public OperatorContext getOperatorContext() {
-    return null;
-  }
-
-  @Override
-  public ListenableFuture<Void> isBlocked() {
-    return ProcessOperator.super.isBlocked();
-  }
-
-  @Override
-  public TsBlock next() {
-    return null;
-  }
-
-  @Override
-  public boolean hasNext() {
-    return false;
-  }
-
-  @Override
-  public void close() throws Exception {
-    ProcessOperator.super.close();
-  }
+/**
+ * GroupByLevelOperator rolls up the aggregation results of the series which belong to the same
+ * group after their paths are truncated by the given levels, e.g. count(root.sg.d1.s1) and
+ * count(root.sg.d2.s1) into count(root.sg.*.s1) with level = 1.
+ *
+ * <p>The groups are resolved once when planning, see GroupByLevelNode, so that every group is
+ * identified by its index and has one {@link Aggregator} which keeps its states in primitive
+ * arrays. No path is hashed or materialized when processing the input TsBlocks.
+ *
+ * <p>If outputPartialResult is true, the operator runs in a data region and outputs the partial
+ * results of each group, which are merged by the GroupByLevelOperator of the upstream fragment.
+ */
+public class GroupByLevelOperator extends AggregateOperator {
 
-  @Override
-  public boolean isFinished() {
-    return false;
+  /**
+   * @param aggregationTypes aggregation function of each group
+   * @param seriesDataTypes data type of the series of each group
+   * @param outputColumns the partial result columns of all the inputs of each group. The partial
+   *     result of one input takes continuous positions, see {@link AggregatorFactory}
+   */
+  public GroupByLevelOperator(
+      OperatorContext operatorContext,
+      List<Operator> children,
+      List<AggregationType> aggregationTypes,
+      List<TSDataType> seriesDataTypes,
+      List<OutputColumn> outputColumns,
+      boolean outputPartialResult) {
+    super(
+        operatorContext,
+        children,
+        AggregatorFactory.createAggregators(aggregationTypes, seriesDataTypes, outputColumns),
+        outputPartialResult);
   }
 }
@@ -7,7 +7,7 @@
  * "License"); you may not use this file except in compliance
  * with the License.  You may obtain a copy of the License at
  *
- *      http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing,
  * software distributed under the License is distributed on an
@@ -18,40 +18,226 @@
  */
 package org.apache.iotdb.db.mpp.operator.process;
 
+import org.apache.iotdb.db.mpp.memory.MemoryPool;
+import org.apache.iotdb.db.mpp.operator.Operator;
 import org.apache.iotdb.db.mpp.operator.OperatorContext;
+import org.apache.iotdb.db.mpp.operator.process.sort.FileSortedRun;
+import org.apache.iotdb.db.mpp.operator.process.sort.MemorySortedRun;
+import org.apache.iotdb.db.mpp.operator.process.sort.MergingSortedRun;
+import org.apache.iotdb.db.mpp.operator.process.sort.SortedRun;
+import org.apache.iotdb.db.mpp.sql.statement.component.OrderBy;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.iotdb.tsfile.read.common.block.column.TsBlockSerde;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SortOperator sorts all the rows of its child by time, e.g. for ORDER BY TIME of ALIGN BY DEVICE.
+ *
+ * <p>The input TsBlocks are buffered as long as their memory can be reserved from the query
+ * {@link MemoryPool}. Once the reservation fails, the buffered rows are sorted and spilled to a
+ * local file as a sorted run, and the memory is freed. After all the input is consumed, the spilled
+ * runs and the rows still in memory are merged by {@link MergingSortedRun}. If nothing is spilled,
+ * the rows are output from memory directly. Too many spilled runs are merged into one in advance,
+ * so that at most {@link #MAX_MERGE_RUN_NUM} TsBlocks are read into memory at the same time.
+ */
 public class SortOperator implements ProcessOperator {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(SortOperator.class);
+
+  private static final int MAX_MERGE_RUN_NUM = 64;
+
+  private final OperatorContext operatorContext;
+  private final Operator child;
+  private final boolean ascending;
+  private final MemoryPool memoryPool;
+  private final String queryId;
+  private final File spillDir;
+
+  private final TsBlockBuilder tsBlockBuilder;
+  private final TsBlockSerde serde = new TsBlockSerde();
+
+  private final List<TsBlock> bufferedTsBlocks = new ArrayList<>();
+  private long reservedBytes = 0L;
+  private final List<SortedRun> spilledRuns = new ArrayList<>();
+  private int spilledFileCount = 0;
+
+  private boolean noMoreInput = false;
+  private SortedRun outputRun;
+  private boolean hasCurrentRow;
+
+  /**
+   * @param memoryPool the buffered TsBlocks are reserved from it
+   * @param spillDirPath the directory of the temp files of the spilled runs
+   */
+  public SortOperator(
+      OperatorContext operatorContext,
+      Operator child,
+      OrderBy sortOrder,
+      List<TSDataType> dataTypes,
+      MemoryPool memoryPool,
+      String spillDirPath) {
+    this.operatorContext = operatorContext;
+    this.child = child;
+    this.ascending = sortOrder != OrderBy.TIMESTAMP_DESC;
+    this.memoryPool = memoryPool;
+    this.queryId = operatorContext.getInstanceContext().getId().getQueryId().getId();
+    this.spillDir = new File(spillDirPath);
+    this.tsBlockBuilder = new TsBlockBuilder(dataTypes);
+  }
+
   @Override
   public OperatorContext getOperatorContext() {
-    return null;
+    return operatorContext;
   }
 
   @Override
   public ListenableFuture<Void> isBlocked() {
-    return ProcessOperator.super.isBlocked();
+    return noMoreInput ? NOT_BLOCKED : child.isBlocked();
   }
 
   @Override
   public TsBlock next() {
-    return null;
+    try {
+      if (!noMoreInput) {
+        if (child.hasNext()) {
+          TsBlock tsBlock = child.next();
+          if (tsBlock != null && !tsBlock.isEmpty()) {
+            buffer(tsBlock);
+          }
+          return null;
+        }
+        noMoreInput = true;
+        prepareOutput();
+      }
+
+      tsBlockBuilder.reset();
+      while (hasCurrentRow && !tsBlockBuilder.isFull()) {
+        outputRun.appendCurrentRow(tsBlockBuilder);
+        hasCurrentRow = outputRun.advance();
+      }
+      return tsBlockBuilder.build();
+    } catch (IOException e) {
+      throw new RuntimeException("Error happened while sorting", e);
+    }
+  }
+
+  private void buffer(TsBlock tsBlock) throws IOException {
+    long bytes = tsBlock.getRetainedSizeInBytes();
+    if (!tryReserve(bytes)) {
+      spill();
+      if (!tryReserve(bytes)) {
+        // the memory pool is used up by others, spill the TsBlock without buffering it
+        bufferedTsBlocks.add(tsBlock);
+        spill();
+        return;
+      }
+    }
+    bufferedTsBlocks.add(tsBlock);
+  }
+
+  private boolean tryReserve(long bytes) {
+    if (bytes <= 0L
+        || bytes > memoryPool.getMaxBytesPerQuery()
+        || !memoryPool.tryReserve(queryId, bytes)) {
+      return false;
+    }
+    reservedBytes += bytes;
+    return true;
+  }
+
+  private void freeMemory() {
+    if (reservedBytes > 0L) {
+      memoryPool.free(queryId, reservedBytes);
+      reservedBytes = 0L;
+    }
+  }
+
+  /** Sort the buffered TsBlocks and write them to a temp file. */
+  private void spill() throws IOException {
+    if (bufferedTsBlocks.isEmpty()) {
+      return;
+    }
+    MemorySortedRun run = new MemorySortedRun(bufferedTsBlocks, ascending);
+    LOGGER.debug(
+        "SortOperator {} spills {} rows of query {}",
+        operatorContext.getOperatorId(),
+        run.getRowCount(),
+        queryId);
+    spilledRuns.add(FileSortedRun.spill(run, newSpillFile(), tsBlockBuilder, serde));
+    bufferedTsBlocks.clear();
+    freeMemory();
+
+    if (spilledRuns.size() >= MAX_MERGE_RUN_NUM) {
+      MergingSortedRun mergingRun = new MergingSortedRun(spilledRuns, ascending);
+      try {
+        SortedRun merged = FileSortedRun.spill(mergingRun, newSpillFile(), tsBlockBuilder, serde);
+        spilledRuns.clear();
+        spilledRuns.add(merged);
+      } finally {
+        mergingRun.close();
+      }
+    }
+  }
+
+  private File newSpillFile() throws IOException {
+    if (!spillDir.exists() && !spillDir.mkdirs() && !spillDir.exists()) {
+      throw new IOException("Failed to create the spill directory " + spillDir);
+    }
+    return new File(
+        spillDir,
+        String.format(
+            "%s-%d-%d.sort",
+            operatorContext.getInstanceContext().getId().getFullId(),
+            operatorContext.getOperatorId(),
+            spilledFileCount++));
+  }
+
+  private void prepareOutput() throws IOException {
+    if (spilledRuns.isEmpty()) {
+      outputRun = new MemorySortedRun(bufferedTsBlocks, ascending);
+    } else {
+      // the buffered rows are the latest input, so they are merged after the spilled runs
+      List<SortedRun> runs = new ArrayList<>(spilledRuns);
+      runs.add(new MemorySortedRun(bufferedTsBlocks, ascending));
+      outputRun = new MergingSortedRun(runs, ascending);
+    }
+    bufferedTsBlocks.clear();
+    hasCurrentRow = outputRun.advance();
   }
 
   @Override
   public boolean hasNext() {
-    return false;
+    return !noMoreInput || hasCurrentRow;
   }
 
   @Override
   public void close() throws Exception {
-    ProcessOperator.super.close();
+    try {
+      if (outputRun != null) {
+        outputRun.close();
+      }
+      for (SortedRun run : spilledRuns) {
+        run.close();
+      }
+    } finally {
+      bufferedTsBlocks.clear();
+      freeMemory();
+      child.close();
+    }
   }
 
   @Override
   public boolean isFinished() {
-    return false;
+    return noMoreInput && !hasCurrentRow;
   }
 }
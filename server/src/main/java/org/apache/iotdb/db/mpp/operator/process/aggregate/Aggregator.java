@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator.process.aggregate;
+
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
+import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregator merges the partial aggregation results of one aggregation function from all input
+ * TsBlocks into one output column.
+ *
+ * <p>Each row of the input TsBlocks is the partial result of one time window, and rows at the same
+ * position of different inputs belong to the same window. The partial result of one input may take
+ * more than one column, see {@link AggregatorFactory}. States of the windows are kept in primitive
+ * arrays and merged one column at a time, so no value is boxed.
+ *
+ * <p>Results can be output either as final results, or as partial results which have the same
+ * layout as the input and can be merged by another Aggregator, e.g. in a downstream fragment.
+ */
+public abstract class Aggregator {
+
+  /** the columns of the partial result in each input, all in the same input TsBlock */
+  private final List<InputLocation[]> inputLocationList;
+
+  private final TSDataType outputDataType;
+
+  /** number of windows of current batch */
+  protected int positionCount;
+
+  protected Aggregator(List<InputLocation[]> inputLocationList, TSDataType outputDataType) {
+    this.inputLocationList = inputLocationList;
+    this.outputDataType = outputDataType;
+  }
+
+  public TSDataType getOutputDataType() {
+    return outputDataType;
+  }
+
+  /** data types of the partial result columns, see {@link AggregatorFactory} */
+  public List<TSDataType> getPartialOutputDataTypes() {
+    return Collections.singletonList(outputDataType);
+  }
+
+  /**
+   * merge the partial results of positionCount windows
+   *
+   * @param inputTsBlocks input TsBlocks, null means the input has no more data
+   * @param inputIndex start index for each input TsBlock and size of it is equal to inputTsBlocks
+   * @param positionCount number of windows to merge, every non-null input has enough rows
+   */
+  public void aggregate(TsBlock[] inputTsBlocks, int[] inputIndex, int positionCount) {
+    this.positionCount = positionCount;
+    reset();
+    for (InputLocation[] inputLocations : inputLocationList) {
+      int tsBlockIndex = inputLocations[0].getTsBlockIndex();
+      TsBlock inputTsBlock = inputTsBlocks[tsBlockIndex];
+      if (inputTsBlock == null) {
+        continue;
+      }
+      Column[] partialColumns = new Column[inputLocations.length];
+      for (int i = 0; i < inputLocations.length; i++) {
+        partialColumns[i] = inputTsBlock.getColumn(inputLocations[i].getValueColumnIndex());
+      }
+      merge(partialColumns, inputIndex[tsBlockIndex]);
+    }
+  }
+
+  /** clear the states of the first positionCount windows, growing the state arrays if needed */
+  protected abstract void reset();
+
+  /** merge rows [offset, offset + positionCount) of the partial columns of one input */
+  protected abstract void merge(Column[] partialColumns, int offset);
+
+  /** write the results of current batch, null if no input has a result of the window */
+  public abstract void output(ColumnBuilder columnBuilder);
+
+  /** write the partial results of current batch, one column builder for each partial column */
+  public void outputPartial(ColumnBuilder[] columnBuilders) {
+    output(columnBuilders[0]);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator.process.aggregate;
+
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.OutputColumn;
+import org.apache.iotdb.db.query.aggregation.AggregationType;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The partial result of an aggregation function in each input consists of the columns of the
+ * aggregation functions returned by {@link #getPartialAggregationTypes}, in the same order. For
+ * example, the partial result of AVG is the COUNT and SUM of the window, and the partial result of
+ * FIRST_VALUE is the FIRST_VALUE and MIN_TIME of the window.
+ */
+public class AggregatorFactory {
+
+  private AggregatorFactory() {}
+
+  public static List<AggregationType> getPartialAggregationTypes(AggregationType aggregationType) {
+    switch (aggregationType) {
+      case AVG:
+        return Arrays.asList(AggregationType.COUNT, AggregationType.SUM);
+      case FIRST_VALUE:
+        return Arrays.asList(AggregationType.FIRST_VALUE, AggregationType.MIN_TIME);
+      case LAST_VALUE:
+        return Arrays.asList(AggregationType.LAST_VALUE, AggregationType.MAX_TIME);
+      default:
+        return Collections.singletonList(aggregationType);
+    }
+  }
+
+  /**
+   * @param seriesDataType data type of the aggregated series
+   * @param inputLocationList the partial result columns in each input
+   */
+  public static Aggregator createAggregator(
+      AggregationType aggregationType,
+      TSDataType seriesDataType,
+      List<InputLocation[]> inputLocationList) {
+    switch (aggregationType) {
+      case COUNT:
+        return new CountAggregator(inputLocationList);
+      case SUM:
+        return new SumAggregator(inputLocationList);
+      case AVG:
+        return new AvgAggregator(inputLocationList);
+      case FIRST_VALUE:
+        return new FirstLastValueAggregator(inputLocationList, true, seriesDataType);
+      case LAST_VALUE:
+        return new FirstLastValueAggregator(inputLocationList, false, seriesDataType);
+      case MIN_TIME:
+      case MAX_TIME:
+        return new LongExtremeAggregator(inputLocationList, aggregationType, TSDataType.INT64);
+      case MIN_VALUE:
+      case MAX_VALUE:
+      case EXTREME:
+        switch (seriesDataType) {
+          case INT32:
+          case INT64:
+            return new LongExtremeAggregator(inputLocationList, aggregationType, seriesDataType);
+          case FLOAT:
+          case DOUBLE:
+            return new DoubleExtremeAggregator(
+                inputLocationList, aggregationType, seriesDataType);
+          default:
+            throw new UnSupportedDataTypeException(
+                String.format("Unsupported data type in %s: %s", aggregationType, seriesDataType));
+        }
+      default:
+        throw new IllegalArgumentException("Invalid Aggregation Type: " + aggregationType);
+    }
+  }
+
+  /**
+   * @param aggregationTypes aggregation function of each output column
+   * @param seriesDataTypes data type of the aggregated series of each output column
+   * @param outputColumns the partial result columns of all the inputs of each output column. The
+   *     partial result of one input takes continuous positions
+   */
+  public static List<Aggregator> createAggregators(
+      List<AggregationType> aggregationTypes,
+      List<TSDataType> seriesDataTypes,
+      List<OutputColumn> outputColumns) {
+    checkArgument(
+        aggregationTypes.size() == outputColumns.size()
+            && seriesDataTypes.size() == outputColumns.size(),
+        "each output column should have one aggregation type and data type");
+    List<Aggregator> aggregators = new ArrayList<>(outputColumns.size());
+    for (int i = 0; i < outputColumns.size(); i++) {
+      AggregationType aggregationType = aggregationTypes.get(i);
+      int partialColumnCount = getPartialAggregationTypes(aggregationType).size();
+      List<InputLocation> sourceLocations = outputColumns.get(i).getSourceLocations();
+      checkArgument(
+          sourceLocations.size() % partialColumnCount == 0,
+          "partial result of %s should have %s columns",
+          aggregationType,
+          partialColumnCount);
+      List<InputLocation[]> inputLocationList = new ArrayList<>();
+      for (int j = 0; j < sourceLocations.size(); j += partialColumnCount) {
+        inputLocationList.add(
+            sourceLocations.subList(j, j + partialColumnCount).toArray(new InputLocation[0]));
+      }
+      aggregators.add(createAggregator(aggregationType, seriesDataTypes.get(i), inputLocationList));
+    }
+    return aggregators;
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator.process.aggregate;
+
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
+import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * partial result: count (INT64), sum (DOUBLE). The average of one input can not be merged, so the
+ * input should provide the count and sum of the window instead.
+ */
+public class AvgAggregator extends Aggregator {
+
+  private long[] counts = new long[0];
+  private double[] sums = new double[0];
+
+  public AvgAggregator(List<InputLocation[]> inputLocationList) {
+    super(inputLocationList, TSDataType.DOUBLE);
+  }
+
+  @Override
+  protected void reset() {
+    if (counts.length < positionCount) {
+      counts = new long[positionCount];
+      sums = new double[positionCount];
+    } else {
+      Arrays.fill(counts, 0, positionCount, 0);
+      Arrays.fill(sums, 0, positionCount, 0);
+    }
+  }
+
+  @Override
+  protected void merge(Column[] partialColumns, int offset) {
+    Column countColumn = partialColumns[0];
+    Column sumColumn = partialColumns[1];
+    for (int i = 0; i < positionCount; i++) {
+      if (!countColumn.isNull(offset + i) && !sumColumn.isNull(offset + i)) {
+        counts[i] += countColumn.getLong(offset + i);
+        sums[i] += sumColumn.getDouble(offset + i);
+      }
+    }
+  }
+
+  @Override
+  public void output(ColumnBuilder columnBuilder) {
+    for (int i = 0; i < positionCount; i++) {
+      if (counts[i] > 0) {
+        columnBuilder.writeDouble(sums[i] / counts[i]);
+      } else {
+        columnBuilder.appendNull();
+      }
+    }
+  }
+
+  @Override
+  public List<TSDataType> getPartialOutputDataTypes() {
+    return Arrays.asList(TSDataType.INT64, TSDataType.DOUBLE);
+  }
+
+  @Override
+  public void outputPartial(ColumnBuilder[] columnBuilders) {
+    for (int i = 0; i < positionCount; i++) {
+      columnBuilders[0].writeLong(counts[i]);
+      if (counts[i] > 0) {
+        columnBuilders[1].writeDouble(sums[i]);
+      } else {
+        columnBuilders[1].appendNull();
+      }
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator.process.aggregate;
+
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
+import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** partial result: count (INT64) */
+public class CountAggregator extends Aggregator {
+
+  private long[] counts = new long[0];
+
+  public CountAggregator(List<InputLocation[]> inputLocationList) {
+    super(inputLocationList, TSDataType.INT64);
+  }
+
+  @Override
+  protected void reset() {
+    if (counts.length < positionCount) {
+      counts = new long[positionCount];
+    } else {
+      Arrays.fill(counts, 0, positionCount, 0);
+    }
+  }
+
+  @Override
+  protected void merge(Column[] partialColumns, int offset) {
+    Column countColumn = partialColumns[0];
+    if (!countColumn.mayHaveNull()) {
+      for (int i = 0; i < positionCount; i++) {
+        counts[i] += countColumn.getLong(offset + i);
+      }
+      return;
+    }
+    for (int i = 0; i < positionCount; i++) {
+      if (!countColumn.isNull(offset + i)) {
+        counts[i] += countColumn.getLong(offset + i);
+      }
+    }
+  }
+
+  @Override
+  public void output(ColumnBuilder columnBuilder) {
+    for (int i = 0; i < positionCount; i++) {
+      columnBuilder.writeLong(counts[i]);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator.process.aggregate;
+
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.db.query.aggregation.AggregationType;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
+import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** partial result: min_value, max_value or extreme of a FLOAT or DOUBLE series */
+public class DoubleExtremeAggregator extends Aggregator {
+
+  private final AggregationType aggregationType;
+
+  private double[] values = new double[0];
+  private boolean[] hasResult = new boolean[0];
+
+  public DoubleExtremeAggregator(
+      List<InputLocation[]> inputLocationList,
+      AggregationType aggregationType,
+      TSDataType dataType) {
+    super(inputLocationList, dataType);
+    if (dataType != TSDataType.FLOAT && dataType != TSDataType.DOUBLE) {
+      throw new UnSupportedDataTypeException(
+          String.format("Unsupported data type in %s: %s", aggregationType, dataType));
+    }
+    this.aggregationType = aggregationType;
+  }
+
+  @Override
+  protected void reset() {
+    if (values.length < positionCount) {
+      values = new double[positionCount];
+      hasResult = new boolean[positionCount];
+    } else {
+      Arrays.fill(hasResult, 0, positionCount, false);
+    }
+  }
+
+  @Override
+  protected void merge(Column[] partialColumns, int offset) {
+    Column valueColumn = partialColumns[0];
+    if (getOutputDataType() == TSDataType.FLOAT) {
+      for (int i = 0; i < positionCount; i++) {
+        if (!valueColumn.isNull(offset + i)) {
+          update(i, valueColumn.getFloat(offset + i));
+        }
+      }
+    } else {
+      for (int i = 0; i < positionCount; i++) {
+        if (!valueColumn.isNull(offset + i)) {
+          update(i, valueColumn.getDouble(offset + i));
+        }
+      }
+    }
+  }
+
+  private void update(int position, double value) {
+    if (!hasResult[position] || isBetter(value, values[position])) {
+      values[position] = value;
+      hasResult[position] = true;
+    }
+  }
+
+  private boolean isBetter(double value, double current) {
+    switch (aggregationType) {
+      case MIN_VALUE:
+        return value < current;
+      case MAX_VALUE:
+        return value > current;
+      case EXTREME:
+        // the one with larger absolute value, or the positive one if their absolute values equal
+        double absValue = Math.abs(value);
+        double absCurrent = Math.abs(current);
+        return absValue > absCurrent || (absValue == absCurrent && value > current);
+      default:
+        throw new UnsupportedOperationException(aggregationType.name());
+    }
+  }
+
+  @Override
+  public void output(ColumnBuilder columnBuilder) {
+    boolean isFloat = getOutputDataType() == TSDataType.FLOAT;
+    for (int i = 0; i < positionCount; i++) {
+      if (!hasResult[i]) {
+        columnBuilder.appendNull();
+      } else if (isFloat) {
+        columnBuilder.writeFloat((float) values[i]);
+      } else {
+        columnBuilder.writeDouble(values[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator.process.aggregate;
+
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
+import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * partial result: first_value and min_time (INT64) for first_value, last_value and max_time (INT64)
+ * for last_value.
+ *
+ * <p>Only the column and position of the selected value is recorded for each window, and the value
+ * is copied to the output column directly, so it works for all data types without boxing.
+ */
+public class FirstLastValueAggregator extends Aggregator {
+
+  private final boolean isFirst;
+
+  private long[] times = new long[0];
+  private Column[] valueColumns = new Column[0];
+  private int[] valuePositions = new int[0];
+
+  public FirstLastValueAggregator(
+      List<InputLocation[]> inputLocationList, boolean isFirst, TSDataType dataType) {
+    super(inputLocationList, dataType);
+    this.isFirst = isFirst;
+  }
+
+  @Override
+  protected void reset() {
+    if (times.length < positionCount) {
+      times = new long[positionCount];
+      valueColumns = new Column[positionCount];
+      valuePositions = new int[positionCount];
+    } else {
+      // release the input columns of last batch
+      Arrays.fill(valueColumns, null);
+    }
+  }
+
+  @Override
+  protected void merge(Column[] partialColumns, int offset) {
+    Column valueColumn = partialColumns[0];
+    Column timeColumn = partialColumns[1];
+    for (int i = 0; i < positionCount; i++) {
+      int position = offset + i;
+      if (valueColumn.isNull(position) || timeColumn.isNull(position)) {
+        continue;
+      }
+      long time = timeColumn.getLong(position);
+      // keep the one of the former input if times equal
+      if (valueColumns[i] == null || (isFirst ? time < times[i] : time > times[i])) {
+        times[i] = time;
+        valueColumns[i] = valueColumn;
+        valuePositions[i] = position;
+      }
+    }
+  }
+
+  @Override
+  public void output(ColumnBuilder columnBuilder) {
+    for (int i = 0; i < positionCount; i++) {
+      if (valueColumns[i] == null) {
+        columnBuilder.appendNull();
+      } else {
+        columnBuilder.write(valueColumns[i], valuePositions[i]);
+      }
+    }
+  }
+
+  @Override
+  public List<TSDataType> getPartialOutputDataTypes() {
+    return Arrays.asList(getOutputDataType(), TSDataType.INT64);
+  }
+
+  @Override
+  public void outputPartial(ColumnBuilder[] columnBuilders) {
+    for (int i = 0; i < positionCount; i++) {
+      if (valueColumns[i] == null) {
+        columnBuilders[0].appendNull();
+        columnBuilders[1].appendNull();
+      } else {
+        columnBuilders[0].write(valueColumns[i], valuePositions[i]);
+        columnBuilders[1].writeLong(times[i]);
+      }
+    }
+  }
+}
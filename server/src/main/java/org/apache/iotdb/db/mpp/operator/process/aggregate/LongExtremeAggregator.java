@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator.process.aggregate;
+
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.db.query.aggregation.AggregationType;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
+import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * partial result: min_value, max_value or extreme of an INT32 or INT64 series, or min_time,
+ * max_time (INT64)
+ */
+public class LongExtremeAggregator extends Aggregator {
+
+  private final AggregationType aggregationType;
+
+  private long[] values = new long[0];
+  private boolean[] hasResult = new boolean[0];
+
+  public LongExtremeAggregator(
+      List<InputLocation[]> inputLocationList,
+      AggregationType aggregationType,
+      TSDataType dataType) {
+    super(inputLocationList, dataType);
+    if (dataType != TSDataType.INT32 && dataType != TSDataType.INT64) {
+      throw new UnSupportedDataTypeException(
+          String.format("Unsupported data type in %s: %s", aggregationType, dataType));
+    }
+    this.aggregationType = aggregationType;
+  }
+
+  @Override
+  protected void reset() {
+    if (values.length < positionCount) {
+      values = new long[positionCount];
+      hasResult = new boolean[positionCount];
+    } else {
+      Arrays.fill(hasResult, 0, positionCount, false);
+    }
+  }
+
+  @Override
+  protected void merge(Column[] partialColumns, int offset) {
+    Column valueColumn = partialColumns[0];
+    if (getOutputDataType() == TSDataType.INT32) {
+      for (int i = 0; i < positionCount; i++) {
+        if (!valueColumn.isNull(offset + i)) {
+          update(i, valueColumn.getInt(offset + i));
+        }
+      }
+    } else {
+      for (int i = 0; i < positionCount; i++) {
+        if (!valueColumn.isNull(offset + i)) {
+          update(i, valueColumn.getLong(offset + i));
+        }
+      }
+    }
+  }
+
+  private void update(int position, long value) {
+    if (!hasResult[position] || isBetter(value, values[position])) {
+      values[position] = value;
+      hasResult[position] = true;
+    }
+  }
+
+  private boolean isBetter(long value, long current) {
+    switch (aggregationType) {
+      case MIN_VALUE:
+      case MIN_TIME:
+        return value < current;
+      case MAX_VALUE:
+      case MAX_TIME:
+        return value > current;
+      case EXTREME:
+        // the one with larger absolute value, or the positive one if their absolute values equal
+        long absValue = Math.abs(value);
+        long absCurrent = Math.abs(current);
+        return absValue > absCurrent || (absValue == absCurrent && value > current);
+      default:
+        throw new UnsupportedOperationException(aggregationType.name());
+    }
+  }
+
+  @Override
+  public void output(ColumnBuilder columnBuilder) {
+    boolean isInt = getOutputDataType() == TSDataType.INT32;
+    for (int i = 0; i < positionCount; i++) {
+      if (!hasResult[i]) {
+        columnBuilder.appendNull();
+      } else if (isInt) {
+        columnBuilder.writeInt((int) values[i]);
+      } else {
+        columnBuilder.writeLong(values[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator.process.aggregate;
+
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
+import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** partial result: sum (DOUBLE) */
+public class SumAggregator extends Aggregator {
+
+  private double[] sums = new double[0];
+  private boolean[] hasResult = new boolean[0];
+
+  public SumAggregator(List<InputLocation[]> inputLocationList) {
+    super(inputLocationList, TSDataType.DOUBLE);
+  }
+
+  @Override
+  protected void reset() {
+    if (sums.length < positionCount) {
+      sums = new double[positionCount];
+      hasResult = new boolean[positionCount];
+    } else {
+      Arrays.fill(sums, 0, positionCount, 0);
+      Arrays.fill(hasResult, 0, positionCount, false);
+    }
+  }
+
+  @Override
+  protected void merge(Column[] partialColumns, int offset) {
+    Column sumColumn = partialColumns[0];
+    for (int i = 0; i < positionCount; i++) {
+      if (!sumColumn.isNull(offset + i)) {
+        sums[i] += sumColumn.getDouble(offset + i);
+        hasResult[i] = true;
+      }
+    }
+  }
+
+  @Override
+  public void output(ColumnBuilder columnBuilder) {
+    for (int i = 0; i < positionCount; i++) {
+      if (hasResult[i]) {
+        columnBuilder.writeDouble(sums[i]);
+      } else {
+        columnBuilder.appendNull();
+      }
+    }
+  }
+}
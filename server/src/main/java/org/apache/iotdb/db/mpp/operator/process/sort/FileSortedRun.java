@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator.process.sort;
+
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.iotdb.tsfile.read.common.block.column.TsBlockSerde;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+/**
+ * A sorted run spilled to a local file. The file is a sequence of TsBlocks in the columnar format
+ * of {@link TsBlockSerde}, each of which is prefixed by its length. Only one TsBlock is kept in
+ * memory when reading the run.
+ */
+public class FileSortedRun implements SortedRun {
+
+  private final File file;
+  private final TsBlockSerde serde;
+  private DataInputStream inputStream;
+
+  private TsBlock tsBlock;
+  private int index;
+
+  private FileSortedRun(File file, TsBlockSerde serde) {
+    this.file = file;
+    this.serde = serde;
+  }
+
+  /**
+   * Write all the rest rows of the run to the file.
+   *
+   * @param builder used to build the spilled TsBlocks, whose types are the same as the run
+   */
+  public static FileSortedRun spill(
+      SortedRun run, File file, TsBlockBuilder builder, TsBlockSerde serde) throws IOException {
+    try (DataOutputStream outputStream =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+      builder.reset();
+      while (run.advance()) {
+        run.appendCurrentRow(builder);
+        if (builder.isFull()) {
+          write(builder.build(), outputStream, serde);
+          builder.reset();
+        }
+      }
+      if (!builder.isEmpty()) {
+        write(builder.build(), outputStream, serde);
+        builder.reset();
+      }
+    } catch (IOException e) {
+      Files.deleteIfExists(file.toPath());
+      throw e;
+    }
+    return new FileSortedRun(file, serde);
+  }
+
+  private static void write(TsBlock tsBlock, DataOutputStream outputStream, TsBlockSerde serde)
+      throws IOException {
+    ByteBuffer buffer = serde.serialize(tsBlock);
+    int length = buffer.remaining();
+    outputStream.writeInt(length);
+    outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+  }
+
+  @Override
+  public boolean advance() throws IOException {
+    index++;
+    while (tsBlock == null || index >= tsBlock.getPositionCount()) {
+      if (inputStream == null) {
+        inputStream =
+            new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())));
+      }
+      int length;
+      try {
+        length = inputStream.readInt();
+      } catch (EOFException e) {
+        tsBlock = null;
+        return false;
+      }
+      byte[] bytes = new byte[length];
+      inputStream.readFully(bytes);
+      tsBlock = serde.deserialize(ByteBuffer.wrap(bytes));
+      index = 0;
+    }
+    return true;
+  }
+
+  @Override
+  public long currentTime() {
+    return tsBlock.getTimeByIndex(index);
+  }
+
+  @Override
+  public TsBlock currentTsBlock() {
+    return tsBlock;
+  }
+
+  @Override
+  public int currentIndex() {
+    return index;
+  }
+
+  /** Close the file and delete it. */
+  @Override
+  public void close() throws IOException {
+    tsBlock = null;
+    if (inputStream != null) {
+      inputStream.close();
+      inputStream = null;
+    }
+    Files.deleteIfExists(file.toPath());
+  }
+}
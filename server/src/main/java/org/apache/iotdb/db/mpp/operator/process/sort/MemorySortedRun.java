@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator.process.sort;
+
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+
+import java.util.List;
+
+/**
+ * Sorts the rows of the buffered TsBlocks by time in memory. Only the permutation of the rows is
+ * sorted, which is kept in primitive arrays, and the TsBlocks are not copied. The sort is stable,
+ * so the rows with the same time keep their input order.
+ */
+public class MemorySortedRun implements SortedRun {
+
+  private final TsBlock[] tsBlocks;
+  private final long[] times;
+  private final int[] tsBlockIndexes;
+  private final int[] rowIndexes;
+  private final int[] sortedRows;
+
+  private int position = -1;
+
+  public MemorySortedRun(List<TsBlock> tsBlocks, boolean ascending) {
+    this.tsBlocks = tsBlocks.toArray(new TsBlock[0]);
+    int rowCount = 0;
+    for (TsBlock tsBlock : tsBlocks) {
+      rowCount += tsBlock.getPositionCount();
+    }
+    times = new long[rowCount];
+    tsBlockIndexes = new int[rowCount];
+    rowIndexes = new int[rowCount];
+    sortedRows = new int[rowCount];
+    int row = 0;
+    for (int i = 0; i < this.tsBlocks.length; i++) {
+      for (int j = 0; j < this.tsBlocks[i].getPositionCount(); j++) {
+        times[row] = this.tsBlocks[i].getTimeByIndex(j);
+        tsBlockIndexes[row] = i;
+        rowIndexes[row] = j;
+        sortedRows[row] = row;
+        row++;
+      }
+    }
+    sort(new int[rowCount], 0, rowCount, ascending);
+  }
+
+  /** merge sort sortedRows[from, to), which is stable and fast on the already sorted input */
+  private void sort(int[] buffer, int from, int to, boolean ascending) {
+    if (to - from < 2) {
+      return;
+    }
+    int mid = (from + to) >>> 1;
+    sort(buffer, from, mid, ascending);
+    sort(buffer, mid, to, ascending);
+    if (!before(sortedRows[mid], sortedRows[mid - 1], ascending)) {
+      return;
+    }
+    System.arraycopy(sortedRows, from, buffer, from, to - from);
+    int left = from;
+    int right = mid;
+    for (int i = from; i < to; i++) {
+      if (right >= to || (left < mid && !before(buffer[right], buffer[left], ascending))) {
+        sortedRows[i] = buffer[left++];
+      } else {
+        sortedRows[i] = buffer[right++];
+      }
+    }
+  }
+
+  private boolean before(int row, int otherRow, boolean ascending) {
+    return ascending ? times[row] < times[otherRow] : times[row] > times[otherRow];
+  }
+
+  public int getRowCount() {
+    return sortedRows.length;
+  }
+
+  @Override
+  public boolean advance() {
+    return ++position < sortedRows.length;
+  }
+
+  @Override
+  public long currentTime() {
+    return times[sortedRows[position]];
+  }
+
+  @Override
+  public TsBlock currentTsBlock() {
+    return tsBlocks[tsBlockIndexes[sortedRows[position]]];
+  }
+
+  @Override
+  public int currentIndex() {
+    return rowIndexes[sortedRows[position]];
+  }
+}
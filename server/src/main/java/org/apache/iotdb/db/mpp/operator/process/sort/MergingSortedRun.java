@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator.process.sort;
+
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * K-way merge of sorted runs. Like {@link org.apache.iotdb.db.utils.datastructure.TimeSelector},
+ * it is a binary heap in a primitive array, but the heap keeps the indexes of the runs ordered by
+ * their current time, and rows with the same time are not deduplicated. The rows with the same time
+ * are output in the order of the runs, so the merge is stable if the runs are given in input order.
+ */
+public class MergingSortedRun implements SortedRun {
+
+  private final SortedRun[] runs;
+  private final boolean ascending;
+
+  private final int[] heap;
+  private int heapSize;
+  private boolean started;
+
+  public MergingSortedRun(List<SortedRun> runs, boolean ascending) {
+    this.runs = runs.toArray(new SortedRun[0]);
+    this.ascending = ascending;
+    this.heap = new int[this.runs.length];
+  }
+
+  @Override
+  public boolean advance() throws IOException {
+    if (!started) {
+      started = true;
+      for (int i = 0; i < runs.length; i++) {
+        if (runs[i].advance()) {
+          heap[heapSize] = i;
+          percolateUp(heapSize++);
+        }
+      }
+    } else if (heapSize > 0) {
+      if (!runs[heap[0]].advance()) {
+        heap[0] = heap[--heapSize];
+      }
+      percolateDown(0);
+    }
+    return heapSize > 0;
+  }
+
+  @Override
+  public long currentTime() {
+    return runs[heap[0]].currentTime();
+  }
+
+  @Override
+  public TsBlock currentTsBlock() {
+    return runs[heap[0]].currentTsBlock();
+  }
+
+  @Override
+  public int currentIndex() {
+    return runs[heap[0]].currentIndex();
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOException exception = null;
+    for (SortedRun run : runs) {
+      try {
+        run.close();
+      } catch (IOException e) {
+        exception = e;
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  private boolean before(int run, int otherRun) {
+    long time = runs[run].currentTime();
+    long otherTime = runs[otherRun].currentTime();
+    if (time != otherTime) {
+      return ascending ? time < otherTime : time > otherTime;
+    }
+    return run < otherRun;
+  }
+
+  private void percolateUp(int index) {
+    int element = heap[index];
+    while (index > 0) {
+      int parentIndex = (index - 1) >>> 1;
+      if (!before(element, heap[parentIndex])) {
+        break;
+      }
+      heap[index] = heap[parentIndex];
+      index = parentIndex;
+    }
+    heap[index] = element;
+  }
+
+  private void percolateDown(int index) {
+    if (heapSize == 0) {
+      return;
+    }
+    int element = heap[index];
+    while (true) {
+      int childIndex = (index << 1) + 1;
+      if (childIndex >= heapSize) {
+        break;
+      }
+      if (childIndex + 1 < heapSize && before(heap[childIndex + 1], heap[childIndex])) {
+        childIndex++;
+      }
+      if (!before(heap[childIndex], element)) {
+        break;
+      }
+      heap[index] = heap[childIndex];
+      index = childIndex;
+    }
+    heap[index] = element;
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator.process.sort;
+
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
+import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
+
+import java.io.IOException;
+
+/** A cursor over the rows of a sorted run, used by SortOperator. */
+public interface SortedRun extends AutoCloseable {
+
+  /**
+   * Move to the next row. It should be called once before reading the first row.
+   *
+   * @return false if there is no more row
+   */
+  boolean advance() throws IOException;
+
+  long currentTime();
+
+  /** @return the TsBlock which contains the current row */
+  TsBlock currentTsBlock();
+
+  /** @return the index of the current row in {@link #currentTsBlock()} */
+  int currentIndex();
+
+  @Override
+  default void close() throws IOException {}
+
+  /** Append the current row to the builder. */
+  default void appendCurrentRow(TsBlockBuilder builder) {
+    TsBlock tsBlock = currentTsBlock();
+    int index = currentIndex();
+    builder.getTimeColumnBuilder().writeLong(tsBlock.getTimeByIndex(index));
+    for (int i = 0; i < tsBlock.getValueColumnCount(); i++) {
+      Column column = tsBlock.getColumn(i);
+      ColumnBuilder columnBuilder = builder.getColumnBuilder(i);
+      if (column.isNull(index)) {
+        columnBuilder.appendNull();
+      } else {
+        columnBuilder.write(column, index);
+      }
+    }
+    builder.declarePosition();
+  }
+}
@@ -233,7 +233,13 @@ public class SeriesAggregateScanOperator implements DataSourceOperator {
     timeColumnBuilder.writeLong(curTimeRange.getMin());
     ColumnBuilder[] columnBuilders = tsBlockBuilder.getValueColumnBuilders();
     for (int i = 0; i < aggregateResultList.size(); i++) {
-      columnBuilders[i].writeObject(aggregateResultList.get(i).getResult());
+      Object result = aggregateResultList.get(i).getResult();
+      // result is null if there is no data in current time window
+      if (result == null) {
+        columnBuilders[i].appendNull();
+      } else {
+        columnBuilders[i].writeObject(result);
+      }
     }
     tsBlockBuilder.declarePosition();
     resultTsBlock = tsBlockBuilder.build();
@@ -18,6 +18,9 @@
  */
 package org.apache.iotdb.db.mpp.operator.source;
 
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.compaction.CompactionWorkloadMonitor;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.metadata.idtable.IDTable;
@@ -82,6 +85,12 @@ public class SeriesScanUtil {
 
   private QueryDataSource dataSource;
 
+  /*
+   * the data region of the unsequence files read, used to record the read amplification of
+   * overlapped chunks, null if no unsequence file is read or adaptive compaction is disabled
+   */
+  private String unseqFullStorageGroupName;
+
   /*
    * file index
    */
@@ -493,6 +502,7 @@ public class SeriesScanUtil {
     }
     // In case unpacking too many sequence chunks
     boolean hasMeetSeq = false;
+    int overlappedChunkNum = 0;
     while (!cachedChunkMetadata.isEmpty()
         && orderUtils.isOverlapped(endpointTime, cachedChunkMetadata.peek().getStatistics())) {
       if (cachedChunkMetadata.peek().isSeq() && hasMeetSeq) {
@@ -501,6 +511,14 @@ public class SeriesScanUtil {
         hasMeetSeq = true;
       }
       unpackOneChunkMetaData(cachedChunkMetadata.poll());
+      overlappedChunkNum++;
+    }
+    if (overlappedChunkNum > 0 && unseqFullStorageGroupName != null) {
+      CompactionWorkloadMonitor.getInstance()
+          .recordOverlappedChunkRead(
+              unseqFullStorageGroupName,
+              StorageEngine.getTimePartition(endpointTime),
+              overlappedChunkNum);
     }
     if (init
         && firstPageReader == null
@@ -1046,13 +1064,13 @@ public class SeriesScanUtil {
   }
 
   private void unpackUnseqTsFileResource() throws IOException {
+    TsFileResource resource = orderUtils.getNextUnseqFileResource(true);
+    if (IoTDBDescriptor.getInstance().getConfig().isEnableAdaptiveCompactionSchedule()) {
+      CompactionWorkloadMonitor.getInstance().recordUnseqFileRead(resource);
+      unseqFullStorageGroupName = CompactionWorkloadMonitor.getFullStorageGroupName(resource);
+    }
     ITimeSeriesMetadata timeseriesMetadata =
-        loadTimeSeriesMetadata(
-            orderUtils.getNextUnseqFileResource(true),
-            seriesPath,
-            context,
-            getAnyFilter(),
-            allSensors);
+        loadTimeSeriesMetadata(resource, seriesPath, context, getAnyFilter(), allSensors);
     if (timeseriesMetadata != null) {
       timeseriesMetadata.setModified(true);
       timeseriesMetadata.setSeq(false);
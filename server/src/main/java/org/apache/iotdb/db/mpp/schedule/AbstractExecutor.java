@@ -32,7 +32,7 @@ import java.util.concurrent.ExecutionException;
 public abstract class AbstractExecutor extends Thread implements Closeable {
 
   private static final Logger logger = LoggerFactory.getLogger(AbstractExecutor.class);
-  private final IndexedBlockingQueue<FragmentInstanceTask> queue;
+  protected final IndexedBlockingQueue<FragmentInstanceTask> queue;
   protected final ITaskScheduler scheduler;
   private volatile boolean closed;
 
@@ -51,7 +51,7 @@ public abstract class AbstractExecutor extends Thread implements Closeable {
   public void run() {
     while (!closed && !Thread.currentThread().isInterrupted()) {
       try {
-        FragmentInstanceTask next = queue.poll();
+        FragmentInstanceTask next = poll();
         execute(next);
       } catch (InterruptedException e) {
         break;
@@ -61,6 +61,11 @@ public abstract class AbstractExecutor extends Thread implements Closeable {
     }
   }
 
+  /** Get the next task to be processed. It's blocked until there's one. */
+  protected FragmentInstanceTask poll() throws InterruptedException {
+    return queue.poll();
+  }
+
   /** Processing a task. */
   protected abstract void execute(FragmentInstanceTask task)
       throws InterruptedException, ExecutionException;
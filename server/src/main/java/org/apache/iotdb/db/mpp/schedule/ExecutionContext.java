@@ -23,10 +23,13 @@ import org.apache.iotdb.db.utils.stats.CpuTimer;
 
 import io.airlift.units.Duration;
 
+import java.util.concurrent.TimeUnit;
+
 /** The execution context of a {@link FragmentInstanceTask} */
 public class ExecutionContext {
   private CpuTimer.CpuDuration cpuDuration;
   private Duration timeSlice;
+  private FragmentInstanceTaskExecutor executor;
 
   public CpuTimer.CpuDuration getCpuDuration() {
     return cpuDuration;
@@ -36,6 +39,11 @@ public class ExecutionContext {
     this.cpuDuration = cpuDuration;
   }
 
+  /** @return the thread CPU time of the last running. */
+  public long getCpuNanos() {
+    return (long) cpuDuration.getCpu().getValue(TimeUnit.NANOSECONDS);
+  }
+
   public Duration getTimeSlice() {
     return timeSlice;
   }
@@ -43,4 +51,13 @@ public class ExecutionContext {
   public void setTimeSlice(Duration timeSlice) {
     this.timeSlice = timeSlice;
   }
+
+  /** @return the worker which ran the task last time, null if it's unknown. */
+  public FragmentInstanceTaskExecutor getExecutor() {
+    return executor;
+  }
+
+  public void setExecutor(FragmentInstanceTaskExecutor executor) {
+    this.executor = executor;
+  }
 }
@@ -29,10 +29,15 @@ import org.apache.iotdb.db.mpp.common.QueryId;
 import org.apache.iotdb.db.mpp.execution.IDriver;
 import org.apache.iotdb.db.mpp.schedule.queue.IndexedBlockingQueue;
 import org.apache.iotdb.db.mpp.schedule.queue.L1PriorityQueue;
-import org.apache.iotdb.db.mpp.schedule.queue.L2PriorityQueue;
+import org.apache.iotdb.db.mpp.schedule.queue.MultilevelPriorityQueue;
 import org.apache.iotdb.db.mpp.schedule.task.FragmentInstanceTask;
 import org.apache.iotdb.db.mpp.schedule.task.FragmentInstanceTaskID;
 import org.apache.iotdb.db.mpp.schedule.task.FragmentInstanceTaskStatus;
+import org.apache.iotdb.db.service.metrics.Metric;
+import org.apache.iotdb.db.service.metrics.MetricsService;
+import org.apache.iotdb.db.service.metrics.Tag;
+import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
+import org.apache.iotdb.metrics.utils.MetricLevel;
 import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
 
 import org.slf4j.Logger;
@@ -46,6 +51,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /** the manager of fragment instances scheduling */
@@ -57,10 +64,12 @@ public class FragmentInstanceScheduler implements IFragmentInstanceScheduler, IS
     return InstanceHolder.instance;
   }
 
-  private final IndexedBlockingQueue<FragmentInstanceTask> readyQueue;
+  private final MultilevelPriorityQueue<FragmentInstanceTask> readyQueue;
   private final IndexedBlockingQueue<FragmentInstanceTask> timeoutQueue;
   private final Set<FragmentInstanceTask> blockedTasks;
   private final Map<QueryId, Set<FragmentInstanceTask>> queryMap;
+  // the thread CPU time of each query, which decides the level of its tasks in the readyQueue
+  private final Map<QueryId, AtomicLong> queryCpuNanos;
   private final ITaskScheduler scheduler;
   private IDataBlockManager blockManager; // TODO: init with real IDataBlockManager
 
@@ -69,10 +78,11 @@ public class FragmentInstanceScheduler implements IFragmentInstanceScheduler, IS
   private static final int QUERY_TIMEOUT_MS = 10_000; // TODO: load from config files or requests
   private final ThreadGroup workerGroups;
   private final List<AbstractExecutor> threads;
+  private final List<FragmentInstanceTaskExecutor> workers;
 
   private FragmentInstanceScheduler() {
     this.readyQueue =
-        new L2PriorityQueue<>(
+        new MultilevelPriorityQueue<>(
             MAX_CAPACITY,
             new FragmentInstanceTask.SchedulePriorityComparator(),
             new FragmentInstanceTask());
@@ -80,22 +90,27 @@ public class FragmentInstanceScheduler implements IFragmentInstanceScheduler, IS
         new L1PriorityQueue<>(
             MAX_CAPACITY, new FragmentInstanceTask.TimeoutComparator(), new FragmentInstanceTask());
     this.queryMap = new ConcurrentHashMap<>();
+    this.queryCpuNanos = new ConcurrentHashMap<>();
     this.blockedTasks = Collections.synchronizedSet(new HashSet<>());
     this.scheduler = new Scheduler();
     this.workerGroups = new ThreadGroup("ScheduleThreads");
     this.threads = new ArrayList<>();
+    this.workers = new ArrayList<>();
     this.blockManager = DataBlockService.getInstance().getDataBlockManager();
   }
 
   @Override
   public void start() throws StartupException {
     for (int i = 0; i < WORKER_THREAD_NUM; i++) {
-      AbstractExecutor t =
+      FragmentInstanceTaskExecutor t =
           new FragmentInstanceTaskExecutor(
               "Worker-Thread-" + i, workerGroups, readyQueue, scheduler);
+      t.setPeers(workers);
+      workers.add(t);
       threads.add(t);
-      t.start();
     }
+    // start the workers after all of them are created, as each one may steal from the others
+    workers.forEach(Thread::start);
     AbstractExecutor t =
         new FragmentInstanceTimeoutSentinel(
             "Sentinel-Thread", workerGroups, timeoutQueue, scheduler);
@@ -122,11 +137,13 @@ public class FragmentInstanceScheduler implements IFragmentInstanceScheduler, IS
 
   @Override
   public void submitFragmentInstances(QueryId queryId, List<IDriver> instances) {
+    AtomicLong cpuNanos = queryCpuNanos.computeIfAbsent(queryId, v -> new AtomicLong());
     List<FragmentInstanceTask> tasks =
         instances.stream()
             .map(
                 v ->
-                    new FragmentInstanceTask(v, QUERY_TIMEOUT_MS, FragmentInstanceTaskStatus.READY))
+                    new FragmentInstanceTask(
+                        v, QUERY_TIMEOUT_MS, FragmentInstanceTaskStatus.READY, cpuNanos))
             .collect(Collectors.toList());
     queryMap
         .computeIfAbsent(queryId, v -> Collections.synchronizedSet(new HashSet<>()))
@@ -148,6 +165,7 @@ public class FragmentInstanceScheduler implements IFragmentInstanceScheduler, IS
   @Override
   public void abortQuery(QueryId queryId) {
     Set<FragmentInstanceTask> queryRelatedTasks = queryMap.remove(queryId);
+    queryCpuNanos.remove(queryId);
     if (queryRelatedTasks != null) {
       for (FragmentInstanceTask task : queryRelatedTasks) {
         task.lock();
@@ -211,6 +229,7 @@ public class FragmentInstanceScheduler implements IFragmentInstanceScheduler, IS
       tasks.remove(task);
       if (tasks.isEmpty()) {
         queryMap.remove(task.getId().getQueryId());
+        queryCpuNanos.remove(task.getId().getQueryId());
       }
     }
   }
@@ -219,6 +238,54 @@ public class FragmentInstanceScheduler implements IFragmentInstanceScheduler, IS
     return scheduler;
   }
 
+  /**
+   * Charge the CPU time of the last running of a task to its query and to its level in the
+   * readyQueue.
+   *
+   * @param task the task which has just run.
+   * @param context the execution context of last running.
+   */
+  private void chargeCpuTime(FragmentInstanceTask task, ExecutionContext context) {
+    task.updateSchedulePriority(context);
+    readyQueue.addScheduledNanos(task.getLevel(), context.getCpuNanos());
+  }
+
+  /**
+   * Keep a task yielded by a worker in the worker's local queue, so that it will be picked up
+   * without touching the shared readyQueue. It's refused if some workers are waiting on the
+   * readyQueue, or there are tasks of higher levels in it.
+   *
+   * @return true if the task is put into the local queue.
+   */
+  private boolean offerToLocalQueue(FragmentInstanceTask task, ExecutionContext context) {
+    FragmentInstanceTaskExecutor executor = context.getExecutor();
+    if (executor == null || readyQueue.getWaitingPollerNum() > 0) {
+      return false;
+    }
+    int level = MultilevelPriorityQueue.computeLevel(task.getScheduledNanos());
+    if (level > readyQueue.getHighestReadyLevel()) {
+      return false;
+    }
+    task.setLevel(level);
+    return executor.offerLocal(task);
+  }
+
+  private void recordReadyWaitTime(int level, long waitNanos) {
+    if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
+      MetricsService.getInstance()
+          .getMetricManager()
+          .timer(
+              waitNanos,
+              TimeUnit.NANOSECONDS,
+              Metric.COST_TASK.toString(),
+              MetricLevel.IMPORTANT,
+              Tag.NAME.toString(),
+              "fragment_instance_ready_wait",
+              Tag.TYPE.toString(),
+              "level_" + level);
+    }
+  }
+
   @TestOnly
   IndexedBlockingQueue<FragmentInstanceTask> getReadyQueue() {
     return readyQueue;
@@ -269,15 +336,18 @@ public class FragmentInstanceScheduler implements IFragmentInstanceScheduler, IS
 
     @Override
     public boolean readyToRunning(FragmentInstanceTask task) {
+      long waitNanos;
       task.lock();
       try {
         if (task.getStatus() != FragmentInstanceTaskStatus.READY) {
           return false;
         }
+        waitNanos = task.getReadyWaitNanos();
         task.setStatus(FragmentInstanceTaskStatus.RUNNING);
       } finally {
         task.unlock();
       }
+      recordReadyWaitTime(task.getLevel(), waitNanos);
       return true;
     }
 
@@ -288,9 +358,11 @@ public class FragmentInstanceScheduler implements IFragmentInstanceScheduler, IS
         if (task.getStatus() != FragmentInstanceTaskStatus.RUNNING) {
           return;
         }
-        task.updateSchedulePriority(context);
+        chargeCpuTime(task, context);
         task.setStatus(FragmentInstanceTaskStatus.READY);
-        readyQueue.push(task);
+        if (!offerToLocalQueue(task, context)) {
+          readyQueue.push(task);
+        }
       } finally {
         task.unlock();
       }
@@ -303,7 +375,7 @@ public class FragmentInstanceScheduler implements IFragmentInstanceScheduler, IS
         if (task.getStatus() != FragmentInstanceTaskStatus.RUNNING) {
           return;
         }
-        task.updateSchedulePriority(context);
+        chargeCpuTime(task, context);
         task.setStatus(FragmentInstanceTaskStatus.BLOCKED);
         blockedTasks.add(task);
       } finally {
@@ -318,7 +390,7 @@ public class FragmentInstanceScheduler implements IFragmentInstanceScheduler, IS
         if (task.getStatus() != FragmentInstanceTaskStatus.RUNNING) {
           return;
         }
-        task.updateSchedulePriority(context);
+        chargeCpuTime(task, context);
         task.setStatus(FragmentInstanceTaskStatus.FINISHED);
         clearFragmentInstanceTask(task);
       } finally {
@@ -344,6 +416,7 @@ public class FragmentInstanceScheduler implements IFragmentInstanceScheduler, IS
       }
       QueryId queryId = task.getId().getQueryId();
       Set<FragmentInstanceTask> queryRelatedTasks = queryMap.remove(queryId);
+      queryCpuNanos.remove(queryId);
       if (queryRelatedTasks != null) {
         for (FragmentInstanceTask otherTask : queryRelatedTasks) {
           if (task.equals(otherTask)) {
@@ -27,10 +27,19 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import io.airlift.units.Duration;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
-/** the worker thread of {@link FragmentInstanceTask} */
+/**
+ * the worker thread of {@link FragmentInstanceTask}. Besides the shared ready queue, each worker
+ * has a small local queue for the tasks it yielded, which is polled without touching the shared
+ * queue. An idle worker steals tasks from the local queues of the others before it waits on the
+ * shared queue.
+ */
 public class FragmentInstanceTaskExecutor extends AbstractExecutor {
 
   public static final Duration EXECUTION_TIME_SLICE = new Duration(100, TimeUnit.MILLISECONDS);
@@ -38,12 +47,91 @@ public class FragmentInstanceTaskExecutor extends AbstractExecutor {
   // As the callback is lightweight enough, there's no need to use another one thread to execute.
   private static final Executor listeningExecutor = MoreExecutors.directExecutor();
 
+  private static final int LOCAL_QUEUE_CAPACITY = 4;
+  // After polling this number of tasks from the local queue in a row, the shared queue is polled
+  // first, so that the tasks in it won't be starved by the ones looping in the local queue.
+  private static final int GLOBAL_POLL_INTERVAL = 4;
+
+  private final Deque<FragmentInstanceTask> localQueue;
+  private List<FragmentInstanceTaskExecutor> peers;
+  private int localPolledNum;
+
   public FragmentInstanceTaskExecutor(
       String workerId,
       ThreadGroup tg,
       IndexedBlockingQueue<FragmentInstanceTask> queue,
       ITaskScheduler scheduler) {
     super(workerId, tg, queue, scheduler);
+    this.localQueue = new ArrayDeque<>(LOCAL_QUEUE_CAPACITY);
+    this.peers = Collections.emptyList();
+  }
+
+  /**
+   * Set the workers whose local queues can be stolen by this one.
+   *
+   * @param peers all the workers polling the same shared queue, this one included.
+   */
+  public void setPeers(List<FragmentInstanceTaskExecutor> peers) {
+    this.peers = peers;
+  }
+
+  /**
+   * Offer a task yielded by this worker to its local queue.
+   *
+   * @param task the READY task.
+   * @return false if the local queue is full.
+   */
+  public boolean offerLocal(FragmentInstanceTask task) {
+    synchronized (localQueue) {
+      if (localQueue.size() >= LOCAL_QUEUE_CAPACITY) {
+        return false;
+      }
+      localQueue.offerLast(task);
+      return true;
+    }
+  }
+
+  private FragmentInstanceTask pollLocal() {
+    synchronized (localQueue) {
+      return localQueue.pollFirst();
+    }
+  }
+
+  /** The thief takes the task from the tail, i.e. the one the owner would run last. */
+  private FragmentInstanceTask steal() {
+    synchronized (localQueue) {
+      return localQueue.pollLast();
+    }
+  }
+
+  @Override
+  protected FragmentInstanceTask poll() throws InterruptedException {
+    FragmentInstanceTask task;
+    if (localPolledNum < GLOBAL_POLL_INTERVAL) {
+      task = pollLocal();
+      if (task != null) {
+        localPolledNum++;
+        return task;
+      }
+    }
+    localPolledNum = 0;
+    task = queue.tryPoll();
+    if (task != null) {
+      return task;
+    }
+    task = pollLocal();
+    if (task != null) {
+      return task;
+    }
+    for (FragmentInstanceTaskExecutor peer : peers) {
+      if (peer != this) {
+        task = peer.steal();
+        if (task != null) {
+          return task;
+        }
+      }
+    }
+    return queue.poll();
   }
 
   @Override
@@ -66,6 +154,7 @@ public class FragmentInstanceTaskExecutor extends AbstractExecutor {
     ExecutionContext context = new ExecutionContext();
     context.setCpuDuration(duration);
     context.setTimeSlice(EXECUTION_TIME_SLICE);
+    context.setExecutor(this);
     if (instance.isFinished()) {
       scheduler.runningToFinished(task, context);
       return;
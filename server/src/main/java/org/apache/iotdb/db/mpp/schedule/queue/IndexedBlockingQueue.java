@@ -40,6 +40,7 @@ public abstract class IndexedBlockingQueue<E extends IDIndexedAccessible> {
   private final int MAX_CAPACITY;
   private final E queryHolder;
   private int size;
+  private volatile int waitingPollerNum;
 
   /**
    * Init the queue with a max capacity. The queryHolder is just a simple reused object in query to
@@ -63,7 +64,27 @@ public abstract class IndexedBlockingQueue<E extends IDIndexedAccessible> {
    */
   public synchronized E poll() throws InterruptedException {
     while (isEmpty()) {
-      this.wait();
+      waitingPollerNum++;
+      try {
+        this.wait();
+      } finally {
+        waitingPollerNum--;
+      }
+    }
+    E output = pollFirst();
+    size--;
+    return output;
+  }
+
+  /**
+   * Get and remove the first element of the queue. Different from {@link #poll()}, it returns null
+   * immediately if the queue is empty.
+   *
+   * @return the queue head element, or null if the queue is empty.
+   */
+  public synchronized E tryPoll() {
+    if (isEmpty()) {
+      return null;
     }
     E output = pollFirst();
     size--;
@@ -135,6 +156,16 @@ public abstract class IndexedBlockingQueue<E extends IDIndexedAccessible> {
     return size;
   }
 
+  /**
+   * Get the number of threads which are blocked in {@link #poll()}. It's read without the lock, so
+   * it's only a hint.
+   *
+   * @return the number of threads waiting for an element.
+   */
+  public final int getWaitingPollerNum() {
+    return waitingPollerNum;
+  }
+
   /**
    * Whether the queue is empty.
    *
@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.schedule.queue;
+
+/**
+ * The element of {@link MultilevelPriorityQueue}. Its level is decided by the time that has been
+ * scheduled for its group, e.g. all the fragment instances of the same query, so that a group
+ * which has run for a long time is moved to a lower priority level as a whole.
+ */
+public interface MultilevelAccessible extends IDIndexedAccessible {
+
+  /** @return the time in nanoseconds that has been scheduled for the group of this element. */
+  long getScheduledNanos();
+
+  int getLevel();
+
+  void setLevel(int level);
+}
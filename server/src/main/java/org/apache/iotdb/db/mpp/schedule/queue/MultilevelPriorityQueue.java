@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.schedule.queue;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A subclass of {@link IndexedBlockingQueue} implementing a multilevel feedback queue. An element
+ * is pushed to a level according to the time scheduled for its group: the longer the group has
+ * run, the lower the level is. So the short queries are always in the first levels and will not be
+ * blocked by the long ones.
+ *
+ * <p>To avoid starving the lower levels, each level is given a share of the scheduled time, and
+ * the share of level i is {@link #LEVEL_TIME_MULTIPLIER} times of the one of level i + 1. {@link
+ * #poll()} picks the non-empty level which has used the least of its share, and the elements in the
+ * same level are ordered by the comparator.
+ *
+ * <p>The time complexity of operations are:
+ *
+ * <ul>
+ *   <li><b>{@link #remove(IDIndexedAccessible)} ()}: </b> O(logN).
+ *   <li><b>{@link #push(IDIndexedAccessible)}: </b> O(logN).
+ *   <li><b>{@link #poll()}: </b> O(logN).
+ *   <li><b>{@link #get(ID)}}: </b> O(1).
+ * </ul>
+ */
+public class MultilevelPriorityQueue<E extends MultilevelAccessible>
+    extends IndexedBlockingQueue<E> {
+
+  /** the minimum scheduled time of each level */
+  private static final long[] LEVEL_THRESHOLD_SECONDS = {0L, 1L, 10L, 60L, 300L};
+
+  public static final int LEVEL_NUM = LEVEL_THRESHOLD_SECONDS.length;
+
+  private static final int LEVEL_TIME_MULTIPLIER = 2;
+
+  private final SortedSet<E>[] levelSortedElements;
+  private final Map<ID, E> keyedElements;
+  // the time scheduled for the elements of each level
+  private final AtomicLongArray levelScheduledNanos;
+  private volatile int highestReadyLevel;
+
+  /**
+   * Init the queue with max capacity and specified comparator.
+   *
+   * @see IndexedBlockingQueue
+   * @param maxCapacity the max capacity of the queue.
+   * @param comparator the comparator for comparing the elements in the same level.
+   * @param queryHolder the query holder instance.
+   * @throws IllegalArgumentException if maxCapacity <= 0.
+   */
+  @SuppressWarnings("unchecked")
+  public MultilevelPriorityQueue(int maxCapacity, Comparator<E> comparator, E queryHolder) {
+    super(maxCapacity, queryHolder);
+    this.levelSortedElements = new SortedSet[LEVEL_NUM];
+    for (int i = 0; i < LEVEL_NUM; i++) {
+      levelSortedElements[i] = new TreeSet<>(comparator);
+    }
+    this.keyedElements = new HashMap<>();
+    this.levelScheduledNanos = new AtomicLongArray(LEVEL_NUM);
+    this.highestReadyLevel = LEVEL_NUM;
+  }
+
+  /**
+   * Compute the level by the scheduled time of a group.
+   *
+   * @param scheduledNanos the time scheduled for the group.
+   * @return the level, 0 is the highest one.
+   */
+  public static int computeLevel(long scheduledNanos) {
+    for (int level = LEVEL_NUM - 1; level > 0; level--) {
+      if (scheduledNanos >= TimeUnit.SECONDS.toNanos(LEVEL_THRESHOLD_SECONDS[level])) {
+        return level;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Charge the time scheduled for an element to its level. It should be called every time an
+   * element popped from this queue has run.
+   *
+   * @param level the level of the element when it was scheduled.
+   * @param scheduledNanos the time it has run.
+   */
+  public void addScheduledNanos(int level, long scheduledNanos) {
+    levelScheduledNanos.addAndGet(level, scheduledNanos);
+  }
+
+  /**
+   * Get the highest level which has elements. It's read without the lock, so it's only a hint.
+   *
+   * @return the highest non-empty level, or {@link #LEVEL_NUM} if the queue is empty.
+   */
+  public int getHighestReadyLevel() {
+    return highestReadyLevel;
+  }
+
+  public long getLevelScheduledNanos(int level) {
+    return levelScheduledNanos.get(level);
+  }
+
+  @Override
+  protected boolean isEmpty() {
+    return keyedElements.isEmpty();
+  }
+
+  @Override
+  protected E pollFirst() {
+    int selectedLevel = -1;
+    double minNormalizedNanos = Double.MAX_VALUE;
+    for (int level = 0; level < LEVEL_NUM; level++) {
+      if (levelSortedElements[level].isEmpty()) {
+        continue;
+      }
+      double normalizedNanos = normalizedScheduledNanos(level);
+      if (normalizedNanos < minNormalizedNanos) {
+        minNormalizedNanos = normalizedNanos;
+        selectedLevel = level;
+      }
+    }
+    E element = levelSortedElements[selectedLevel].first();
+    levelSortedElements[selectedLevel].remove(element);
+    keyedElements.remove(element.getId());
+    updateHighestReadyLevel();
+    return element;
+  }
+
+  @Override
+  protected void pushToQueue(E element) {
+    int level = computeLevel(element.getScheduledNanos());
+    if (levelSortedElements[level].isEmpty()) {
+      catchUpScheduledNanos(level);
+    }
+    element.setLevel(level);
+    levelSortedElements[level].add(element);
+    keyedElements.put(element.getId(), element);
+    updateHighestReadyLevel();
+  }
+
+  @Override
+  protected E remove(E element) {
+    E e = keyedElements.remove(element.getId());
+    if (e != null) {
+      levelSortedElements[e.getLevel()].remove(e);
+      updateHighestReadyLevel();
+    }
+    return e;
+  }
+
+  @Override
+  protected boolean contains(E element) {
+    return keyedElements.containsKey(element.getId());
+  }
+
+  @Override
+  protected E get(E element) {
+    return keyedElements.get(element.getId());
+  }
+
+  @Override
+  protected void clearAllElements() {
+    for (SortedSet<E> sortedElements : levelSortedElements) {
+      sortedElements.clear();
+    }
+    keyedElements.clear();
+    highestReadyLevel = LEVEL_NUM;
+  }
+
+  /** the scheduled time of the level divided by its share */
+  private double normalizedScheduledNanos(int level) {
+    return (double) levelScheduledNanos.get(level) * Math.pow(LEVEL_TIME_MULTIPLIER, level);
+  }
+
+  /**
+   * When a level becomes non-empty again, its scheduled time may be far behind the others as it
+   * has been idle. Raise it to the minimum of the non-empty levels, otherwise it would monopolize
+   * the workers until it catches up.
+   */
+  private void catchUpScheduledNanos(int level) {
+    double minNormalizedNanos = Double.MAX_VALUE;
+    for (int i = 0; i < LEVEL_NUM; i++) {
+      if (i != level && !levelSortedElements[i].isEmpty()) {
+        minNormalizedNanos = Math.min(minNormalizedNanos, normalizedScheduledNanos(i));
+      }
+    }
+    if (minNormalizedNanos == Double.MAX_VALUE) {
+      return;
+    }
+    long targetNanos = (long) (minNormalizedNanos / Math.pow(LEVEL_TIME_MULTIPLIER, level));
+    levelScheduledNanos.accumulateAndGet(level, targetNanos, Math::max);
+  }
+
+  private void updateHighestReadyLevel() {
+    int level = 0;
+    while (level < LEVEL_NUM && levelSortedElements[level].isEmpty()) {
+      level++;
+    }
+    highestReadyLevel = level;
+  }
+}
@@ -26,13 +26,14 @@ import org.apache.iotdb.db.mpp.execution.IDriver;
 import org.apache.iotdb.db.mpp.schedule.ExecutionContext;
 import org.apache.iotdb.db.mpp.schedule.FragmentInstanceTaskExecutor;
 import org.apache.iotdb.db.mpp.schedule.queue.ID;
-import org.apache.iotdb.db.mpp.schedule.queue.IDIndexedAccessible;
+import org.apache.iotdb.db.mpp.schedule.queue.MultilevelAccessible;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.Duration;
 
 import java.util.Comparator;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -40,7 +41,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * the scheduling element of {@link FragmentInstanceTaskExecutor}. It wraps a single
  * FragmentInstance.
  */
-public class FragmentInstanceTask implements IDIndexedAccessible {
+public class FragmentInstanceTask implements MultilevelAccessible {
 
   private FragmentInstanceTaskID id;
   private FragmentInstanceTaskStatus status;
@@ -53,6 +54,11 @@ public class FragmentInstanceTask implements IDIndexedAccessible {
 
   // Running stats
   private long cpuWallNano;
+  // the thread CPU time spent by all the tasks of the same query
+  private final AtomicLong queryCpuNanos;
+  private volatile int level;
+  // the time when the task became READY last time
+  private volatile long readyNanos;
 
   private String abortCause;
 
@@ -62,7 +68,20 @@ public class FragmentInstanceTask implements IDIndexedAccessible {
   }
 
   public FragmentInstanceTask(IDriver instance, long timeoutMs, FragmentInstanceTaskStatus status) {
+    this(instance, timeoutMs, status, new AtomicLong());
+  }
+
+  /**
+   * @param queryCpuNanos the CPU time shared by all the tasks of the same query, which decides
+   *     the level of this task in the multilevel ready queue.
+   */
+  public FragmentInstanceTask(
+      IDriver instance,
+      long timeoutMs,
+      FragmentInstanceTaskStatus status,
+      AtomicLong queryCpuNanos) {
     this.fragmentInstance = instance;
+    this.queryCpuNanos = queryCpuNanos;
     this.id = new FragmentInstanceTaskID(instance.getInfo());
     this.setStatus(status);
     this.schedulePriority = 0.0D;
@@ -94,6 +113,30 @@ public class FragmentInstanceTask implements IDIndexedAccessible {
 
   public void setStatus(FragmentInstanceTaskStatus status) {
     this.status = status;
+    if (status == FragmentInstanceTaskStatus.READY) {
+      this.readyNanos = System.nanoTime();
+    }
+  }
+
+  /** @return the time in nanoseconds since the task became READY last time. */
+  public long getReadyWaitNanos() {
+    return System.nanoTime() - readyNanos;
+  }
+
+  /** @return the CPU time spent by the query, which is the scheduled time of its tasks. */
+  @Override
+  public long getScheduledNanos() {
+    return queryCpuNanos.get();
+  }
+
+  @Override
+  public int getLevel() {
+    return level;
+  }
+
+  @Override
+  public void setLevel(int level) {
+    this.level = level;
   }
 
   /**
@@ -102,6 +145,7 @@ public class FragmentInstanceTask implements IDIndexedAccessible {
    * @param context the last execution context.
    */
   public void updateSchedulePriority(ExecutionContext context) {
+    queryCpuNanos.addAndGet(context.getCpuNanos());
     // TODO: need to implement more complex here
 
     // 1. The penalty factor means that if a task executes less time in one schedule, it will have a
@@ -19,8 +19,11 @@
 package org.apache.iotdb.db.mpp.sql.planner;
 
 import org.apache.iotdb.common.rpc.thrift.TRegionReplicaSet;
+import org.apache.iotdb.db.metadata.path.PartialPath;
 import org.apache.iotdb.db.mpp.common.MPPQueryContext;
 import org.apache.iotdb.db.mpp.common.PlanFragmentId;
+import org.apache.iotdb.db.mpp.common.header.ColumnHeader;
+import org.apache.iotdb.db.mpp.operator.process.aggregate.AggregatorFactory;
 import org.apache.iotdb.db.mpp.sql.analyze.Analysis;
 import org.apache.iotdb.db.mpp.sql.analyze.QueryType;
 import org.apache.iotdb.db.mpp.sql.planner.plan.DistributedQueryPlan;
@@ -36,18 +39,27 @@ import org.apache.iotdb.db.mpp.sql.planner.plan.node.WritePlanNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.metedata.read.SchemaFetchNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.metedata.read.SchemaMergeNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.metedata.read.SchemaScanNode;
+import org.apache.iotdb.db.mpp.sql.planner.plan.node.process.AggregateNode;
+import org.apache.iotdb.db.mpp.sql.planner.plan.node.process.DeviceMergeNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.process.ExchangeNode;
+import org.apache.iotdb.db.mpp.sql.planner.plan.node.process.GroupByLevelNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.process.TimeJoinNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.sink.FragmentSinkNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.source.SeriesAggregateScanNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.source.SeriesScanNode;
+import org.apache.iotdb.db.mpp.sql.planner.plan.node.source.SourceNode;
+import org.apache.iotdb.db.query.aggregation.AggregationType;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
@@ -137,9 +149,57 @@ public class DistributionPlanner {
 
   private class SourceRewriter extends SimplePlanNodeRewriter<DistributionPlanContext> {
 
-    // TODO: (xingtanzjr) implement the method visitDeviceMergeNode()
-    public PlanNode visitDeviceMerge(TimeJoinNode node, DistributionPlanContext context) {
-      return null;
+    @Override
+    public PlanNode visitDeviceMerge(DeviceMergeNode node, DistributionPlanContext context) {
+      // Step 1: Rewrite the child of each device and find the DataRegion of it
+      List<PlanNode> children = new ArrayList<>();
+      Map<TRegionReplicaSet, List<Integer>> childGroup = new LinkedHashMap<>();
+      boolean canPushDown = true;
+      for (int i = 0; i < node.getChildren().size(); i++) {
+        PlanNode child = visit(node.getChildren().get(i), context);
+        children.add(child);
+        Set<TRegionReplicaSet> dataRegions = new HashSet<>();
+        collectDataRegions(child, dataRegions);
+        if (node.getDevices().get(i) == null
+            || dataRegions.size() != 1
+            || dataRegions.contains(null)) {
+          canPushDown = false;
+        } else {
+          childGroup
+              .computeIfAbsent(dataRegions.iterator().next(), k -> new ArrayList<>())
+              .add(i);
+        }
+      }
+
+      // Step 2: If the data of some device is in more than one DataRegion, or all the devices are
+      // in the same DataRegion, merge the devices in current DeviceMergeNode
+      if (!canPushDown || childGroup.size() <= 1) {
+        DeviceMergeNode root = (DeviceMergeNode) node.clone();
+        children.forEach(root::addChild);
+        return root;
+      }
+
+      // Step 3: Otherwise, merge the devices of each DataRegion by a DeviceMergeNode in the
+      // DataRegion, and only the merged streams are merged in current DeviceMergeNode
+      DeviceMergeNode root = new DeviceMergeNode(node.getPlanNodeId(), node.getMergeOrder());
+      childGroup.forEach(
+          (dataRegion, childIndexes) -> {
+            DeviceMergeNode regionNode =
+                new DeviceMergeNode(
+                    context.queryContext.getQueryId().genPlanNodeId(), node.getMergeOrder());
+            for (int i : childIndexes) {
+              regionNode.addChildDeviceNode(node.getDevices().get(i), children.get(i));
+            }
+            root.addChildMergeNode(regionNode);
+          });
+      return root;
+    }
+
+    private void collectDataRegions(PlanNode node, Set<TRegionReplicaSet> dataRegions) {
+      if (node instanceof SourceNode) {
+        dataRegions.add(((SourceNode) node).getRegionReplicaSet());
+      }
+      node.getChildren().forEach(child -> collectDataRegions(child, dataRegions));
     }
 
     @Override
@@ -192,6 +252,32 @@ public class DistributionPlanner {
       return timeJoinNode;
     }
 
+    @Override
+    public PlanNode visitSeriesAggregate(
+        SeriesAggregateScanNode node, DistributionPlanContext context) {
+      List<TRegionReplicaSet> dataDistribution =
+          analysis.getPartitionInfo(node.getSeriesPath(), node.getTimeFilter());
+      if (dataDistribution.size() == 1) {
+        SeriesAggregateScanNode root = (SeriesAggregateScanNode) node.clone();
+        root.setRegionReplicaSet(dataDistribution.get(0));
+        return root;
+      }
+      // The result of each DataRegion is only a part of the series, so every split outputs the
+      // partial results of its aggregation functions and they are merged by an AggregateNode
+      Map<PartialPath, Set<AggregationType>> aggregateFuncMap = new LinkedHashMap<>();
+      aggregateFuncMap.put(node.getSeriesPath(), new LinkedHashSet<>(node.getAggregateFuncList()));
+      AggregateNode root =
+          new AggregateNode(
+              node.getPlanNodeId(), null, aggregateFuncMap, node.getGroupByTimeParameter());
+      for (TRegionReplicaSet dataRegion : dataDistribution) {
+        root.addChild(
+            toPartialAggregateScan(
+                node, context.queryContext.getQueryId().genPlanNodeId(), dataRegion));
+      }
+      root.initOutputColumns();
+      return root;
+    }
+
     @Override
     public PlanNode visitTimeJoin(TimeJoinNode node, DistributionPlanContext context) {
       TimeJoinNode root = (TimeJoinNode) node.clone();
@@ -215,10 +301,9 @@ public class DistributionPlanner {
             sources.add(split);
           }
         } else if (child instanceof SeriesAggregateScanNode) {
-          // TODO: (xingtanzjr) We should do the same thing for SeriesAggregateScanNode. Consider to
-          // make SeriesAggregateScanNode
-          // and SeriesScanNode to derived from the same parent Class because they have similar
-          // process logic in many scenarios
+          // The splits of one SeriesAggregateScanNode are merged by an AggregateNode, because each
+          // of them only outputs the partial results
+          root.addChild(visitSeriesAggregate((SeriesAggregateScanNode) child, context));
         } else {
           // In a general logical query plan, the children of TimeJoinNode should only be
           // SeriesScanNode or SeriesAggregateScanNode
@@ -258,6 +343,127 @@ public class DistributionPlanner {
       return root;
     }
 
+    @Override
+    public PlanNode visitGroupByLevel(GroupByLevelNode node, DistributionPlanContext context) {
+      if (node.getChildren().size() != 1
+          || !canPushDownGroupByLevel(node, node.getChildren().get(0))) {
+        return defaultRewrite(node, context);
+      }
+      PlanNode child = node.getChildren().get(0);
+      List<PlanNode> handles =
+          child instanceof TimeJoinNode ? child.getChildren() : Collections.singletonList(child);
+
+      // Step 1: Split the SeriesAggregateScanNodes by DataRegion and group them by DataRegion. Each
+      // split outputs the partial results of its aggregation functions, e.g. count and sum for avg,
+      // because the result of avg can not be merged from the results of other avg.
+      Map<TRegionReplicaSet, List<PlanNode>> sourceGroup = new LinkedHashMap<>();
+      for (PlanNode source : handles) {
+        SeriesAggregateScanNode handle = (SeriesAggregateScanNode) source;
+        List<TRegionReplicaSet> dataDistribution =
+            analysis.getPartitionInfo(handle.getSeriesPath(), handle.getTimeFilter());
+        for (TRegionReplicaSet dataRegion : dataDistribution) {
+          SeriesAggregateScanNode split =
+              toPartialAggregateScan(
+                  handle, context.queryContext.getQueryId().genPlanNodeId(), dataRegion);
+          sourceGroup.computeIfAbsent(dataRegion, k -> new ArrayList<>()).add(split);
+        }
+      }
+
+      // Step 2: If all the sources are in one DataRegion, there is nothing to push down.
+      if (sourceGroup.size() <= 1) {
+        GroupByLevelNode root = (GroupByLevelNode) node.clone();
+        sourceGroup.values().forEach(sources -> root.addChild(joinSources(child, sources)));
+        return root;
+      }
+
+      // Step 3: Add a partial GroupByLevelNode for each DataRegion, so that only the partial
+      // results of each bucket are transferred, and merge them by the final GroupByLevelNode.
+      Map<ColumnHeader, ColumnHeader> finalGroupedPathMap = new LinkedHashMap<>();
+      node.getOutputColumnHeaders().forEach(header -> finalGroupedPathMap.put(header, header));
+      GroupByLevelNode root =
+          new GroupByLevelNode(
+              node.getPlanNodeId(), null, node.getGroupByLevels(), finalGroupedPathMap);
+      sourceGroup.forEach(
+          (dataRegion, sources) -> {
+            PlanNode joinedSources = joinSources(child, sources);
+            if (joinedSources instanceof TimeJoinNode) {
+              joinedSources.setPlanNodeId(context.queryContext.getQueryId().genPlanNodeId());
+            }
+            root.addChild(
+                new GroupByLevelNode(
+                    context.queryContext.getQueryId().genPlanNodeId(),
+                    joinedSources,
+                    node.getGroupByLevels(),
+                    node.getGroupedPathMap(),
+                    true));
+          });
+      return root;
+    }
+
+    /**
+     * The partial GroupByLevelNode can be pushed down if its child is a SeriesAggregateScanNode or
+     * a TimeJoinNode of SeriesAggregateScanNodes, because the scans can output the partial results.
+     */
+    private boolean canPushDownGroupByLevel(GroupByLevelNode node, PlanNode child) {
+      if (node.getGroupedPathMap() == null) {
+        return false;
+      }
+      if (child instanceof SeriesAggregateScanNode) {
+        return true;
+      }
+      if (!(child instanceof TimeJoinNode)) {
+        return false;
+      }
+      for (PlanNode source : child.getChildren()) {
+        if (!(source instanceof SeriesAggregateScanNode)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Copy the SeriesAggregateScanNode into the given DataRegion, and replace its aggregation
+     * functions by their partial aggregation functions, e.g. [avg, count] is replaced by [count,
+     * sum].
+     */
+    private SeriesAggregateScanNode toPartialAggregateScan(
+        SeriesAggregateScanNode handle, PlanNodeId planNodeId, TRegionReplicaSet dataRegion) {
+      List<AggregationType> partialAggregations =
+          handle.getAggregateFuncList().stream()
+              .flatMap(
+                  aggregationType ->
+                      AggregatorFactory.getPartialAggregationTypes(aggregationType).stream())
+              .distinct()
+              .collect(Collectors.toList());
+      SeriesAggregateScanNode split =
+          new SeriesAggregateScanNode(
+              planNodeId,
+              handle.getSeriesPath(),
+              handle.getAllSensors(),
+              partialAggregations,
+              handle.getScanOrder(),
+              handle.getTimeFilter(),
+              handle.getGroupByTimeParameter());
+      split.setRegionReplicaSet(dataRegion);
+      return split;
+    }
+
+    /**
+     * Join the split sources of one DataRegion by a TimeJoinNode cloned from the original child. If
+     * the original child is a single SeriesAggregateScanNode, there is only one source in each
+     * DataRegion, which is returned directly.
+     */
+    private PlanNode joinSources(PlanNode child, List<PlanNode> sources) {
+      if (!(child instanceof TimeJoinNode)) {
+        return sources.get(0);
+      }
+      TimeJoinNode timeJoinNode = (TimeJoinNode) child.clone();
+      sources.forEach(timeJoinNode::addChild);
+      timeJoinNode.initOutputColumns();
+      return timeJoinNode;
+    }
+
     public PlanNode visit(PlanNode node, DistributionPlanContext context) {
       return node.accept(this, context);
     }
@@ -396,6 +602,134 @@ public class DistributionPlanner {
       return newNode;
     }
 
+    @Override
+    public PlanNode visitDeviceMerge(DeviceMergeNode node, NodeGroupContext context) {
+      DeviceMergeNode newNode = (DeviceMergeNode) node.clone();
+      List<PlanNode> visitedChildren = new ArrayList<>();
+      node.getChildren()
+          .forEach(
+              child -> {
+                visitedChildren.add(visit(child, context));
+              });
+
+      // The DataRegion of some children may be unknown, e.g. AggregateNode, and they stay with the
+      // DeviceMergeNode
+      List<PlanNode> childrenWithDataRegion =
+          visitedChildren.stream()
+              .filter(child -> context.getNodeDistribution(child.getPlanNodeId()).region != null)
+              .collect(Collectors.toList());
+      TRegionReplicaSet dataRegion =
+          childrenWithDataRegion.isEmpty()
+              ? null
+              : calculateDataRegionByChildren(childrenWithDataRegion, context);
+      NodeDistributionType distributionType =
+          childrenWithDataRegion.size() == visitedChildren.size()
+                  && nodeDistributionIsSame(visitedChildren, context)
+              ? NodeDistributionType.SAME_WITH_ALL_CHILDREN
+              : NodeDistributionType.SAME_WITH_SOME_CHILD;
+      context.putNodeDistribution(
+          newNode.getPlanNodeId(), new NodeDistribution(distributionType, dataRegion));
+
+      visitedChildren.forEach(
+          child -> {
+            TRegionReplicaSet childRegion =
+                context.getNodeDistribution(child.getPlanNodeId()).region;
+            if (childRegion != null && !childRegion.equals(dataRegion)) {
+              ExchangeNode exchangeNode =
+                  new ExchangeNode(context.queryContext.getQueryId().genPlanNodeId());
+              exchangeNode.setChild(child);
+              newNode.addChild(exchangeNode);
+            } else {
+              newNode.addChild(child);
+            }
+          });
+      newNode.initOutputColumns();
+      return newNode;
+    }
+
+    @Override
+    public PlanNode visitGroupByLevel(GroupByLevelNode node, NodeGroupContext context) {
+      GroupByLevelNode newNode = (GroupByLevelNode) node.clone();
+      List<PlanNode> visitedChildren = new ArrayList<>();
+      node.getChildren()
+          .forEach(
+              child -> {
+                visitedChildren.add(visit(child, context));
+              });
+
+      // The partial GroupByLevelNode runs in the same DataRegion with its child
+      if (visitedChildren.size() == 1) {
+        context.putNodeDistribution(
+            newNode.getPlanNodeId(),
+            new NodeDistribution(
+                NodeDistributionType.SAME_WITH_ALL_CHILDREN,
+                context.getNodeDistribution(visitedChildren.get(0).getPlanNodeId()).region));
+        newNode.addChild(visitedChildren.get(0));
+        newNode.initOutputColumns();
+        return newNode;
+      }
+
+      // The final GroupByLevelNode runs in one of the DataRegions of its children, and the partial
+      // results from the other DataRegions are transferred by ExchangeNode
+      TRegionReplicaSet dataRegion = calculateDataRegionByChildren(visitedChildren, context);
+      context.putNodeDistribution(
+          newNode.getPlanNodeId(),
+          new NodeDistribution(NodeDistributionType.SAME_WITH_SOME_CHILD, dataRegion));
+      visitedChildren.forEach(
+          child -> {
+            if (!dataRegion.equals(context.getNodeDistribution(child.getPlanNodeId()).region)) {
+              ExchangeNode exchangeNode =
+                  new ExchangeNode(context.queryContext.getQueryId().genPlanNodeId());
+              exchangeNode.setChild(child);
+              newNode.addChild(exchangeNode);
+            } else {
+              newNode.addChild(child);
+            }
+          });
+      newNode.initOutputColumns();
+      return newNode;
+    }
+
+    @Override
+    public PlanNode visitRowBasedSeriesAggregate(AggregateNode node, NodeGroupContext context) {
+      AggregateNode newNode = (AggregateNode) node.clone();
+      List<PlanNode> visitedChildren = new ArrayList<>();
+      node.getChildren()
+          .forEach(
+              child -> {
+                visitedChildren.add(visit(child, context));
+              });
+
+      // The AggregateNode runs in one of the DataRegions of its children, and the partial results
+      // from the other DataRegions are transferred by ExchangeNode. The columns of ExchangeNode are
+      // the same as its child, so the resolved output columns of the AggregateNode are kept.
+      List<PlanNode> childrenWithDataRegion =
+          visitedChildren.stream()
+              .filter(child -> context.getNodeDistribution(child.getPlanNodeId()).region != null)
+              .collect(Collectors.toList());
+      TRegionReplicaSet dataRegion =
+          childrenWithDataRegion.isEmpty()
+              ? null
+              : calculateDataRegionByChildren(childrenWithDataRegion, context);
+      context.putNodeDistribution(
+          newNode.getPlanNodeId(),
+          new NodeDistribution(NodeDistributionType.SAME_WITH_SOME_CHILD, dataRegion));
+      visitedChildren.forEach(
+          child -> {
+            TRegionReplicaSet childRegion =
+                context.getNodeDistribution(child.getPlanNodeId()).region;
+            if (childRegion != null && !childRegion.equals(dataRegion)) {
+              ExchangeNode exchangeNode =
+                  new ExchangeNode(context.queryContext.getQueryId().genPlanNodeId());
+              exchangeNode.setChild(child);
+              newNode.addChild(exchangeNode);
+            } else {
+              newNode.addChild(child);
+            }
+          });
+      return newNode;
+    }
+
     private TRegionReplicaSet calculateDataRegionByChildren(
         List<PlanNode> children, NodeGroupContext context) {
       // Step 1: calculate the count of children group by DataRegion.
@@ -35,8 +35,13 @@ import org.apache.iotdb.db.mpp.execution.SchemaDriver;
 import org.apache.iotdb.db.mpp.execution.SchemaDriverContext;
 import org.apache.iotdb.db.mpp.operator.Operator;
 import org.apache.iotdb.db.mpp.operator.OperatorContext;
+import org.apache.iotdb.db.mpp.operator.process.AggregateOperator;
+import org.apache.iotdb.db.mpp.operator.process.DeviceMergeOperator;
+import org.apache.iotdb.db.mpp.operator.process.GroupByLevelOperator;
 import org.apache.iotdb.db.mpp.operator.process.LimitOperator;
+import org.apache.iotdb.db.mpp.operator.process.SortOperator;
 import org.apache.iotdb.db.mpp.operator.process.TimeJoinOperator;
+import org.apache.iotdb.db.mpp.operator.process.aggregate.AggregatorFactory;
 import org.apache.iotdb.db.mpp.operator.process.merge.ColumnMerger;
 import org.apache.iotdb.db.mpp.operator.process.merge.SingleColumnMerger;
 import org.apache.iotdb.db.mpp.operator.schema.DevicesSchemaScanOperator;
@@ -72,6 +77,7 @@ import org.apache.iotdb.db.mpp.sql.statement.component.OrderBy;
 import org.apache.iotdb.tsfile.read.expression.IExpression;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -89,6 +95,8 @@ public class LocalExecutionPlanner {
   private static final DataBlockManager DATA_BLOCK_MANAGER =
       DataBlockService.getInstance().getDataBlockManager();
 
+  private static final String SORT_SPILL_FOLDER_NAME = "sort";
+
   public static LocalExecutionPlanner getInstance() {
     return InstanceHolder.INSTANCE;
   }
@@ -245,7 +253,22 @@ public class LocalExecutionPlanner {
 
     @Override
     public Operator visitDeviceMerge(DeviceMergeNode node, LocalExecutionPlanContext context) {
-      return super.visitDeviceMerge(node, context);
+      List<Operator> children =
+          node.getChildren().stream()
+              .map(child -> child.accept(this, context))
+              .collect(Collectors.toList());
+      OperatorContext operatorContext =
+          context.instanceContext.addOperatorContext(
+              context.getNextOperatorId(),
+              node.getPlanNodeId(),
+              DeviceMergeOperator.class.getSimpleName());
+      return new DeviceMergeOperator(
+          operatorContext,
+          children,
+          node.getDevices(),
+          node.getMergeOrder(),
+          node.getOutputColumnTypes(),
+          node.getOutputColumns());
     }
 
     @Override
@@ -269,7 +292,22 @@ public class LocalExecutionPlanner {
 
     @Override
     public Operator visitGroupByLevel(GroupByLevelNode node, LocalExecutionPlanContext context) {
-      return super.visitGroupByLevel(node, context);
+      List<Operator> children =
+          node.getChildren().stream()
+              .map(child -> child.accept(this, context))
+              .collect(Collectors.toList());
+      OperatorContext operatorContext =
+          context.instanceContext.addOperatorContext(
+              context.getNextOperatorId(),
+              node.getPlanNodeId(),
+              GroupByLevelOperator.class.getSimpleName());
+      return new GroupByLevelOperator(
+          operatorContext,
+          children,
+          node.getAggregateFuncList(),
+          node.getSeriesDataTypes(),
+          node.getOutputColumns(),
+          node.isPartial());
     }
 
     @Override
@@ -292,12 +330,44 @@ public class LocalExecutionPlanner {
     @Override
     public Operator visitRowBasedSeriesAggregate(
         AggregateNode node, LocalExecutionPlanContext context) {
-      return super.visitRowBasedSeriesAggregate(node, context);
+      if (node.getOutputColumns().isEmpty()) {
+        // the children output raw data instead of partial aggregation results
+        throw new UnsupportedOperationException(
+            "AggregateNode can only merge the partial aggregation results of its children");
+      }
+      List<Operator> children =
+          node.getChildren().stream()
+              .map(child -> child.accept(this, context))
+              .collect(Collectors.toList());
+      OperatorContext operatorContext =
+          context.instanceContext.addOperatorContext(
+              context.getNextOperatorId(),
+              node.getPlanNodeId(),
+              AggregateOperator.class.getSimpleName());
+      return new AggregateOperator(
+          operatorContext,
+          children,
+          AggregatorFactory.createAggregators(
+              node.getAggregationTypes(), node.getSeriesDataTypes(), node.getOutputColumns()));
     }
 
     @Override
     public Operator visitSort(SortNode node, LocalExecutionPlanContext context) {
-      return super.visitSort(node, context);
+      Operator child = node.getChildren().get(0).accept(this, context);
+      OperatorContext operatorContext =
+          context.instanceContext.addOperatorContext(
+              context.getNextOperatorId(),
+              node.getPlanNodeId(),
+              SortOperator.class.getSimpleName());
+      return new SortOperator(
+          operatorContext,
+          child,
+          node.getSortOrder(),
+          node.getOutputColumnTypes(),
+          DATA_BLOCK_MANAGER.getLocalMemoryManager().getQueryPool(),
+          IoTDBDescriptor.getInstance().getConfig().getQueryDir()
+              + File.separator
+              + SORT_SPILL_FOLDER_NAME);
     }
 
     @Override
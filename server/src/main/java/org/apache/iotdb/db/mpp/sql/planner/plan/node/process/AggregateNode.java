@@ -21,19 +21,19 @@ package org.apache.iotdb.db.mpp.sql.planner.plan.node.process;
 import org.apache.iotdb.db.metadata.path.PartialPath;
 import org.apache.iotdb.db.metadata.path.PathDeserializeUtil;
 import org.apache.iotdb.db.mpp.common.header.ColumnHeader;
+import org.apache.iotdb.db.mpp.operator.process.aggregate.AggregatorFactory;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNodeId;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNodeType;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanVisitor;
 import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.Aggregation;
 import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.GroupByTimeParameter;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.OutputColumn;
 import org.apache.iotdb.db.query.aggregation.AggregationType;
-import org.apache.iotdb.tsfile.exception.NotImplementedException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
-import com.google.common.collect.ImmutableList;
-
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -51,6 +51,10 @@ import java.util.stream.Collectors;
  * This node is used to aggregate required series from multiple sources. The source data will be
  * input as a TsBlock, it may be raw data or partial aggregation result. This node will output the
  * final series aggregated result represented by TsBlock.
+ *
+ * <p>For now, only partial aggregation results can be merged, see {@link AggregatorFactory}. For
+ * example, a SeriesAggregateScanNode whose series is in more than one data region is split into one
+ * partial SeriesAggregateScanNode for each data region, and their results are merged by this node.
  */
 public class AggregateNode extends ProcessNode {
 
@@ -71,7 +75,10 @@ public class AggregateNode extends ProcessNode {
   // column name and datatype of each output column
   private final List<ColumnHeader> outputColumnHeaders = new ArrayList<>();
 
-  private PlanNode child;
+  // indicate each output column should merge which partial result columns of which input TsBlock
+  private List<OutputColumn> outputColumns = new ArrayList<>();
+
+  private final List<PlanNode> children = new ArrayList<>();
 
   public AggregateNode(
       PlanNodeId id,
@@ -79,7 +86,9 @@ public class AggregateNode extends ProcessNode {
       Map<PartialPath, Set<AggregationType>> aggregateFuncMap,
       GroupByTimeParameter groupByTimeParameter) {
     super(id);
-    this.child = child;
+    if (child != null) {
+      this.children.add(child);
+    }
     this.aggregateFuncMap = aggregateFuncMap;
     this.groupByTimeParameter = groupByTimeParameter;
     for (Map.Entry<PartialPath, Set<AggregationType>> entry : aggregateFuncMap.entrySet()) {
@@ -94,19 +103,37 @@ public class AggregateNode extends ProcessNode {
     }
   }
 
+  private AggregateNode(
+      PlanNodeId id,
+      Map<PartialPath, Set<AggregationType>> aggregateFuncMap,
+      GroupByTimeParameter groupByTimeParameter,
+      List<ColumnHeader> outputColumnHeaders,
+      List<OutputColumn> outputColumns) {
+    super(id);
+    this.aggregateFuncMap = aggregateFuncMap;
+    this.groupByTimeParameter = groupByTimeParameter;
+    this.outputColumnHeaders.addAll(outputColumnHeaders);
+    this.outputColumns = outputColumns;
+  }
+
   @Override
   public List<PlanNode> getChildren() {
-    return ImmutableList.of(child);
+    return children;
   }
 
   @Override
   public void addChild(PlanNode child) {
-    this.child = child;
+    this.children.add(child);
   }
 
   @Override
   public PlanNode clone() {
-    throw new NotImplementedException("Clone of AggregateNode is not implemented");
+    return new AggregateNode(
+        getPlanNodeId(),
+        aggregateFuncMap,
+        groupByTimeParameter,
+        outputColumnHeaders,
+        outputColumns);
   }
 
   @Override
@@ -114,6 +141,79 @@ public class AggregateNode extends ProcessNode {
     return CHILD_COUNT_NO_LIMIT;
   }
 
+  public List<OutputColumn> getOutputColumns() {
+    return outputColumns;
+  }
+
+  /** @return the aggregation function of each output column */
+  public List<AggregationType> getAggregationTypes() {
+    return outputColumnHeaders.stream()
+        .map(AggregateNode::getAggregationType)
+        .collect(Collectors.toList());
+  }
+
+  /** @return the data type of the aggregated series of each output column */
+  public List<TSDataType> getSeriesDataTypes() {
+    return getOutputColumnTypes();
+  }
+
+  /**
+   * Resolve the partial result columns of every output column in all the children, so that the
+   * operator only needs to deal with the indexes. A child which has none of the partial result
+   * columns of an output column is skipped.
+   */
+  public void initOutputColumns() {
+    outputColumns = new ArrayList<>(outputColumnHeaders.size());
+    List<Map<ColumnHeader, Integer>> childColumnIndexes = new ArrayList<>(children.size());
+    for (PlanNode child : children) {
+      Map<ColumnHeader, Integer> columnIndexes = new HashMap<>();
+      List<ColumnHeader> childColumnHeaders = child.getOutputColumnHeaders();
+      for (int i = 0; i < childColumnHeaders.size(); i++) {
+        columnIndexes.putIfAbsent(childColumnHeaders.get(i), i);
+      }
+      childColumnIndexes.add(columnIndexes);
+    }
+
+    for (ColumnHeader columnHeader : outputColumnHeaders) {
+      List<AggregationType> partialTypes =
+          AggregatorFactory.getPartialAggregationTypes(getAggregationType(columnHeader));
+      List<InputLocation> sourceLocations = new ArrayList<>();
+      for (int tsBlockIndex = 0; tsBlockIndex < children.size(); tsBlockIndex++) {
+        List<InputLocation> partialLocations = new ArrayList<>(partialTypes.size());
+        for (AggregationType partialType : partialTypes) {
+          Integer valueColumnIndex =
+              childColumnIndexes
+                  .get(tsBlockIndex)
+                  .get(
+                      new ColumnHeader(
+                          columnHeader.getPathName(),
+                          partialType.name(),
+                          columnHeader.getColumnType()));
+          if (valueColumnIndex != null) {
+            partialLocations.add(new InputLocation(tsBlockIndex, valueColumnIndex));
+          }
+        }
+        if (partialLocations.size() == partialTypes.size()) {
+          sourceLocations.addAll(partialLocations);
+        } else if (!partialLocations.isEmpty()) {
+          throw new UnsupportedOperationException(
+              String.format(
+                  "%s can not be aggregated without the partial results %s",
+                  columnHeader.getColumnName(), partialTypes));
+        }
+      }
+      if (sourceLocations.isEmpty()) {
+        throw new UnsupportedOperationException(
+            "No partial result of " + columnHeader.getColumnName() + " in the children");
+      }
+      outputColumns.add(new OutputColumn(sourceLocations, false));
+    }
+  }
+
+  private static AggregationType getAggregationType(ColumnHeader columnHeader) {
+    return AggregationType.valueOf(columnHeader.getFunctionName().toUpperCase());
+  }
+
   @Override
   public List<ColumnHeader> getOutputColumnHeaders() {
     return outputColumnHeaders;
@@ -157,6 +257,14 @@ public class AggregateNode extends ProcessNode {
         byteBuffer.put(byteArrayOutputStream.toByteArray());
       }
     }
+    ReadWriteIOUtils.write(outputColumnHeaders.size(), byteBuffer);
+    for (ColumnHeader columnHeader : outputColumnHeaders) {
+      columnHeader.serialize(byteBuffer);
+    }
+    ReadWriteIOUtils.write(outputColumns.size(), byteBuffer);
+    for (OutputColumn outputColumn : outputColumns) {
+      outputColumn.serialize(byteBuffer);
+    }
   }
 
   public static AggregateNode deserialize(ByteBuffer byteBuffer) {
@@ -172,8 +280,19 @@ public class AggregateNode extends ProcessNode {
       }
       aggregateFuncMap.put(partialPath, aggregationTypes);
     }
+    int outputColumnHeadersSize = ReadWriteIOUtils.readInt(byteBuffer);
+    List<ColumnHeader> outputColumnHeaders = new ArrayList<>(outputColumnHeadersSize);
+    for (int i = 0; i < outputColumnHeadersSize; i++) {
+      outputColumnHeaders.add(ColumnHeader.deserialize(byteBuffer));
+    }
+    int outputColumnsSize = ReadWriteIOUtils.readInt(byteBuffer);
+    List<OutputColumn> outputColumns = new ArrayList<>(outputColumnsSize);
+    for (int i = 0; i < outputColumnsSize; i++) {
+      outputColumns.add(OutputColumn.deserialize(byteBuffer));
+    }
     PlanNodeId planNodeId = PlanNodeId.deserialize(byteBuffer);
-    return new AggregateNode(planNodeId, null, aggregateFuncMap, null);
+    return new AggregateNode(
+        planNodeId, aggregateFuncMap, null, outputColumnHeaders, outputColumns);
   }
 
   @Override
@@ -189,11 +308,13 @@ public class AggregateNode extends ProcessNode {
     AggregateNode that = (AggregateNode) o;
     return Objects.equals(groupByTimeParameter, that.groupByTimeParameter)
         && Objects.equals(aggregateFuncMap, that.aggregateFuncMap)
-        && Objects.equals(child, that.child);
+        && Objects.equals(outputColumnHeaders, that.outputColumnHeaders)
+        && Objects.equals(outputColumns, that.outputColumns)
+        && Objects.equals(children, that.children);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(groupByTimeParameter, aggregateFuncMap, child);
+    return Objects.hash(groupByTimeParameter, aggregateFuncMap, outputColumns, children);
   }
 }
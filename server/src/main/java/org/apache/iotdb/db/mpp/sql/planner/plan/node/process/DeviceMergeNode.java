@@ -25,6 +25,8 @@ import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNodeId;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNodeType;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanVisitor;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.OutputColumn;
 import org.apache.iotdb.db.mpp.sql.statement.component.OrderBy;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Pair;
@@ -61,6 +63,14 @@ public class DeviceMergeNode extends ProcessNode {
 
   private List<PlanNode> children;
 
+  // The device of each child, or null if the output of the child is already merged by device and
+  // contains the Device column, e.g. the DeviceMergeNode of a DataRegion.
+  private List<String> devices = new ArrayList<>();
+
+  // The input locations of each output column. It is calculated by initOutputColumns() after the
+  // children are decided.
+  private List<OutputColumn> outputColumns = new ArrayList<>();
+
   public DeviceMergeNode(PlanNodeId id) {
     super(id);
     this.children = new ArrayList<>();
@@ -80,11 +90,20 @@ public class DeviceMergeNode extends ProcessNode {
   @Override
   public void addChild(PlanNode child) {
     this.children.add(child);
+    // the devices are kept when the node is cloned with its children
+    if (devices.size() < children.size()) {
+      devices.add(null);
+    }
   }
 
   @Override
   public PlanNode clone() {
-    return new DeviceMergeNode(getPlanNodeId(), mergeOrder);
+    DeviceMergeNode node = new DeviceMergeNode(getPlanNodeId(), mergeOrder);
+    node.childDeviceNodeMap = this.childDeviceNodeMap;
+    node.outputColumnHeaders.addAll(this.outputColumnHeaders);
+    node.devices = new ArrayList<>(this.devices);
+    node.outputColumns = this.outputColumns;
+    return node;
   }
 
   @Override
@@ -94,10 +113,54 @@ public class DeviceMergeNode extends ProcessNode {
 
   public void addChildDeviceNode(String deviceName, PlanNode childNode) {
     this.childDeviceNodeMap.put(deviceName, childNode);
+    this.devices.add(deviceName);
     this.children.add(childNode);
     updateColumnHeaders(childNode);
   }
 
+  /** Add a child whose output is already merged by device, e.g. a DeviceMergeNode. */
+  public void addChildMergeNode(PlanNode childNode) {
+    this.devices.add(null);
+    this.children.add(childNode);
+    updateColumnHeaders(childNode);
+  }
+
+  /**
+   * Calculate the input locations of each output column. The location of the child whose output
+   * is already merged by device counts its Device column, which is its first value column.
+   */
+  public void initOutputColumns() {
+    Map<ColumnHeader, Integer> columnIndexes = new HashMap<>();
+    List<List<InputLocation>> sourceLocations = new ArrayList<>();
+    for (int i = 0; i < outputColumnHeaders.size(); i++) {
+      columnIndexes.put(outputColumnHeaders.get(i), i);
+      sourceLocations.add(new ArrayList<>());
+    }
+    for (int i = 0; i < children.size(); i++) {
+      List<ColumnHeader> childColumnHeaders = children.get(i).getOutputColumnHeaders();
+      int offset = devices.get(i) == null ? 1 : 0;
+      for (int j = 0; j < childColumnHeaders.size(); j++) {
+        Integer columnIndex =
+            columnIndexes.get(childColumnHeaders.get(j).replacePathWithMeasurement());
+        if (columnIndex != null) {
+          sourceLocations.get(columnIndex).add(new InputLocation(i, j + offset));
+        }
+      }
+    }
+    outputColumns = new ArrayList<>(sourceLocations.size());
+    for (List<InputLocation> locations : sourceLocations) {
+      outputColumns.add(new OutputColumn(locations, false));
+    }
+  }
+
+  public List<String> getDevices() {
+    return devices;
+  }
+
+  public List<OutputColumn> getOutputColumns() {
+    return outputColumns;
+  }
+
   private void updateColumnHeaders(PlanNode childNode) {
     List<ColumnHeader> childColumnHeaders = childNode.getOutputColumnHeaders();
     for (ColumnHeader columnHeader : childColumnHeaders) {
@@ -149,6 +212,14 @@ public class DeviceMergeNode extends ProcessNode {
     for (ColumnHeader columnHeader : outputColumnHeaders) {
       columnHeader.serialize(byteBuffer);
     }
+    ReadWriteIOUtils.write(devices.size(), byteBuffer);
+    for (String device : devices) {
+      ReadWriteIOUtils.write(device, byteBuffer);
+    }
+    ReadWriteIOUtils.write(outputColumns.size(), byteBuffer);
+    for (OutputColumn outputColumn : outputColumns) {
+      outputColumn.serialize(byteBuffer);
+    }
   }
 
   public static DeviceMergeNode deserialize(ByteBuffer byteBuffer) {
@@ -166,10 +237,22 @@ public class DeviceMergeNode extends ProcessNode {
     for (int i = 0; i < columnHeaderSize; i++) {
       columnHeaders.add(ColumnHeader.deserialize(byteBuffer));
     }
+    int deviceSize = ReadWriteIOUtils.readInt(byteBuffer);
+    List<String> devices = new ArrayList<>(deviceSize);
+    for (int i = 0; i < deviceSize; i++) {
+      devices.add(ReadWriteIOUtils.readString(byteBuffer));
+    }
+    int outputColumnSize = ReadWriteIOUtils.readInt(byteBuffer);
+    List<OutputColumn> outputColumns = new ArrayList<>(outputColumnSize);
+    for (int i = 0; i < outputColumnSize; i++) {
+      outputColumns.add(OutputColumn.deserialize(byteBuffer));
+    }
     PlanNodeId planNodeId = PlanNodeId.deserialize(byteBuffer);
     DeviceMergeNode deviceMergeNode = new DeviceMergeNode(planNodeId, orderBy);
     deviceMergeNode.childDeviceNodeMap = childDeviceNodeMap;
     deviceMergeNode.outputColumnHeaders.addAll(columnHeaders);
+    deviceMergeNode.devices = devices;
+    deviceMergeNode.outputColumns = outputColumns;
     return deviceMergeNode;
   }
 
@@ -197,11 +280,12 @@ public class DeviceMergeNode extends ProcessNode {
 
     DeviceMergeNode that = (DeviceMergeNode) o;
     return mergeOrder == that.mergeOrder
-        && Objects.equals(childDeviceNodeMap, that.childDeviceNodeMap);
+        && Objects.equals(childDeviceNodeMap, that.childDeviceNodeMap)
+        && Objects.equals(devices, that.devices);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(mergeOrder, childDeviceNodeMap);
+    return Objects.hash(mergeOrder, childDeviceNodeMap, devices);
   }
 }
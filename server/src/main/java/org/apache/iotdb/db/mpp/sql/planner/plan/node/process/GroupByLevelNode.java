@@ -20,22 +20,22 @@ package org.apache.iotdb.db.mpp.sql.planner.plan.node.process;
 
 import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.mpp.common.header.ColumnHeader;
+import org.apache.iotdb.db.mpp.operator.process.aggregate.AggregatorFactory;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNodeId;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNodeType;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanVisitor;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
 import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.OutputColumn;
 import org.apache.iotdb.db.query.aggregation.AggregationType;
-import org.apache.iotdb.tsfile.exception.NotImplementedException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
-import com.google.common.collect.ImmutableList;
-
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -54,6 +54,10 @@ import java.util.stream.Collectors;
  *
  * <p>If the group by level parameter is [0, 2], then these two columns will not belong to one
  * bucket. And the total buckets are `root.*.d1.s1` and `root.*.d2.s1`
+ *
+ * <p>If the node is partial, it runs in a data region and outputs the partial aggregation result of
+ * each bucket, which is merged by the final GroupByLevelNode. So only one column of each bucket is
+ * transferred instead of one column of each series.
  */
 @Deprecated // TODO: delete later
 public class GroupByLevelNode extends ProcessNode {
@@ -70,22 +74,37 @@ public class GroupByLevelNode extends ProcessNode {
   // overlapped situation
   private List<OutputColumn> outputColumns = new ArrayList<>();
 
-  // column name and datatype of each output column
-  private List<ColumnHeader> outputColumnHeaders;
+  // the grouped column header of each bucket
+  private List<ColumnHeader> groupedColumnHeaders;
+
+  // whether to output partial aggregation results, which are merged by the upstream node
+  private final boolean partial;
 
-  private PlanNode child;
+  private final List<PlanNode> children = new ArrayList<>();
 
   public GroupByLevelNode(
       PlanNodeId id,
       PlanNode child,
       int[] groupByLevels,
       Map<ColumnHeader, ColumnHeader> groupedPathMap) {
+    this(id, child, groupByLevels, groupedPathMap, false);
+  }
+
+  public GroupByLevelNode(
+      PlanNodeId id,
+      PlanNode child,
+      int[] groupByLevels,
+      Map<ColumnHeader, ColumnHeader> groupedPathMap,
+      boolean partial) {
     super(id);
-    this.child = child;
+    if (child != null) {
+      this.children.add(child);
+    }
     this.groupByLevels = groupByLevels;
     this.groupedPathMap = groupedPathMap;
-    this.outputColumnHeaders =
+    this.groupedColumnHeaders =
         groupedPathMap.values().stream().distinct().collect(Collectors.toList());
+    this.partial = partial;
   }
 
   public GroupByLevelNode(
@@ -95,26 +114,53 @@ public class GroupByLevelNode extends ProcessNode {
       List<AggregationType> aggregateFuncList,
       List<OutputColumn> outputColumns) {
     super(id);
-    this.child = child;
+    if (child != null) {
+      this.children.add(child);
+    }
     this.groupByLevels = groupByLevels;
     this.aggregateFuncList = aggregateFuncList;
     this.outputColumns = outputColumns;
+    this.partial = false;
     // TODO: init outputColumnHeaders
   }
 
+  private GroupByLevelNode(
+      PlanNodeId id,
+      int[] groupByLevels,
+      Map<ColumnHeader, ColumnHeader> groupedPathMap,
+      List<AggregationType> aggregateFuncList,
+      List<OutputColumn> outputColumns,
+      List<ColumnHeader> groupedColumnHeaders,
+      boolean partial) {
+    super(id);
+    this.groupByLevels = groupByLevels;
+    this.groupedPathMap = groupedPathMap;
+    this.aggregateFuncList = aggregateFuncList;
+    this.outputColumns = outputColumns;
+    this.groupedColumnHeaders = groupedColumnHeaders;
+    this.partial = partial;
+  }
+
   @Override
   public List<PlanNode> getChildren() {
-    return ImmutableList.of(child);
+    return children;
   }
 
   @Override
   public void addChild(PlanNode child) {
-    this.child = child;
+    this.children.add(child);
   }
 
   @Override
   public PlanNode clone() {
-    throw new NotImplementedException("Clone of GroupByLevelNode is not implemented");
+    return new GroupByLevelNode(
+        getPlanNodeId(),
+        groupByLevels,
+        groupedPathMap,
+        aggregateFuncList,
+        outputColumns,
+        groupedColumnHeaders,
+        partial);
   }
 
   @Override
@@ -126,21 +172,138 @@ public class GroupByLevelNode extends ProcessNode {
     return groupByLevels;
   }
 
+  public Map<ColumnHeader, ColumnHeader> getGroupedPathMap() {
+    return groupedPathMap;
+  }
+
+  public boolean isPartial() {
+    return partial;
+  }
+
+  public List<AggregationType> getAggregateFuncList() {
+    return aggregateFuncList;
+  }
+
+  public List<OutputColumn> getOutputColumns() {
+    return outputColumns;
+  }
+
+  /** @return the data type of the series of each bucket */
+  public List<TSDataType> getSeriesDataTypes() {
+    return groupedColumnHeaders.stream()
+        .map(ColumnHeader::getColumnType)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Resolve the bucket of every input column by groupedPathMap. The grouped column header is hashed
+   * to the index of the bucket, and for each bucket, the aggregation function and the input columns
+   * of its partial results in all the children are recorded, so that the operator only needs to
+   * deal with the indexes.
+   */
+  public void initOutputColumns() {
+    List<Map<ColumnHeader, Integer>> childColumnIndexes = new ArrayList<>(children.size());
+    for (PlanNode child : children) {
+      Map<ColumnHeader, Integer> columnIndexes = new HashMap<>();
+      List<ColumnHeader> childColumnHeaders = child.getOutputColumnHeaders();
+      for (int i = 0; i < childColumnHeaders.size(); i++) {
+        columnIndexes.putIfAbsent(childColumnHeaders.get(i), i);
+      }
+      childColumnIndexes.add(columnIndexes);
+    }
+
+    Map<ColumnHeader, Integer> bucketIndexes = new HashMap<>();
+    List<ColumnHeader> bucketHeaders = new ArrayList<>();
+    List<AggregationType> bucketAggregations = new ArrayList<>();
+    List<List<InputLocation>> bucketLocations = new ArrayList<>();
+    for (Map.Entry<ColumnHeader, ColumnHeader> entry : groupedPathMap.entrySet()) {
+      ColumnHeader rawHeader = entry.getKey();
+      Integer bucketIndex = bucketIndexes.get(entry.getValue());
+      if (bucketIndex == null) {
+        bucketIndex = bucketHeaders.size();
+        bucketIndexes.put(entry.getValue(), bucketIndex);
+        bucketHeaders.add(entry.getValue());
+        bucketAggregations.add(getAggregationType(rawHeader));
+        bucketLocations.add(new ArrayList<>());
+      }
+      List<AggregationType> partialTypes =
+          AggregatorFactory.getPartialAggregationTypes(bucketAggregations.get(bucketIndex));
+      for (int tsBlockIndex = 0; tsBlockIndex < children.size(); tsBlockIndex++) {
+        List<InputLocation> partialLocations = new ArrayList<>(partialTypes.size());
+        for (AggregationType partialType : partialTypes) {
+          Integer valueColumnIndex =
+              childColumnIndexes
+                  .get(tsBlockIndex)
+                  .get(
+                      new ColumnHeader(
+                          rawHeader.getPathName(), partialType.name(), rawHeader.getColumnType()));
+          if (valueColumnIndex != null) {
+            partialLocations.add(new InputLocation(tsBlockIndex, valueColumnIndex));
+          }
+        }
+        if (partialLocations.size() == partialTypes.size()) {
+          bucketLocations.get(bucketIndex).addAll(partialLocations);
+        } else if (!partialLocations.isEmpty()
+            || childColumnIndexes.get(tsBlockIndex).containsKey(rawHeader)) {
+          throw new UnsupportedOperationException(
+              String.format(
+                  "%s can not be grouped by level without the partial results %s",
+                  rawHeader.getColumnName(), partialTypes));
+        }
+      }
+    }
+
+    aggregateFuncList = new ArrayList<>();
+    outputColumns = new ArrayList<>();
+    groupedColumnHeaders = new ArrayList<>();
+    for (int i = 0; i < bucketHeaders.size(); i++) {
+      if (bucketLocations.get(i).isEmpty()) {
+        if (partial) {
+          // none of the series of this bucket is in current data region
+          continue;
+        }
+        throw new IllegalStateException(
+            "No input column for " + bucketHeaders.get(i).getColumnName());
+      }
+      aggregateFuncList.add(bucketAggregations.get(i));
+      outputColumns.add(new OutputColumn(bucketLocations.get(i), false));
+      groupedColumnHeaders.add(bucketHeaders.get(i));
+    }
+  }
+
+  private static AggregationType getAggregationType(ColumnHeader columnHeader) {
+    return AggregationType.valueOf(columnHeader.getFunctionName().toUpperCase());
+  }
+
   @Override
   public List<ColumnHeader> getOutputColumnHeaders() {
+    if (!partial) {
+      return groupedColumnHeaders;
+    }
+    List<ColumnHeader> outputColumnHeaders = new ArrayList<>();
+    for (ColumnHeader groupedColumnHeader : groupedColumnHeaders) {
+      for (AggregationType partialType :
+          AggregatorFactory.getPartialAggregationTypes(getAggregationType(groupedColumnHeader))) {
+        outputColumnHeaders.add(
+            new ColumnHeader(
+                groupedColumnHeader.getPathName(),
+                partialType.name(),
+                groupedColumnHeader.getColumnType()));
+      }
+    }
     return outputColumnHeaders;
   }
 
   @Override
   public List<String> getOutputColumnNames() {
-    return outputColumnHeaders.stream()
+    return getOutputColumnHeaders().stream()
         .map(ColumnHeader::getColumnName)
         .collect(Collectors.toList());
   }
 
   @Override
   public List<TSDataType> getOutputColumnTypes() {
-    return outputColumnHeaders.stream()
+    return getOutputColumnHeaders().stream()
         .map(ColumnHeader::getColumnType)
         .collect(Collectors.toList());
   }
@@ -165,6 +328,12 @@ public class GroupByLevelNode extends ProcessNode {
     for (OutputColumn outputColumn : outputColumns) {
       outputColumn.serialize(byteBuffer);
     }
+    // groupedPathMap is only used when planning, so it is not serialized
+    ReadWriteIOUtils.write(groupedColumnHeaders.size(), byteBuffer);
+    for (ColumnHeader groupedColumnHeader : groupedColumnHeaders) {
+      groupedColumnHeader.serialize(byteBuffer);
+    }
+    ReadWriteIOUtils.write(partial, byteBuffer);
   }
 
   public static GroupByLevelNode deserialize(ByteBuffer byteBuffer) {
@@ -183,8 +352,21 @@ public class GroupByLevelNode extends ProcessNode {
     for (int i = 0; i < outputColumnsSize; i++) {
       outputColumns.add(OutputColumn.deserialize(byteBuffer));
     }
+    int groupedColumnHeadersSize = ReadWriteIOUtils.readInt(byteBuffer);
+    List<ColumnHeader> groupedColumnHeaders = new ArrayList<>(groupedColumnHeadersSize);
+    for (int i = 0; i < groupedColumnHeadersSize; i++) {
+      groupedColumnHeaders.add(ColumnHeader.deserialize(byteBuffer));
+    }
+    boolean partial = ReadWriteIOUtils.readBool(byteBuffer);
     PlanNodeId planNodeId = PlanNodeId.deserialize(byteBuffer);
-    return new GroupByLevelNode(planNodeId, null, groupByLevels, aggregateFuncList, outputColumns);
+    return new GroupByLevelNode(
+        planNodeId,
+        groupByLevels,
+        null,
+        aggregateFuncList,
+        outputColumns,
+        groupedColumnHeaders,
+        partial);
   }
 
   @TestOnly
@@ -207,7 +389,8 @@ public class GroupByLevelNode extends ProcessNode {
     }
 
     GroupByLevelNode that = (GroupByLevelNode) o;
-    return Objects.equals(child, that.child)
+    return partial == that.partial
+        && Objects.equals(children, that.children)
         && Arrays.equals(groupByLevels, that.groupByLevels)
         && Objects.equals(aggregateFuncList, that.aggregateFuncList)
         && Objects.equals(outputColumns, that.outputColumns);
@@ -215,7 +398,7 @@ public class GroupByLevelNode extends ProcessNode {
 
   @Override
   public int hashCode() {
-    int result = Objects.hash(super.hashCode(), aggregateFuncList, outputColumns);
+    int result = Objects.hash(super.hashCode(), aggregateFuncList, outputColumns, partial);
     result = 31 * result + Arrays.hashCode(groupByLevels);
     return result;
   }
@@ -32,7 +32,6 @@ import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.Aggregation;
 import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.GroupByTimeParameter;
 import org.apache.iotdb.db.mpp.sql.statement.component.OrderBy;
 import org.apache.iotdb.db.query.aggregation.AggregationType;
-import org.apache.iotdb.tsfile.exception.NotImplementedException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
@@ -146,7 +145,17 @@ public class SeriesAggregateScanNode extends SourceNode {
 
   @Override
   public PlanNode clone() {
-    throw new NotImplementedException("clone of SeriesAggregateScanNode is not implemented");
+    SeriesAggregateScanNode node =
+        new SeriesAggregateScanNode(
+            getPlanNodeId(),
+            seriesPath,
+            allSensors,
+            aggregateFuncList,
+            scanOrder,
+            timeFilter,
+            groupByTimeParameter);
+    node.setRegionReplicaSet(regionReplicaSet);
+    return node;
   }
 
   @Override
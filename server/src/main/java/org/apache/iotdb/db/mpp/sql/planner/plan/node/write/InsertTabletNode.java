@@ -714,7 +714,6 @@ public class InsertTabletNode extends InsertNode implements WALEntryValue {
 
     int rows = buffer.getInt();
     rowCount = rows;
-    this.times = new long[rows];
     times = QueryDataSetUtils.readTimesFromBuffer(buffer, rows);
 
     boolean hasBitMaps = BytesUtils.byteToBool(buffer.get());
@@ -750,7 +749,6 @@ public class InsertTabletNode extends InsertNode implements WALEntryValue {
 
     int rows = stream.readInt();
     rowCount = rows;
-    this.times = new long[rows];
     times = QueryDataSetUtils.readTimesFromStream(stream, rows);
 
     boolean hasBitMaps = BytesUtils.byteToBool(stream.readByte());
@@ -24,6 +24,7 @@ import com.google.common.collect.ImmutableList;
 
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.Objects;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -88,4 +89,21 @@ public class OutputColumn {
     boolean overlapped = ReadWriteIOUtils.readBool(byteBuffer);
     return new OutputColumn(sourceLocations.build(), overlapped);
   }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    OutputColumn that = (OutputColumn) o;
+    return overlapped == that.overlapped && Objects.equals(sourceLocations, that.sourceLocations);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(sourceLocations, overlapped);
+  }
 }
@@ -632,7 +632,6 @@ public class InsertTabletPlan extends InsertPlan implements WALEntryValue {
 
     int rows = buffer.getInt();
     rowCount = rows;
-    this.times = new long[rows];
     times = QueryDataSetUtils.readTimesFromBuffer(buffer, rows);
 
     boolean hasBitMaps = BytesUtils.byteToBool(buffer.get());
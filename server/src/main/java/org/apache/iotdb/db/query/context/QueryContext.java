@@ -19,18 +19,21 @@
 
 package org.apache.iotdb.db.query.context;
 
+import org.apache.iotdb.db.engine.cache.ModificationIndexCache;
+import org.apache.iotdb.db.engine.modification.DeletionIntervalTree;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
+import org.apache.iotdb.db.engine.modification.ModificationIndex;
 import org.apache.iotdb.db.metadata.path.AlignedPath;
 import org.apache.iotdb.db.metadata.path.PartialPath;
 import org.apache.iotdb.db.query.control.QueryTimeManager;
 import org.apache.iotdb.tsfile.file.metadata.IChunkMetadata;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** QueryContext contains the shared information with in a query. */
 public class QueryContext {
@@ -39,14 +42,14 @@ public class QueryContext {
    * The outer key is the path of a ModificationFile, the inner key in the name of a timeseries and
    * the value is the Modifications of a timeseries in this file.
    */
-  private final Map<String, Map<String, List<Modification>>> filePathModCache =
+  private final Map<String, Map<String, DeletionIntervalTree>> filePathModCache =
       new ConcurrentHashMap<>();
   /**
-   * The key is the path of a ModificationFile and the value is all Modifications in this file. We
-   * use this field because each call of Modification.getModifications() return a copy of the
-   * Modifications, and we do not want it to create multiple copies within a query.
+   * The key is the path of a ModificationFile and the value is the index of all Modifications in
+   * this file. We keep the index got at the first time within a query, so that all series of the
+   * query see the same Modifications even if the file is appended concurrently.
    */
-  private final Map<String, List<Modification>> fileModCache = new HashMap<>();
+  private final Map<String, ModificationIndex> fileModCache = new ConcurrentHashMap<>();
 
   private long queryId;
 
@@ -69,6 +72,12 @@ public class QueryContext {
 
   private volatile boolean isInterrupted = false;
 
+  /** type of this query, used to classify the statistics of caches */
+  private String queryType = "query";
+
+  /** number of chunks this query has read through ChunkCache */
+  private final AtomicInteger loadedChunkNum = new AtomicInteger(0);
+
   public QueryContext() {}
 
   public QueryContext(long queryId) {
@@ -90,27 +99,7 @@ public class QueryContext {
    * them from 'modFile' and put then into the cache.
    */
   public List<Modification> getPathModifications(ModificationFile modFile, PartialPath path) {
-    Map<String, List<Modification>> fileModifications =
-        filePathModCache.computeIfAbsent(modFile.getFilePath(), k -> new ConcurrentHashMap<>());
-    return fileModifications.computeIfAbsent(
-        path.getFullPath(),
-        k -> {
-          List<Modification> allModifications = fileModCache.get(modFile.getFilePath());
-          if (allModifications == null) {
-            allModifications = (List<Modification>) modFile.getModifications();
-            fileModCache.put(modFile.getFilePath(), allModifications);
-          }
-          List<Modification> finalPathModifications = new ArrayList<>();
-          if (!allModifications.isEmpty()) {
-            allModifications.forEach(
-                modification -> {
-                  if (modification.getPath().matchFullPath(path)) {
-                    finalPathModifications.add(modification);
-                  }
-                });
-          }
-          return finalPathModifications;
-        });
+    return getPathDeletions(modFile, path).getModifications();
   }
 
   /**
@@ -126,6 +115,32 @@ public class QueryContext {
     return ans;
   }
 
+  /**
+   * Find the deletions of timeseries 'path' in 'modFile' organized by their time ranges. The index
+   * of 'modFile' is got from {@link ModificationIndexCache} at the first time within this query.
+   */
+  public DeletionIntervalTree getPathDeletions(ModificationFile modFile, PartialPath path) {
+    Map<String, DeletionIntervalTree> fileModifications =
+        filePathModCache.computeIfAbsent(modFile.getFilePath(), k -> new ConcurrentHashMap<>());
+    return fileModifications.computeIfAbsent(
+        path.getFullPath(),
+        k ->
+            fileModCache
+                .computeIfAbsent(
+                    modFile.getFilePath(), f -> ModificationIndexCache.getInstance().get(modFile))
+                .getDeletions(path));
+  }
+
+  /** Find the deletions of all aligned 'paths' in 'modFile' organized by their time ranges. */
+  public List<DeletionIntervalTree> getPathDeletions(ModificationFile modFile, AlignedPath path) {
+    int n = path.getMeasurementList().size();
+    List<DeletionIntervalTree> ans = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      ans.add(getPathDeletions(modFile, path.getPathWithMeasurement(i)));
+    }
+    return ans;
+  }
+
   public long getQueryId() {
     return queryId;
   }
@@ -192,6 +207,19 @@ public class QueryContext {
     return this;
   }
 
+  public String getQueryType() {
+    return queryType;
+  }
+
+  public QueryContext setQueryType(String queryType) {
+    this.queryType = queryType;
+    return this;
+  }
+
+  public int increaseAndGetLoadedChunkNum() {
+    return loadedChunkNum.incrementAndGet();
+  }
+
   public void setInterrupted(boolean interrupted) {
     isInterrupted = interrupted;
   }
@@ -20,14 +20,18 @@ package org.apache.iotdb.db.query.control;
 
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.fileSystem.FSType;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.UnClosedTsFileReader;
+import org.apache.iotdb.tsfile.read.reader.MmapTsFileInput;
 import org.apache.iotdb.tsfile.v2.read.TsFileSequenceReaderForV2;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -126,7 +130,12 @@ public class FileReaderManager {
       if (!isClosed) {
         tsFileReader = new UnClosedTsFileReader(filePath);
       } else {
-        tsFileReader = new TsFileSequenceReader(filePath);
+        // sealed files on local file system can be read through memory mapped regions
+        TSFileConfig tsFileConfig = TSFileDescriptor.getInstance().getConfig();
+        tsFileReader =
+            tsFileConfig.isEnableMmapRead() && tsFileConfig.getTSFileStorageFs() == FSType.LOCAL
+                ? new TsFileSequenceReader(new MmapTsFileInput(Paths.get(filePath)))
+                : new TsFileSequenceReader(filePath);
         if (tsFileReader.readVersionNumber() != TSFileConfig.VERSION_NUMBER) {
           tsFileReader.close();
           tsFileReader = new TsFileSequenceReaderForV2(filePath);
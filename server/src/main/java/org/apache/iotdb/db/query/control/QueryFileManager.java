@@ -129,6 +129,7 @@ public class QueryFileManager {
             tsFile,
             k -> {
               FileReaderManager.getInstance().increaseFileReaderReference(tsFile, isClosed);
+              tsFile.increaseAccessCount();
               return k;
             });
   }
@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.query.reader.chunk;
 
 import org.apache.iotdb.db.engine.cache.ChunkCache;
+import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.tsfile.file.metadata.AlignedChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.IChunkMetadata;
@@ -36,8 +37,17 @@ public class DiskAlignedChunkLoader implements IChunkLoader {
 
   private final boolean debug;
 
+  /** context of the query using this loader, null if unknown */
+  private final QueryContext context;
+
   public DiskAlignedChunkLoader(boolean debug) {
     this.debug = debug;
+    this.context = null;
+  }
+
+  public DiskAlignedChunkLoader(QueryContext context) {
+    this.debug = context.isDebug();
+    this.context = context;
   }
 
   @Override
@@ -52,15 +62,21 @@ public class DiskAlignedChunkLoader implements IChunkLoader {
   public IChunkReader getChunkReader(IChunkMetadata chunkMetaData, Filter timeFilter)
       throws IOException {
     AlignedChunkMetadata alignedChunkMetadata = (AlignedChunkMetadata) chunkMetaData;
-    Chunk timeChunk =
-        ChunkCache.getInstance()
-            .get((ChunkMetadata) alignedChunkMetadata.getTimeChunkMetadata(), debug);
+    // the time chunk and the value chunks are in the same chunk group, so they are read in batch
+    List<ChunkMetadata> chunkMetadataList = new ArrayList<>();
+    chunkMetadataList.add((ChunkMetadata) alignedChunkMetadata.getTimeChunkMetadata());
+    for (IChunkMetadata valueChunkMetadata : alignedChunkMetadata.getValueChunkMetadataList()) {
+      if (valueChunkMetadata != null) {
+        chunkMetadataList.add((ChunkMetadata) valueChunkMetadata);
+      }
+    }
+    List<Chunk> chunks = ChunkCache.getInstance().get(chunkMetadataList, context, debug);
+
+    Chunk timeChunk = chunks.get(0);
     List<Chunk> valueChunkList = new ArrayList<>();
+    int index = 1;
     for (IChunkMetadata valueChunkMetadata : alignedChunkMetadata.getValueChunkMetadataList()) {
-      valueChunkList.add(
-          valueChunkMetadata == null
-              ? null
-              : ChunkCache.getInstance().get((ChunkMetadata) valueChunkMetadata, debug));
+      valueChunkList.add(valueChunkMetadata == null ? null : chunks.get(index++));
     }
     return new AlignedChunkReader(timeChunk, valueChunkList, timeFilter);
   }
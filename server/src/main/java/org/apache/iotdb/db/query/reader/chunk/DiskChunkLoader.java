@@ -20,6 +20,7 @@
 package org.apache.iotdb.db.query.reader.chunk;
 
 import org.apache.iotdb.db.engine.cache.ChunkCache;
+import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.IChunkMetadata;
 import org.apache.iotdb.tsfile.read.common.Chunk;
@@ -35,13 +36,22 @@ public class DiskChunkLoader implements IChunkLoader {
 
   private final boolean debug;
 
+  /** context of the query using this loader, null if unknown */
+  private final QueryContext context;
+
   public DiskChunkLoader(boolean debug) {
     this.debug = debug;
+    this.context = null;
+  }
+
+  public DiskChunkLoader(QueryContext context) {
+    this.debug = context.isDebug();
+    this.context = context;
   }
 
   @Override
   public Chunk loadChunk(ChunkMetadata chunkMetaData) throws IOException {
-    return ChunkCache.getInstance().get(chunkMetaData, debug);
+    return getChunk(chunkMetaData);
   }
 
   @Override
@@ -52,8 +62,14 @@ public class DiskChunkLoader implements IChunkLoader {
   @Override
   public IChunkReader getChunkReader(IChunkMetadata chunkMetaData, Filter timeFilter)
       throws IOException {
-    Chunk chunk = ChunkCache.getInstance().get((ChunkMetadata) chunkMetaData, debug);
+    Chunk chunk = getChunk((ChunkMetadata) chunkMetaData);
     chunk.setFromOldFile(chunkMetaData.isFromOldTsFile());
     return new ChunkReader(chunk, timeFilter);
   }
+
+  private Chunk getChunk(ChunkMetadata chunkMetadata) throws IOException {
+    return context == null
+        ? ChunkCache.getInstance().get(chunkMetadata, debug)
+        : ChunkCache.getInstance().get(chunkMetadata, context);
+  }
 }
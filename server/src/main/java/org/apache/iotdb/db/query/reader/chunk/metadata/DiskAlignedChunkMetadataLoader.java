@@ -18,7 +18,7 @@
  */
 package org.apache.iotdb.db.query.reader.chunk.metadata;
 
-import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.DeletionIntervalTree;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.metadata.path.AlignedPath;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -61,19 +61,19 @@ public class DiskAlignedChunkMetadataLoader implements IChunkMetadataLoader {
         ((AlignedTimeSeriesMetadata) timeSeriesMetadata).getChunkMetadataList();
 
     // get all sub sensors' modifications
-    List<List<Modification>> pathModifications =
-        context.getPathModifications(resource.getModFile(), seriesPath);
+    List<DeletionIntervalTree> pathDeletions =
+        context.getPathDeletions(resource.getModFile(), seriesPath);
 
     if (context.isDebug()) {
       DEBUG_LOGGER.info(
           "Modifications size is {} for file Path: {} ",
-          pathModifications.size(),
+          pathDeletions.size(),
           resource.getTsFilePath());
-      pathModifications.forEach(c -> DEBUG_LOGGER.info(c.toString()));
+      pathDeletions.forEach(c -> DEBUG_LOGGER.info(c.getModifications().toString()));
     }
 
     // remove ChunkMetadata that have been deleted
-    QueryUtils.modifyAlignedChunkMetaData(alignedChunkMetadataList, pathModifications);
+    QueryUtils.modifyAlignedChunkMetaDataByDeletions(alignedChunkMetadataList, pathDeletions);
 
     if (context.isDebug()) {
       DEBUG_LOGGER.info("After modification Chunk meta data list is: ");
@@ -95,7 +95,7 @@ public class DiskAlignedChunkMetadataLoader implements IChunkMetadataLoader {
           if (chunkMetadata.needSetChunkLoader()) {
             chunkMetadata.setFilePath(resource.getTsFilePath());
             chunkMetadata.setClosed(resource.isClosed());
-            chunkMetadata.setChunkLoader(new DiskAlignedChunkLoader(context.isDebug()));
+            chunkMetadata.setChunkLoader(new DiskAlignedChunkLoader(context));
           }
         });
 
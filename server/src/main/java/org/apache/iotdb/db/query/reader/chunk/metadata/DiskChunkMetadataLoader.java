@@ -18,7 +18,7 @@
  */
 package org.apache.iotdb.db.query.reader.chunk.metadata;
 
-import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.DeletionIntervalTree;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.metadata.path.PartialPath;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -59,19 +59,19 @@ public class DiskChunkMetadataLoader implements IChunkMetadataLoader {
     List<IChunkMetadata> chunkMetadataList =
         ((TimeseriesMetadata) timeSeriesMetadata).getChunkMetadataList();
 
-    List<Modification> pathModifications =
-        context.getPathModifications(resource.getModFile(), seriesPath);
+    DeletionIntervalTree pathDeletions =
+        context.getPathDeletions(resource.getModFile(), seriesPath);
 
     if (context.isDebug()) {
       DEBUG_LOGGER.info(
           "Modifications size is {} for file Path: {} ",
-          pathModifications.size(),
+          pathDeletions.size(),
           resource.getTsFilePath());
-      pathModifications.forEach(c -> DEBUG_LOGGER.info(c.toString()));
+      pathDeletions.getModifications().forEach(c -> DEBUG_LOGGER.info(c.toString()));
     }
 
-    if (!pathModifications.isEmpty()) {
-      QueryUtils.modifyChunkMetaData(chunkMetadataList, pathModifications);
+    if (!pathDeletions.isEmpty()) {
+      QueryUtils.modifyChunkMetaData(chunkMetadataList, pathDeletions);
     }
 
     if (context.isDebug()) {
@@ -86,7 +86,7 @@ public class DiskChunkMetadataLoader implements IChunkMetadataLoader {
           if (chunkMetadata.needSetChunkLoader()) {
             chunkMetadata.setFilePath(resource.getTsFilePath());
             chunkMetadata.setClosed(resource.isClosed());
-            chunkMetadata.setChunkLoader(new DiskChunkLoader(context.isDebug()));
+            chunkMetadata.setChunkLoader(new DiskChunkLoader(context));
           }
         });
 
@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.db.rescon;
 
+import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
@@ -27,6 +28,9 @@ import org.apache.iotdb.tsfile.utils.Binary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
@@ -74,6 +78,16 @@ public class PrimitiveArrayManager {
 
   private static final AtomicLong TOTAL_ALLOCATION_REQUEST_COUNT = new AtomicLong(0);
 
+  /** size in byte of one off-heap time slab, which holds ARRAY_SIZE timestamps */
+  public static final long OFF_HEAP_TIME_ARRAY_BYTES = (long) ARRAY_SIZE * Long.BYTES;
+
+  /**
+   * Off-heap time slabs released by TVLists. Direct memory is expensive to allocate and is only
+   * reclaimed by GC, so released slabs are always kept here for reuse. Idle slabs are not accounted
+   * in SystemInfo, and there are never more of them than the budget allows to be in use.
+   */
+  private static final ArrayDeque<LongBuffer> POOLED_OFF_HEAP_TIME_ARRAYS = new ArrayDeque<>();
+
   static {
     init();
   }
@@ -266,8 +280,58 @@ public class PrimitiveArrayManager {
     }
   }
 
+  /**
+   * Whether a new TVList should store its time column off heap, which is decided by the config and
+   * the remaining off-heap budget in SystemInfo.
+   */
+  public static boolean shouldAllocateOffHeapTime() {
+    return CONFIG.isEnableOffHeapTVListTime()
+        && SystemInfo.getInstance().isOffHeapTVListTimeMemoryAvailable();
+  }
+
+  /**
+   * Get or allocate an off-heap slab of ARRAY_SIZE timestamps. The slab is accounted in SystemInfo
+   * until it is released, whether it is reused from the pool or newly allocated.
+   *
+   * @return the slab, or null if the off-heap budget is used up
+   */
+  public static LongBuffer allocateOffHeapTimeArray() {
+    if (!SystemInfo.getInstance().tryApplyOffHeapTVListTimeMemory(OFF_HEAP_TIME_ARRAY_BYTES)) {
+      return null;
+    }
+    LongBuffer array;
+    synchronized (POOLED_OFF_HEAP_TIME_ARRAYS) {
+      array = POOLED_OFF_HEAP_TIME_ARRAYS.poll();
+    }
+    if (array == null) {
+      array =
+          ByteBuffer.allocateDirect((int) OFF_HEAP_TIME_ARRAY_BYTES)
+              .order(ByteOrder.nativeOrder())
+              .asLongBuffer();
+    }
+    return array;
+  }
+
+  /** Bring back an off-heap time slab to the pool, it is no longer accounted in SystemInfo. */
+  public static void releaseOffHeapTimeArray(LongBuffer array) {
+    synchronized (POOLED_OFF_HEAP_TIME_ARRAYS) {
+      POOLED_OFF_HEAP_TIME_ARRAYS.add(array);
+    }
+    SystemInfo.getInstance().releaseOffHeapTVListTimeMemory(OFF_HEAP_TIME_ARRAY_BYTES);
+  }
+
+  @TestOnly
+  public static int getPooledOffHeapTimeArrayNum() {
+    synchronized (POOLED_OFF_HEAP_TIME_ARRAYS) {
+      return POOLED_OFF_HEAP_TIME_ARRAYS.size();
+    }
+  }
+
   public static void close() {
     init();
+    synchronized (POOLED_OFF_HEAP_TIME_ARRAYS) {
+      POOLED_OFF_HEAP_TIME_ARRAYS.clear();
+    }
   }
 
   /**
@@ -34,6 +34,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SystemInfo {
 
@@ -55,6 +56,9 @@ public class SystemInfo {
 
   private volatile boolean isEncodingFasterThanIo = true;
 
+  /** total size of off-heap slabs allocated for the time column of TVList, in byte */
+  private final AtomicLong offHeapTVListTimeMemCost = new AtomicLong(0);
+
   /**
    * Report current mem cost of storage group to system. Called when the memory of storage group
    * newly accumulates to IoTDBConfig.getStorageGroupSizeReportThreshold()
@@ -254,6 +258,41 @@ public class SystemInfo {
     REJECT_THERSHOLD = memorySizeForWrite * config.getRejectProportion();
   }
 
+  /**
+   * Account off-heap memory used by the time column of a TVList, if it does not exceed the limit.
+   *
+   * @return false if the limit would be exceeded, and nothing is accounted in this case
+   */
+  public boolean tryApplyOffHeapTVListTimeMemory(long size) {
+    long limit = config.getOffHeapTVListTimeMemory();
+    while (true) {
+      long current = offHeapTVListTimeMemCost.get();
+      if (current + size > limit) {
+        return false;
+      }
+      if (offHeapTVListTimeMemCost.compareAndSet(current, current + size)) {
+        return true;
+      }
+    }
+  }
+
+  /** Account off-heap memory of TVList time column that is no longer used by a TVList. */
+  public void releaseOffHeapTVListTimeMemory(long size) {
+    offHeapTVListTimeMemCost.addAndGet(-size);
+  }
+
+  /**
+   * Whether a new TVList can put its time column off heap. Every slab is checked against the limit
+   * again when it is allocated, see {@link #tryApplyOffHeapTVListTimeMemory(long)}.
+   */
+  public boolean isOffHeapTVListTimeMemoryAvailable() {
+    return offHeapTVListTimeMemCost.get() < config.getOffHeapTVListTimeMemory();
+  }
+
+  public long getOffHeapTVListTimeMemCost() {
+    return offHeapTVListTimeMemCost.get();
+  }
+
   public long getTotalMemTableSize() {
     return totalStorageGroupMemCost;
   }
@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.db.service;
 
+import org.apache.iotdb.db.engine.cache.MetadataCacheSnapshotService;
 import org.apache.iotdb.db.engine.compaction.CompactionTaskManager;
 import org.apache.iotdb.db.utils.MemUtils;
 
@@ -31,6 +32,8 @@ public class IoTDBShutdownHook extends Thread {
   @Override
   public void run() {
     CompactionTaskManager.getInstance().stop();
+    // keep hot keys of metadata cache for the next start
+    MetadataCacheSnapshotService.getInstance().stop();
     // close rocksdb if possible to avoid lose data
     IoTDB.configManager.clear();
     if (logger.isInfoEnabled()) {
@@ -20,6 +20,7 @@ package org.apache.iotdb.db.utils;
 
 import org.apache.iotdb.db.engine.cache.TimeSeriesMetadataCache;
 import org.apache.iotdb.db.engine.cache.TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey;
+import org.apache.iotdb.db.engine.compaction.CompactionWorkloadMonitor;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResourceStatus;
@@ -128,6 +129,9 @@ public class FileLoaderUtils {
       List<Modification> pathModifications =
           context.getPathModifications(resource.getModFile(), seriesPath);
       timeSeriesMetadata.setModified(!pathModifications.isEmpty());
+      if (!pathModifications.isEmpty()) {
+        CompactionWorkloadMonitor.getInstance().recordModsFileRead(resource);
+      }
       if (timeSeriesMetadata.getStatistics().getStartTime()
           > timeSeriesMetadata.getStatistics().getEndTime()) {
         return null;
@@ -234,6 +238,9 @@ public class FileLoaderUtils {
         }
       }
       alignedTimeSeriesMetadata.getTimeseriesMetadata().setModified(modified);
+      if (modified) {
+        CompactionWorkloadMonitor.getInstance().recordModsFileRead(resource);
+      }
     }
     return alignedTimeSeriesMetadata;
   }
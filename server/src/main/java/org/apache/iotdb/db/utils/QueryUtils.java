@@ -20,6 +20,7 @@
 package org.apache.iotdb.db.utils;
 
 import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.DeletionIntervalTree;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
@@ -71,7 +72,44 @@ public class QueryUtils {
         }
       }
     }
-    // remove chunks that are completely deleted
+    removeDeletedChunkMetaData(chunkMetaData);
+  }
+
+  /**
+   * The same as {@link #modifyChunkMetaData(List, List)}, but each chunk only visits the deletions
+   * overlapping its time range.
+   *
+   * @param chunkMetaData the original chunkMetaData.
+   * @param deletions all possible deletions organized by time ranges.
+   */
+  public static void modifyChunkMetaData(
+      List<? extends IChunkMetadata> chunkMetaData, DeletionIntervalTree deletions) {
+    if (deletions.isEmpty()) {
+      return;
+    }
+    for (IChunkMetadata metaData : chunkMetaData) {
+      applyOverlappedDeletions(metaData, deletions);
+    }
+    removeDeletedChunkMetaData(chunkMetaData);
+  }
+
+  private static void applyOverlappedDeletions(
+      IChunkMetadata metaData, DeletionIntervalTree deletions) {
+    // see modifyChunkMetaData(List, List) for the comparison of offsets
+    long chunkPosition =
+        metaData.isFromOldTsFile() ? metaData.getVersion() : metaData.getOffsetOfChunkHeader();
+    deletions.forEachOverlapped(
+        metaData.getStartTime(),
+        metaData.getEndTime(),
+        deletion -> {
+          if (deletion.getFileOffset() > chunkPosition) {
+            doModifyChunkMetaData(deletion, metaData);
+          }
+        });
+  }
+
+  // remove chunks that are completely deleted
+  private static void removeDeletedChunkMetaData(List<? extends IChunkMetadata> chunkMetaData) {
     chunkMetaData.removeIf(
         metaData -> {
           if (metaData.getDeleteIntervalList() != null) {
@@ -111,6 +149,29 @@ public class QueryUtils {
         }
       }
     }
+    removeDeletedAlignedChunkMetaData(chunkMetaData);
+  }
+
+  /**
+   * The same as {@link #modifyAlignedChunkMetaData(List, List)}, but each chunk only visits the
+   * deletions overlapping its time range.
+   */
+  public static void modifyAlignedChunkMetaDataByDeletions(
+      List<AlignedChunkMetadata> chunkMetaData, List<DeletionIntervalTree> deletions) {
+    for (AlignedChunkMetadata metaData : chunkMetaData) {
+      List<IChunkMetadata> valueChunkMetadataList = metaData.getValueChunkMetadataList();
+      // deal with each sub sensor
+      for (int i = 0; i < valueChunkMetadataList.size(); i++) {
+        IChunkMetadata v = valueChunkMetadataList.get(i);
+        if (v != null && !deletions.get(i).isEmpty()) {
+          applyOverlappedDeletions(v, deletions.get(i));
+        }
+      }
+    }
+    removeDeletedAlignedChunkMetaData(chunkMetaData);
+  }
+
+  private static void removeDeletedAlignedChunkMetaData(List<AlignedChunkMetadata> chunkMetaData) {
     // if all sub sensors' chunk metadata are deleted, then remove the aligned chunk metadata
     // otherwise, set the deleted chunk metadata of some sensors to null
     chunkMetaData.removeIf(
@@ -89,7 +89,7 @@ public class AlignedTVList extends TVList {
     int arrayIndex = rowCount / ARRAY_SIZE;
     int elementIndex = rowCount % ARRAY_SIZE;
     minTime = Math.min(minTime, timestamp);
-    timestamps.get(arrayIndex)[elementIndex] = timestamp;
+    setTime(arrayIndex, elementIndex, timestamp);
     for (int i = 0; i < values.size(); i++) {
       Object columnValue = columnIndexArray[i] < 0 ? null : value[columnIndexArray[i]];
       List<Object> columnValues = values.get(i);
@@ -264,6 +264,7 @@ public class AlignedTVList extends TVList {
     }
     AlignedTVList alignedTvList = new AlignedTVList(types);
     alignedTvList.timestamps = this.timestamps;
+    alignedTvList.offHeapTimestamps = this.offHeapTimestamps;
     alignedTvList.indices = this.indices;
     alignedTvList.values = values;
     alignedTvList.bitMaps = bitMaps;
@@ -280,7 +281,7 @@ public class AlignedTVList extends TVList {
     }
     List<Object> columnValue = new ArrayList<>();
     List<BitMap> columnBitMaps = new ArrayList<>();
-    for (int i = 0; i < timestamps.size(); i++) {
+    for (int i = 0; i < getTimeArrayNum(); i++) {
       switch (dataType) {
         case TEXT:
           columnValue.add(getPrimitiveArraysByType(TSDataType.TEXT));
@@ -313,7 +314,7 @@ public class AlignedTVList extends TVList {
 
       // Eg2: If rowCount=4 and ARRAY_SIZE=2, we need to supply 2 bitmaps for the extending column.
       // These 2 bitmaps should mark all bits to represent 4 nulls.
-      if (i == timestamps.size() - 1 && rowCount % ARRAY_SIZE != 0) {
+      if (i == getTimeArrayNum() - 1 && rowCount % ARRAY_SIZE != 0) {
         for (int j = 0; j < rowCount % ARRAY_SIZE; j++) {
           bitMap.mark(j);
         }
@@ -488,7 +489,7 @@ public class AlignedTVList extends TVList {
   private void set(int index, long timestamp, int value) {
     int arrayIndex = index / ARRAY_SIZE;
     int elementIndex = index % ARRAY_SIZE;
-    timestamps.get(arrayIndex)[elementIndex] = timestamp;
+    setTime(arrayIndex, elementIndex, timestamp);
     indices.get(arrayIndex)[elementIndex] = value;
   }
 
@@ -579,7 +580,7 @@ public class AlignedTVList extends TVList {
       sortedIndices =
           (int[][]) PrimitiveArrayManager.createDataListsByType(TSDataType.INT32, rowCount);
     }
-    sort(0, rowCount);
+    TVListSortEngine.sort(this);
     clearSortedValue();
     clearSortedTime();
     sorted = true;
@@ -750,7 +751,7 @@ public class AlignedTVList extends TVList {
       int internalRemaining = ARRAY_SIZE - elementIdx;
       if (internalRemaining >= inputRemaining) {
         // the remaining inputs can fit the last array, copy all remaining inputs into last array
-        System.arraycopy(time, idx, timestamps.get(arrayIdx), elementIdx, inputRemaining);
+        copyTime(time, idx, arrayIdx, elementIdx, inputRemaining);
         arrayCopy(value, idx, arrayIdx, elementIdx, inputRemaining, columnIndexArray);
         for (int i = 0; i < inputRemaining; i++) {
           indices.get(arrayIdx)[elementIdx + i] = rowCount;
@@ -768,7 +769,7 @@ public class AlignedTVList extends TVList {
       } else {
         // the remaining inputs cannot fit the last array, fill the last array and create a new
         // one and enter the next loop
-        System.arraycopy(time, idx, timestamps.get(arrayIdx), elementIdx, internalRemaining);
+        copyTime(time, idx, arrayIdx, elementIdx, internalRemaining);
         arrayCopy(value, idx, arrayIdx, elementIdx, internalRemaining, columnIndexArray);
         for (int i = 0; i < internalRemaining; i++) {
           indices.get(arrayIdx)[elementIdx + i] = rowCount;
@@ -56,7 +56,7 @@ public class BooleanTVList extends TVList {
     int arrayIndex = rowCount / ARRAY_SIZE;
     int elementIndex = rowCount % ARRAY_SIZE;
     minTime = Math.min(minTime, timestamp);
-    timestamps.get(arrayIndex)[elementIndex] = timestamp;
+    setTime(arrayIndex, elementIndex, timestamp);
     values.get(arrayIndex)[elementIndex] = value;
     rowCount++;
     if (sorted && rowCount > 1 && timestamp < getTime(rowCount - 2)) {
@@ -80,7 +80,7 @@ public class BooleanTVList extends TVList {
     }
     int arrayIndex = index / ARRAY_SIZE;
     int elementIndex = index % ARRAY_SIZE;
-    timestamps.get(arrayIndex)[elementIndex] = timestamp;
+    setTime(arrayIndex, elementIndex, timestamp);
     values.get(arrayIndex)[elementIndex] = value;
   }
 
@@ -110,7 +110,7 @@ public class BooleanTVList extends TVList {
       sortedValues =
           (boolean[][]) PrimitiveArrayManager.createDataListsByType(TSDataType.BOOLEAN, rowCount);
     }
-    sort(0, rowCount);
+    TVListSortEngine.sort(this);
     clearSortedValue();
     clearSortedTime();
     sorted = true;
@@ -229,16 +229,14 @@ public class BooleanTVList extends TVList {
       int internalRemaining = ARRAY_SIZE - elementIdx;
       if (internalRemaining >= inputRemaining) {
         // the remaining inputs can fit the last array, copy all remaining inputs into last array
-        System.arraycopy(
-            time, idx - timeIdxOffset, timestamps.get(arrayIdx), elementIdx, inputRemaining);
+        copyTime(time, idx - timeIdxOffset, arrayIdx, elementIdx, inputRemaining);
         System.arraycopy(value, idx, values.get(arrayIdx), elementIdx, inputRemaining);
         rowCount += inputRemaining;
         break;
       } else {
         // the remaining inputs cannot fit the last array, fill the last array and create a new
         // one and enter the next loop
-        System.arraycopy(
-            time, idx - timeIdxOffset, timestamps.get(arrayIdx), elementIdx, internalRemaining);
+        copyTime(time, idx - timeIdxOffset, arrayIdx, elementIdx, internalRemaining);
         System.arraycopy(value, idx, values.get(arrayIdx), elementIdx, internalRemaining);
         idx += internalRemaining;
         rowCount += internalRemaining;
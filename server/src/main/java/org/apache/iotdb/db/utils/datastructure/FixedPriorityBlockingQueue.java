@@ -21,11 +21,13 @@ package org.apache.iotdb.db.utils.datastructure;
 
 import com.google.common.collect.MinMaxPriorityQueue;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * This is a priority blocking queue with a maximum size. If the queue's size is larger than the max
@@ -109,6 +111,25 @@ public class FixedPriorityBlockingQueue<T> {
    *
    * @param hook
    */
+  /**
+   * Update the elements whose priorities may have changed and rebuild the queue, because the
+   * priority queue can not notice the changes of elements in it.
+   */
+  public void reorder(Consumer<T> updater) throws InterruptedException {
+    final ReentrantLock lock = this.lock;
+    lock.lockInterruptibly();
+    try {
+      List<T> elements = new ArrayList<>(queue);
+      queue.clear();
+      for (T element : elements) {
+        updater.accept(element);
+        queue.add(element);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
   public void regsitPollLastHook(PollLastHook<T> hook) {
     this.pollLastHookList.add(hook);
   }
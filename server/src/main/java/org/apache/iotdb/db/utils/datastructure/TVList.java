@@ -21,6 +21,7 @@ package org.apache.iotdb.db.utils.datastructure;
 
 import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.rescon.PrimitiveArrayManager;
+import org.apache.iotdb.db.rescon.SystemInfo;
 import org.apache.iotdb.db.wal.buffer.WALEntryValue;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
@@ -33,6 +34,7 @@ import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -48,6 +50,9 @@ public abstract class TVList implements WALEntryValue {
   // list of timestamp array, add 1 when expanded -> data point timestamp array
   // index relation: arrayIndex -> elementIndex
   protected List<long[]> timestamps;
+  // off-heap slabs of timestamp, not null only if the time column of this list is off heap, and
+  // timestamps is empty in this case
+  protected List<LongBuffer> offHeapTimestamps;
   protected int rowCount;
 
   protected long[][] sortedTimestamps;
@@ -62,6 +67,9 @@ public abstract class TVList implements WALEntryValue {
 
   public TVList() {
     timestamps = new ArrayList<>();
+    if (PrimitiveArrayManager.shouldAllocateOffHeapTime()) {
+      offHeapTimestamps = new ArrayList<>();
+    }
     rowCount = 0;
     minTime = Long.MAX_VALUE;
     referenceCount = new AtomicInteger();
@@ -122,9 +130,40 @@ public abstract class TVList implements WALEntryValue {
     }
     int arrayIndex = index / ARRAY_SIZE;
     int elementIndex = index % ARRAY_SIZE;
+    if (offHeapTimestamps != null) {
+      return offHeapTimestamps.get(arrayIndex).get(elementIndex);
+    }
     return timestamps.get(arrayIndex)[elementIndex];
   }
 
+  public boolean isOffHeapTime() {
+    return offHeapTimestamps != null;
+  }
+
+  protected int getTimeArrayNum() {
+    return offHeapTimestamps != null ? offHeapTimestamps.size() : timestamps.size();
+  }
+
+  protected void setTime(int arrayIndex, int elementIndex, long timestamp) {
+    if (offHeapTimestamps != null) {
+      offHeapTimestamps.get(arrayIndex).put(elementIndex, timestamp);
+    } else {
+      timestamps.get(arrayIndex)[elementIndex] = timestamp;
+    }
+  }
+
+  /** Copy timestamps into the time array of given arrayIndex, like System.arraycopy. */
+  protected void copyTime(long[] src, int srcPos, int arrayIndex, int elementIndex, int length) {
+    if (offHeapTimestamps != null) {
+      LongBuffer dest = offHeapTimestamps.get(arrayIndex);
+      for (int i = 0; i < length; i++) {
+        dest.put(elementIndex + i, src[srcPos + i]);
+      }
+    } else {
+      System.arraycopy(src, srcPos, timestamps.get(arrayIndex), elementIndex, length);
+    }
+  }
+
   public void putLong(long time, long value) {
     throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
   }
@@ -253,7 +292,12 @@ public abstract class TVList implements WALEntryValue {
   protected abstract void releaseLastValueArray();
 
   protected void releaseLastTimeArray() {
-    PrimitiveArrayManager.release(timestamps.remove(timestamps.size() - 1));
+    if (offHeapTimestamps != null) {
+      PrimitiveArrayManager.releaseOffHeapTimeArray(
+          offHeapTimestamps.remove(offHeapTimestamps.size() - 1));
+    } else {
+      PrimitiveArrayManager.release(timestamps.remove(timestamps.size() - 1));
+    }
   }
 
   public int delete(long lowerBound, long upperBound) {
@@ -273,7 +317,7 @@ public abstract class TVList implements WALEntryValue {
     if (newSize % ARRAY_SIZE != 0) {
       newArrayNum++;
     }
-    int oldArrayNum = timestamps.size();
+    int oldArrayNum = getTimeArrayNum();
     for (int releaseIdx = newArrayNum; releaseIdx < oldArrayNum; releaseIdx++) {
       releaseLastTimeArray();
       releaseLastValueArray();
@@ -282,8 +326,16 @@ public abstract class TVList implements WALEntryValue {
   }
 
   protected void cloneAs(TVList cloneList) {
-    for (long[] timestampArray : timestamps) {
-      cloneList.timestamps.add(cloneTime(timestampArray));
+    // the cloned list is only used by query and never cleared, so it always keeps time on heap
+    cloneList.offHeapTimestamps = null;
+    if (offHeapTimestamps != null) {
+      for (LongBuffer timestampArray : offHeapTimestamps) {
+        cloneList.timestamps.add(cloneTime(timestampArray));
+      }
+    } else {
+      for (long[] timestampArray : timestamps) {
+        cloneList.timestamps.add(cloneTime(timestampArray));
+      }
     }
     cloneList.rowCount = rowCount;
     cloneList.sorted = sorted;
@@ -308,6 +360,12 @@ public abstract class TVList implements WALEntryValue {
       }
       timestamps.clear();
     }
+    if (offHeapTimestamps != null) {
+      for (LongBuffer dataArray : offHeapTimestamps) {
+        PrimitiveArrayManager.releaseOffHeapTimeArray(dataArray);
+      }
+      offHeapTimestamps.clear();
+    }
   }
 
   protected void clearSortedTime() {
@@ -327,10 +385,36 @@ public abstract class TVList implements WALEntryValue {
   protected void checkExpansion() {
     if ((rowCount % ARRAY_SIZE) == 0) {
       expandValues();
+      if (offHeapTimestamps != null) {
+        LongBuffer timeArray = PrimitiveArrayManager.allocateOffHeapTimeArray();
+        if (timeArray != null) {
+          offHeapTimestamps.add(timeArray);
+          return;
+        }
+        moveTimeToHeap();
+      }
       timestamps.add((long[]) getPrimitiveArraysByType(TSDataType.INT64));
     }
   }
 
+  /**
+   * The off-heap budget is used up, so copy the time column into heap arrays. This list keeps its
+   * time column on heap from now on. The off-heap slabs may still be read by queries sharing them
+   * (see AlignedTVList#getTvListByColumnIndex), so they are not pooled for reuse but left to GC,
+   * and only their budget is given back.
+   */
+  private void moveTimeToHeap() {
+    for (LongBuffer offHeapArray : offHeapTimestamps) {
+      long[] array = (long[]) getPrimitiveArraysByType(TSDataType.INT64);
+      offHeapArray.duplicate().get(array);
+      timestamps.add(array);
+    }
+    SystemInfo.getInstance()
+        .releaseOffHeapTVListTimeMemory(
+            offHeapTimestamps.size() * PrimitiveArrayManager.OFF_HEAP_TIME_ARRAY_BYTES);
+    offHeapTimestamps = null;
+  }
+
   protected Object getPrimitiveArraysByType(TSDataType dataType) {
     return PrimitiveArrayManager.allocate(dataType);
   }
@@ -341,6 +425,12 @@ public abstract class TVList implements WALEntryValue {
     return cloneArray;
   }
 
+  protected long[] cloneTime(LongBuffer array) {
+    long[] cloneArray = new long[array.capacity()];
+    array.duplicate().get(cloneArray);
+    return cloneArray;
+  }
+
   protected void sort(int lo, int hi) {
     if (sorted) {
       return;
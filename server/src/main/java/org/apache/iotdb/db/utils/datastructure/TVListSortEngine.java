@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.iotdb.commons.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sort engine of TVList, which chooses a strategy by the size and disorder of the list:
+ *
+ * <ul>
+ *   <li>small lists are sorted by the in-place merge sort of TVList;
+ *   <li>lists composed of a few ascending runs are sorted by merging these runs;
+ *   <li>other lists are sorted by LSD radix sort on timestamps, large lists are split into
+ *       segments which are sorted in parallel and then merged.
+ * </ul>
+ *
+ * <p>Except for small lists, the engine sorts (timestamp, row index) pairs and then moves the rows
+ * with setToSorted/setFromSorted, so it works for all kinds of TVList. All strategies are stable,
+ * i.e., rows with the same timestamp keep their insertion order.
+ */
+final class TVListSortEngine {
+
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  /** lists with ascending runs no more than this are sorted by merging runs */
+  private static final int MAX_RUNS_TO_MERGE = 16;
+
+  /** min number of rows sorted by one fork-join task */
+  private static final int MIN_SEGMENT_SIZE = 1 << 16;
+
+  private static final int RADIX_BITS = 8;
+  private static final int RADIX = 1 << RADIX_BITS;
+  private static final int RADIX_PASSES = Long.SIZE / RADIX_BITS;
+
+  private static final ForkJoinPool SORT_POOL =
+      new ForkJoinPool(
+          CONFIG.getTvListSortParallelism(),
+          pool -> {
+            ForkJoinWorkerThread thread =
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(ThreadName.TVLIST_SORT_SERVICE.getName() + "-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+          },
+          null,
+          false);
+
+  private TVListSortEngine() {}
+
+  /**
+   * Sort all rows of the list. The sorting buffers (sortedTimestamps and sorted values) must have
+   * been prepared by the caller.
+   */
+  static void sort(TVList list) {
+    int rowCount = list.rowCount;
+    if (list.sorted || rowCount <= 1) {
+      return;
+    }
+    if (rowCount <= CONFIG.getTvListRadixSortThreshold()) {
+      list.sort(0, rowCount);
+      return;
+    }
+
+    long[] keys = new long[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      keys[i] = list.getTime(i);
+    }
+    int[] runBounds = findRuns(keys);
+    if (runBounds != null && runBounds.length == 2) {
+      // already sorted
+      return;
+    }
+    int[] rowIndices =
+        runBounds != null ? mergeRuns(keys, runBounds) : radixSortWithSegments(keys);
+
+    for (int i = 0; i < rowCount; i++) {
+      list.setToSorted(rowIndices[i], i);
+    }
+    for (int i = 0; i < rowCount; i++) {
+      list.setFromSorted(i, i);
+    }
+  }
+
+  /**
+   * Find ascending runs of keys.
+   *
+   * @return bounds of runs, run i is [bounds[i], bounds[i + 1]), or null if there are more than
+   *     MAX_RUNS_TO_MERGE runs
+   */
+  private static int[] findRuns(long[] keys) {
+    int[] bounds = new int[MAX_RUNS_TO_MERGE + 1];
+    int runNum = 0;
+    for (int i = 1; i < keys.length; i++) {
+      if (keys[i] < keys[i - 1]) {
+        if (++runNum == MAX_RUNS_TO_MERGE) {
+          return null;
+        }
+        bounds[runNum] = i;
+      }
+    }
+    runNum++;
+    int[] result = new int[runNum + 1];
+    System.arraycopy(bounds, 0, result, 0, runNum);
+    result[runNum] = keys.length;
+    return result;
+  }
+
+  /** Merge ascending runs pairwise, return row indices in sorted order. */
+  private static int[] mergeRuns(long[] keys, int[] runBounds) {
+    int[] indices = new int[keys.length];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = i;
+    }
+    int[] buffer = new int[keys.length];
+    int[] bounds = runBounds;
+    while (bounds.length > 2) {
+      int runNum = bounds.length - 1;
+      int[] newBounds = new int[(runNum + 1) / 2 + 1];
+      for (int i = 0; i < runNum; i += 2) {
+        newBounds[i / 2] = bounds[i];
+        if (i + 1 < runNum) {
+          mergeIndices(keys, indices, buffer, bounds[i], bounds[i + 1], bounds[i + 2]);
+        } else {
+          System.arraycopy(indices, bounds[i], buffer, bounds[i], bounds[i + 1] - bounds[i]);
+        }
+      }
+      newBounds[newBounds.length - 1] = keys.length;
+      int[] tmp = indices;
+      indices = buffer;
+      buffer = tmp;
+      bounds = newBounds;
+    }
+    return indices;
+  }
+
+  /** Stable merge of indices [lo, mid) and [mid, hi) ordered by keys[index] into dest. */
+  private static void mergeIndices(long[] keys, int[] src, int[] dest, int lo, int mid, int hi) {
+    int left = lo;
+    int right = mid;
+    int destIdx = lo;
+    while (left < mid && right < hi) {
+      dest[destIdx++] = keys[src[right]] < keys[src[left]] ? src[right++] : src[left++];
+    }
+    System.arraycopy(src, left, dest, destIdx, mid - left);
+    destIdx += mid - left;
+    System.arraycopy(src, right, dest, destIdx, hi - right);
+  }
+
+  /** Radix sort keys, return row indices in sorted order. Keys are sorted in place. */
+  private static int[] radixSortWithSegments(long[] keys) {
+    int length = keys.length;
+    int[] indices = new int[length];
+    for (int i = 0; i < length; i++) {
+      indices[i] = i;
+    }
+    long[] keyBuffer = new long[length];
+    int[] indexBuffer = new int[length];
+    int parallelism = CONFIG.getTvListSortParallelism();
+    int segmentSize = Math.max(MIN_SEGMENT_SIZE, (length + parallelism - 1) / parallelism);
+    SegmentSortTask task =
+        new SegmentSortTask(keys, indices, keyBuffer, indexBuffer, 0, length, segmentSize);
+    if (length <= segmentSize) {
+      task.compute();
+    } else {
+      SORT_POOL.invoke(task);
+    }
+    return indices;
+  }
+
+  /**
+   * Stable LSD radix sort of [lo, hi). Bytes that are the same for all keys are skipped. The sign
+   * bit is flipped so that negative timestamps are ordered before positive ones.
+   */
+  private static void radixSort(
+      long[] keys, int[] indices, long[] keyBuffer, int[] indexBuffer, int lo, int hi) {
+    int[][] counts = new int[RADIX_PASSES][RADIX];
+    for (int i = lo; i < hi; i++) {
+      long key = keys[i] ^ Long.MIN_VALUE;
+      for (int pass = 0; pass < RADIX_PASSES; pass++) {
+        counts[pass][(int) (key >>> (pass * RADIX_BITS)) & (RADIX - 1)]++;
+      }
+    }
+
+    long[] srcKeys = keys;
+    int[] srcIndices = indices;
+    long[] destKeys = keyBuffer;
+    int[] destIndices = indexBuffer;
+    int length = hi - lo;
+    for (int pass = 0; pass < RADIX_PASSES; pass++) {
+      int[] count = counts[pass];
+      int shift = pass * RADIX_BITS;
+      if (count[(int) ((srcKeys[lo] ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1)] == length) {
+        // all keys have the same byte in this pass
+        continue;
+      }
+      int offset = lo;
+      for (int bucket = 0; bucket < RADIX; bucket++) {
+        int bucketSize = count[bucket];
+        count[bucket] = offset;
+        offset += bucketSize;
+      }
+      for (int i = lo; i < hi; i++) {
+        int position = count[(int) ((srcKeys[i] ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1)]++;
+        destKeys[position] = srcKeys[i];
+        destIndices[position] = srcIndices[i];
+      }
+      long[] tmpKeys = srcKeys;
+      srcKeys = destKeys;
+      destKeys = tmpKeys;
+      int[] tmpIndices = srcIndices;
+      srcIndices = destIndices;
+      destIndices = tmpIndices;
+    }
+    if (srcKeys != keys) {
+      System.arraycopy(srcKeys, lo, keys, lo, length);
+      System.arraycopy(srcIndices, lo, indices, lo, length);
+    }
+  }
+
+  /** Sort [lo, hi) by radix sort if it is small enough, otherwise sort two halves then merge. */
+  private static class SegmentSortTask extends RecursiveAction {
+
+    private final long[] keys;
+    private final int[] indices;
+    private final long[] keyBuffer;
+    private final int[] indexBuffer;
+    private final int lo;
+    private final int hi;
+    private final int segmentSize;
+
+    private SegmentSortTask(
+        long[] keys,
+        int[] indices,
+        long[] keyBuffer,
+        int[] indexBuffer,
+        int lo,
+        int hi,
+        int segmentSize) {
+      this.keys = keys;
+      this.indices = indices;
+      this.keyBuffer = keyBuffer;
+      this.indexBuffer = indexBuffer;
+      this.lo = lo;
+      this.hi = hi;
+      this.segmentSize = segmentSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (hi - lo <= segmentSize) {
+        radixSort(keys, indices, keyBuffer, indexBuffer, lo, hi);
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+      invokeAll(
+          new SegmentSortTask(keys, indices, keyBuffer, indexBuffer, lo, mid, segmentSize),
+          new SegmentSortTask(keys, indices, keyBuffer, indexBuffer, mid, hi, segmentSize));
+      merge(mid);
+    }
+
+    /** Stable merge of sorted [lo, mid) and [mid, hi) through the buffers. */
+    private void merge(int mid) {
+      if (keys[mid - 1] <= keys[mid]) {
+        return;
+      }
+      int left = lo;
+      int right = mid;
+      int destIdx = lo;
+      while (left < mid && right < hi) {
+        if (keys[right] < keys[left]) {
+          keyBuffer[destIdx] = keys[right];
+          indexBuffer[destIdx++] = indices[right++];
+        } else {
+          keyBuffer[destIdx] = keys[left];
+          indexBuffer[destIdx++] = indices[left++];
+        }
+      }
+      System.arraycopy(keys, left, keyBuffer, destIdx, mid - left);
+      System.arraycopy(indices, left, indexBuffer, destIdx, mid - left);
+      destIdx += mid - left;
+      System.arraycopy(keys, right, keyBuffer, destIdx, hi - right);
+      System.arraycopy(indices, right, indexBuffer, destIdx, hi - right);
+      System.arraycopy(keyBuffer, lo, keys, lo, hi - lo);
+      System.arraycopy(indexBuffer, lo, indices, lo, hi - lo);
+    }
+  }
+}
@@ -22,9 +22,14 @@ import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.commons.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.service.metrics.Metric;
+import org.apache.iotdb.db.service.metrics.MetricsService;
+import org.apache.iotdb.db.service.metrics.Tag;
 import org.apache.iotdb.db.utils.MmapUtil;
 import org.apache.iotdb.db.wal.exception.WALNodeClosedException;
 import org.apache.iotdb.db.wal.utils.listener.WALFlushListener;
+import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
+import org.apache.iotdb.metrics.utils.MetricLevel;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,15 +43,19 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This buffer guarantees the concurrent safety and uses double buffers mechanism to accelerate
- * writes and avoid waiting for buffer syncing to disk.
+ * writes and avoid waiting for buffer syncing to disk. When more than one serialize lane is
+ * configured, WALEntries are serialized by lanes in parallel and serializeThread only copies the
+ * serialized bytes in queue order, so one fsync still covers the whole group of entries.
  */
 public class WALBuffer extends AbstractWALBuffer {
   private static final Logger logger = LoggerFactory.getLogger(WALBuffer.class);
@@ -75,10 +84,19 @@ public class WALBuffer extends AbstractWALBuffer {
   private final ExecutorService serializeThread;
   /** single thread to sync syncingBuffer to disk */
   private final ExecutorService syncBufferThread;
+  /** lanes to serialize WALEntry in parallel, empty iff only serializeThread serializes */
+  private final WALSerializeLane[] serializeLanes;
+  /** round-robin index to choose serialize lane */
+  private final AtomicInteger nextLaneIndex = new AtomicInteger();
 
   public WALBuffer(String identifier, String logDirectory) throws FileNotFoundException {
     super(identifier, logDirectory);
     allocateBuffers();
+    int laneNum = config.getWalBufferSerializeLaneNum();
+    serializeLanes = new WALSerializeLane[laneNum > 1 ? laneNum : 0];
+    for (int i = 0; i < serializeLanes.length; ++i) {
+      serializeLanes[i] = new WALSerializeLane(identifier, i);
+    }
     serializeThread =
         IoTDBThreadPoolFactory.newSingleThreadExecutor(
             ThreadName.WAL_SERIALIZE.getName() + "(node-" + identifier + ")");
@@ -108,7 +126,13 @@ public class WALBuffer extends AbstractWALBuffer {
       walEntry.getWalFlushListener().fail(new WALNodeClosedException(identifier));
       return;
     }
-    // just add this WALEntry to queue
+    // serialize this WALEntry by one lane in advance, its position in wal file is still decided by
+    // the blocking queue
+    if (serializeLanes.length > 0) {
+      int laneIndex = Math.floorMod(nextLaneIndex.getAndIncrement(), serializeLanes.length);
+      walEntry.setPreSerializedBytes(serializeLanes[laneIndex].submit(walEntry));
+    }
+    // add this WALEntry to queue
     try {
       walEntries.put(walEntry);
     } catch (InterruptedException e) {
@@ -196,7 +220,23 @@ public class WALBuffer extends AbstractWALBuffer {
     /** @return true if serialization is successful. */
     private boolean handleInfoEntry(WALEntry walEntry) {
       try {
-        walEntry.serialize(byteBufferVew);
+        if (walEntry.getPreSerializedBytes() != null) {
+          byteBufferVew.put(walEntry.getPreSerializedBytes().get());
+        } else {
+          walEntry.serialize(byteBufferVew);
+        }
+      } catch (InterruptedException e) {
+        logger.warn("Interrupted when waiting for WALEntry to be serialized by lane.");
+        walEntry.getWalFlushListener().fail(e);
+        Thread.currentThread().interrupt();
+        return false;
+      } catch (ExecutionException e) {
+        logger.error(
+            "Fail to serialize WALEntry to wal node-{}'s buffer, discard it.",
+            identifier,
+            e.getCause());
+        walEntry.getWalFlushListener().fail(e);
+        return false;
       } catch (Exception e) {
         logger.error(
             "Fail to serialize WALEntry to wal node-{}'s buffer, discard it.", identifier, e);
@@ -313,6 +353,7 @@ public class WALBuffer extends AbstractWALBuffer {
   private void fsyncWorkingBuffer(
       List<WALFlushListener> fsyncListeners, WALFlushListener rollWALFileWriterListener) {
     switchWorkingBufferToFlushing();
+    recordBatchSize(fsyncListeners.size());
     syncBufferThread.submit(new SyncBufferTask(true, fsyncListeners, rollWALFileWriterListener));
   }
 
@@ -373,8 +414,10 @@ public class WALBuffer extends AbstractWALBuffer {
 
       // force os cache to the storage device
       if (forceFlag) {
+        long startTime = System.nanoTime();
         try {
           currentWALFileWriter.force();
+          recordFsyncCost(System.nanoTime() - startTime);
         } catch (IOException e) {
           logger.error(
               "Fail to fsync wal node-{}'s log writer, change system mode to read-only.",
@@ -429,6 +472,39 @@ public class WALBuffer extends AbstractWALBuffer {
   }
   // endregion
 
+  // region metrics
+  private void recordBatchSize(int batchSize) {
+    if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
+      MetricsService.getInstance()
+          .getMetricManager()
+          .histogram(
+              batchSize,
+              Metric.QUANTITY.toString(),
+              MetricLevel.IMPORTANT,
+              Tag.NAME.toString(),
+              "wal_batch_size",
+              Tag.TYPE.toString(),
+              "node-" + identifier);
+    }
+  }
+
+  private void recordFsyncCost(long costInNanos) {
+    if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
+      MetricsService.getInstance()
+          .getMetricManager()
+          .timer(
+              costInNanos,
+              TimeUnit.NANOSECONDS,
+              Metric.COST_TASK.toString(),
+              MetricLevel.IMPORTANT,
+              Tag.NAME.toString(),
+              "wal_fsync",
+              Tag.TYPE.toString(),
+              "node-" + identifier);
+    }
+  }
+  // endregion
+
   @Override
   public void close() {
     isClosed = true;
@@ -438,6 +514,12 @@ public class WALBuffer extends AbstractWALBuffer {
       walEntries.add(new SignalWALEntry(SignalWALEntry.SignalType.CLOSE_SIGNAL));
       shutdownThread(serializeThread, ThreadName.WAL_SERIALIZE);
     }
+    // serializeThread may wait for lanes, so close lanes after it
+    if (serializeLanes != null) {
+      for (WALSerializeLane serializeLane : serializeLanes) {
+        serializeLane.close();
+      }
+    }
     if (syncBufferThread != null) {
       shutdownThread(syncBufferThread, ThreadName.WAL_SYNC);
     }
@@ -37,6 +37,7 @@ import org.apache.iotdb.db.wal.utils.listener.WALFlushListener;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.Future;
 
 /**
  * WALEntry is the basic element of .wal file, including type, memTable id, and specific
@@ -62,6 +63,8 @@ public class WALEntry implements SerializedSize {
    * deserialized from .wal file
    */
   private final WALFlushListener walFlushListener;
+  /** bytes serialized in advance by {@link WALSerializeLane}, null if not serialized by lanes */
+  private Future<byte[]> preSerializedBytes;
 
   public WALEntry(int memTableId, WALEntryValue value) {
     this(memTableId, value, config.getWalMode() == WALMode.SYNC);
@@ -202,6 +205,14 @@ public class WALEntry implements SerializedSize {
     return walFlushListener;
   }
 
+  Future<byte[]> getPreSerializedBytes() {
+    return preSerializedBytes;
+  }
+
+  void setPreSerializedBytes(Future<byte[]> preSerializedBytes) {
+    this.preSerializedBytes = preSerializedBytes;
+  }
+
   public boolean isSignal() {
     return false;
   }
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.wal.buffer;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.commons.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.service.metrics.Metric;
+import org.apache.iotdb.db.service.metrics.MetricsService;
+import org.apache.iotdb.db.service.metrics.Tag;
+import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
+import org.apache.iotdb.metrics.utils.MetricLevel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One serialize lane of {@link WALBuffer}. Each lane owns a thread and a reusable heap buffer, and
+ * serializes WALEntry in advance so that the serializeThread of WALBuffer only needs to copy bytes
+ * into its working buffer. The order of WALEntries in .wal file is still decided by the order of
+ * WALBuffer's blocking queue, so lanes don't change the file format.
+ */
+class WALSerializeLane {
+  private static final Logger logger = LoggerFactory.getLogger(WALSerializeLane.class);
+
+  /** identifier of this lane, like node-xxx-lane-xxx */
+  private final String identifier;
+  /** single thread to serialize WALEntry of this lane */
+  private final ExecutorService serializeThread;
+  /** reusable buffer view, only used by serializeThread */
+  private final GrowableByteBufferView byteBufferView =
+      new GrowableByteBufferView(IoTDBDescriptor.getInstance().getConfig().getWalBufferEntrySize());
+
+  WALSerializeLane(String nodeIdentifier, int laneId) {
+    this.identifier = "node-" + nodeIdentifier + "-lane-" + laneId;
+    this.serializeThread =
+        IoTDBThreadPoolFactory.newSingleThreadExecutor(
+            ThreadName.WAL_SERIALIZE_LANE.getName() + "(" + identifier + ")");
+  }
+
+  /** Serialize WALEntry asynchronously, the returned future holds the serialized bytes. */
+  Future<byte[]> submit(WALEntry walEntry) {
+    return serializeThread.submit(() -> serialize(walEntry));
+  }
+
+  private byte[] serialize(WALEntry walEntry) {
+    long startTime = System.nanoTime();
+    byteBufferView.clear();
+    walEntry.serialize(byteBufferView);
+    byte[] bytes = byteBufferView.toByteArray();
+    byteBufferView.shrink();
+    if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
+      MetricsService.getInstance()
+          .getMetricManager()
+          .timer(
+              System.nanoTime() - startTime,
+              TimeUnit.NANOSECONDS,
+              Metric.COST_TASK.toString(),
+              MetricLevel.IMPORTANT,
+              Tag.NAME.toString(),
+              "wal_serialize_lane",
+              Tag.TYPE.toString(),
+              identifier);
+      MetricsService.getInstance()
+          .getMetricManager()
+          .count(
+              bytes.length,
+              Metric.DATA_WRITTEN.toString(),
+              MetricLevel.IMPORTANT,
+              Tag.NAME.toString(),
+              "wal_serialize_lane",
+              Tag.TYPE.toString(),
+              identifier);
+    }
+    return bytes;
+  }
+
+  void close() {
+    serializeThread.shutdown();
+    try {
+      if (!serializeThread.awaitTermination(30, TimeUnit.SECONDS)) {
+        logger.warn("Waiting wal serialize lane {} to be terminated is timeout", identifier);
+      }
+    } catch (InterruptedException e) {
+      logger.warn("Wal serialize lane {} still doesn't exit after 30s", identifier);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * This view doubles its heap buffer when there is no enough space, and drops the grown buffer
+   * after the oversized entry is serialized.
+   */
+  private static class GrowableByteBufferView implements IWALByteBufferView {
+    private final int initialCapacity;
+    private ByteBuffer buffer;
+
+    private GrowableByteBufferView(int initialCapacity) {
+      this.initialCapacity = Math.max(initialCapacity, Long.BYTES);
+      this.buffer = ByteBuffer.allocate(this.initialCapacity);
+    }
+
+    private void clear() {
+      buffer.clear();
+    }
+
+    /** A rare oversized entry should not make the lane keep a large buffer forever. */
+    private void shrink() {
+      if (buffer.capacity() > initialCapacity) {
+        buffer = ByteBuffer.allocate(initialCapacity);
+      }
+    }
+
+    private byte[] toByteArray() {
+      byte[] bytes = new byte[buffer.position()];
+      System.arraycopy(buffer.array(), 0, bytes, 0, bytes.length);
+      return bytes;
+    }
+
+    private void ensureEnoughSpace(int bytesNum) {
+      if (buffer.remaining() >= bytesNum) {
+        return;
+      }
+      int newCapacity = buffer.capacity();
+      while (newCapacity - buffer.position() < bytesNum) {
+        newCapacity <<= 1;
+      }
+      ByteBuffer newBuffer = ByteBuffer.allocate(newCapacity);
+      buffer.flip();
+      newBuffer.put(buffer);
+      buffer = newBuffer;
+    }
+
+    @Override
+    public void put(byte b) {
+      ensureEnoughSpace(Byte.BYTES);
+      buffer.put(b);
+    }
+
+    @Override
+    public void put(byte[] src) {
+      ensureEnoughSpace(src.length);
+      buffer.put(src);
+    }
+
+    @Override
+    public void putChar(char value) {
+      ensureEnoughSpace(Character.BYTES);
+      buffer.putChar(value);
+    }
+
+    @Override
+    public void putShort(short value) {
+      ensureEnoughSpace(Short.BYTES);
+      buffer.putShort(value);
+    }
+
+    @Override
+    public void putInt(int value) {
+      ensureEnoughSpace(Integer.BYTES);
+      buffer.putInt(value);
+    }
+
+    @Override
+    public void putLong(long value) {
+      ensureEnoughSpace(Long.BYTES);
+      buffer.putLong(value);
+    }
+
+    @Override
+    public void putFloat(float value) {
+      ensureEnoughSpace(Float.BYTES);
+      buffer.putFloat(value);
+    }
+
+    @Override
+    public void putDouble(double value) {
+      ensureEnoughSpace(Double.BYTES);
+      buffer.putDouble(value);
+    }
+  }
+}
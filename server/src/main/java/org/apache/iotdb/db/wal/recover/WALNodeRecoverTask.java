@@ -18,26 +18,38 @@
  */
 package org.apache.iotdb.db.wal.recover;
 
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.service.metrics.Metric;
+import org.apache.iotdb.db.service.metrics.MetricsService;
+import org.apache.iotdb.db.service.metrics.Tag;
 import org.apache.iotdb.db.utils.FileUtils;
 import org.apache.iotdb.db.wal.buffer.WALEntry;
 import org.apache.iotdb.db.wal.checkpoint.MemTableInfo;
 import org.apache.iotdb.db.wal.io.WALReader;
 import org.apache.iotdb.db.wal.io.WALWriter;
 import org.apache.iotdb.db.wal.recover.file.UnsealedTsFileRecoverPerformer;
+import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
+import org.apache.iotdb.metrics.utils.MetricLevel;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
 
 /** This task is responsible for the recovery of one wal node. */
 public class WALNodeRecoverTask implements Runnable {
   private static final Logger logger = LoggerFactory.getLogger(WALNodeRecoverTask.class);
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
   private static final WALRecoverManager walRecoverManger = WALRecoverManager.getInstance();
 
   /** this directory store one wal node's .wal and .checkpoint files */
@@ -62,6 +74,9 @@ public class WALNodeRecoverTask implements Runnable {
       recoverInfoFromCheckpoints();
       recoverTsFiles();
     } catch (Exception e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
       for (UnsealedTsFileRecoverPerformer recoverPerformer : memTableId2RecoverPerformer.values()) {
         recoverPerformer.getRecoverListener().fail(e);
       }
@@ -101,7 +116,7 @@ public class WALNodeRecoverTask implements Runnable {
     }
   }
 
-  private void recoverTsFiles() {
+  private void recoverTsFiles() throws InterruptedException {
     if (memTableId2RecoverPerformer.isEmpty()) {
       return;
     }
@@ -122,36 +137,128 @@ public class WALNodeRecoverTask implements Runnable {
     }
     Arrays.sort(
         walFiles, Comparator.comparingInt(file -> WALWriter.parseVersionId(file.getName())));
-    // read .wal files and redo logs
-    for (File walFile : walFiles) {
-      try (WALReader walReader = new WALReader(walFile)) {
-        while (walReader.hasNext()) {
-          WALEntry walEntry = walReader.next();
-          if (!memTableId2Info.containsKey(walEntry.getMemTableId())) {
-            continue;
-          }
+    Map<Integer, WALRedoLane> memTableId2RedoLane = createRedoLanes();
+    boolean redoFinished = false;
+    try {
+      // read .wal files and redo logs
+      for (int i = 0; i < walFiles.length; i++) {
+        File walFile = walFiles[i];
+        long entryNum = 0;
+        try (WALReader walReader = new WALReader(walFile)) {
+          while (walReader.hasNext()) {
+            WALEntry walEntry = walReader.next();
+            if (!memTableId2Info.containsKey(walEntry.getMemTableId())) {
+              continue;
+            }
 
-          UnsealedTsFileRecoverPerformer recoverPerformer =
-              memTableId2RecoverPerformer.get(walEntry.getMemTableId());
-          if (recoverPerformer != null) {
-            recoverPerformer.redoLog(walEntry);
-          } else {
-            logger.warn(
-                "Fail to find TsFile recover performer for wal entry in TsFile {}", walFile);
+            UnsealedTsFileRecoverPerformer recoverPerformer =
+                memTableId2RecoverPerformer.get(walEntry.getMemTableId());
+            if (recoverPerformer == null) {
+              logger.warn(
+                  "Fail to find TsFile recover performer for wal entry in TsFile {}", walFile);
+            } else if (memTableId2RedoLane.isEmpty()) {
+              recoverPerformer.redoLog(walEntry);
+            } else {
+              memTableId2RedoLane
+                  .get(walEntry.getMemTableId())
+                  .redo(recoverPerformer, walEntry, walFile);
+            }
+            entryNum++;
           }
+        } catch (InterruptedException e) {
+          throw e;
+        } catch (Exception e) {
+          logger.warn("Fail to read wal logs from {}, skip them", walFile, e);
         }
-      } catch (Exception e) {
-        logger.warn("Fail to read wal logs from {}, skip them", walFile, e);
+        recordProgress(i + 1, walFiles.length, entryNum);
       }
-    }
-    // end recovering all recover performers
-    for (UnsealedTsFileRecoverPerformer recoverPerformer : memTableId2RecoverPerformer.values()) {
-      try {
-        recoverPerformer.endRecovery();
-        recoverPerformer.getRecoverListener().succeed();
-      } catch (Exception e) {
-        recoverPerformer.getRecoverListener().fail(e);
+      // end recovering all recover performers
+      for (Map.Entry<Integer, UnsealedTsFileRecoverPerformer> entry :
+          memTableId2RecoverPerformer.entrySet()) {
+        UnsealedTsFileRecoverPerformer recoverPerformer = entry.getValue();
+        if (!memTableId2RedoLane.isEmpty()) {
+          memTableId2RedoLane.get(entry.getKey()).endRecovery(recoverPerformer);
+          continue;
+        }
+        try {
+          recoverPerformer.endRecovery();
+          recoverPerformer.getRecoverListener().succeed();
+        } catch (Exception e) {
+          recoverPerformer.getRecoverListener().fail(e);
+        }
       }
+      redoFinished = true;
+    } finally {
+      for (WALRedoLane redoLane : new HashSet<>(memTableId2RedoLane.values())) {
+        if (redoFinished) {
+          redoLane.close();
+        } else {
+          redoLane.abort();
+        }
+      }
+    }
+  }
+
+  /**
+   * Spread TsFiles over redo lanes, so that different TsFiles are redone in parallel. TsFiles of
+   * one data region may be redone concurrently too, since they have separate memTables and the id
+   * table of the data region is thread-safe.
+   *
+   * @return memTable id -> redo lane, or empty map when logs should be redone by current thread
+   */
+  private Map<Integer, WALRedoLane> createRedoLanes() {
+    int laneNum =
+        Math.min(config.getWalRecoverRedoThreadNum(), memTableId2RecoverPerformer.size());
+    Map<Integer, WALRedoLane> memTableId2RedoLane = new HashMap<>();
+    if (laneNum <= 1) {
+      return memTableId2RedoLane;
+    }
+    Semaphore readAheadPermits = new Semaphore(config.getWalRecoverReadAheadNum());
+    List<WALRedoLane> redoLanes = new ArrayList<>(laneNum);
+    for (int i = 0; i < laneNum; i++) {
+      redoLanes.add(new WALRedoLane(logDirectory.getName(), i, readAheadPermits));
+    }
+    // assign lanes round-robin by TsFile
+    Map<String, WALRedoLane> tsFile2RedoLane = new HashMap<>();
+    for (Map.Entry<Integer, UnsealedTsFileRecoverPerformer> entry :
+        memTableId2RecoverPerformer.entrySet()) {
+      String tsFilePath = entry.getValue().getTsFileResource().getTsFile().getAbsolutePath();
+      WALRedoLane redoLane =
+          tsFile2RedoLane.computeIfAbsent(
+              tsFilePath, k -> redoLanes.get(tsFile2RedoLane.size() % laneNum));
+      memTableId2RedoLane.put(entry.getKey(), redoLane);
+    }
+    return memTableId2RedoLane;
+  }
+
+  private void recordProgress(int recoveredFileNum, int totalFileNum, long entryNum) {
+    logger.info(
+        "Redo {} wal entries of {}/{} wal files in the directory {}",
+        entryNum,
+        recoveredFileNum,
+        totalFileNum,
+        logDirectory);
+    if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
+      MetricsService.getInstance()
+          .getMetricManager()
+          .count(
+              entryNum,
+              Metric.QUANTITY.toString(),
+              MetricLevel.IMPORTANT,
+              Tag.NAME.toString(),
+              "wal_recover_entries",
+              Tag.TYPE.toString(),
+              "node-" + logDirectory.getName());
+      MetricsService.getInstance()
+          .getMetricManager()
+          .count(
+              1,
+              Metric.FILE_COUNT.toString(),
+              MetricLevel.IMPORTANT,
+              Tag.NAME.toString(),
+              "wal_recover_files",
+              Tag.TYPE.toString(),
+              "node-" + logDirectory.getName());
     }
   }
 }
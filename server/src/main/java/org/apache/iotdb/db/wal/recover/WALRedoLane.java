@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.wal.recover;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.commons.concurrent.ThreadName;
+import org.apache.iotdb.db.wal.buffer.WALEntry;
+import org.apache.iotdb.db.wal.recover.file.UnsealedTsFileRecoverPerformer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One redo lane of {@link WALNodeRecoverTask}. Each lane owns a thread, and all WALEntries of one
+ * TsFile are redone by the same lane, so they are still redone in the order of .wal files. The
+ * reading thread must acquire a permit of the shared semaphore before handing over a WALEntry,
+ * which bounds the number of WALEntries read ahead.
+ */
+class WALRedoLane {
+  private static final Logger logger = LoggerFactory.getLogger(WALRedoLane.class);
+
+  /** identifier of this lane, like node-xxx-lane-xxx */
+  private final String identifier;
+  /** single thread to redo WALEntries of this lane */
+  private final ExecutorService redoThread;
+  /** permits of WALEntries read ahead, shared by all lanes of one wal node */
+  private final Semaphore readAheadPermits;
+
+  WALRedoLane(String nodeIdentifier, int laneId, Semaphore readAheadPermits) {
+    this.identifier = "node-" + nodeIdentifier + "-lane-" + laneId;
+    this.redoThread =
+        IoTDBThreadPoolFactory.newSingleThreadExecutor(
+            ThreadName.WAL_RECOVER_REDO.getName() + "(" + identifier + ")");
+    this.readAheadPermits = readAheadPermits;
+  }
+
+  /**
+   * Redo WALEntry asynchronously, block when too many WALEntries are waiting to be redone. Failures
+   * are logged and the WALEntry is skipped, like the reading thread does for broken .wal files.
+   */
+  void redo(UnsealedTsFileRecoverPerformer recoverPerformer, WALEntry walEntry, File walFile)
+      throws InterruptedException {
+    readAheadPermits.acquire();
+    try {
+      redoThread.execute(
+          () -> {
+            try {
+              recoverPerformer.redoLog(walEntry);
+            } catch (Exception e) {
+              logger.warn(
+                  "Fail to redo wal entry of memtable {} from {}, skip only this entry",
+                  walEntry.getMemTableId(),
+                  walFile,
+                  e);
+            } finally {
+              readAheadPermits.release();
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      readAheadPermits.release();
+      throw e;
+    }
+  }
+
+  /** End the recovery asynchronously after all submitted WALEntries of the TsFile are redone. */
+  void endRecovery(UnsealedTsFileRecoverPerformer recoverPerformer) {
+    redoThread.execute(
+        () -> {
+          try {
+            recoverPerformer.endRecovery();
+            recoverPerformer.getRecoverListener().succeed();
+          } catch (Exception e) {
+            recoverPerformer.getRecoverListener().fail(e);
+          }
+        });
+  }
+
+  /** Wait until all submitted tasks are finished. */
+  void close() throws InterruptedException {
+    redoThread.shutdown();
+    while (!redoThread.awaitTermination(30, TimeUnit.SECONDS)) {
+      logger.info("Wal redo lane {} is still redoing logs after 30s", identifier);
+    }
+  }
+
+  /** Stop redoing as soon as possible, used when the recovery fails. */
+  void abort() {
+    redoThread.shutdownNow();
+  }
+}
@@ -25,9 +25,11 @@ import org.apache.iotdb.db.engine.storagegroup.TsFileResourceStatus;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.metadata.path.PartialPath;
+import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.service.IoTDB;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
@@ -36,8 +38,11 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.file.metadata.statistics.DoubleStatistics;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.utils.RamUsageEstimator;
 import org.apache.iotdb.tsfile.write.TsFileWriter;
 import org.apache.iotdb.tsfile.write.record.TSRecord;
 import org.apache.iotdb.tsfile.write.record.datapoint.DataPoint;
@@ -77,6 +82,8 @@ public class ChunkCacheTest {
 
   ChunkCache chunkCache = ChunkCache.getInstance();
 
+  File snappyFile;
+
   @Before
   public void setUp() throws IOException, WriteProcessException, MetadataException {
     tempSGDir = new File(TestConstant.OUTPUT_DATA_DIR);
@@ -94,6 +101,9 @@ public class ChunkCacheTest {
     seqResources.clear();
     unseqResources.clear();
     chunkCache.clear();
+    if (snappyFile != null && snappyFile.exists()) {
+      Assert.assertTrue(snappyFile.delete());
+    }
     TimeSeriesMetadataCache.getInstance().clear();
     IoTDB.configManager.clear();
     EnvironmentUtils.cleanAllDir();
@@ -135,6 +145,189 @@ public class ChunkCacheTest {
     reader.close();
   }
 
+  @Test
+  public void testHitRatioOfQueryType() throws IOException {
+    TsFileResource tsFileResource = seqResources.get(0);
+    TsFileSequenceReader reader = new TsFileSequenceReader(tsFileResource.getTsFilePath());
+    List<Path> paths = reader.getAllPaths();
+
+    ChunkMetadata firstChunkMetadata = reader.getChunkMetadataList(paths.get(0)).get(0);
+    firstChunkMetadata.setFilePath(tsFileResource.getTsFilePath());
+
+    QueryContext context = new QueryContext().setQueryType("test");
+    Chunk chunk1 = chunkCache.get(firstChunkMetadata, context);
+    Chunk chunk2 = chunkCache.get(firstChunkMetadata, context);
+    Assert.assertEquals(chunk1.getHeader(), chunk2.getHeader());
+    Assert.assertEquals(chunk1.getData(), chunk2.getData());
+    Assert.assertEquals(0.5, chunkCache.calculateChunkHitRatio("test"), 0.0001);
+    reader.close();
+  }
+
+  @Test
+  public void testScanProbation() throws IOException {
+    // a query is a scan after loading one chunk
+    ChunkCache cache = new ChunkCache(1024 * 1024, 1, false, false, Runnable::run);
+    List<ChunkMetadata> chunkMetadataList = getChunkMetadataList(seqResources.get(0));
+    ChunkMetadata first = chunkMetadataList.get(0);
+    ChunkMetadata second = chunkMetadataList.get(1);
+
+    QueryContext scan = new QueryContext();
+    cache.get(first, scan);
+    Assert.assertTrue(cache.isInMainCache(first));
+    Assert.assertFalse(cache.isInProbationCache(first));
+
+    // the scan doesn't pollute the main cache
+    cache.get(second, scan);
+    Assert.assertFalse(cache.isInMainCache(second));
+    Assert.assertTrue(cache.isInProbationCache(second));
+    cache.get(second, scan);
+    Assert.assertFalse(cache.isInMainCache(second));
+    Assert.assertEquals(0.5, cache.calculateChunkHitRatio("scan"), 0.0001);
+
+    // promoted when it's read again by another query
+    Chunk chunk = cache.get(second, new QueryContext());
+    Assert.assertTrue(cache.isInMainCache(second));
+    Assert.assertFalse(cache.isInProbationCache(second));
+    Assert.assertEquals(readPoints(chunkCache.get(second)), readPoints(chunk));
+  }
+
+  @Test
+  public void testScanBypass() throws IOException {
+    ChunkCache cache = new ChunkCache(1024 * 1024, 1, true, false, Runnable::run);
+    List<ChunkMetadata> chunkMetadataList = getChunkMetadataList(seqResources.get(0));
+    ChunkMetadata first = chunkMetadataList.get(0);
+    ChunkMetadata second = chunkMetadataList.get(1);
+
+    QueryContext scan = new QueryContext();
+    cache.get(first, scan);
+    Assert.assertTrue(cache.isInMainCache(first));
+    Chunk chunk = cache.get(second, scan);
+    Assert.assertFalse(cache.isInMainCache(second));
+    Assert.assertFalse(cache.isInProbationCache(second));
+    Assert.assertEquals(readPoints(chunkCache.get(second)), readPoints(chunk));
+  }
+
+  @Test
+  public void testDecompressPages() throws IOException, WriteProcessException {
+    snappyFile = prepareSnappyFile();
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(snappyFile.getPath())) {
+      for (Path path : reader.getAllPaths()) {
+        for (ChunkMetadata chunkMetadata : reader.getChunkMetadataList(path)) {
+          Chunk chunk = reader.readMemChunk(chunkMetadata);
+          Assert.assertEquals(CompressionType.SNAPPY, chunk.getHeader().getCompressionType());
+          Chunk decompressed = ChunkCache.decompressPages(chunk);
+          Assert.assertEquals(
+              CompressionType.UNCOMPRESSED, decompressed.getHeader().getCompressionType());
+          Assert.assertEquals(
+              decompressed.getData().remaining(), decompressed.getHeader().getDataSize());
+          Assert.assertEquals(readPoints(chunk), readPoints(decompressed));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCompressedTier() throws IOException, WriteProcessException {
+    snappyFile = prepareSnappyFile();
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(snappyFile.getPath())) {
+      List<ChunkMetadata> chunkMetadataList = new ArrayList<>();
+      for (Path path : reader.getAllPaths()) {
+        for (ChunkMetadata chunkMetadata : reader.getChunkMetadataList(path)) {
+          chunkMetadata.setFilePath(snappyFile.getPath());
+          chunkMetadataList.add(chunkMetadata);
+        }
+      }
+      // the main cache can hold about 3 chunks, so most chunks are evicted to the compressed tier
+      long chunkSize =
+          RamUsageEstimator.sizeOf(
+              ChunkCache.decompressPages(reader.readMemChunk(chunkMetadataList.get(0))));
+      ChunkCache cache = new ChunkCache(chunkSize * 4, 0, false, true, Runnable::run);
+      for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+        Chunk chunk = cache.get(chunkMetadata);
+        // chunks in the main cache are decompressed
+        Assert.assertEquals(CompressionType.UNCOMPRESSED, chunk.getHeader().getCompressionType());
+      }
+
+      ChunkMetadata tieredChunkMetadata = null;
+      for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+        if (cache.isInCompressedTier(chunkMetadata)) {
+          tieredChunkMetadata = chunkMetadata;
+          break;
+        }
+      }
+      Assert.assertNotNull(tieredChunkMetadata);
+      Assert.assertFalse(cache.isInMainCache(tieredChunkMetadata));
+      // promoted from the compressed tier
+      Chunk chunk = cache.get(tieredChunkMetadata);
+      Assert.assertEquals(
+          readPoints(reader.readMemChunk(tieredChunkMetadata)), readPoints(chunk));
+    }
+  }
+
+  private List<ChunkMetadata> getChunkMetadataList(TsFileResource tsFileResource)
+      throws IOException {
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(tsFileResource.getTsFilePath())) {
+      List<ChunkMetadata> chunkMetadataList =
+          reader.getChunkMetadataList(reader.getAllPaths().get(0));
+      for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+        chunkMetadata.setFilePath(tsFileResource.getTsFilePath());
+      }
+      return chunkMetadataList;
+    }
+  }
+
+  private List<String> readPoints(Chunk chunk) throws IOException {
+    ChunkReader chunkReader =
+        new ChunkReader(
+            new Chunk(
+                chunk.getHeader(), chunk.getData().duplicate(), null, chunk.getChunkStatistic()),
+            null);
+    List<String> points = new ArrayList<>();
+    while (chunkReader.hasNextSatisfiedPage()) {
+      BatchData batchData = chunkReader.nextPageData();
+      while (batchData.hasCurrent()) {
+        points.add(batchData.currentTime() + ":" + batchData.currentValue());
+        batchData.next();
+      }
+    }
+    return points;
+  }
+
+  /** a SNAPPY compressed file, whose chunks have 2 pages except that the last one has 1 page */
+  private File prepareSnappyFile() throws IOException, WriteProcessException {
+    File file = new File(TestConstant.getTestTsFilePath(TEST_SG, 0, 0, 100));
+    if (!file.getParentFile().exists()) {
+      Assert.assertTrue(file.getParentFile().mkdirs());
+    }
+    int maxNumberOfPointsInPage =
+        TSFileDescriptor.getInstance().getConfig().getMaxNumberOfPointsInPage();
+    TSFileDescriptor.getInstance().getConfig().setMaxNumberOfPointsInPage(10);
+    try (TsFileWriter fileWriter = new TsFileWriter(file)) {
+      for (int k = 0; k < measurementNum; k++) {
+        fileWriter.registerTimeseries(
+            new Path(deviceIds[0]),
+            new MeasurementSchema(
+                "sensor" + k, TSDataType.DOUBLE, TSEncoding.PLAIN, CompressionType.SNAPPY));
+      }
+      for (long i = 0; i < 105; i++) {
+        TSRecord record = new TSRecord(i, deviceIds[0]);
+        for (int k = 0; k < measurementNum; k++) {
+          record.addTuple(
+              DataPoint.getDataPoint(TSDataType.DOUBLE, "sensor" + k, String.valueOf(i % 7)));
+        }
+        fileWriter.write(record);
+        if ((i + 1) % flushInterval == 0) {
+          fileWriter.flushAllChunkGroups();
+        }
+      }
+    } finally {
+      TSFileDescriptor.getInstance()
+          .getConfig()
+          .setMaxNumberOfPointsInPage(maxNumberOfPointsInPage);
+    }
+    return file;
+  }
+
   void prepareSeries() throws MetadataException {
     measurementSchemas = new MeasurementSchema[measurementNum];
     for (int i = 0; i < measurementNum; i++) {
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import org.apache.iotdb.db.engine.cache.TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey;
+import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+public class MetadataCacheSnapshotServiceTest {
+
+  private static final String DEVICE = "root.sg1.d1";
+  private static final int SENSOR_NUM = 3;
+
+  private final String filePath =
+      "target"
+          .concat(File.separator)
+          .concat("data")
+          .concat(File.separator)
+          .concat("sequence")
+          .concat(File.separator)
+          .concat("root.sg1")
+          .concat(File.separator)
+          .concat("0")
+          .concat(File.separator)
+          .concat("0")
+          .concat(File.separator)
+          .concat("1-0-0-0.tsfile");
+  private final File snapshotFile =
+      new File("target".concat(File.separator).concat("metadata_cache.snapshot"));
+
+  @Before
+  public void setUp() throws Exception {
+    createTsFile();
+    TimeSeriesMetadataCache.getInstance().clear();
+    BloomFilterCache.getInstance().clear();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    TimeSeriesMetadataCache.getInstance().clear();
+    BloomFilterCache.getInstance().clear();
+    FileReaderManager.getInstance().closeAndRemoveAllOpenedReaders();
+    FileUtils.deleteQuietly(new File(filePath));
+    FileUtils.deleteQuietly(snapshotFile);
+  }
+
+  @Test
+  public void testSnapshotAndPrefetch() throws Exception {
+    TimeSeriesMetadataCacheKey key = new TimeSeriesMetadataCacheKey(filePath, DEVICE, "sensor_1");
+    Assert.assertNotNull(
+        TimeSeriesMetadataCache.getInstance()
+            .get(key, new HashSet<>(Arrays.asList("sensor_1", "sensor_2")), false, false));
+
+    MetadataCacheSnapshotService service = new MetadataCacheSnapshotService(snapshotFile);
+    service.takeSnapshot();
+    Assert.assertTrue(snapshotFile.exists());
+
+    TimeSeriesMetadataCache.getInstance().clear();
+    BloomFilterCache.getInstance().clear();
+    Assert.assertTrue(TimeSeriesMetadataCache.getInstance().isEmpty());
+
+    service.prefetch();
+    Assert.assertNotNull(
+        BloomFilterCache.getInstance()
+            .getIfPresent(new BloomFilterCache.BloomFilterCacheKey(filePath)));
+    Assert.assertEquals(
+        new HashSet<>(
+            Arrays.asList(key, new TimeSeriesMetadataCacheKey(filePath, DEVICE, "sensor_2"))),
+        TimeSeriesMetadataCache.getInstance().getHottestKeys(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testPrefetchSkipRemovedFile() throws Exception {
+    TimeSeriesMetadataCacheKey key = new TimeSeriesMetadataCacheKey(filePath, DEVICE, "sensor_1");
+    TimeSeriesMetadataCache.getInstance()
+        .get(key, new HashSet<>(Arrays.asList("sensor_1")), false, false);
+
+    MetadataCacheSnapshotService service = new MetadataCacheSnapshotService(snapshotFile);
+    service.takeSnapshot();
+    TimeSeriesMetadataCache.getInstance().clear();
+    BloomFilterCache.getInstance().clear();
+    FileReaderManager.getInstance().closeAndRemoveAllOpenedReaders();
+    FileUtils.forceDelete(new File(filePath));
+
+    service.prefetch();
+    Assert.assertTrue(TimeSeriesMetadataCache.getInstance().isEmpty());
+  }
+
+  private void createTsFile() throws Exception {
+    File f = FSFactoryProducer.getFSFactory().getFile(filePath);
+    if (!f.getParentFile().exists()) {
+      Assert.assertTrue(f.getParentFile().mkdirs());
+    }
+    List<MeasurementSchema> measurementSchemas = new ArrayList<>();
+    for (int i = 0; i < SENSOR_NUM; i++) {
+      measurementSchemas.add(
+          new MeasurementSchema("sensor_" + (i + 1), TSDataType.INT64, TSEncoding.TS_2DIFF));
+    }
+    try (TsFileWriter tsFileWriter = new TsFileWriter(f)) {
+      tsFileWriter.registerTimeseries(new Path(DEVICE), measurementSchemas);
+      Tablet tablet = new Tablet(DEVICE, measurementSchemas);
+      for (int r = 0; r < 100; r++) {
+        int row = tablet.rowSize++;
+        tablet.timestamps[row] = r;
+        for (int i = 0; i < SENSOR_NUM; i++) {
+          ((long[]) tablet.values[i])[row] = r;
+        }
+      }
+      tsFileWriter.write(tablet);
+    }
+  }
+}
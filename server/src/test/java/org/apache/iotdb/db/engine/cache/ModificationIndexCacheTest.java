@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.ModificationFile;
+import org.apache.iotdb.db.engine.modification.ModificationIndex;
+import org.apache.iotdb.db.metadata.path.PartialPath;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ModificationIndexCacheTest {
+
+  private final String modsFilePath = TestConstant.BASE_OUTPUT_PATH.concat("index.mods");
+  private final ModificationIndexCache cache = ModificationIndexCache.getInstance();
+  private final PartialPath s1 = new PartialPath(new String[] {"root", "sg", "d1", "s1"});
+  private final PartialPath s2 = new PartialPath(new String[] {"root", "sg", "d1", "s2"});
+
+  @Before
+  public void setUp() {
+    cache.clear();
+    new File(modsFilePath).getParentFile().mkdirs();
+  }
+
+  @After
+  public void tearDown() {
+    cache.clear();
+    new File(modsFilePath).delete();
+  }
+
+  @Test
+  public void testInvalidateOnLengthChange() throws Exception {
+    try (ModificationFile modFile = new ModificationFile(modsFilePath)) {
+      assertSame(ModificationIndex.EMPTY, cache.get(modFile));
+
+      modFile.write(new Deletion(s1, 1, 0, 10));
+      ModificationIndex index = cache.get(modFile);
+      assertEquals(new File(modsFilePath).length(), index.getFileLength());
+      assertEquals(1, index.getDeletions(s1).size());
+      assertTrue(index.getDeletions(s2).isEmpty());
+      // the mods file is not changed, so the cached index is reused
+      assertSame(index, cache.get(modFile));
+      assertSame(index, cache.getIfPresent(modsFilePath));
+
+      // appending changes the length of the mods file, so the index is built again
+      modFile.write(new Deletion(s2, 2, 20, 30));
+      ModificationIndex newIndex = cache.get(modFile);
+      assertNotSame(index, newIndex);
+      assertEquals(new File(modsFilePath).length(), newIndex.getFileLength());
+      assertEquals(1, newIndex.getDeletions(s1).size());
+      assertEquals(1, newIndex.getDeletions(s2).size());
+      assertSame(newIndex, cache.getIfPresent(modsFilePath));
+    }
+  }
+
+  @Test
+  public void testInvalidateOnRemove() throws Exception {
+    ModificationFile modFile = new ModificationFile(modsFilePath);
+    modFile.write(new Deletion(s1, 1, 0, 10));
+    ModificationIndex index = cache.get(modFile);
+    assertSame(index, cache.getIfPresent(modsFilePath));
+
+    modFile.remove();
+    assertNull(cache.getIfPresent(modsFilePath));
+    assertSame(ModificationIndex.EMPTY, cache.get(modFile));
+
+    // a new mods file with the same path and length must not reuse the removed index
+    try (ModificationFile newModFile = new ModificationFile(modsFilePath)) {
+      newModFile.write(new Deletion(s2, 1, 0, 10));
+      assertEquals(index.getFileLength(), new File(modsFilePath).length());
+      ModificationIndex newIndex = cache.get(newModFile);
+      assertNotSame(index, newIndex);
+      assertTrue(newIndex.getDeletions(s1).isEmpty());
+      assertEquals(1, newIndex.getDeletions(s2).size());
+    }
+  }
+
+  @Test
+  public void testInvalidateOnAbort() throws Exception {
+    try (ModificationFile modFile = new ModificationFile(modsFilePath)) {
+      modFile.write(new Deletion(s1, 1, 0, 10));
+      modFile.write(new Deletion(s2, 2, 20, 30));
+      ModificationIndex index = cache.get(modFile);
+      assertEquals(1, index.getDeletions(s2).size());
+      assertSame(index, cache.getIfPresent(modsFilePath));
+
+      modFile.abort();
+      assertNull(cache.getIfPresent(modsFilePath));
+      ModificationIndex newIndex = cache.get(modFile);
+      assertNotSame(index, newIndex);
+      assertEquals(1, newIndex.getDeletions(s1).size());
+      assertTrue(newIndex.getDeletions(s2).isEmpty());
+    }
+  }
+}
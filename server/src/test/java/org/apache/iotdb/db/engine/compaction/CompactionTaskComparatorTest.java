@@ -266,6 +266,35 @@ public class CompactionTaskComparatorTest {
     }
   }
 
+  /** Test that tasks of the time partitions with more read amplification are executed first */
+  @Test
+  public void testReadAmplificationCompare() throws InterruptedException {
+    IoTDBDescriptor.getInstance().getConfig().setEnableAdaptiveCompactionSchedule(true);
+    CompactionWorkloadMonitor monitor = CompactionWorkloadMonitor.getInstance();
+    try {
+      AbstractCompactionTask[] compactionTasks = new AbstractCompactionTask[100];
+      for (int i = 0; i < 100; ++i) {
+        List<TsFileResource> resources = new ArrayList<>();
+        for (int j = 0; j < 10; ++j) {
+          resources.add(
+              new FakedTsFileResource(new File(String.format("%d-%d-0-0.tsfile", j, j)), j));
+        }
+        compactionTasks[i] =
+            new FakedInnerSpaceCompactionTask("fakeSg", i, tsFileManager, taskNum, true, resources);
+        compactionTaskQueue.put(compactionTasks[i]);
+        monitor.addScore("fakeSg-0", i, i + 1, System.currentTimeMillis());
+      }
+
+      compactionTaskQueue.reorder(AbstractCompactionTask::updateReadAmplificationScore);
+      for (int i = 0; i < 100; ++i) {
+        AbstractCompactionTask currentTask = compactionTaskQueue.take();
+        assertTrue(currentTask == compactionTasks[99 - i]);
+      }
+    } finally {
+      monitor.clear();
+    }
+  }
+
   private static class FakedInnerSpaceCompactionTask extends InnerSpaceCompactionTask {
 
     public FakedInnerSpaceCompactionTask(
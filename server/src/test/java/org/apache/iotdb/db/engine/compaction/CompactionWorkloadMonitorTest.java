@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.compaction;
+
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.compaction.utils.CompactionConfigRestorer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompactionWorkloadMonitorTest {
+  private final CompactionWorkloadMonitor monitor = new CompactionWorkloadMonitor();
+
+  @Before
+  public void setUp() {
+    IoTDBDescriptor.getInstance().getConfig().setEnableAdaptiveCompactionSchedule(true);
+  }
+
+  @After
+  public void tearDown() {
+    new CompactionConfigRestorer().restoreCompactionConfig();
+  }
+
+  @Test
+  public void testReadAmplificationDecay() {
+    long startTime = 1000;
+    monitor.addScore("root.sg-0", 0, 8, startTime);
+    monitor.addScore("root.sg-0", 1, 2, startTime);
+    assertEquals(8, monitor.getReadAmplificationScore("root.sg-0", 0, startTime), 1e-6);
+    assertEquals(2, monitor.getReadAmplificationScore("root.sg-0", 1, startTime), 1e-6);
+    assertEquals(0, monitor.getReadAmplificationScore("root.sg-1", 0, startTime), 1e-6);
+
+    // the score halves every 5 minutes
+    long fiveMinutesLater = startTime + 5 * 60 * 1000L;
+    assertEquals(4, monitor.getReadAmplificationScore("root.sg-0", 0, fiveMinutesLater), 1e-6);
+    monitor.addScore("root.sg-0", 0, 1, fiveMinutesLater);
+    assertEquals(5, monitor.getReadAmplificationScore("root.sg-0", 0, fiveMinutesLater), 1e-6);
+
+    // decayed scores are removed while sampling
+    long twoHoursLater = startTime + 2 * 60 * 60 * 1000L;
+    monitor.sample(twoHoursLater);
+    assertEquals(0, monitor.getReadAmplificationScore("root.sg-0", 0, twoHoursLater), 1e-6);
+  }
+
+  @Test
+  public void testThrottleByIngestionRate() {
+    // no throttle threshold
+    monitor.sample(0);
+    monitor.recordPointsInserted(100_000);
+    monitor.sample(1000);
+    assertEquals(1, monitor.getThrottleFactor(), 1e-6);
+
+    IoTDBDescriptor.getInstance().getConfig().setCompactionThrottleIngestionPointsPerSec(200_000);
+    // the smoothed rate is 50000 points/s
+    assertEquals(50_000, monitor.getIngestionPointsPerSec(), 1e-6);
+    assertEquals(0.75, monitor.getThrottleFactor(), 1e-6);
+
+    // heavy ingestion lowers compaction to the minimum
+    monitor.recordPointsInserted(1_000_000);
+    monitor.sample(2000);
+    assertEquals(CompactionWorkloadMonitor.MIN_THROTTLE_FACTOR, monitor.getThrottleFactor(), 1e-6);
+
+    // compaction recovers when ingestion stops
+    monitor.sample(3000);
+    monitor.sample(4000);
+    monitor.sample(5000);
+    assertEquals(0.671875, monitor.getThrottleFactor(), 1e-6);
+
+    IoTDBDescriptor.getInstance().getConfig().setEnableAdaptiveCompactionSchedule(false);
+    assertEquals(1, monitor.getThrottleFactor(), 1e-6);
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.compaction;
+
+import org.apache.iotdb.db.engine.compaction.performer.impl.ReadPageCompactionPerformer;
+import org.apache.iotdb.db.engine.compaction.utils.CompactionFileGeneratorUtils;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.exception.metadata.MetadataException;
+import org.apache.iotdb.db.metadata.path.MeasurementPath;
+import org.apache.iotdb.db.metadata.path.PartialPath;
+import org.apache.iotdb.db.query.reader.series.SeriesRawDataBatchReader;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.reader.IBatchReader;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.iotdb.commons.conf.IoTDBConstant.PATH_SEPARATOR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ReadPageCompactionPerformerTest extends AbstractCompactionTest {
+  private final String oldThreadName = Thread.currentThread().getName();
+
+  @Before
+  public void setUp() throws IOException, WriteProcessException, MetadataException {
+    super.setUp();
+    TSFileDescriptor.getInstance().getConfig().setMaxNumberOfPointsInPage(30);
+    Thread.currentThread().setName("pool-1-IoTDB-Compaction-1");
+  }
+
+  @After
+  public void tearDown() throws IOException, StorageEngineException {
+    super.tearDown();
+    Thread.currentThread().setName(oldThreadName);
+  }
+
+  /** a few unsequence points overlap some pages of the sequence files */
+  @Test
+  public void testSparseUnseqData() throws Exception {
+    registerTimeseriesInMManger(2, 3, false);
+    createFiles(5, 2, 3, 100, 0, 0, 0, 0, false, true);
+    createFiles(1, 2, 3, 5, 120, 10120, 0, 0, false, false);
+    createFiles(1, 2, 2, 5, 333, 10333, 0, 0, false, false);
+    compactAndCheck(2, 3);
+  }
+
+  /** unsequence data overlaps sequence data, fills the gaps and is later than sequence data */
+  @Test
+  public void testUnseqDataInGapsAndAfterSeqData() throws Exception {
+    registerTimeseriesInMManger(4, 5, false);
+    createFiles(2, 2, 3, 300, 0, 0, 50, 50, false, true);
+    createFiles(2, 4, 5, 300, 700, 700, 50, 50, false, true);
+    createFiles(3, 3, 4, 200, 20, 10020, 30, 30, false, false);
+    createFiles(2, 1, 5, 100, 1500, 21500, 0, 0, false, false);
+    compactAndCheck(4, 5);
+  }
+
+  /** pages overlapping deletions are decoded, others are still copied */
+  @Test
+  public void testSeqDataWithDeletion() throws Exception {
+    registerTimeseriesInMManger(2, 3, false);
+    createFiles(3, 2, 3, 100, 0, 0, 0, 0, false, true);
+    createFiles(1, 2, 3, 10, 250, 10250, 0, 0, false, false);
+    Map<String, Pair<Long, Long>> deleteMap = new HashMap<>();
+    deleteMap.put(
+        COMPACTION_TEST_SG + PATH_SEPARATOR + "d0" + PATH_SEPARATOR + "s0", new Pair<>(10L, 45L));
+    deleteMap.put(
+        COMPACTION_TEST_SG + PATH_SEPARATOR + "d1" + PATH_SEPARATOR + "s2", new Pair<>(100L, 199L));
+    for (TsFileResource resource : seqResources) {
+      CompactionFileGeneratorUtils.generateMods(deleteMap, resource, false);
+    }
+    compactAndCheck(2, 3);
+  }
+
+  private void compactAndCheck(int deviceNum, int measurementNum) throws Exception {
+    Map<PartialPath, List<String>> sourceData = new HashMap<>();
+    for (int i = 0; i < deviceNum; i++) {
+      for (int j = 0; j < measurementNum; j++) {
+        PartialPath path = getPath(i, j);
+        sourceData.put(path, readData(path, seqResources, unseqResources));
+      }
+    }
+
+    List<TsFileResource> targetResources =
+        CompactionFileGeneratorUtils.getCrossCompactionTargetTsFileResources(seqResources);
+    new ReadPageCompactionPerformer(seqResources, unseqResources, targetResources).perform();
+    CompactionUtils.moveTargetFile(targetResources, false, COMPACTION_TEST_SG);
+
+    for (Map.Entry<PartialPath, List<String>> entry : sourceData.entrySet()) {
+      assertFalse(entry.getValue().isEmpty());
+      assertEquals(
+          entry.getValue(), readData(entry.getKey(), targetResources, Collections.emptyList()));
+    }
+  }
+
+  private PartialPath getPath(int deviceIndex, int measurementIndex) throws Exception {
+    return new MeasurementPath(
+        COMPACTION_TEST_SG + PATH_SEPARATOR + "d" + deviceIndex,
+        "s" + measurementIndex,
+        new MeasurementSchema("s" + measurementIndex, TSDataType.INT64));
+  }
+
+  private List<String> readData(
+      PartialPath path, List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles)
+      throws IOException {
+    IBatchReader reader =
+        new SeriesRawDataBatchReader(
+            path,
+            TSDataType.INT64,
+            EnvironmentUtils.TEST_QUERY_CONTEXT,
+            seqFiles,
+            unseqFiles,
+            null,
+            null,
+            true);
+    List<String> data = new ArrayList<>();
+    while (reader.hasNextBatch()) {
+      BatchData batchData = reader.nextBatch();
+      while (batchData.hasCurrent()) {
+        data.add(batchData.currentTime() + ":" + batchData.currentValue());
+        batchData.next();
+      }
+    }
+    reader.close();
+    return data;
+  }
+}
@@ -44,6 +44,8 @@ public class CompactionConfigRestorer {
   private long compactionScheduleIntervalInMs = 60000L;
   private long compactionSubmissionIntervalInMs = 60000L;
   private int compactionWriteThroughputMbPerSec = 8;
+  private boolean enableAdaptiveCompactionSchedule = false;
+  private long compactionThrottleIngestionPointsPerSec = 0L;
 
   public CompactionConfigRestorer() {}
 
@@ -66,5 +68,7 @@ public class CompactionConfigRestorer {
     config.setCompactionScheduleIntervalInMs(compactionScheduleIntervalInMs);
     config.setCompactionSubmissionIntervalInMs(compactionSubmissionIntervalInMs);
     config.setCompactionWriteThroughputMbPerSec(compactionWriteThroughputMbPerSec);
+    config.setEnableAdaptiveCompactionSchedule(enableAdaptiveCompactionSchedule);
+    config.setCompactionThrottleIngestionPointsPerSec(compactionThrottleIngestionPointsPerSec);
   }
 }
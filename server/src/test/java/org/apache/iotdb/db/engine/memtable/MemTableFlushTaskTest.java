@@ -18,10 +18,14 @@
  */
 package org.apache.iotdb.db.engine.memtable;
 
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
 import org.apache.iotdb.db.engine.flush.MemTableFlushTask;
 import org.apache.iotdb.db.exception.metadata.IllegalPathException;
+import org.apache.iotdb.db.exception.runtime.FlushRunTimeException;
+import org.apache.iotdb.db.rescon.SystemInfo;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -31,12 +35,15 @@ import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class MemTableFlushTaskTest {
 
@@ -158,4 +165,84 @@ public class MemTableFlushTaskTest {
     assertEquals(TSDataType.BOOLEAN, chunkMetaData.getDataType());
     assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
   }
+
+  @Test
+  public void testParallelEncodingFlushMemTable()
+      throws ExecutionException, InterruptedException, IllegalPathException {
+    int prevFlushEncodingParallelism =
+        IoTDBDescriptor.getInstance().getConfig().getFlushEncodingParallelism();
+    IoTDBDescriptor.getInstance().getConfig().setFlushEncodingParallelism(4);
+    try {
+      int measurementNum = 20;
+      for (int i = 0; i < measurementNum; i++) {
+        MemTableTestUtils.produceData(
+            memTable,
+            startTime,
+            endTime + i,
+            MemTableTestUtils.deviceId0,
+            "s" + i,
+            MemTableTestUtils.dataType0);
+      }
+      MemTableFlushTask memTableFlushTask = new MemTableFlushTask(memTable, writer, storageGroup);
+      memTableFlushTask.syncFlushMemTable();
+      writer.makeMetadataVisible();
+      for (int i = 0; i < measurementNum; i++) {
+        List<ChunkMetadata> chunkMetadataList =
+            writer.getVisibleMetadataList(
+                MemTableTestUtils.deviceId0, "s" + i, MemTableTestUtils.dataType0);
+        assertEquals(1, chunkMetadataList.size());
+        ChunkMetadata chunkMetaData = chunkMetadataList.get(0);
+        assertEquals(startTime, chunkMetaData.getStartTime());
+        assertEquals(endTime + i, chunkMetaData.getEndTime());
+      }
+    } finally {
+      IoTDBDescriptor.getInstance()
+          .getConfig()
+          .setFlushEncodingParallelism(prevFlushEncodingParallelism);
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testParallelEncodingFailure() throws InterruptedException, IllegalPathException {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    int prevFlushEncodingParallelism = config.getFlushEncodingParallelism();
+    boolean prevEnableMemControl = config.isEnableMemControl();
+    int prevIoTaskQueueSize = config.getIoTaskQueueSizeForFlushing();
+    boolean prevEncodingFasterThanIo = SystemInfo.getInstance().isEncodingFasterThanIo();
+    config.setFlushEncodingParallelism(4);
+    // the encoding task is blocked on the bounded ioTaskQueue once the io task stops taking
+    config.setEnableMemControl(true);
+    config.setIoTaskQueueSizeForFlushing(1);
+    SystemInfo.getInstance().setEncodingFasterThanIo(true);
+    try {
+      int measurementNum = 20;
+      for (int i = 0; i < measurementNum; i++) {
+        MemTableTestUtils.produceData(
+            memTable,
+            startTime,
+            endTime,
+            MemTableTestUtils.deviceId0,
+            "s" + i,
+            MemTableTestUtils.dataType0);
+      }
+      IWritableMemChunk failedChunk = Mockito.mock(IWritableMemChunk.class);
+      Mockito.when(failedChunk.createIChunkWriter())
+          .thenThrow(new IllegalStateException("encoding failed"));
+      IWritableMemChunkGroup memChunkGroup = memTable.getMemTableMap().values().iterator().next();
+      memChunkGroup.getMemChunkMap().put("failed", failedChunk);
+
+      MemTableFlushTask memTableFlushTask = new MemTableFlushTask(memTable, writer, storageGroup);
+      try {
+        memTableFlushTask.syncFlushMemTable();
+        fail("The flush should fail as a chunk can not be encoded");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof FlushRunTimeException);
+      }
+    } finally {
+      config.setFlushEncodingParallelism(prevFlushEncodingParallelism);
+      config.setEnableMemControl(prevEnableMemControl);
+      config.setIoTaskQueueSizeForFlushing(prevIoTaskQueueSize);
+      SystemInfo.getInstance().setEncodingFasterThanIo(prevEncodingFasterThanIo);
+    }
+  }
 }
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.modification;
+
+import org.apache.iotdb.db.exception.metadata.IllegalPathException;
+import org.apache.iotdb.db.metadata.path.PartialPath;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DeletionIntervalTreeTest {
+
+  @Test
+  public void testOverlappedDeletions() throws IllegalPathException {
+    PartialPath path = new PartialPath("root.sg.d1.s1");
+    Random random = new Random(10);
+    List<Modification> modifications = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      long startTime = random.nextInt(10000);
+      modifications.add(new Deletion(path, i, startTime, startTime + random.nextInt(500)));
+    }
+    DeletionIntervalTree tree = new DeletionIntervalTree(modifications);
+    assertEquals(modifications, tree.getModifications());
+
+    for (int i = 0; i < 100; i++) {
+      long startTime = random.nextInt(11000) - 500;
+      long endTime = startTime + random.nextInt(300);
+      Set<Modification> expected = new HashSet<>();
+      for (Modification modification : modifications) {
+        Deletion deletion = (Deletion) modification;
+        if (deletion.getStartTime() <= endTime && deletion.getEndTime() >= startTime) {
+          expected.add(deletion);
+        }
+      }
+      List<Deletion> overlapped = tree.getOverlapped(startTime, endTime);
+      assertEquals(expected.size(), overlapped.size());
+      assertTrue(expected.containsAll(overlapped));
+    }
+  }
+
+  @Test
+  public void testModificationIndex() throws IllegalPathException {
+    List<Modification> modifications = new ArrayList<>();
+    modifications.add(new Deletion(new PartialPath("root.sg.d1.s1"), 1, 0, 10));
+    modifications.add(new Deletion(new PartialPath("root.sg.d1.*"), 2, 20, 30));
+    modifications.add(new Deletion(new PartialPath("root.sg.**"), 3, 40, 50));
+    modifications.add(new Deletion(new PartialPath("root.sg.d2.s1"), 4, 60, 70));
+    ModificationIndex index = new ModificationIndex(modifications, 100);
+
+    assertEquals(3, index.getDeletions(new PartialPath("root.sg.d1.s1")).size());
+    assertEquals(2, index.getDeletions(new PartialPath("root.sg.d1.s2")).size());
+    assertEquals(2, index.getDeletions(new PartialPath("root.sg.d2.s1")).size());
+    assertEquals(0, index.getDeletions(new PartialPath("root.sg2.d1.s1")).size());
+    DeletionIntervalTree deletions = index.getDeletions(new PartialPath("root.sg.d1.s1"));
+    assertEquals(2, deletions.getOverlapped(5, 25).size());
+
+    // the index is not affected by changes of the given modifications
+    modifications.get(0).setFileOffset(Long.MAX_VALUE);
+    for (Modification modification : deletions.getModifications()) {
+      assertTrue(modification.getFileOffset() < Long.MAX_VALUE);
+    }
+  }
+}
@@ -26,6 +26,7 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -100,4 +101,29 @@ public class ModificationFileTest {
       new File(tempFileName).delete();
     }
   }
+
+  @Test
+  public void testBatchWrite() {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+    List<Modification> modifications =
+        Arrays.asList(
+            new Deletion(new PartialPath(new String[] {"d1", "s1"}), 1, 1),
+            new Deletion(new PartialPath(new String[] {"d1", "s2"}), 2, 2),
+            new Deletion(new PartialPath(new String[] {"d1", "s3"}), 3, 3, 4));
+    try (ModificationFile mFile = new ModificationFile(tempFileName)) {
+      mFile.write(modifications.subList(0, 1));
+      assertEquals(1, mFile.getModifications().size());
+      mFile.write(modifications.subList(1, 3));
+      assertEquals(modifications, mFile.getModifications());
+    } catch (IOException e) {
+      fail(e.getMessage());
+    }
+    try (ModificationFile mFile = new ModificationFile(tempFileName)) {
+      assertEquals(modifications, mFile.getModifications());
+    } catch (IOException e) {
+      fail(e.getMessage());
+    } finally {
+      new File(tempFileName).delete();
+    }
+  }
 }
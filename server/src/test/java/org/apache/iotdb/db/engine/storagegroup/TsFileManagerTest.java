@@ -35,6 +35,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -237,4 +238,60 @@ public class TsFileManagerTest {
     }
     assertEquals(8, count);
   }
+
+  @Test
+  public void testSnapshotIsPublishedOnModification() {
+    TsFileListSnapshot emptySnapshot = tsFileManager.acquireSnapshot();
+    tsFileManager.addAll(seqResources, true);
+    tsFileManager.add(unseqResources.get(0), false);
+
+    // a held snapshot never changes
+    assertEquals(0, emptySnapshot.getSequenceFiles().size());
+    assertEquals(0, emptySnapshot.getUnsequenceFiles().size());
+
+    TsFileListSnapshot snapshot = tsFileManager.acquireSnapshot();
+    assertTrue(snapshot.getVersion() > emptySnapshot.getVersion());
+    assertEquals(seqResources, snapshot.getSequenceFiles());
+    assertEquals(1, snapshot.getUnsequenceFiles().size());
+    assertEquals(seqResources, tsFileManager.getTsFileList(true));
+
+    tsFileManager.remove(seqResources.get(0), true);
+    assertEquals(5, snapshot.getSequenceFiles().size());
+    assertEquals(4, tsFileManager.getTsFileList(true).size());
+
+    tsFileManager.releaseSnapshot(emptySnapshot);
+    tsFileManager.releaseSnapshot(snapshot);
+    assertEquals(0, tsFileManager.getStaleSnapshotNum());
+  }
+
+  @Test
+  public void testWaitForStaleSnapshots() throws InterruptedException {
+    tsFileManager.addAll(seqResources, true);
+    TsFileListSnapshot snapshot = tsFileManager.acquireSnapshot();
+    tsFileManager.remove(seqResources.get(0), true);
+    assertEquals(1, tsFileManager.getStaleSnapshotNum());
+
+    AtomicBoolean released = new AtomicBoolean(false);
+    Thread query =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(100);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              released.set(true);
+              tsFileManager.releaseSnapshot(snapshot);
+            });
+    query.start();
+    tsFileManager.waitForStaleSnapshots();
+    assertTrue(released.get());
+    assertEquals(0, tsFileManager.getStaleSnapshotNum());
+    query.join();
+
+    // the latest snapshot is held by the manager and never waited for
+    TsFileListSnapshot latestSnapshot = tsFileManager.acquireSnapshot();
+    tsFileManager.waitForStaleSnapshots();
+    tsFileManager.releaseSnapshot(latestSnapshot);
+  }
 }
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.tiered;
+
+import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.engine.compaction.AbstractCompactionTest;
+import org.apache.iotdb.db.engine.compaction.utils.CompactionCheckerUtils;
+import org.apache.iotdb.db.engine.compaction.utils.CompactionFileGeneratorUtils;
+import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.ModificationFile;
+import org.apache.iotdb.db.engine.storagegroup.TsFileManager;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResourceStatus;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.exception.metadata.MetadataException;
+import org.apache.iotdb.db.metadata.path.AlignedPath;
+import org.apache.iotdb.db.metadata.path.MeasurementPath;
+import org.apache.iotdb.db.metadata.path.PartialPath;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.write.schema.IMeasurementSchema;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.iotdb.commons.conf.IoTDBConstant.PATH_SEPARATOR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** The data dir of the tests stands for the fast tier and another local dir for the slow tier. */
+public class TieredStorageManagerTest extends AbstractCompactionTest {
+
+  private static final String HOT_DIR = TestConstant.BASE_OUTPUT_PATH + "data";
+  private static final String COLD_DIR = TestConstant.BASE_OUTPUT_PATH + "cold";
+  private static final String HOT_SEQ_FOLDER = HOT_DIR + File.separator + "sequence";
+  private static final String HOT_UNSEQ_FOLDER = HOT_DIR + File.separator + "unsequence";
+  private static final String COLD_SEQ_FOLDER = COLD_DIR + File.separator + "sequence";
+  private static final String COLD_UNSEQ_FOLDER = COLD_DIR + File.separator + "unsequence";
+
+  private TsFileManager tsFileManager;
+  private TieredStorageManager tieredStorageManager;
+
+  @Before
+  public void setUp() throws IOException, WriteProcessException, MetadataException {
+    super.setUp();
+    tsFileManager = new TsFileManager(COMPACTION_TEST_SG, "0", STORAGE_GROUP_DIR.getPath());
+    tieredStorageManager = new TieredStorageManager(tsFileManager);
+  }
+
+  @After
+  public void tearDown() throws IOException, StorageEngineException {
+    super.tearDown();
+    FileUtils.deleteDirectory(new File(COLD_DIR));
+  }
+
+  @Test
+  public void testMigrateToColdTierAndBack() throws Exception {
+    registerTimeseriesInMManger(2, 3, false);
+    createFiles(3, 2, 3, 100, 0, 0, 0, 0, false, true);
+    createFiles(2, 2, 3, 50, 20, 10020, 30, 30, false, false);
+    Map<String, Pair<Long, Long>> deleteMap = new HashMap<>();
+    deleteMap.put(
+        COMPACTION_TEST_SG + PATH_SEPARATOR + "d0" + PATH_SEPARATOR + "s0", new Pair<>(10L, 45L));
+    CompactionFileGeneratorUtils.generateMods(deleteMap, seqResources.get(0), false);
+    List<PartialPath> paths = new ArrayList<>();
+    List<IMeasurementSchema> schemas = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < 3; j++) {
+        IMeasurementSchema schema = new MeasurementSchema("s" + j, TSDataType.INT64);
+        paths.add(
+            new MeasurementPath(COMPACTION_TEST_SG + PATH_SEPARATOR + "d" + i, "s" + j, schema));
+        schemas.add(schema);
+      }
+    }
+    tsFileManager.addAll(seqResources, true);
+    tsFileManager.addAll(unseqResources, false);
+    Map<PartialPath, List<TimeValuePair>> sourceData =
+        CompactionCheckerUtils.getDataByQuery(paths, schemas, seqResources, unseqResources);
+
+    migrateAll(COLD_SEQ_FOLDER, COLD_UNSEQ_FOLDER, CompressionType.GZIP);
+    assertAllFilesIn(COLD_DIR);
+    CompactionCheckerUtils.validDataByValueList(
+        sourceData,
+        CompactionCheckerUtils.getDataByQuery(
+            paths, schemas, tsFileManager.getTsFileList(true), tsFileManager.getTsFileList(false)));
+
+    migrateAll(HOT_SEQ_FOLDER, HOT_UNSEQ_FOLDER, null);
+    assertAllFilesIn(HOT_DIR);
+    CompactionCheckerUtils.validDataByValueList(
+        sourceData,
+        CompactionCheckerUtils.getDataByQuery(
+            paths, schemas, tsFileManager.getTsFileList(true), tsFileManager.getTsFileList(false)));
+  }
+
+  @Test
+  public void testMigrateAlignedSeries() throws Exception {
+    registerTimeseriesInMManger(2, 3, true);
+    createFiles(3, 2, 3, 100, 0, 0, 0, 0, true, true);
+    List<String> measurementIds = new ArrayList<>();
+    List<IMeasurementSchema> measurementSchemas = new ArrayList<>();
+    for (int j = 0; j < 3; j++) {
+      measurementIds.add("s" + j);
+      measurementSchemas.add(new MeasurementSchema("s" + j, TSDataType.INT64));
+    }
+    List<PartialPath> paths = new ArrayList<>();
+    List<IMeasurementSchema> schemas = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      paths.add(
+          new AlignedPath(
+              COMPACTION_TEST_SG + PATH_SEPARATOR + "d" + (10000 + i),
+              measurementIds,
+              measurementSchemas));
+      schemas.addAll(measurementSchemas);
+    }
+    tsFileManager.addAll(seqResources, true);
+    Map<PartialPath, List<TimeValuePair>> sourceData =
+        CompactionCheckerUtils.getDataByQuery(paths, schemas, seqResources, new ArrayList<>());
+
+    migrateAll(COLD_SEQ_FOLDER, COLD_UNSEQ_FOLDER, CompressionType.ZSTD);
+    assertAllFilesIn(COLD_DIR);
+    CompactionCheckerUtils.validDataByValueList(
+        sourceData,
+        CompactionCheckerUtils.getDataByQuery(
+            paths, schemas, tsFileManager.getTsFileList(true), new ArrayList<>()));
+  }
+
+  /** a TsFile being compacted or migrated must not be migrated */
+  @Test
+  public void testSkipCompactingFile() throws Exception {
+    registerTimeseriesInMManger(1, 1, false);
+    createFiles(1, 1, 1, 100, 0, 0, 0, 0, false, true);
+    tsFileManager.addAll(seqResources, true);
+    TsFileResource resource = seqResources.get(0);
+    resource.setStatus(TsFileResourceStatus.COMPACTION_CANDIDATE);
+
+    assertFalse(tieredStorageManager.migrate(resource, true, COLD_SEQ_FOLDER, null));
+    assertTrue(resource.getTsFile().exists());
+    assertEquals(Collections.singletonList(resource), tsFileManager.getTsFileList(true));
+  }
+
+  @Test
+  public void testRecover() throws Exception {
+    registerTimeseriesInMManger(1, 1, false);
+    createFiles(2, 1, 1, 100, 0, 0, 0, 0, false, true);
+    // the target file of the first TsFile has been completed before the restart
+    TsFileResource migrated = seqResources.get(0);
+    File migratedTarget = TieredStorageManager.getTargetFile(migrated.getTsFile(), COLD_SEQ_FOLDER);
+    FileUtils.copyFile(migrated.getTsFile(), migratedTarget);
+    FileUtils.copyFile(
+        new File(migrated.getTsFilePath() + TsFileResource.RESOURCE_SUFFIX),
+        new File(migratedTarget.getPath() + TsFileResource.RESOURCE_SUFFIX));
+    assertTrue(
+        new File(migrated.getTsFilePath() + TieredStorageManager.MIGRATED_SUFFIX).createNewFile());
+    // the target file of the second TsFile is still being written
+    TsFileResource migrating = seqResources.get(1);
+    File migratingTarget =
+        new File(
+            TieredStorageManager.getTargetFile(migrating.getTsFile(), COLD_SEQ_FOLDER).getPath()
+                + TieredStorageManager.MIGRATING_SUFFIX);
+    FileUtils.copyFile(migrating.getTsFile(), migratingTarget);
+
+    TieredStorageManager.recover(
+        Arrays.asList(HOT_SEQ_FOLDER, COLD_SEQ_FOLDER), COMPACTION_TEST_SG, "0");
+
+    assertFalse(migrated.getTsFile().exists());
+    assertFalse(new File(migrated.getTsFilePath() + TsFileResource.RESOURCE_SUFFIX).exists());
+    assertFalse(new File(migrated.getTsFilePath() + TieredStorageManager.MIGRATED_SUFFIX).exists());
+    assertTrue(migratedTarget.exists());
+    assertTrue(migrating.getTsFile().exists());
+    assertFalse(migratingTarget.exists());
+  }
+
+  @Test
+  public void testRecoverMergesMods() throws Exception {
+    registerTimeseriesInMManger(1, 1, false);
+    createFiles(1, 1, 1, 100, 0, 0, 0, 0, false, true);
+    TsFileResource migrated = seqResources.get(0);
+    File migratedTarget = TieredStorageManager.getTargetFile(migrated.getTsFile(), COLD_SEQ_FOLDER);
+    FileUtils.copyFile(migrated.getTsFile(), migratedTarget);
+    FileUtils.copyFile(
+        new File(migrated.getTsFilePath() + TsFileResource.RESOURCE_SUFFIX),
+        new File(migratedTarget.getPath() + TsFileResource.RESOURCE_SUFFIX));
+    PartialPath path = new PartialPath(COMPACTION_TEST_SG + PATH_SEPARATOR + "d0.s0");
+    // the first deletion has been copied before the restart, the second has not
+    Deletion copied = new Deletion(path, 10, 0, 10);
+    Deletion notCopied = new Deletion(path, 20, 50, 60);
+    try (ModificationFile sourceMods = migrated.getModFile();
+        ModificationFile targetMods =
+            new ModificationFile(migratedTarget.getPath() + ModificationFile.FILE_SUFFIX)) {
+      sourceMods.write(Arrays.asList(copied, notCopied));
+      targetMods.write(new Deletion(path, Long.MAX_VALUE, 0, 10));
+    }
+    assertTrue(
+        new File(migrated.getTsFilePath() + TieredStorageManager.MIGRATED_SUFFIX).createNewFile());
+
+    TieredStorageManager.recover(
+        Arrays.asList(HOT_SEQ_FOLDER, COLD_SEQ_FOLDER), COMPACTION_TEST_SG, "0");
+
+    assertFalse(migrated.getTsFile().exists());
+    assertFalse(new File(migrated.getTsFilePath() + ModificationFile.FILE_SUFFIX).exists());
+    try (ModificationFile targetMods =
+        new ModificationFile(migratedTarget.getPath() + ModificationFile.FILE_SUFFIX)) {
+      assertEquals(
+          Arrays.asList(
+              new Deletion(path, Long.MAX_VALUE, 0, 10),
+              new Deletion(path, Long.MAX_VALUE, 50, 60)),
+          new ArrayList<>(targetMods.getModifications()));
+    }
+  }
+
+  private void migrateAll(String seqFolder, String unseqFolder, CompressionType compressionType) {
+    for (TsFileResource resource : tsFileManager.getTsFileList(true)) {
+      assertTrue(tieredStorageManager.migrate(resource, true, seqFolder, compressionType));
+      assertFalse(resource.getTsFile().exists());
+    }
+    for (TsFileResource resource : tsFileManager.getTsFileList(false)) {
+      assertTrue(tieredStorageManager.migrate(resource, false, unseqFolder, compressionType));
+      assertFalse(resource.getTsFile().exists());
+    }
+  }
+
+  private void assertAllFilesIn(String dir) {
+    String dirPath = new File(dir).getAbsolutePath();
+    List<TsFileResource> resources = new ArrayList<>(tsFileManager.getTsFileList(true));
+    resources.addAll(tsFileManager.getTsFileList(false));
+    for (TsFileResource resource : resources) {
+      assertTrue(resource.getTsFile().getAbsolutePath().startsWith(dirPath));
+      assertTrue(resource.getTsFile().exists());
+      assertTrue(new File(resource.getTsFilePath() + TsFileResource.RESOURCE_SUFFIX).exists());
+      assertEquals(TsFileResourceStatus.CLOSED, resource.getStatus());
+    }
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.buffer;
+
+import org.apache.iotdb.common.rpc.thrift.TEndPoint;
+import org.apache.iotdb.db.mpp.buffer.DataBlockManager.SinkHandleListener;
+import org.apache.iotdb.db.mpp.buffer.DataBlockManager.SourceHandleListener;
+import org.apache.iotdb.db.mpp.execution.FragmentInstanceContext;
+import org.apache.iotdb.db.mpp.memory.LocalMemoryManager;
+import org.apache.iotdb.db.mpp.memory.MemoryPool;
+import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.column.TsBlockSerde;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class LocalSourceHandleTest {
+
+  private static final String QUERY_ID = "q0";
+  private static final long MOCK_TS_BLOCK_SIZE = 1024L;
+
+  private final TFragmentInstanceId remoteFragmentInstanceId =
+      new TFragmentInstanceId(QUERY_ID, 0, "0");
+  private final TFragmentInstanceId localFragmentInstanceId =
+      new TFragmentInstanceId(QUERY_ID, 1, "0");
+  private final String localPlanNodeId = "exchange_0";
+
+  @Test
+  public void testExchangeWithoutSerialization() throws Exception {
+    final int numOfMockTsBlock = 10;
+    MemoryPool memoryPool =
+        new MemoryPool(
+            "test", numOfMockTsBlock * MOCK_TS_BLOCK_SIZE, numOfMockTsBlock * MOCK_TS_BLOCK_SIZE);
+    LocalMemoryManager mockLocalMemoryManager = Mockito.mock(LocalMemoryManager.class);
+    Mockito.when(mockLocalMemoryManager.getQueryPool()).thenReturn(memoryPool);
+    SinkHandleListener mockSinkHandleListener = Mockito.mock(SinkHandleListener.class);
+    SourceHandleListener mockSourceHandleListener = Mockito.mock(SourceHandleListener.class);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    SharedTsBlockQueue queue =
+        new SharedTsBlockQueue(localFragmentInstanceId, mockLocalMemoryManager, executorService);
+    LocalSourceHandle sourceHandle =
+        new LocalSourceHandle(
+            remoteFragmentInstanceId,
+            localFragmentInstanceId,
+            localPlanNodeId,
+            queue,
+            mockSourceHandleListener);
+    LocalSinkHandle sinkHandle =
+        new LocalSinkHandle(
+            localFragmentInstanceId,
+            localPlanNodeId,
+            remoteFragmentInstanceId,
+            queue,
+            mockSinkHandleListener);
+    Assert.assertFalse(sourceHandle.isBlocked().isDone());
+    Assert.assertTrue(sinkHandle.isFull().isDone());
+
+    List<TsBlock> mockTsBlocks = Utils.createMockTsBlocks(numOfMockTsBlock, MOCK_TS_BLOCK_SIZE);
+    sinkHandle.send(mockTsBlocks);
+    Assert.assertTrue(sourceHandle.isBlocked().isDone());
+    Assert.assertEquals(numOfMockTsBlock, sinkHandle.getNumOfBufferedTsBlocks());
+    Assert.assertEquals(
+        numOfMockTsBlock * MOCK_TS_BLOCK_SIZE, memoryPool.getQueryMemoryReservedBytes(QUERY_ID));
+    sinkHandle.close();
+    Mockito.verify(mockSinkHandleListener, Mockito.times(1)).onClosed(sinkHandle);
+    Mockito.verify(mockSinkHandleListener, Mockito.never()).onFinish(sinkHandle);
+
+    for (int i = 0; i < numOfMockTsBlock; i++) {
+      Assert.assertTrue(sourceHandle.isBlocked().isDone());
+      // the same object is handed over
+      Assert.assertSame(mockTsBlocks.get(i), sourceHandle.receive());
+    }
+    Assert.assertTrue(sourceHandle.isFinished());
+    Assert.assertEquals(0L, memoryPool.getQueryMemoryReservedBytes(QUERY_ID));
+    Mockito.verify(mockSourceHandleListener, Mockito.times(1)).onFinished(sourceHandle);
+    Mockito.verify(mockSinkHandleListener, Mockito.times(1)).onFinish(sinkHandle);
+
+    sourceHandle.close();
+    Assert.assertTrue(sourceHandle.isClosed());
+    executorService.shutdown();
+  }
+
+  @Test
+  public void testBackPressure() throws Exception {
+    MemoryPool memoryPool = new MemoryPool("test", MOCK_TS_BLOCK_SIZE, MOCK_TS_BLOCK_SIZE);
+    LocalMemoryManager mockLocalMemoryManager = Mockito.mock(LocalMemoryManager.class);
+    Mockito.when(mockLocalMemoryManager.getQueryPool()).thenReturn(memoryPool);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    SharedTsBlockQueue queue =
+        new SharedTsBlockQueue(localFragmentInstanceId, mockLocalMemoryManager, executorService);
+    LocalSourceHandle sourceHandle =
+        new LocalSourceHandle(
+            remoteFragmentInstanceId,
+            localFragmentInstanceId,
+            localPlanNodeId,
+            queue,
+            Mockito.mock(SourceHandleListener.class));
+    LocalSinkHandle sinkHandle =
+        new LocalSinkHandle(
+            localFragmentInstanceId,
+            localPlanNodeId,
+            remoteFragmentInstanceId,
+            queue,
+            Mockito.mock(SinkHandleListener.class));
+
+    List<TsBlock> mockTsBlocks = Utils.createMockTsBlocks(2, MOCK_TS_BLOCK_SIZE);
+    sinkHandle.send(Collections.singletonList(mockTsBlocks.get(0)));
+    Assert.assertTrue(sinkHandle.isFull().isDone());
+    // the second TsBlock can't be reserved until the first one is consumed
+    sinkHandle.send(Collections.singletonList(mockTsBlocks.get(1)));
+    Assert.assertFalse(sinkHandle.isFull().isDone());
+
+    Assert.assertSame(mockTsBlocks.get(0), sourceHandle.receive());
+    sinkHandle.isFull().get(10, TimeUnit.SECONDS);
+    sourceHandle.isBlocked().get(10, TimeUnit.SECONDS);
+    Assert.assertSame(mockTsBlocks.get(1), sourceHandle.receive());
+    Assert.assertEquals(0L, memoryPool.getReservedBytes());
+
+    sinkHandle.close();
+    Assert.assertTrue(sourceHandle.isFinished());
+    executorService.shutdown();
+  }
+
+  @Test
+  public void testAbort() {
+    final int numOfMockTsBlock = 3;
+    MemoryPool memoryPool =
+        new MemoryPool(
+            "test", numOfMockTsBlock * MOCK_TS_BLOCK_SIZE, numOfMockTsBlock * MOCK_TS_BLOCK_SIZE);
+    LocalMemoryManager mockLocalMemoryManager = Mockito.mock(LocalMemoryManager.class);
+    Mockito.when(mockLocalMemoryManager.getQueryPool()).thenReturn(memoryPool);
+    SinkHandleListener mockSinkHandleListener = Mockito.mock(SinkHandleListener.class);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    SharedTsBlockQueue queue =
+        new SharedTsBlockQueue(localFragmentInstanceId, mockLocalMemoryManager, executorService);
+    LocalSinkHandle sinkHandle =
+        new LocalSinkHandle(
+            localFragmentInstanceId,
+            localPlanNodeId,
+            remoteFragmentInstanceId,
+            queue,
+            mockSinkHandleListener);
+    sinkHandle.send(Utils.createMockTsBlocks(numOfMockTsBlock, MOCK_TS_BLOCK_SIZE));
+    Assert.assertEquals(
+        numOfMockTsBlock * MOCK_TS_BLOCK_SIZE, memoryPool.getQueryMemoryReservedBytes(QUERY_ID));
+
+    sinkHandle.abort();
+    Assert.assertTrue(sinkHandle.isClosed());
+    Assert.assertEquals(0L, memoryPool.getReservedBytes());
+    Assert.assertEquals(0L, sinkHandle.getBufferRetainedSizeInBytes());
+    Mockito.verify(mockSinkHandleListener, Mockito.times(1)).onAborted(sinkHandle);
+    executorService.shutdown();
+  }
+
+  @Test
+  public void testBoundedQueue() throws Exception {
+    MemoryPool memoryPool = new MemoryPool("test", 3 * MOCK_TS_BLOCK_SIZE, 3 * MOCK_TS_BLOCK_SIZE);
+    LocalMemoryManager mockLocalMemoryManager = Mockito.mock(LocalMemoryManager.class);
+    Mockito.when(mockLocalMemoryManager.getQueryPool()).thenReturn(memoryPool);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    // the memory pool can hold 3 TsBlocks, but the queue can only buffer 2 of them
+    SharedTsBlockQueue queue =
+        new SharedTsBlockQueue(
+            localFragmentInstanceId,
+            mockLocalMemoryManager,
+            executorService,
+            2 * MOCK_TS_BLOCK_SIZE);
+    LocalSourceHandle sourceHandle =
+        new LocalSourceHandle(
+            remoteFragmentInstanceId,
+            localFragmentInstanceId,
+            localPlanNodeId,
+            queue,
+            Mockito.mock(SourceHandleListener.class));
+    LocalSinkHandle sinkHandle =
+        new LocalSinkHandle(
+            localFragmentInstanceId,
+            localPlanNodeId,
+            remoteFragmentInstanceId,
+            queue,
+            Mockito.mock(SinkHandleListener.class));
+
+    List<TsBlock> mockTsBlocks = Utils.createMockTsBlocks(2, MOCK_TS_BLOCK_SIZE);
+    sinkHandle.send(Collections.singletonList(mockTsBlocks.get(0)));
+    Assert.assertTrue(sinkHandle.isFull().isDone());
+    sinkHandle.send(Collections.singletonList(mockTsBlocks.get(1)));
+    Assert.assertFalse(sinkHandle.isFull().isDone());
+    Assert.assertEquals(2 * MOCK_TS_BLOCK_SIZE, memoryPool.getQueryMemoryReservedBytes(QUERY_ID));
+
+    Assert.assertSame(mockTsBlocks.get(0), sourceHandle.receive());
+    sinkHandle.isFull().get(10, TimeUnit.SECONDS);
+
+    sinkHandle.close();
+    Assert.assertSame(mockTsBlocks.get(1), sourceHandle.receive());
+    Assert.assertTrue(sourceHandle.isFinished());
+    executorService.shutdown();
+  }
+
+  @Test
+  public void testSinkHandleCreatedAfterSourceHandleClosed() {
+    MemoryPool memoryPool = new MemoryPool("test", MOCK_TS_BLOCK_SIZE, MOCK_TS_BLOCK_SIZE);
+    LocalMemoryManager mockLocalMemoryManager = Mockito.mock(LocalMemoryManager.class);
+    Mockito.when(mockLocalMemoryManager.getQueryPool()).thenReturn(memoryPool);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    TEndPoint localEndpoint = new TEndPoint("127.0.0.1", 8777);
+    DataBlockManager dataBlockManager =
+        new DataBlockManager(
+            mockLocalMemoryManager,
+            () -> Mockito.mock(TsBlockSerde.class),
+            executorService,
+            Mockito.mock(DataBlockServiceClientFactory.class),
+            Collections.singleton(localEndpoint));
+
+    ISourceHandle sourceHandle =
+        dataBlockManager.createSourceHandle(
+            localFragmentInstanceId, localPlanNodeId, localEndpoint, remoteFragmentInstanceId);
+    sourceHandle.close();
+
+    // the upstream fragment instance starts after the downstream one is closed, e.g. cancelled
+    FragmentInstanceContext mockInstanceContext = Mockito.mock(FragmentInstanceContext.class);
+    ISinkHandle sinkHandle =
+        dataBlockManager.createSinkHandle(
+            remoteFragmentInstanceId,
+            localEndpoint,
+            localFragmentInstanceId,
+            localPlanNodeId,
+            mockInstanceContext);
+    // the sink handle gets the closed queue instead of a new one which is never consumed
+    Assert.assertTrue(sinkHandle.isFull().isDone());
+    sinkHandle.send(Utils.createMockTsBlocks(1, MOCK_TS_BLOCK_SIZE));
+    Assert.assertEquals(0L, memoryPool.getReservedBytes());
+    Assert.assertTrue(sinkHandle.isFinished());
+    sinkHandle.close();
+    Mockito.verify(mockInstanceContext, Mockito.times(1)).finished();
+
+    // a new source handle of the same plan node gets a new queue
+    ISourceHandle newSourceHandle =
+        dataBlockManager.createSourceHandle(
+            localFragmentInstanceId, localPlanNodeId, localEndpoint, remoteFragmentInstanceId);
+    Assert.assertFalse(newSourceHandle.isFinished());
+    newSourceHandle.close();
+    executorService.shutdown();
+  }
+}
@@ -21,6 +21,8 @@ package org.apache.iotdb.db.mpp.execution;
 import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.storagegroup.DataRegion;
+import org.apache.iotdb.db.engine.storagegroup.TsFileListSnapshot;
+import org.apache.iotdb.db.engine.storagegroup.TsFileManager;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.exception.metadata.IllegalPathException;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
@@ -157,7 +159,15 @@ public class DataDriverTest {
       List<PartialPath> pathList = ImmutableList.of(measurementPath1, measurementPath2);
       String deviceId = DATA_DRIVER_TEST_SG + ".device0";
 
-      Mockito.when(dataRegion.query(pathList, deviceId, fragmentInstanceContext, null))
+      TsFileManager tsFileManager = new TsFileManager(DATA_DRIVER_TEST_SG, "0", "");
+      Mockito.when(dataRegion.getTsFileManager()).thenReturn(tsFileManager);
+      Mockito.when(
+              dataRegion.queryFromSnapshot(
+                  Mockito.eq(pathList),
+                  Mockito.eq(deviceId),
+                  Mockito.eq(fragmentInstanceContext),
+                  Mockito.isNull(),
+                  Mockito.any(TsFileListSnapshot.class)))
           .thenReturn(new QueryDataSource(seqResources, unSeqResources));
 
       DataDriverContext driverContext =
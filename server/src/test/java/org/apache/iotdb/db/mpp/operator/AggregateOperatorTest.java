@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.metadata.IllegalPathException;
+import org.apache.iotdb.db.exception.metadata.MetadataException;
+import org.apache.iotdb.db.metadata.path.MeasurementPath;
+import org.apache.iotdb.db.mpp.common.FragmentInstanceId;
+import org.apache.iotdb.db.mpp.common.PlanFragmentId;
+import org.apache.iotdb.db.mpp.common.QueryId;
+import org.apache.iotdb.db.mpp.execution.FragmentInstanceContext;
+import org.apache.iotdb.db.mpp.execution.FragmentInstanceStateMachine;
+import org.apache.iotdb.db.mpp.operator.process.AggregateOperator;
+import org.apache.iotdb.db.mpp.operator.process.aggregate.Aggregator;
+import org.apache.iotdb.db.mpp.operator.process.aggregate.AggregatorFactory;
+import org.apache.iotdb.db.mpp.operator.source.SeriesAggregateScanOperator;
+import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.GroupByTimeParameter;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.db.query.aggregation.AggregationType;
+import org.apache.iotdb.db.query.reader.series.SeriesReaderTestUtil;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static org.apache.iotdb.db.mpp.execution.FragmentInstanceContext.createFragmentInstanceContext;
+import static org.junit.Assert.assertEquals;
+
+public class AggregateOperatorTest {
+
+  private static final String AGGREGATE_OPERATOR_TEST_SG = "root.AggregateOperatorTest";
+  private final List<String> deviceIds = new ArrayList<>();
+  private final List<MeasurementSchema> measurementSchemas = new ArrayList<>();
+
+  private final List<TsFileResource> seqResources = new ArrayList<>();
+  private final List<TsFileResource> unSeqResources = new ArrayList<>();
+  private ExecutorService instanceNotificationExecutor;
+
+  @Before
+  public void setUp() throws MetadataException, IOException, WriteProcessException {
+    SeriesReaderTestUtil.setUp(
+        measurementSchemas,
+        deviceIds,
+        seqResources,
+        unSeqResources,
+        AGGREGATE_OPERATOR_TEST_SG);
+    this.instanceNotificationExecutor =
+        IoTDBThreadPoolFactory.newFixedThreadPool(1, "test-instance-notification");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    SeriesReaderTestUtil.tearDown(seqResources, unSeqResources);
+    instanceNotificationExecutor.shutdown();
+  }
+
+  @Test
+  public void testAggregationWithoutGroupBy() throws IllegalPathException {
+    List<AggregationType> aggregationTypes =
+        Arrays.asList(
+            AggregationType.COUNT,
+            AggregationType.SUM,
+            AggregationType.AVG,
+            AggregationType.FIRST_VALUE,
+            AggregationType.LAST_VALUE,
+            AggregationType.MIN_TIME,
+            AggregationType.MAX_TIME,
+            AggregationType.MAX_VALUE,
+            AggregationType.MIN_VALUE);
+    AggregateOperator aggregateOperator = initAggregateOperator(aggregationTypes, null);
+    int count = 0;
+    while (aggregateOperator.hasNext()) {
+      TsBlock resultTsBlock = aggregateOperator.next();
+      for (int row = 0; row < resultTsBlock.getPositionCount(); row++) {
+        assertEquals(500, resultTsBlock.getColumn(0).getLong(row));
+        assertEquals(6524750.0, resultTsBlock.getColumn(1).getDouble(row), 0.0001);
+        assertEquals(13049.5, resultTsBlock.getColumn(2).getDouble(row), 0.0001);
+        assertEquals(20000, resultTsBlock.getColumn(3).getInt(row));
+        assertEquals(10499, resultTsBlock.getColumn(4).getInt(row));
+        assertEquals(0, resultTsBlock.getColumn(5).getLong(row));
+        assertEquals(499, resultTsBlock.getColumn(6).getLong(row));
+        assertEquals(20199, resultTsBlock.getColumn(7).getInt(row));
+        assertEquals(260, resultTsBlock.getColumn(8).getInt(row));
+        count++;
+      }
+    }
+    assertEquals(1, count);
+  }
+
+  @Test
+  public void testGroupBy() throws IllegalPathException {
+    int[][] result =
+        new int[][] {
+          {100, 100, 100, 100},
+          {20000, 20100, 10200, 10300},
+          {20099, 20199, 299, 399},
+          {20099, 20199, 10259, 10379},
+          {20000, 20100, 260, 380}
+        };
+    List<AggregationType> aggregationTypes =
+        Arrays.asList(
+            AggregationType.COUNT,
+            AggregationType.FIRST_VALUE,
+            AggregationType.LAST_VALUE,
+            AggregationType.MAX_VALUE,
+            AggregationType.MIN_VALUE);
+    GroupByTimeParameter groupByTimeParameter = new GroupByTimeParameter(0, 399, 100, 100, true);
+    AggregateOperator aggregateOperator =
+        initAggregateOperator(aggregationTypes, groupByTimeParameter);
+    int count = 0;
+    while (aggregateOperator.hasNext()) {
+      TsBlock resultTsBlock = aggregateOperator.next();
+      for (int row = 0; row < resultTsBlock.getPositionCount(); row++) {
+        assertEquals(100 * count, resultTsBlock.getTimeColumn().getLong(row));
+        assertEquals(result[0][count], resultTsBlock.getColumn(0).getLong(row));
+        assertEquals(result[1][count], resultTsBlock.getColumn(1).getInt(row));
+        assertEquals(result[2][count], resultTsBlock.getColumn(2).getInt(row));
+        assertEquals(result[3][count], resultTsBlock.getColumn(3).getInt(row));
+        assertEquals(result[4][count], resultTsBlock.getColumn(4).getInt(row));
+        count++;
+      }
+    }
+    assertEquals(4, count);
+  }
+
+  /**
+   * The series is split into two children by time, like two data regions, and each of them
+   * calculates the partial results of all the aggregation functions.
+   */
+  private AggregateOperator initAggregateOperator(
+      List<AggregationType> aggregationTypes, GroupByTimeParameter groupByTimeParameter)
+      throws IllegalPathException {
+    MeasurementPath measurementPath =
+        new MeasurementPath(AGGREGATE_OPERATOR_TEST_SG + ".device0.sensor0", TSDataType.INT32);
+    Set<String> allSensors = Sets.newHashSet("sensor0");
+    QueryId queryId = new QueryId("stub_query");
+    FragmentInstanceId instanceId =
+        new FragmentInstanceId(new PlanFragmentId(queryId, 0), "stub-instance");
+    FragmentInstanceStateMachine stateMachine =
+        new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
+    FragmentInstanceContext fragmentInstanceContext =
+        createFragmentInstanceContext(instanceId, stateMachine);
+    PlanNodeId planNodeId1 = new PlanNodeId("1");
+    fragmentInstanceContext.addOperatorContext(
+        1, planNodeId1, SeriesAggregateScanOperator.class.getSimpleName());
+    PlanNodeId planNodeId2 = new PlanNodeId("2");
+    fragmentInstanceContext.addOperatorContext(
+        2, planNodeId2, SeriesAggregateScanOperator.class.getSimpleName());
+    PlanNodeId planNodeId3 = new PlanNodeId("3");
+    fragmentInstanceContext.addOperatorContext(
+        3, planNodeId3, AggregateOperator.class.getSimpleName());
+
+    List<AggregationType> partialAggregationTypes = new ArrayList<>();
+    List<Aggregator> aggregators = new ArrayList<>();
+    for (AggregationType aggregationType : aggregationTypes) {
+      List<AggregationType> partialTypes =
+          AggregatorFactory.getPartialAggregationTypes(aggregationType);
+      List<InputLocation[]> inputLocationList = new ArrayList<>();
+      for (int child = 0; child < 2; child++) {
+        InputLocation[] inputLocations = new InputLocation[partialTypes.size()];
+        for (int i = 0; i < partialTypes.size(); i++) {
+          inputLocations[i] = new InputLocation(child, partialAggregationTypes.size() + i);
+        }
+        inputLocationList.add(inputLocations);
+      }
+      partialAggregationTypes.addAll(partialTypes);
+      aggregators.add(
+          AggregatorFactory.createAggregator(
+              aggregationType, TSDataType.INT32, inputLocationList));
+    }
+
+    Filter[] timeFilters = new Filter[] {TimeFilter.lt(200), TimeFilter.gtEq(200)};
+    PlanNodeId[] planNodeIds = new PlanNodeId[] {planNodeId1, planNodeId2};
+    List<Operator> children = new ArrayList<>();
+    for (int child = 0; child < 2; child++) {
+      SeriesAggregateScanOperator seriesAggregateScanOperator =
+          new SeriesAggregateScanOperator(
+              planNodeIds[child],
+              measurementPath,
+              allSensors,
+              fragmentInstanceContext.getOperatorContexts().get(child),
+              partialAggregationTypes,
+              timeFilters[child],
+              true,
+              groupByTimeParameter);
+      seriesAggregateScanOperator.initQueryDataSource(
+          new QueryDataSource(seqResources, unSeqResources));
+      children.add(seriesAggregateScanOperator);
+    }
+
+    return new AggregateOperator(
+        fragmentInstanceContext.getOperatorContexts().get(2), children, aggregators);
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.mpp.common.FragmentInstanceId;
+import org.apache.iotdb.db.mpp.common.PlanFragmentId;
+import org.apache.iotdb.db.mpp.common.QueryId;
+import org.apache.iotdb.db.mpp.execution.FragmentInstanceContext;
+import org.apache.iotdb.db.mpp.execution.FragmentInstanceStateMachine;
+import org.apache.iotdb.db.mpp.operator.process.DeviceMergeOperator;
+import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.OutputColumn;
+import org.apache.iotdb.db.mpp.sql.statement.component.OrderBy;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.apache.iotdb.db.mpp.execution.FragmentInstanceContext.createFragmentInstanceContext;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DeviceMergeOperatorTest {
+
+  private ExecutorService instanceNotificationExecutor;
+  private FragmentInstanceContext fragmentInstanceContext;
+
+  @Before
+  public void setUp() {
+    instanceNotificationExecutor =
+        IoTDBThreadPoolFactory.newFixedThreadPool(1, "test-instance-notification");
+    QueryId queryId = new QueryId("stub_query");
+    FragmentInstanceId instanceId =
+        new FragmentInstanceId(new PlanFragmentId(queryId, 0), "stub-instance");
+    FragmentInstanceStateMachine stateMachine =
+        new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
+    fragmentInstanceContext = createFragmentInstanceContext(instanceId, stateMachine);
+    fragmentInstanceContext.addOperatorContext(
+        1, new PlanNodeId("1"), DeviceMergeOperator.class.getSimpleName());
+  }
+
+  @After
+  public void tearDown() {
+    instanceNotificationExecutor.shutdown();
+  }
+
+  /**
+   * The children of each device output s1 without the device column. The data of root.sg.d1 is
+   * split into two children by time, and the child of root.sg.d3 should not be read until the rows
+   * of root.sg.d1 are output.
+   */
+  @Test
+  public void testMergeDevices() {
+    TsBlockListOperator d3 = new TsBlockListOperator(buildTsBlock(null, 0, 3, 300));
+    List<Operator> children =
+        Arrays.asList(
+            new TsBlockListOperator(buildTsBlock(null, 0, 3, 200)),
+            new TsBlockListOperator(buildTsBlock(null, 0, 2, 100)),
+            d3,
+            new TsBlockListOperator(buildTsBlock(null, 2, 4, 100), buildTsBlock(null, 4, 5, 100)));
+    List<String> devices = Arrays.asList("root.sg.d2", "root.sg.d1", "root.sg.d3", "root.sg.d1");
+    List<InputLocation> sourceLocations = new ArrayList<>();
+    for (int i = 0; i < children.size(); i++) {
+      sourceLocations.add(new InputLocation(i, 0));
+    }
+    DeviceMergeOperator deviceMergeOperator =
+        new DeviceMergeOperator(
+            fragmentInstanceContext.getOperatorContexts().get(0),
+            children,
+            devices,
+            OrderBy.TIMESTAMP_ASC,
+            Collections.singletonList(TSDataType.INT32),
+            Collections.singletonList(new OutputColumn(sourceLocations, false)));
+
+    List<String> expected =
+        Arrays.asList(
+            "root.sg.d1,0,100",
+            "root.sg.d1,1,101",
+            "root.sg.d1,2,102",
+            "root.sg.d1,3,103",
+            "root.sg.d1,4,104",
+            "root.sg.d2,0,200",
+            "root.sg.d2,1,201",
+            "root.sg.d2,2,202",
+            "root.sg.d3,0,300",
+            "root.sg.d3,1,301",
+            "root.sg.d3,2,302");
+    List<String> actual = new ArrayList<>();
+    while (deviceMergeOperator.hasNext()) {
+      assertTrue(deviceMergeOperator.isBlocked().isDone());
+      TsBlock tsBlock = deviceMergeOperator.next();
+      if (tsBlock == null) {
+        continue;
+      }
+      for (int row = 0; row < tsBlock.getPositionCount(); row++) {
+        String device = tsBlock.getColumn(0).getBinary(row).getStringValue();
+        if (device.equals("root.sg.d1")) {
+          assertFalse(d3.isRead());
+        }
+        actual.add(
+            device + "," + tsBlock.getTimeByIndex(row) + "," + tsBlock.getColumn(1).getInt(row));
+      }
+    }
+    assertEquals(expected, actual);
+    assertTrue(deviceMergeOperator.isFinished());
+  }
+
+  /** Each child outputs the device column and is already ordered by device and time. */
+  @Test
+  public void testMergeStreams() {
+    List<Operator> children =
+        Arrays.asList(
+            new TsBlockListOperator(
+                buildTsBlock("root.sg.d1", 0, 2, 100), buildTsBlock("root.sg.d3", 0, 2, 300)),
+            new TsBlockListOperator(
+                buildTsBlock("root.sg.d1", 2, 3, 100), buildTsBlock("root.sg.d2", 0, 2, 200)));
+    List<InputLocation> sourceLocations =
+        Arrays.asList(new InputLocation(0, 1), new InputLocation(1, 1));
+    DeviceMergeOperator deviceMergeOperator =
+        new DeviceMergeOperator(
+            fragmentInstanceContext.getOperatorContexts().get(0),
+            children,
+            Arrays.asList(null, null),
+            OrderBy.TIMESTAMP_DESC,
+            Collections.singletonList(TSDataType.INT32),
+            Collections.singletonList(new OutputColumn(sourceLocations, false)));
+
+    List<String> expected =
+        Arrays.asList(
+            "root.sg.d1,2,102",
+            "root.sg.d1,1,101",
+            "root.sg.d1,0,100",
+            "root.sg.d2,1,201",
+            "root.sg.d2,0,200",
+            "root.sg.d3,1,301",
+            "root.sg.d3,0,300");
+    List<String> actual = new ArrayList<>();
+    while (deviceMergeOperator.hasNext()) {
+      TsBlock tsBlock = deviceMergeOperator.next();
+      if (tsBlock == null) {
+        continue;
+      }
+      for (int row = 0; row < tsBlock.getPositionCount(); row++) {
+        actual.add(
+            tsBlock.getColumn(0).getBinary(row).getStringValue()
+                + ","
+                + tsBlock.getTimeByIndex(row)
+                + ","
+                + tsBlock.getColumn(1).getInt(row));
+      }
+    }
+    assertEquals(expected, actual);
+  }
+
+  /**
+   * Build a TsBlock of times [startTime, endTime) and s1 = base + time. The device column is added
+   * before s1 if the device is not null. The times are in descending order for a device column,
+   * which is used by the test of TIMESTAMP_DESC.
+   */
+  private TsBlock buildTsBlock(String device, int startTime, int endTime, int base) {
+    List<TSDataType> dataTypes =
+        device == null
+            ? Collections.singletonList(TSDataType.INT32)
+            : Arrays.asList(TSDataType.TEXT, TSDataType.INT32);
+    TsBlockBuilder builder = new TsBlockBuilder(dataTypes);
+    for (int i = startTime; i < endTime; i++) {
+      int time = device == null ? i : endTime - 1 - (i - startTime);
+      builder.getTimeColumnBuilder().writeLong(time);
+      if (device != null) {
+        builder.getColumnBuilder(0).writeBinary(new Binary(device));
+      }
+      builder.getColumnBuilder(dataTypes.size() - 1).writeInt(base + time);
+      builder.declarePosition();
+    }
+    return builder.build();
+  }
+
+  private static class TsBlockListOperator implements Operator {
+
+    private final List<TsBlock> tsBlocks;
+    private int index = 0;
+
+    private TsBlockListOperator(TsBlock... tsBlocks) {
+      this.tsBlocks = Arrays.asList(tsBlocks);
+    }
+
+    private boolean isRead() {
+      return index > 0;
+    }
+
+    @Override
+    public OperatorContext getOperatorContext() {
+      return null;
+    }
+
+    @Override
+    public TsBlock next() {
+      return tsBlocks.get(index++);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < tsBlocks.size();
+    }
+
+    @Override
+    public boolean isFinished() {
+      return !hasNext();
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.metadata.IllegalPathException;
+import org.apache.iotdb.db.exception.metadata.MetadataException;
+import org.apache.iotdb.db.metadata.path.MeasurementPath;
+import org.apache.iotdb.db.mpp.common.FragmentInstanceId;
+import org.apache.iotdb.db.mpp.common.PlanFragmentId;
+import org.apache.iotdb.db.mpp.common.QueryId;
+import org.apache.iotdb.db.mpp.execution.FragmentInstanceContext;
+import org.apache.iotdb.db.mpp.execution.FragmentInstanceStateMachine;
+import org.apache.iotdb.db.mpp.operator.process.GroupByLevelOperator;
+import org.apache.iotdb.db.mpp.operator.process.aggregate.AggregatorFactory;
+import org.apache.iotdb.db.mpp.operator.source.SeriesAggregateScanOperator;
+import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.OutputColumn;
+import org.apache.iotdb.db.query.aggregation.AggregationType;
+import org.apache.iotdb.db.query.reader.series.SeriesReaderTestUtil;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.apache.iotdb.db.mpp.execution.FragmentInstanceContext.createFragmentInstanceContext;
+import static org.junit.Assert.assertEquals;
+
+public class GroupByLevelOperatorTest {
+
+  private static final String GROUP_BY_LEVEL_OPERATOR_TEST_SG = "root.GroupByLevelOperatorTest";
+  private final List<String> deviceIds = new ArrayList<>();
+  private final List<MeasurementSchema> measurementSchemas = new ArrayList<>();
+
+  private final List<TsFileResource> seqResources = new ArrayList<>();
+  private final List<TsFileResource> unSeqResources = new ArrayList<>();
+  private ExecutorService instanceNotificationExecutor;
+
+  private final List<AggregationType> aggregationTypes =
+      Arrays.asList(AggregationType.COUNT, AggregationType.MAX_VALUE, AggregationType.AVG);
+
+  @Before
+  public void setUp() throws MetadataException, IOException, WriteProcessException {
+    SeriesReaderTestUtil.setUp(
+        measurementSchemas,
+        deviceIds,
+        seqResources,
+        unSeqResources,
+        GROUP_BY_LEVEL_OPERATOR_TEST_SG);
+    this.instanceNotificationExecutor =
+        IoTDBThreadPoolFactory.newFixedThreadPool(1, "test-instance-notification");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    SeriesReaderTestUtil.tearDown(seqResources, unSeqResources);
+    instanceNotificationExecutor.shutdown();
+  }
+
+  /**
+   * count, max_value and avg of root.sg.*.sensor0, in which device0.sensor0 and device1.sensor0
+   * are split into two data regions by time. The partial GroupByLevelOperator of each data region
+   * rolls up the two devices and the final one merges the partial results.
+   */
+  @Test
+  public void testPartialAndFinalGroupByLevel() throws IllegalPathException {
+    QueryId queryId = new QueryId("stub_query");
+    FragmentInstanceId instanceId =
+        new FragmentInstanceId(new PlanFragmentId(queryId, 0), "stub-instance");
+    FragmentInstanceStateMachine stateMachine =
+        new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
+    FragmentInstanceContext fragmentInstanceContext =
+        createFragmentInstanceContext(instanceId, stateMachine);
+
+    List<AggregationType> partialAggregationTypes = new ArrayList<>();
+    for (AggregationType aggregationType : aggregationTypes) {
+      partialAggregationTypes.addAll(AggregatorFactory.getPartialAggregationTypes(aggregationType));
+    }
+
+    Filter[] timeFilters = new Filter[] {TimeFilter.lt(200), TimeFilter.gtEq(200)};
+    List<Operator> partialOperators = new ArrayList<>();
+    int operatorId = 0;
+    for (Filter timeFilter : timeFilters) {
+      List<Operator> scanOperators = new ArrayList<>();
+      for (int device = 0; device < 2; device++) {
+        MeasurementPath measurementPath =
+            new MeasurementPath(
+                GROUP_BY_LEVEL_OPERATOR_TEST_SG + ".device" + device + ".sensor0",
+                TSDataType.INT32);
+        PlanNodeId planNodeId = new PlanNodeId(String.valueOf(operatorId));
+        SeriesAggregateScanOperator seriesAggregateScanOperator =
+            new SeriesAggregateScanOperator(
+                planNodeId,
+                measurementPath,
+                Sets.newHashSet("sensor0"),
+                fragmentInstanceContext.addOperatorContext(
+                    operatorId++, planNodeId, SeriesAggregateScanOperator.class.getSimpleName()),
+                partialAggregationTypes,
+                timeFilter,
+                true,
+                null);
+        seriesAggregateScanOperator.initQueryDataSource(
+            new QueryDataSource(seqResources, unSeqResources));
+        scanOperators.add(seriesAggregateScanOperator);
+      }
+      partialOperators.add(
+          createGroupByLevelOperator(fragmentInstanceContext, operatorId++, scanOperators, true));
+    }
+    GroupByLevelOperator finalOperator =
+        createGroupByLevelOperator(fragmentInstanceContext, operatorId, partialOperators, false);
+
+    int count = 0;
+    while (finalOperator.hasNext()) {
+      TsBlock resultTsBlock = finalOperator.next();
+      for (int row = 0; row < resultTsBlock.getPositionCount(); row++) {
+        assertEquals(1000, resultTsBlock.getColumn(0).getLong(row));
+        assertEquals(20199, resultTsBlock.getColumn(1).getInt(row));
+        assertEquals(13049.5, resultTsBlock.getColumn(2).getDouble(row), 0.0001);
+        count++;
+      }
+    }
+    assertEquals(1, count);
+  }
+
+  /**
+   * Every child outputs the partial results of all the groups in order, so the partial result
+   * columns of group i in child j start from the sum of the partial widths of the previous groups.
+   */
+  private GroupByLevelOperator createGroupByLevelOperator(
+      FragmentInstanceContext fragmentInstanceContext,
+      int operatorId,
+      List<Operator> children,
+      boolean outputPartialResult) {
+    PlanNodeId planNodeId = new PlanNodeId(String.valueOf(operatorId));
+    List<OutputColumn> outputColumns = new ArrayList<>();
+    int startIndex = 0;
+    for (AggregationType aggregationType : aggregationTypes) {
+      int partialColumnCount = AggregatorFactory.getPartialAggregationTypes(aggregationType).size();
+      List<InputLocation> sourceLocations = new ArrayList<>();
+      for (int child = 0; child < children.size(); child++) {
+        for (int i = 0; i < partialColumnCount; i++) {
+          sourceLocations.add(new InputLocation(child, startIndex + i));
+        }
+      }
+      outputColumns.add(new OutputColumn(sourceLocations, false));
+      startIndex += partialColumnCount;
+    }
+    return new GroupByLevelOperator(
+        fragmentInstanceContext.addOperatorContext(
+            operatorId, planNodeId, GroupByLevelOperator.class.getSimpleName()),
+        children,
+        aggregationTypes,
+        Collections.nCopies(aggregationTypes.size(), TSDataType.INT32),
+        outputColumns,
+        outputPartialResult);
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.operator;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.mpp.common.FragmentInstanceId;
+import org.apache.iotdb.db.mpp.common.PlanFragmentId;
+import org.apache.iotdb.db.mpp.common.QueryId;
+import org.apache.iotdb.db.mpp.execution.FragmentInstanceContext;
+import org.apache.iotdb.db.mpp.execution.FragmentInstanceStateMachine;
+import org.apache.iotdb.db.mpp.memory.MemoryPool;
+import org.apache.iotdb.db.mpp.operator.process.SortOperator;
+import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.mpp.sql.statement.component.OrderBy;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.TsBlockBuilder;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.apache.iotdb.db.mpp.execution.FragmentInstanceContext.createFragmentInstanceContext;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SortOperatorTest {
+
+  private static final String SPILL_DIR = TestConstant.BASE_OUTPUT_PATH.concat("sort-test");
+  private static final int TS_BLOCK_NUM = 100;
+  private static final int ROWS_PER_TS_BLOCK = 10;
+
+  private ExecutorService instanceNotificationExecutor;
+
+  @Before
+  public void setUp() {
+    instanceNotificationExecutor =
+        IoTDBThreadPoolFactory.newFixedThreadPool(1, "test-instance-notification");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    instanceNotificationExecutor.shutdown();
+    FileUtils.deleteDirectory(new File(SPILL_DIR));
+  }
+
+  @Test
+  public void testSortInMemory() throws Exception {
+    MemoryPool memoryPool = new MemoryPool("test", 1024 * 1024 * 1024L, 1024 * 1024 * 1024L);
+    testSort(memoryPool, OrderBy.TIMESTAMP_ASC);
+    testSort(memoryPool, OrderBy.TIMESTAMP_DESC);
+    assertEquals(0L, memoryPool.getReservedBytes());
+  }
+
+  /** Every TsBlock is spilled, and the first spilled runs are merged in advance. */
+  @Test
+  public void testSortWithSpill() throws Exception {
+    MemoryPool memoryPool = new MemoryPool("test", 1, 1);
+    testSort(memoryPool, OrderBy.TIMESTAMP_ASC);
+    testSort(memoryPool, OrderBy.TIMESTAMP_DESC);
+    assertEquals(0L, memoryPool.getReservedBytes());
+  }
+
+  private void testSort(MemoryPool memoryPool, OrderBy sortOrder) throws Exception {
+    // the rows with the same time are distinguished by the value, which increases with the input
+    List<long[]> expectedRows = new ArrayList<>();
+    List<TsBlock> input = new ArrayList<>();
+    for (int i = 0; i < TS_BLOCK_NUM; i++) {
+      TsBlockBuilder builder = new TsBlockBuilder(Collections.singletonList(TSDataType.INT32));
+      for (int j = 0; j < ROWS_PER_TS_BLOCK; j++) {
+        long time = j * 10L + i % 10;
+        int value = i * ROWS_PER_TS_BLOCK + j;
+        builder.getTimeColumnBuilder().writeLong(time);
+        if (value % 7 == 0) {
+          builder.getColumnBuilder(0).appendNull();
+        } else {
+          builder.getColumnBuilder(0).writeInt(value);
+        }
+        builder.declarePosition();
+        expectedRows.add(new long[] {time, value});
+      }
+      input.add(builder.build());
+    }
+    // List.sort is stable
+    expectedRows.sort(
+        sortOrder == OrderBy.TIMESTAMP_ASC
+            ? Comparator.comparingLong(row -> row[0])
+            : Comparator.comparingLong(row -> -row[0]));
+
+    QueryId queryId = new QueryId("stub_query");
+    FragmentInstanceId instanceId =
+        new FragmentInstanceId(new PlanFragmentId(queryId, 0), "stub-instance");
+    FragmentInstanceStateMachine stateMachine =
+        new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
+    FragmentInstanceContext fragmentInstanceContext =
+        createFragmentInstanceContext(instanceId, stateMachine);
+    PlanNodeId planNodeId = new PlanNodeId("1");
+    fragmentInstanceContext.addOperatorContext(
+        1, planNodeId, SortOperator.class.getSimpleName());
+
+    SortOperator sortOperator =
+        new SortOperator(
+            fragmentInstanceContext.getOperatorContexts().get(0),
+            new TsBlockListOperator(input),
+            sortOrder,
+            Collections.singletonList(TSDataType.INT32),
+            memoryPool,
+            SPILL_DIR);
+    int count = 0;
+    while (sortOperator.hasNext()) {
+      TsBlock tsBlock = sortOperator.next();
+      if (tsBlock == null) {
+        continue;
+      }
+      for (int row = 0; row < tsBlock.getPositionCount(); row++) {
+        long[] expectedRow = expectedRows.get(count++);
+        assertEquals(expectedRow[0], tsBlock.getTimeByIndex(row));
+        if (expectedRow[1] % 7 == 0) {
+          assertTrue(tsBlock.getColumn(0).isNull(row));
+        } else {
+          assertEquals(expectedRow[1], tsBlock.getColumn(0).getInt(row));
+        }
+      }
+    }
+    assertEquals(expectedRows.size(), count);
+    assertTrue(sortOperator.isFinished());
+    sortOperator.close();
+
+    File[] spilledFiles = new File(SPILL_DIR).listFiles();
+    assertTrue(spilledFiles == null || spilledFiles.length == 0);
+  }
+
+  private static class TsBlockListOperator implements Operator {
+
+    private final Iterator<TsBlock> iterator;
+
+    private TsBlockListOperator(List<TsBlock> tsBlocks) {
+      this.iterator = tsBlocks.iterator();
+    }
+
+    @Override
+    public OperatorContext getOperatorContext() {
+      return null;
+    }
+
+    @Override
+    public TsBlock next() {
+      return iterator.next();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public boolean isFinished() {
+      return !iterator.hasNext();
+    }
+  }
+}
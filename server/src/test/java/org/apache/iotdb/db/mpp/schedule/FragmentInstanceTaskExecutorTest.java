@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.schedule;
+
+import org.apache.iotdb.db.mpp.buffer.IDataBlockManager;
+import org.apache.iotdb.db.mpp.common.FragmentInstanceId;
+import org.apache.iotdb.db.mpp.common.PlanFragmentId;
+import org.apache.iotdb.db.mpp.common.QueryId;
+import org.apache.iotdb.db.mpp.execution.IDriver;
+import org.apache.iotdb.db.mpp.schedule.queue.IndexedBlockingQueue;
+import org.apache.iotdb.db.mpp.schedule.task.FragmentInstanceTask;
+import org.apache.iotdb.db.mpp.schedule.task.FragmentInstanceTaskStatus;
+import org.apache.iotdb.db.utils.stats.CpuTimer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class FragmentInstanceTaskExecutorTest {
+
+  private final FragmentInstanceScheduler manager = FragmentInstanceScheduler.getInstance();
+
+  @After
+  public void tearDown() {
+    manager.getQueryMap().clear();
+    manager.getBlockedTasks().clear();
+    manager.getReadyQueue().clear();
+    manager.getTimeoutQueue().clear();
+  }
+
+  @Test
+  public void testStealFromPeer() throws InterruptedException {
+    IndexedBlockingQueue<FragmentInstanceTask> readyQueue = manager.getReadyQueue();
+    FragmentInstanceTaskExecutor owner =
+        new FragmentInstanceTaskExecutor(
+            "0", new ThreadGroup("executor-test"), readyQueue, manager.getScheduler());
+    FragmentInstanceTaskExecutor thief =
+        new FragmentInstanceTaskExecutor(
+            "1", new ThreadGroup("executor-test"), readyQueue, manager.getScheduler());
+    owner.setPeers(Arrays.asList(owner, thief));
+    thief.setPeers(Arrays.asList(owner, thief));
+
+    FragmentInstanceTask task1 = createTask("inst-0", FragmentInstanceTaskStatus.READY);
+    FragmentInstanceTask task2 = createTask("inst-1", FragmentInstanceTaskStatus.READY);
+    Assert.assertTrue(owner.offerLocal(task1));
+    Assert.assertTrue(owner.offerLocal(task2));
+
+    // the idle worker steals the task which the owner would run last
+    Assert.assertSame(task2, thief.poll());
+    Assert.assertSame(task1, owner.poll());
+    Assert.assertEquals(0, readyQueue.size());
+  }
+
+  @Test
+  public void testYieldToWaitingPoller() throws InterruptedException {
+    IndexedBlockingQueue<FragmentInstanceTask> readyQueue = manager.getReadyQueue();
+    ITaskScheduler scheduler = manager.getScheduler();
+    FragmentInstanceTaskExecutor executor =
+        new FragmentInstanceTaskExecutor(
+            "0", new ThreadGroup("executor-test"), readyQueue, scheduler);
+    executor.setPeers(Collections.singletonList(executor));
+
+    // no worker is waiting, so the yielded task stays in the local queue of its worker
+    FragmentInstanceTask task = createTask("inst-0", FragmentInstanceTaskStatus.RUNNING);
+    scheduler.runningToReady(task, createContext(executor));
+    Assert.assertEquals(FragmentInstanceTaskStatus.READY, task.getStatus());
+    Assert.assertEquals(0, readyQueue.size());
+    Assert.assertSame(task, executor.poll());
+
+    // a worker is waiting on the shared queue, so the yielded task is handed over to it
+    AtomicReference<FragmentInstanceTask> polled = new AtomicReference<>();
+    Thread poller =
+        new Thread(
+            () -> {
+              try {
+                polled.set(readyQueue.poll());
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    poller.start();
+    while (readyQueue.getWaitingPollerNum() == 0) {
+      Thread.sleep(10);
+    }
+    Assert.assertTrue(scheduler.readyToRunning(task));
+    scheduler.runningToReady(task, createContext(executor));
+    poller.join(10_000);
+    Assert.assertFalse(poller.isAlive());
+    Assert.assertSame(task, polled.get());
+  }
+
+  @Test
+  public void testDropAbortedTaskInLocalQueue() throws ExecutionException, InterruptedException {
+    IDataBlockManager mockDataBlockManager = Mockito.mock(IDataBlockManager.class);
+    manager.setBlockManager(mockDataBlockManager);
+    ITaskScheduler scheduler = manager.getScheduler();
+    FragmentInstanceTaskExecutor executor =
+        new FragmentInstanceTaskExecutor(
+            "0", new ThreadGroup("executor-test"), manager.getReadyQueue(), scheduler);
+    executor.setPeers(Collections.singletonList(executor));
+
+    FragmentInstanceTask task = createTask("inst-0", FragmentInstanceTaskStatus.READY);
+    Assert.assertTrue(executor.offerLocal(task));
+    scheduler.toAborted(task);
+    Assert.assertEquals(FragmentInstanceTaskStatus.ABORTED, task.getStatus());
+
+    // the aborted task is still in the local queue, but it's dropped instead of being run
+    Assert.assertSame(task, executor.poll());
+    Assert.assertFalse(scheduler.readyToRunning(task));
+    executor.execute(task);
+    Mockito.verify(task.getFragmentInstance(), Mockito.never()).processFor(Mockito.any());
+    Assert.assertEquals(FragmentInstanceTaskStatus.ABORTED, task.getStatus());
+  }
+
+  private FragmentInstanceTask createTask(String instanceId, FragmentInstanceTaskStatus status) {
+    QueryId queryId = new QueryId("test");
+    PlanFragmentId fragmentId = new PlanFragmentId(queryId, 0);
+    IDriver mockDriver = Mockito.mock(IDriver.class);
+    Mockito.when(mockDriver.getInfo()).thenReturn(new FragmentInstanceId(fragmentId, instanceId));
+    return new FragmentInstanceTask(mockDriver, 10_000L, status);
+  }
+
+  private ExecutionContext createContext(FragmentInstanceTaskExecutor executor) {
+    ExecutionContext context = new ExecutionContext();
+    context.setCpuDuration(new CpuTimer.CpuDuration());
+    context.setTimeSlice(FragmentInstanceTaskExecutor.EXECUTION_TIME_SLICE);
+    context.setExecutor(executor);
+    return context;
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.schedule.queue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class MultilevelPriorityQueueTest {
+
+  @Test
+  public void testComputeLevel() {
+    Assert.assertEquals(0, MultilevelPriorityQueue.computeLevel(0L));
+    Assert.assertEquals(
+        0, MultilevelPriorityQueue.computeLevel(TimeUnit.MILLISECONDS.toNanos(999)));
+    Assert.assertEquals(1, MultilevelPriorityQueue.computeLevel(TimeUnit.SECONDS.toNanos(1)));
+    Assert.assertEquals(2, MultilevelPriorityQueue.computeLevel(TimeUnit.SECONDS.toNanos(59)));
+    Assert.assertEquals(3, MultilevelPriorityQueue.computeLevel(TimeUnit.SECONDS.toNanos(60)));
+    Assert.assertEquals(4, MultilevelPriorityQueue.computeLevel(TimeUnit.HOURS.toNanos(1)));
+  }
+
+  @Test
+  public void testPushAndPollInLevel() throws InterruptedException {
+    MultilevelPriorityQueue<MultilevelQueueElement> queue = newQueue(10);
+    MultilevelQueueElement e1 = new MultilevelQueueElement(1, 10, 0L);
+    queue.push(e1);
+    MultilevelQueueElement e2 = new MultilevelQueueElement(2, 5, 0L);
+    queue.push(e2);
+    Assert.assertEquals(2, queue.size());
+    Assert.assertEquals(0, e1.getLevel());
+    Assert.assertEquals(0, queue.getHighestReadyLevel());
+    Assert.assertEquals(e2.getId().toString(), queue.poll().getId().toString());
+    Assert.assertEquals(e1.getId().toString(), queue.poll().getId().toString());
+    Assert.assertEquals(0, queue.size());
+    Assert.assertEquals(MultilevelPriorityQueue.LEVEL_NUM, queue.getHighestReadyLevel());
+    Assert.assertNull(queue.tryPoll());
+  }
+
+  @Test
+  public void testLevelShare() throws InterruptedException {
+    MultilevelPriorityQueue<MultilevelQueueElement> queue = newQueue(10);
+    // a long query at level 3 and a short one at level 0
+    MultilevelQueueElement longElement =
+        new MultilevelQueueElement(1, 0, TimeUnit.SECONDS.toNanos(100));
+    MultilevelQueueElement shortElement = new MultilevelQueueElement(2, 0, 0L);
+    queue.push(longElement);
+    queue.push(shortElement);
+    Assert.assertEquals(3, longElement.getLevel());
+    Assert.assertEquals(0, queue.getHighestReadyLevel());
+
+    // no level has run, the higher one goes first
+    Assert.assertEquals(shortElement, queue.poll());
+    queue.addScheduledNanos(0, TimeUnit.SECONDS.toNanos(10));
+    queue.push(shortElement);
+    // level 0 has used 10s, and level 3 has used nothing
+    Assert.assertEquals(longElement, queue.poll());
+    // the share of level 3 is 1/8 of level 0, so 2s of level 3 outweighs 10s of level 0
+    queue.addScheduledNanos(3, TimeUnit.SECONDS.toNanos(2));
+    queue.push(longElement);
+    Assert.assertEquals(shortElement, queue.poll());
+    Assert.assertEquals(longElement, queue.poll());
+  }
+
+  @Test
+  public void testIdleLevelCatchUp() {
+    MultilevelPriorityQueue<MultilevelQueueElement> queue = newQueue(10);
+    queue.addScheduledNanos(0, TimeUnit.SECONDS.toNanos(8));
+    queue.push(new MultilevelQueueElement(1, 0, 0L));
+    // level 1 becomes non-empty, its scheduled time is raised to half of level 0
+    queue.push(new MultilevelQueueElement(2, 0, TimeUnit.SECONDS.toNanos(5)));
+    Assert.assertEquals(TimeUnit.SECONDS.toNanos(4), queue.getLevelScheduledNanos(1));
+    // the raise never reduces the scheduled time
+    queue.addScheduledNanos(2, TimeUnit.SECONDS.toNanos(100));
+    queue.push(new MultilevelQueueElement(3, 0, TimeUnit.SECONDS.toNanos(20)));
+    Assert.assertEquals(TimeUnit.SECONDS.toNanos(100), queue.getLevelScheduledNanos(2));
+  }
+
+  @Test
+  public void testRemoveElement() {
+    MultilevelPriorityQueue<MultilevelQueueElement> queue = newQueue(10);
+    MultilevelQueueElement e1 = new MultilevelQueueElement(1, 0, 0L);
+    queue.push(e1);
+    MultilevelQueueElement e2 = new MultilevelQueueElement(2, 0, TimeUnit.SECONDS.toNanos(10));
+    queue.push(e2);
+    Assert.assertEquals(2, queue.size());
+    Assert.assertEquals(e1, queue.remove(new QueueElement.QueueElementID(1)));
+    Assert.assertEquals(1, queue.size());
+    Assert.assertEquals(2, queue.getHighestReadyLevel());
+    Assert.assertNull(queue.get(new QueueElement.QueueElementID(1)));
+    Assert.assertEquals(e2, queue.get(new QueueElement.QueueElementID(2)));
+    queue.clear();
+    Assert.assertEquals(0, queue.size());
+    Assert.assertNull(queue.get(new QueueElement.QueueElementID(2)));
+  }
+
+  @Test
+  public void testPollBlocked() throws InterruptedException {
+    MultilevelPriorityQueue<MultilevelQueueElement> queue = newQueue(10);
+    Thread t1 =
+        new Thread(
+            () -> {
+              try {
+                queue.poll();
+              } catch (InterruptedException e) {
+                e.printStackTrace();
+                Assert.fail();
+              }
+            });
+    t1.start();
+    Thread.sleep(100);
+    Assert.assertEquals(Thread.State.WAITING, t1.getState());
+    Assert.assertEquals(1, queue.getWaitingPollerNum());
+    queue.push(new MultilevelQueueElement(1, 0, 0L));
+    Thread.sleep(100);
+    Assert.assertEquals(Thread.State.TERMINATED, t1.getState());
+    Assert.assertEquals(0, queue.getWaitingPollerNum());
+    Assert.assertEquals(0, queue.size());
+  }
+
+  private MultilevelPriorityQueue<MultilevelQueueElement> newQueue(int maxCapacity) {
+    return new MultilevelPriorityQueue<>(
+        maxCapacity,
+        (o1, o2) -> {
+          if (o1.equals(o2)) {
+            return 0;
+          }
+          int res = Integer.compare(o1.getValue(), o2.getValue());
+          if (res != 0) {
+            return res;
+          }
+          return String.CASE_INSENSITIVE_ORDER.compare(
+              o1.getId().toString(), o2.getId().toString());
+        },
+        new MultilevelQueueElement(0, 0, 0L));
+  }
+
+  private static class MultilevelQueueElement extends QueueElement
+      implements MultilevelAccessible {
+
+    private final long scheduledNanos;
+    private int level;
+
+    private MultilevelQueueElement(int id, int value, long scheduledNanos) {
+      super(new QueueElementID(id), value);
+      this.scheduledNanos = scheduledNanos;
+    }
+
+    @Override
+    public long getScheduledNanos() {
+      return scheduledNanos;
+    }
+
+    @Override
+    public int getLevel() {
+      return level;
+    }
+
+    @Override
+    public void setLevel(int level) {
+      this.level = level;
+    }
+  }
+}
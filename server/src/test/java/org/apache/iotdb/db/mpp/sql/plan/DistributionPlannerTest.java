@@ -35,6 +35,7 @@ import org.apache.iotdb.db.metadata.path.MeasurementPath;
 import org.apache.iotdb.db.metadata.path.PartialPath;
 import org.apache.iotdb.db.mpp.common.MPPQueryContext;
 import org.apache.iotdb.db.mpp.common.QueryId;
+import org.apache.iotdb.db.mpp.common.header.ColumnHeader;
 import org.apache.iotdb.db.mpp.sql.analyze.Analysis;
 import org.apache.iotdb.db.mpp.sql.analyze.QueryType;
 import org.apache.iotdb.db.mpp.sql.planner.DistributionPlanner;
@@ -45,13 +46,19 @@ import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNodeUtil;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.metedata.read.SchemaMergeNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.metedata.read.TimeSeriesSchemaScanNode;
+import org.apache.iotdb.db.mpp.sql.planner.plan.node.process.AggregateNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.process.ExchangeNode;
+import org.apache.iotdb.db.mpp.sql.planner.plan.node.process.GroupByLevelNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.process.LimitNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.process.TimeJoinNode;
+import org.apache.iotdb.db.mpp.sql.planner.plan.node.source.SeriesAggregateScanNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.source.SeriesScanNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.write.InsertRowNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.write.InsertRowsNode;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.OutputColumn;
 import org.apache.iotdb.db.mpp.sql.statement.component.OrderBy;
+import org.apache.iotdb.db.query.aggregation.AggregationType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 
@@ -60,11 +67,16 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class DistributionPlannerTest {
 
@@ -301,6 +313,204 @@ public class DistributionPlannerTest {
     assertEquals(3, plan.getInstances().size());
   }
 
+  @Test
+  public void TestGroupByLevelPushDown() throws IllegalPathException {
+    QueryId queryId = new QueryId("test_query");
+    TimeJoinNode timeJoinNode = new TimeJoinNode(queryId.genPlanNodeId(), OrderBy.TIMESTAMP_ASC);
+    timeJoinNode.addChild(
+        new SeriesAggregateScanNode(
+            queryId.genPlanNodeId(),
+            new MeasurementPath("root.sg.d1.s1", TSDataType.INT32),
+            Sets.newHashSet("s1"),
+            Collections.singletonList(AggregationType.AVG),
+            OrderBy.TIMESTAMP_ASC,
+            null,
+            null));
+    timeJoinNode.addChild(
+        new SeriesAggregateScanNode(
+            queryId.genPlanNodeId(),
+            new MeasurementPath("root.sg.d22.s1", TSDataType.INT32),
+            Sets.newHashSet("s1"),
+            Collections.singletonList(AggregationType.AVG),
+            OrderBy.TIMESTAMP_ASC,
+            null,
+            null));
+    ColumnHeader groupedHeader = new ColumnHeader("root.sg.*.s1", "avg", TSDataType.INT32);
+    Map<ColumnHeader, ColumnHeader> groupedPathMap = new LinkedHashMap<>();
+    groupedPathMap.put(new ColumnHeader("root.sg.d1.s1", "avg", TSDataType.INT32), groupedHeader);
+    groupedPathMap.put(new ColumnHeader("root.sg.d22.s1", "avg", TSDataType.INT32), groupedHeader);
+    GroupByLevelNode root =
+        new GroupByLevelNode(
+            queryId.genPlanNodeId(), timeJoinNode, new int[] {0, 1}, groupedPathMap);
+
+    Analysis analysis = constructAnalysis();
+
+    MPPQueryContext context = new MPPQueryContext("", queryId, null, new TEndPoint());
+    DistributionPlanner planner =
+        new DistributionPlanner(analysis, new LogicalQueryPlan(context, root));
+    PlanNode rootAfterRewrite = planner.rewriteSource();
+    // root.sg.d1.s1 is in DataRegion 1 and 2, root.sg.d22.s1 is in DataRegion 3
+    assertEquals(3, rootAfterRewrite.getChildren().size());
+    for (PlanNode child : rootAfterRewrite.getChildren()) {
+      assertTrue(((GroupByLevelNode) child).isPartial());
+      SeriesAggregateScanNode source =
+          (SeriesAggregateScanNode) child.getChildren().get(0).getChildren().get(0);
+      assertEquals(
+          Arrays.asList(AggregationType.COUNT, AggregationType.SUM), source.getAggregateFuncList());
+    }
+
+    GroupByLevelNode rootWithExchange =
+        (GroupByLevelNode) planner.addExchangeNode(rootAfterRewrite);
+    assertFalse(rootWithExchange.isPartial());
+    for (PlanNode child : rootWithExchange.getChildren()) {
+      PlanNode partialNode = child instanceof ExchangeNode ? child.getChildren().get(0) : child;
+      assertEquals(
+          Arrays.asList(
+              new ColumnHeader("root.sg.*.s1", "count", TSDataType.INT32),
+              new ColumnHeader("root.sg.*.s1", "sum", TSDataType.INT32)),
+          partialNode.getOutputColumnHeaders());
+    }
+    assertEquals(
+        Collections.singletonList(groupedHeader), rootWithExchange.getOutputColumnHeaders());
+    assertEquals(
+        Collections.singletonList(AggregationType.AVG), rootWithExchange.getAggregateFuncList());
+    // count and sum of each partial GroupByLevelNode
+    assertEquals(6, rootWithExchange.getOutputColumns().get(0).getSourceLocations().size());
+  }
+
+  @Test
+  public void TestGroupByLevelSingleStage() throws IllegalPathException {
+    QueryId queryId = new QueryId("test_query");
+    TimeJoinNode timeJoinNode = new TimeJoinNode(queryId.genPlanNodeId(), OrderBy.TIMESTAMP_ASC);
+    timeJoinNode.addChild(
+        new SeriesAggregateScanNode(
+            queryId.genPlanNodeId(),
+            new MeasurementPath("root.sg.d22.s1", TSDataType.INT32),
+            Sets.newHashSet("s1", "s2"),
+            Collections.singletonList(AggregationType.AVG),
+            OrderBy.TIMESTAMP_ASC,
+            null,
+            null));
+    timeJoinNode.addChild(
+        new SeriesAggregateScanNode(
+            queryId.genPlanNodeId(),
+            new MeasurementPath("root.sg.d22.s2", TSDataType.INT32),
+            Sets.newHashSet("s1", "s2"),
+            Collections.singletonList(AggregationType.LAST_VALUE),
+            OrderBy.TIMESTAMP_ASC,
+            null,
+            null));
+    ColumnHeader avgHeader = new ColumnHeader("root.sg.*.s1", "avg", TSDataType.INT32);
+    ColumnHeader lastValueHeader = new ColumnHeader("root.sg.*.s2", "last_value", TSDataType.INT32);
+    Map<ColumnHeader, ColumnHeader> groupedPathMap = new LinkedHashMap<>();
+    groupedPathMap.put(new ColumnHeader("root.sg.d22.s1", "avg", TSDataType.INT32), avgHeader);
+    groupedPathMap.put(
+        new ColumnHeader("root.sg.d22.s2", "last_value", TSDataType.INT32), lastValueHeader);
+    GroupByLevelNode root =
+        new GroupByLevelNode(
+            queryId.genPlanNodeId(), timeJoinNode, new int[] {0, 1}, groupedPathMap);
+
+    Analysis analysis = constructAnalysis();
+
+    MPPQueryContext context = new MPPQueryContext("", queryId, null, new TEndPoint());
+    DistributionPlanner planner =
+        new DistributionPlanner(analysis, new LogicalQueryPlan(context, root));
+    PlanNode rootAfterRewrite = planner.rewriteSource();
+    // root.sg.d22 is only in DataRegion 3, so the GroupByLevelNode is not pushed down
+    assertEquals(1, rootAfterRewrite.getChildren().size());
+    assertTrue(rootAfterRewrite.getChildren().get(0) instanceof TimeJoinNode);
+    assertEquals(
+        Arrays.asList(
+            new ColumnHeader("root.sg.d22.s1", "count", TSDataType.INT32),
+            new ColumnHeader("root.sg.d22.s1", "sum", TSDataType.INT32),
+            new ColumnHeader("root.sg.d22.s2", "last_value", TSDataType.INT32),
+            new ColumnHeader("root.sg.d22.s2", "max_time", TSDataType.INT32)),
+        rootAfterRewrite.getChildren().get(0).getOutputColumnHeaders());
+
+    GroupByLevelNode rootWithExchange =
+        (GroupByLevelNode) planner.addExchangeNode(rootAfterRewrite);
+    assertFalse(rootWithExchange.isPartial());
+    assertEquals(
+        Arrays.asList(avgHeader, lastValueHeader), rootWithExchange.getOutputColumnHeaders());
+    assertEquals(
+        Arrays.asList(
+            Arrays.asList(new InputLocation(0, 0), new InputLocation(0, 1)),
+            Arrays.asList(new InputLocation(0, 2), new InputLocation(0, 3))),
+        rootWithExchange.getOutputColumns().stream()
+            .map(OutputColumn::getSourceLocations)
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  public void TestAggregateSplitByDataRegion() throws IllegalPathException {
+    QueryId queryId = new QueryId("test_query");
+    TimeJoinNode timeJoinNode = new TimeJoinNode(queryId.genPlanNodeId(), OrderBy.TIMESTAMP_ASC);
+    timeJoinNode.addChild(
+        new SeriesAggregateScanNode(
+            queryId.genPlanNodeId(),
+            new MeasurementPath("root.sg.d1.s1", TSDataType.INT32),
+            Sets.newHashSet("s1"),
+            Collections.singletonList(AggregationType.AVG),
+            OrderBy.TIMESTAMP_ASC,
+            null,
+            null));
+    timeJoinNode.addChild(
+        new SeriesAggregateScanNode(
+            queryId.genPlanNodeId(),
+            new MeasurementPath("root.sg.d22.s1", TSDataType.INT32),
+            Sets.newHashSet("s1"),
+            Collections.singletonList(AggregationType.COUNT),
+            OrderBy.TIMESTAMP_ASC,
+            null,
+            null));
+
+    Analysis analysis = constructAnalysis();
+
+    MPPQueryContext context = new MPPQueryContext("", queryId, null, new TEndPoint());
+    DistributionPlanner planner =
+        new DistributionPlanner(analysis, new LogicalQueryPlan(context, timeJoinNode));
+    PlanNode rootAfterRewrite = planner.rewriteSource();
+    // root.sg.d1.s1 is in DataRegion 1 and 2, so its partial results are merged by AggregateNode.
+    // root.sg.d22.s1 is only in DataRegion 3, so it is not split.
+    assertEquals(2, rootAfterRewrite.getChildren().size());
+    AggregateNode aggregateNode = (AggregateNode) rootAfterRewrite.getChildren().get(0);
+    assertEquals(2, aggregateNode.getChildren().size());
+    for (PlanNode child : aggregateNode.getChildren()) {
+      assertEquals(
+          Arrays.asList(AggregationType.COUNT, AggregationType.SUM),
+          ((SeriesAggregateScanNode) child).getAggregateFuncList());
+    }
+    assertEquals(
+        Collections.singletonList(new ColumnHeader("root.sg.d1.s1", "avg", TSDataType.INT32)),
+        aggregateNode.getOutputColumnHeaders());
+    assertEquals(
+        Collections.singletonList(AggregationType.AVG), aggregateNode.getAggregationTypes());
+    assertEquals(
+        Collections.singletonList(
+            Arrays.asList(
+                new InputLocation(0, 0),
+                new InputLocation(0, 1),
+                new InputLocation(1, 0),
+                new InputLocation(1, 1))),
+        aggregateNode.getOutputColumns().stream()
+            .map(OutputColumn::getSourceLocations)
+            .collect(Collectors.toList()));
+    assertTrue(rootAfterRewrite.getChildren().get(1) instanceof SeriesAggregateScanNode);
+
+    PlanNode rootWithExchange = planner.addExchangeNode(rootAfterRewrite);
+    PlanNode firstChild = rootWithExchange.getChildren().get(0);
+    AggregateNode aggregateNodeWithExchange =
+        (AggregateNode)
+            (firstChild instanceof ExchangeNode ? firstChild.getChildren().get(0) : firstChild);
+    // the partial result from the other DataRegion is transferred by ExchangeNode
+    assertEquals(
+        1,
+        aggregateNodeWithExchange.getChildren().stream()
+            .filter(child -> child instanceof ExchangeNode)
+            .count());
+    assertEquals(aggregateNode.getOutputColumns(), aggregateNodeWithExchange.getOutputColumns());
+  }
+
   @Test
   public void TestInsertRowNodeParallelPlan() throws IllegalPathException {
     QueryId queryId = new QueryId("test_write");
@@ -28,16 +28,25 @@ import org.apache.iotdb.db.metadata.path.PartialPath;
 import org.apache.iotdb.db.mpp.sql.plan.node.PlanNodeDeserializeHelper;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.PlanNodeId;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.process.AggregateNode;
+import org.apache.iotdb.db.mpp.sql.planner.plan.node.source.SeriesAggregateScanNode;
 import org.apache.iotdb.db.mpp.sql.planner.plan.node.source.SeriesScanNode;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.GroupByTimeParameter;
+import org.apache.iotdb.db.mpp.sql.planner.plan.parameter.InputLocation;
+import org.apache.iotdb.db.mpp.sql.statement.component.OrderBy;
 import org.apache.iotdb.db.query.aggregation.AggregationType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
 
+import com.google.common.collect.Sets;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -66,4 +75,44 @@ public class AggregateNodeSerdeTest {
     byteBuffer.flip();
     assertEquals(PlanNodeDeserializeHelper.deserialize(byteBuffer), aggregateNode);
   }
+
+  @Test
+  public void TestSerializeAndDeserializePartialResults() throws IllegalPathException {
+    MeasurementPath path = new MeasurementPath("root.sg.d1.s1", TSDataType.INT32);
+    Map<PartialPath, Set<AggregationType>> aggregateFuncMap = new LinkedHashMap<>();
+    aggregateFuncMap.put(path, Collections.singleton(AggregationType.AVG));
+    AggregateNode aggregateNode =
+        new AggregateNode(new PlanNodeId("TestAggregateNode"), null, aggregateFuncMap, null);
+    for (int i = 1; i <= 2; i++) {
+      SeriesAggregateScanNode seriesAggregateScanNode =
+          new SeriesAggregateScanNode(
+              new PlanNodeId("TestSeriesAggregateScanNode" + i),
+              path,
+              Sets.newHashSet("s1"),
+              Arrays.asList(AggregationType.COUNT, AggregationType.SUM),
+              OrderBy.TIMESTAMP_ASC,
+              TimeFilter.gt(10),
+              new GroupByTimeParameter(1, 100, 10, 10, true, false, false));
+      seriesAggregateScanNode.setRegionReplicaSet(
+          new TRegionReplicaSet(
+              new TConsensusGroupId(TConsensusGroupType.DataRegion, i), new ArrayList<>()));
+      aggregateNode.addChild(seriesAggregateScanNode);
+    }
+    aggregateNode.initOutputColumns();
+    assertEquals(
+        Arrays.asList(
+            new InputLocation(0, 0),
+            new InputLocation(0, 1),
+            new InputLocation(1, 0),
+            new InputLocation(1, 1)),
+        aggregateNode.getOutputColumns().get(0).getSourceLocations());
+
+    ByteBuffer byteBuffer = ByteBuffer.allocate(2048);
+    aggregateNode.serialize(byteBuffer);
+    byteBuffer.flip();
+    AggregateNode deserializedNode =
+        (AggregateNode) PlanNodeDeserializeHelper.deserialize(byteBuffer);
+    assertEquals(aggregateNode, deserializedNode);
+    assertEquals(aggregateNode.getOutputColumnHeaders(), deserializedNode.getOutputColumnHeaders());
+  }
 }
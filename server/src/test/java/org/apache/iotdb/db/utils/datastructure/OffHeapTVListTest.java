@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.rescon.PrimitiveArrayManager;
+import org.apache.iotdb.db.rescon.SystemInfo;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.utils.TsPrimitiveType.TsLong;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class OffHeapTVListTest {
+
+  private final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private boolean prevEnableOffHeapTVListTime;
+  private long prevOffHeapTVListTimeMemory;
+
+  @Before
+  public void setUp() {
+    prevEnableOffHeapTVListTime = config.isEnableOffHeapTVListTime();
+    prevOffHeapTVListTimeMemory = config.getOffHeapTVListTimeMemory();
+    config.setEnableOffHeapTVListTime(true);
+  }
+
+  @After
+  public void tearDown() {
+    config.setEnableOffHeapTVListTime(prevEnableOffHeapTVListTime);
+    config.setOffHeapTVListTimeMemory(prevOffHeapTVListTimeMemory);
+    PrimitiveArrayManager.close();
+  }
+
+  @Test
+  public void testSortAndClone() {
+    Random random = new Random();
+    LongTVList tvList = new LongTVList();
+    Assert.assertTrue(tvList.isOffHeapTime());
+    List<TimeValuePair> inputs = new ArrayList<>();
+    for (long i = 0; i < 10000; i++) {
+      long time = random.nextInt(10000);
+      long value = random.nextInt(10000);
+      tvList.putLong(time, value);
+      inputs.add(new TimeValuePair(time, new TsLong(value)));
+    }
+    TVList cloneList = tvList.clone();
+    Assert.assertFalse(cloneList.isOffHeapTime());
+    tvList.sort();
+    cloneList.sort();
+    inputs.sort(TimeValuePair::compareTo);
+    for (int i = 0; i < tvList.rowCount; i++) {
+      Assert.assertEquals(inputs.get(i).getTimestamp(), tvList.getTime(i));
+      Assert.assertEquals(inputs.get(i).getValue().getLong(), tvList.getLong(i));
+      Assert.assertEquals(inputs.get(i).getTimestamp(), cloneList.getTime(i));
+    }
+  }
+
+  @Test
+  public void testPutLongsAndClear() {
+    LongTVList tvList = new LongTVList();
+    long[] times = new long[1001];
+    long[] values = new long[1001];
+    for (int i = 0; i <= 1000; i++) {
+      times[i] = 1000 - i;
+      values[i] = 1000 - i;
+    }
+    tvList.putLongs(times, values, null, 0, times.length);
+    Assert.assertTrue(SystemInfo.getInstance().getOffHeapTVListTimeMemCost() > 0);
+    tvList.sort();
+    for (int i = 0; i < tvList.rowCount; i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals(i, tvList.getLong(i));
+    }
+    Assert.assertEquals(1000, tvList.delete(0, 999));
+    Assert.assertEquals(1000L, tvList.getTime(0));
+    tvList.clear();
+    Assert.assertEquals(0, tvList.rowCount());
+  }
+
+  @Test
+  public void testAlignedTVList() {
+    List<TSDataType> dataTypes = new ArrayList<>();
+    dataTypes.add(TSDataType.INT64);
+    dataTypes.add(TSDataType.DOUBLE);
+    AlignedTVList tvList = new AlignedTVList(dataTypes);
+    Assert.assertTrue(tvList.isOffHeapTime());
+    for (long i = 1000; i >= 0; i--) {
+      tvList.putAlignedValue(i, new Object[] {i, (double) i}, new int[] {0, 1});
+    }
+    tvList.sort();
+    for (int i = 0; i < tvList.rowCount; i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals("[" + i + ", " + (double) i + "]", tvList.getAlignedValue(i).toString());
+    }
+  }
+
+  @Test
+  public void testBudgetExhaustion() {
+    long memCost = SystemInfo.getInstance().getOffHeapTVListTimeMemCost();
+    // room for two slabs only
+    config.setOffHeapTVListTimeMemory(
+        memCost + 2 * PrimitiveArrayManager.OFF_HEAP_TIME_ARRAY_BYTES);
+    LongTVList tvList = new LongTVList();
+    Assert.assertTrue(tvList.isOffHeapTime());
+    int size = PrimitiveArrayManager.ARRAY_SIZE * 3;
+    for (int i = 0; i < 2 * PrimitiveArrayManager.ARRAY_SIZE; i++) {
+      tvList.putLong(i, i);
+    }
+    Assert.assertTrue(tvList.isOffHeapTime());
+    Assert.assertEquals(
+        memCost + 2 * PrimitiveArrayManager.OFF_HEAP_TIME_ARRAY_BYTES,
+        SystemInfo.getInstance().getOffHeapTVListTimeMemCost());
+    Assert.assertFalse(PrimitiveArrayManager.shouldAllocateOffHeapTime());
+
+    // the third slab exceeds the budget, so the time column moves to heap
+    for (int i = 2 * PrimitiveArrayManager.ARRAY_SIZE; i < size; i++) {
+      tvList.putLong(i, i);
+    }
+    Assert.assertFalse(tvList.isOffHeapTime());
+    Assert.assertEquals(memCost, SystemInfo.getInstance().getOffHeapTVListTimeMemCost());
+    for (int i = 0; i < size; i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals(i, tvList.getLong(i));
+    }
+    tvList.clear();
+    Assert.assertEquals(memCost, SystemInfo.getInstance().getOffHeapTVListTimeMemCost());
+  }
+
+  @Test
+  public void testSlabReuse() {
+    long memCost = SystemInfo.getInstance().getOffHeapTVListTimeMemCost();
+    config.setOffHeapTVListTimeMemory(
+        memCost + 2 * PrimitiveArrayManager.OFF_HEAP_TIME_ARRAY_BYTES);
+    int pooledNum = PrimitiveArrayManager.getPooledOffHeapTimeArrayNum();
+    LongTVList tvList = new LongTVList();
+    for (int i = 0; i <= PrimitiveArrayManager.ARRAY_SIZE; i++) {
+      tvList.putLong(i, i);
+    }
+    Assert.assertFalse(PrimitiveArrayManager.shouldAllocateOffHeapTime());
+
+    // released slabs are pooled and no longer count against the budget
+    tvList.clear();
+    Assert.assertEquals(memCost, SystemInfo.getInstance().getOffHeapTVListTimeMemCost());
+    Assert.assertEquals(pooledNum + 2, PrimitiveArrayManager.getPooledOffHeapTimeArrayNum());
+    Assert.assertTrue(PrimitiveArrayManager.shouldAllocateOffHeapTime());
+
+    LongTVList newList = new LongTVList();
+    Assert.assertTrue(newList.isOffHeapTime());
+    for (int i = 0; i <= PrimitiveArrayManager.ARRAY_SIZE; i++) {
+      newList.putLong(i, i);
+    }
+    Assert.assertTrue(newList.isOffHeapTime());
+    Assert.assertEquals(pooledNum, PrimitiveArrayManager.getPooledOffHeapTimeArrayNum());
+    Assert.assertEquals(
+        memCost + 2 * PrimitiveArrayManager.OFF_HEAP_TIME_ARRAY_BYTES,
+        SystemInfo.getInstance().getOffHeapTVListTimeMemCost());
+    newList.clear();
+  }
+}
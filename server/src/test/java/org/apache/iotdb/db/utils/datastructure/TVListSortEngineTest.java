@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class TVListSortEngineTest {
+
+  @Test
+  public void testSortRuns() {
+    // 4 ascending runs with duplicated timestamps
+    IntTVList tvList = new IntTVList();
+    int rowNum = 20000;
+    for (int i = 0; i < rowNum; i++) {
+      tvList.putInt((i % (rowNum / 4)) / 2, i);
+    }
+    tvList.sort();
+    for (int i = 1; i < rowNum; i++) {
+      Assert.assertTrue(tvList.getTime(i - 1) <= tvList.getTime(i));
+      if (tvList.getTime(i - 1) == tvList.getTime(i)) {
+        // stable: rows with the same timestamp keep their insertion order
+        Assert.assertTrue(tvList.getInt(i - 1) < tvList.getInt(i));
+      }
+    }
+  }
+
+  @Test
+  public void testParallelRadixSort() {
+    Random random = new Random();
+    LongTVList tvList = new LongTVList();
+    int rowNum = 300000;
+    long[] expected = new long[rowNum];
+    for (int i = 0; i < rowNum; i++) {
+      long time = random.nextLong();
+      tvList.putLong(time, time);
+      expected[i] = time;
+    }
+    tvList.sort();
+    Arrays.sort(expected);
+    for (int i = 0; i < rowNum; i++) {
+      Assert.assertEquals(expected[i], tvList.getTime(i));
+      Assert.assertEquals(expected[i], tvList.getLong(i));
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.wal.recover;
+
+import org.apache.iotdb.db.wal.buffer.WALEntry;
+import org.apache.iotdb.db.wal.recover.file.UnsealedTsFileRecoverPerformer;
+import org.apache.iotdb.db.wal.utils.listener.WALRecoverListener;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WALRedoLaneTest {
+
+  @Test
+  public void testRedoInOrderWithBoundedReadAhead() throws Exception {
+    int readAheadNum = 2;
+    Semaphore readAheadPermits = new Semaphore(readAheadNum);
+    WALRedoLane redoLane = new WALRedoLane("test", 0, readAheadPermits);
+
+    List<WALEntry> redoneEntries = Collections.synchronizedList(new ArrayList<>());
+    AtomicInteger maxPendingNum = new AtomicInteger();
+    UnsealedTsFileRecoverPerformer recoverPerformer =
+        Mockito.mock(UnsealedTsFileRecoverPerformer.class);
+    WALRecoverListener recoverListener = new WALRecoverListener("test.tsfile");
+    Mockito.when(recoverPerformer.getRecoverListener()).thenReturn(recoverListener);
+    Mockito.doAnswer(
+            invocation -> {
+              maxPendingNum.accumulateAndGet(
+                  readAheadNum - readAheadPermits.availablePermits(), Math::max);
+              redoneEntries.add(invocation.getArgument(0));
+              return null;
+            })
+        .when(recoverPerformer)
+        .redoLog(Mockito.any());
+
+    List<WALEntry> walEntries = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      WALEntry walEntry = Mockito.mock(WALEntry.class);
+      walEntries.add(walEntry);
+      redoLane.redo(recoverPerformer, walEntry);
+    }
+    redoLane.endRecovery(recoverPerformer);
+    redoLane.close();
+
+    assertEquals(walEntries, redoneEntries);
+    assertEquals(readAheadNum, readAheadPermits.availablePermits());
+    assertTrue(maxPendingNum.get() <= readAheadNum);
+    assertEquals(WALRecoverListener.Status.SUCCESS, recoverListener.waitForResult());
+    Mockito.verify(recoverPerformer).endRecovery();
+  }
+}
@@ -48,6 +48,7 @@ import org.apache.iotdb.session.template.MeasurementNode;
 import org.apache.iotdb.session.template.Template;
 import org.apache.iotdb.session.template.TemplateQueryType;
 import org.apache.iotdb.session.util.SessionUtils;
+import org.apache.iotdb.session.util.TabletBufferPool;
 import org.apache.iotdb.session.util.ThreadUtils;
 import org.apache.iotdb.session.util.Version;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
@@ -136,6 +137,9 @@ public class Session {
   // The version number of the client which used for compatibility in the server
   protected Version version;
 
+  // reuse the buffers of serialized tablets between requests
+  private final TabletBufferPool tabletBufferPool = new TabletBufferPool();
+
   public Session(String host, int rpcPort) {
     this(
         host,
@@ -1619,6 +1623,8 @@ public class Session {
       getSessionConnection(tablet.deviceId).insertTablet(request);
     } catch (RedirectException e) {
       handleRedirection(tablet.deviceId, e.getEndPoint());
+    } finally {
+      releaseTabletBuffers(request);
     }
   }
 
@@ -1650,6 +1656,8 @@ public class Session {
       getSessionConnection(tablet.deviceId).insertTablet(request);
     } catch (RedirectException e) {
       handleRedirection(tablet.deviceId, e.getEndPoint());
+    } finally {
+      releaseTabletBuffers(request);
     }
   }
 
@@ -1668,12 +1676,23 @@ public class Session {
 
     request.setPrefixPath(tablet.deviceId);
     request.setIsAligned(isAligned);
-    request.setTimestamps(SessionUtils.getTimeBuffer(tablet));
-    request.setValues(SessionUtils.getValueBuffer(tablet));
+    // assign the pooled buffers directly, because the generated setters copy them
+    request.timestamps = SessionUtils.getTimeBuffer(tablet, tabletBufferPool);
+    request.values = SessionUtils.getValueBuffer(tablet, tabletBufferPool);
     request.setSize(tablet.rowSize);
     return request;
   }
 
+  private void releaseTabletBuffers(TSInsertTabletReq request) {
+    tabletBufferPool.release(request.timestamps);
+    tabletBufferPool.release(request.values);
+  }
+
+  private void releaseTabletBuffers(TSInsertTabletsReq request) {
+    tabletBufferPool.release(request.timestampsList);
+    tabletBufferPool.release(request.valuesList);
+  }
+
   /**
    * insert the data of several deivces. Given a deivce, for each timestamp, the number of
    * measurements is the same.
@@ -1708,6 +1727,8 @@ public class Session {
         for (Map.Entry<String, TEndPoint> deviceEndPointEntry : deviceEndPointMap.entrySet()) {
           handleRedirection(deviceEndPointEntry.getKey(), deviceEndPointEntry.getValue());
         }
+      } finally {
+        releaseTabletBuffers(request);
       }
     }
   }
@@ -1746,6 +1767,8 @@ public class Session {
         for (Map.Entry<String, TEndPoint> deviceEndPointEntry : deviceEndPointMap.entrySet()) {
           handleRedirection(deviceEndPointEntry.getKey(), deviceEndPointEntry.getValue());
         }
+      } finally {
+        releaseTabletBuffers(request);
       }
     }
   }
@@ -1761,7 +1784,12 @@ public class Session {
       updateTSInsertTabletsReq(request, entry.getValue(), sorted, isAligned);
     }
 
-    insertByGroup(tabletGroup, SessionConnection::insertTablets);
+    try {
+      insertByGroup(tabletGroup, SessionConnection::insertTablets);
+    } finally {
+      // insertByGroup waits for all requests, so no request refers to the buffers anymore
+      tabletGroup.values().forEach(this::releaseTabletBuffers);
+    }
   }
 
   private TSInsertTabletsReq genTSInsertTabletsReq(
@@ -1792,8 +1820,8 @@ public class Session {
     }
     request.addToMeasurementsList(measurements);
     request.addToTypesList(dataTypes);
-    request.addToTimestampsList(SessionUtils.getTimeBuffer(tablet));
-    request.addToValuesList(SessionUtils.getValueBuffer(tablet));
+    request.addToTimestampsList(SessionUtils.getTimeBuffer(tablet, tabletBufferPool));
+    request.addToValuesList(SessionUtils.getValueBuffer(tablet, tabletBufferPool));
     request.addToSizeList(tablet.rowSize);
   }
 
@@ -1813,7 +1841,11 @@ public class Session {
   public void testInsertTablet(Tablet tablet, boolean sorted)
       throws IoTDBConnectionException, StatementExecutionException {
     TSInsertTabletReq request = genTSInsertTabletReq(tablet, sorted, false);
-    defaultSessionConnection.testInsertTablet(request);
+    try {
+      defaultSessionConnection.testInsertTablet(request);
+    } finally {
+      releaseTabletBuffers(request);
+    }
   }
 
   /**
@@ -1833,7 +1865,11 @@ public class Session {
       throws IoTDBConnectionException, StatementExecutionException {
     TSInsertTabletsReq request =
         genTSInsertTabletsReq(new ArrayList<>(tablets.values()), sorted, false);
-    defaultSessionConnection.testInsertTablets(request);
+    try {
+      defaultSessionConnection.testInsertTablets(request);
+    } finally {
+      releaseTabletBuffers(request);
+    }
   }
 
   /**
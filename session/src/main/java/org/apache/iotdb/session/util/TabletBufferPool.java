@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.session.util;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of heap ByteBuffers used to serialize the timestamps and values of Tablets, so that
+ * inserting Tablets of similar sizes repeatedly doesn't allocate new buffers for every request.
+ * Heap buffers are pooled instead of direct ones because thrift writes binary fields from the
+ * backing array.
+ *
+ * <p>A buffer must not be released until the request which refers to it has been sent.
+ */
+public class TabletBufferPool {
+
+  /** default max number of pooled buffers */
+  public static final int DEFAULT_MAX_BUFFER_NUM = 16;
+  /** default max capacity of a pooled buffer, larger buffers are left to gc */
+  public static final int DEFAULT_MAX_BUFFER_CAPACITY = 16 * 1024 * 1024;
+
+  private final int maxBufferNum;
+  private final int maxBufferCapacity;
+  private final ConcurrentLinkedDeque<ByteBuffer> buffers = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger bufferNum = new AtomicInteger();
+
+  public TabletBufferPool() {
+    this(DEFAULT_MAX_BUFFER_NUM, DEFAULT_MAX_BUFFER_CAPACITY);
+  }
+
+  public TabletBufferPool(int maxBufferNum, int maxBufferCapacity) {
+    this.maxBufferNum = maxBufferNum;
+    this.maxBufferCapacity = maxBufferCapacity;
+  }
+
+  /**
+   * Get a buffer whose position is 0 and limit is the given size. The content of the buffer is
+   * undefined.
+   */
+  public ByteBuffer allocate(int size) {
+    ByteBuffer buffer = buffers.pollFirst();
+    if (buffer != null) {
+      bufferNum.decrementAndGet();
+      if (buffer.capacity() >= size) {
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+      }
+    }
+    return ByteBuffer.allocate(size);
+  }
+
+  /** Give the buffer back to the pool, the caller must not use it anymore. */
+  public void release(ByteBuffer buffer) {
+    if (buffer == null || !buffer.hasArray() || buffer.capacity() > maxBufferCapacity) {
+      return;
+    }
+    if (bufferNum.incrementAndGet() > maxBufferNum) {
+      bufferNum.decrementAndGet();
+      return;
+    }
+    buffers.offerFirst(buffer);
+  }
+
+  public void release(Collection<ByteBuffer> buffers) {
+    if (buffers == null) {
+      return;
+    }
+    for (ByteBuffer buffer : buffers) {
+      release(buffer);
+    }
+  }
+
+  public int getBufferNum() {
+    return bufferNum.get();
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.session.util;
+
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.BitMap;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TabletBufferPoolTest {
+
+  @Test
+  public void testReuseBuffer() {
+    TabletBufferPool bufferPool = new TabletBufferPool(1, 1024);
+    ByteBuffer buffer = bufferPool.allocate(100);
+    Assert.assertEquals(0, buffer.position());
+    Assert.assertEquals(100, buffer.limit());
+    bufferPool.release(buffer);
+    Assert.assertEquals(1, bufferPool.getBufferNum());
+
+    // a smaller request reuses the pooled buffer
+    ByteBuffer reused = bufferPool.allocate(10);
+    Assert.assertSame(buffer, reused);
+    Assert.assertEquals(10, reused.limit());
+    Assert.assertEquals(0, bufferPool.getBufferNum());
+
+    // the pool is full
+    bufferPool.release(reused);
+    bufferPool.release(ByteBuffer.allocate(10));
+    Assert.assertEquals(1, bufferPool.getBufferNum());
+
+    // a larger request doesn't use the pooled buffer
+    Assert.assertEquals(200, bufferPool.allocate(200).capacity());
+    Assert.assertEquals(0, bufferPool.getBufferNum());
+
+    // too large buffers and direct buffers are not pooled
+    bufferPool.release(ByteBuffer.allocate(2048));
+    bufferPool.release(ByteBuffer.allocateDirect(10));
+    Assert.assertEquals(0, bufferPool.getBufferNum());
+  }
+
+  @Test
+  public void testSerializeTabletWithPool() {
+    List<MeasurementSchema> schemas = new ArrayList<>();
+    schemas.add(new MeasurementSchema("s0", TSDataType.INT32));
+    schemas.add(new MeasurementSchema("s1", TSDataType.INT64));
+    schemas.add(new MeasurementSchema("s2", TSDataType.FLOAT));
+    schemas.add(new MeasurementSchema("s3", TSDataType.DOUBLE));
+    schemas.add(new MeasurementSchema("s4", TSDataType.BOOLEAN));
+    schemas.add(new MeasurementSchema("s5", TSDataType.TEXT));
+    int rowCount = 100;
+    Tablet tablet = new Tablet("root.sg.d1", schemas, rowCount);
+    tablet.bitMaps = new BitMap[schemas.size()];
+    for (int row = 0; row < rowCount; row++) {
+      tablet.addTimestamp(row, row);
+      tablet.addValue("s0", row, row);
+      tablet.addValue("s1", row, (long) row);
+      tablet.addValue("s2", row, (float) row);
+      tablet.addValue("s3", row, (double) row);
+      tablet.addValue("s4", row, row % 2 == 0);
+      tablet.addValue("s5", row, new Binary("v" + row));
+    }
+    tablet.rowSize = rowCount;
+    // s1 and s3 have null values, others are not
+    tablet.bitMaps[1] = new BitMap(rowCount);
+    tablet.bitMaps[1].mark(10);
+    tablet.bitMaps[3] = new BitMap(rowCount);
+    tablet.bitMaps[3].mark(20);
+
+    TabletBufferPool bufferPool = new TabletBufferPool();
+    // make the pooled buffer dirty
+    ByteBuffer dirty = bufferPool.allocate(tablet.getTotalValueOccupation() * 2);
+    while (dirty.hasRemaining()) {
+      dirty.put((byte) -1);
+    }
+    bufferPool.release(dirty);
+
+    ByteBuffer expectedValues = SessionUtils.getValueBuffer(tablet);
+    ByteBuffer values = SessionUtils.getValueBuffer(tablet, bufferPool);
+    Assert.assertSame(dirty, values);
+    Assert.assertEquals(expectedValues, values);
+
+    ByteBuffer expectedTimes = SessionUtils.getTimeBuffer(tablet);
+    ByteBuffer times = SessionUtils.getTimeBuffer(tablet, bufferPool);
+    Assert.assertEquals(expectedTimes, times);
+    for (int row = 0; row < rowCount; row++) {
+      Assert.assertEquals(row, times.getLong());
+    }
+
+    // null values are still replaced by the placeholders
+    values.position(rowCount * Integer.BYTES + 10 * Long.BYTES);
+    Assert.assertEquals(Long.MIN_VALUE, values.getLong());
+  }
+}
@@ -111,8 +111,14 @@ public class TSFileConfig implements Serializable {
   private double freqEncodingSNR = 40;
   /** Default block size for FREQ encoding is 1024. */
   private int freqEncodingBlockSize = 1024;
-  /** Data compression method, TsFile supports UNCOMPRESSED, SNAPPY or LZ4. */
+  /** Data compression method, TsFile supports UNCOMPRESSED, SNAPPY, GZIP, LZ4 or ZSTD. */
   private CompressionType compressor = CompressionType.SNAPPY;
+  /** Compression level of ZSTD, a higher level has a better ratio but is slower. */
+  private int zstdLevel = 3;
+  /** Whether to read sealed TsFiles through memory mapped regions. */
+  private boolean enableMmapRead = false;
+  /** Max total size of memory mapped regions of all sealed TsFiles, 1GB by default. */
+  private long maxMappedSizeInByte = 1024L * 1024 * 1024;
   /** Line count threshold for checking page memory occupied size. */
   private int pageCheckSizeThreshold = 100;
   /** Default endian value is BIG_ENDIAN. */
@@ -147,6 +153,11 @@ public class TSFileConfig implements Serializable {
   private String kerberosPrincipal = "principal";
   /** The acceptable error rate of bloom filter */
   private double bloomFilterErrorRate = 0.05;
+  /**
+   * Whether to write a device index block after the bloom filter, which lets readers locate
+   * TimeseriesMetadata without reading the MetadataIndexNode tree.
+   */
+  private boolean enableDeviceIndex = false;
   /** The amount of data iterate each time */
   private int batchSize = 1000;
 
@@ -288,6 +299,30 @@ public class TSFileConfig implements Serializable {
     this.compressor = CompressionType.valueOf(compressor);
   }
 
+  public int getZstdLevel() {
+    return zstdLevel;
+  }
+
+  public void setZstdLevel(int zstdLevel) {
+    this.zstdLevel = zstdLevel;
+  }
+
+  public boolean isEnableMmapRead() {
+    return enableMmapRead;
+  }
+
+  public void setEnableMmapRead(boolean enableMmapRead) {
+    this.enableMmapRead = enableMmapRead;
+  }
+
+  public long getMaxMappedSizeInByte() {
+    return maxMappedSizeInByte;
+  }
+
+  public void setMaxMappedSizeInByte(long maxMappedSizeInByte) {
+    this.maxMappedSizeInByte = maxMappedSizeInByte;
+  }
+
   public int getPageCheckSizeThreshold() {
     return pageCheckSizeThreshold;
   }
@@ -336,6 +371,14 @@ public class TSFileConfig implements Serializable {
     this.bloomFilterErrorRate = bloomFilterErrorRate;
   }
 
+  public boolean isEnableDeviceIndex() {
+    return enableDeviceIndex;
+  }
+
+  public void setEnableDeviceIndex(boolean enableDeviceIndex) {
+    this.enableDeviceIndex = enableDeviceIndex;
+  }
+
   public FSType getTSFileStorageFs() {
     return this.TSFileStorageFs;
   }
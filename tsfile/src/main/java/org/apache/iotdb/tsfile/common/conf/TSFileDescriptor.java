@@ -75,11 +75,15 @@ public class TSFileDescriptor {
     }
     writer.setInt(conf::setMaxNumberOfPointsInPage, "max_number_of_points_in_page");
     writer.setInt(conf::setMaxDegreeOfIndexNode, "max_degree_of_index_node");
+    writer.setBoolean(conf::setEnableDeviceIndex, "enable_device_index");
     writer.setInt(conf::setMaxStringLength, "max_string_length");
     writer.setInt(conf::setFloatPrecision, "float_precision");
     writer.setString(conf::setTimeEncoder, "time_encoder");
     writer.setString(conf::setValueEncoder, "value_encoder");
     writer.setString(conf::setCompressor, "compressor");
+    writer.setInt(conf::setZstdLevel, "zstd_level");
+    writer.setBoolean(conf::setEnableMmapRead, "enable_mmap_read");
+    writer.setLong(conf::setMaxMappedSizeInByte, "max_mapped_size_in_byte");
     writer.setInt(conf::setBatchSize, "batch_size");
     writer.setInt(conf::setFreqEncodingBlockSize, "freq_block_size");
     writer.setDouble(conf::setFreqEncodingSNR, "freq_snr");
@@ -100,6 +104,14 @@ public class TSFileDescriptor {
       set(setter, propertyKey, Integer::parseInt);
     }
 
+    public void setLong(Consumer<Long> setter, String propertyKey) {
+      set(setter, propertyKey, Long::parseLong);
+    }
+
+    public void setBoolean(Consumer<Boolean> setter, String propertyKey) {
+      set(setter, propertyKey, Boolean::parseBoolean);
+    }
+
     public void setDouble(Consumer<Double> setter, String propertyKey) {
       set(setter, propertyKey, Double::parseDouble);
     }
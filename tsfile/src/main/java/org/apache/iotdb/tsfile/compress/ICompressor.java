@@ -19,10 +19,12 @@
 
 package org.apache.iotdb.tsfile.compress;
 
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.exception.compress.CompressionTypeNotSupportedException;
 import org.apache.iotdb.tsfile.exception.compress.GZIPCompressOverflowException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 
+import com.github.luben.zstd.Zstd;
 import net.jpountz.lz4.LZ4Compressor;
 import net.jpountz.lz4.LZ4Factory;
 import org.xerial.snappy.Snappy;
@@ -38,6 +40,7 @@ import java.util.zip.GZIPOutputStream;
 import static org.apache.iotdb.tsfile.file.metadata.enums.CompressionType.GZIP;
 import static org.apache.iotdb.tsfile.file.metadata.enums.CompressionType.LZ4;
 import static org.apache.iotdb.tsfile.file.metadata.enums.CompressionType.SNAPPY;
+import static org.apache.iotdb.tsfile.file.metadata.enums.CompressionType.ZSTD;
 
 /** compress data according to type in schema. */
 public interface ICompressor extends Serializable {
@@ -65,6 +68,8 @@ public interface ICompressor extends Serializable {
         return new IOTDBLZ4Compressor();
       case GZIP:
         return new GZIPCompressor();
+      case ZSTD:
+        return new ZstdCompressor();
       default:
         throw new CompressionTypeNotSupportedException(name.toString());
     }
@@ -311,4 +316,67 @@ public interface ICompressor extends Serializable {
       return GZIP;
     }
   }
+
+  class ZstdCompressor implements ICompressor {
+    private final int level;
+
+    public ZstdCompressor() {
+      this(TSFileDescriptor.getInstance().getConfig().getZstdLevel());
+    }
+
+    public ZstdCompressor(int level) {
+      this.level = level;
+    }
+
+    @Override
+    public byte[] compress(byte[] data) {
+      if (data == null) {
+        return new byte[0];
+      }
+      return Zstd.compress(data, level);
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) throws IOException {
+      byte[] compressed = new byte[getMaxBytesForCompression(length)];
+      int compressedLength = compress(data, offset, length, compressed);
+      byte[] result = new byte[compressedLength];
+      System.arraycopy(compressed, 0, result, 0, compressedLength);
+      return result;
+    }
+
+    @Override
+    public int compress(byte[] data, int offset, int length, byte[] compressed) throws IOException {
+      long size =
+          Zstd.compressByteArray(compressed, 0, compressed.length, data, offset, length, level);
+      if (Zstd.isError(size)) {
+        throw new IOException(Zstd.getErrorName(size));
+      }
+      return (int) size;
+    }
+
+    /** Heap buffers are also supported, but they are compressed through their backing arrays. */
+    @Override
+    public int compress(ByteBuffer data, ByteBuffer compressed) throws IOException {
+      if (data.isDirect() && compressed.isDirect()) {
+        return Zstd.compress(compressed, data, level);
+      }
+      int length = data.remaining();
+      byte[] dataBefore = new byte[length];
+      data.get(dataBefore, 0, length);
+      byte[] res = Zstd.compress(dataBefore, level);
+      compressed.put(res);
+      return res.length;
+    }
+
+    @Override
+    public int getMaxBytesForCompression(int uncompressedDataSize) {
+      return (int) Zstd.compressBound(uncompressedDataSize);
+    }
+
+    @Override
+    public CompressionType getType() {
+      return ZSTD;
+    }
+  }
 }
@@ -22,6 +22,7 @@ package org.apache.iotdb.tsfile.compress;
 import org.apache.iotdb.tsfile.exception.compress.CompressionTypeNotSupportedException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 
+import com.github.luben.zstd.Zstd;
 import net.jpountz.lz4.LZ4Compressor;
 import net.jpountz.lz4.LZ4Factory;
 import net.jpountz.lz4.LZ4SafeDecompressor;
@@ -54,6 +55,8 @@ public interface IUnCompressor {
         return new LZ4UnCompressor();
       case GZIP:
         return new GZIPUnCompressor();
+      case ZSTD:
+        return new ZstdUnCompressor();
       default:
         throw new CompressionTypeNotSupportedException(name.toString());
     }
@@ -312,4 +315,62 @@ public interface IUnCompressor {
       return CompressionType.GZIP;
     }
   }
+
+  class ZstdUnCompressor implements IUnCompressor {
+
+    @Override
+    public int getUncompressedLength(byte[] array, int offset, int length) {
+      return (int) Zstd.decompressedSize(array, offset, length);
+    }
+
+    /** @param buffer MUST be DirectByteBuffer */
+    @Override
+    public int getUncompressedLength(ByteBuffer buffer) {
+      return (int) Zstd.decompressedSize(buffer);
+    }
+
+    @Override
+    public byte[] uncompress(byte[] byteArray) throws IOException {
+      if (null == byteArray) {
+        return new byte[0];
+      }
+      byte[] output = new byte[getUncompressedLength(byteArray, 0, byteArray.length)];
+      uncompress(byteArray, 0, byteArray.length, output, 0);
+      return output;
+    }
+
+    @Override
+    public int uncompress(byte[] byteArray, int offset, int length, byte[] output, int outOffset)
+        throws IOException {
+      long size =
+          Zstd.decompressByteArray(
+              output, outOffset, output.length - outOffset, byteArray, offset, length);
+      if (Zstd.isError(size)) {
+        throw new IOException(Zstd.getErrorName(size));
+      }
+      return (int) size;
+    }
+
+    /** Heap buffers are also supported, but they are uncompressed through their backing arrays. */
+    @Override
+    public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+      if (compressed == null || !compressed.hasRemaining()) {
+        return 0;
+      }
+      if (compressed.isDirect() && uncompressed.isDirect()) {
+        return Zstd.decompress(uncompressed, compressed);
+      }
+      int length = compressed.remaining();
+      byte[] dataBefore = new byte[length];
+      compressed.get(dataBefore, 0, length);
+      byte[] res = uncompress(dataBefore);
+      uncompressed.put(res);
+      return res.length;
+    }
+
+    @Override
+    public CompressionType getCodecName() {
+      return CompressionType.ZSTD;
+    }
+  }
 }
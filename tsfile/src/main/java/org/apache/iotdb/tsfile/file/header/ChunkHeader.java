@@ -190,6 +190,32 @@ public class ChunkHeader {
         chunkType, measurementID, dataSize, chunkHeaderSize, dataType, type, encoding);
   }
 
+  /**
+   * deserialize from ByteBuffer, the marker has not been read. The position of the buffer is moved
+   * to the end of the chunk header.
+   *
+   * @param buffer ByteBuffer whose position is at the start of a chunk header
+   * @return CHUNK_HEADER object
+   */
+  public static ChunkHeader deserializeFrom(ByteBuffer buffer) {
+    int startPosition = buffer.position();
+    byte chunkType = buffer.get();
+    // read measurementID
+    String measurementID = ReadWriteIOUtils.readVarIntString(buffer);
+    int dataSize = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+    TSDataType dataType = ReadWriteIOUtils.readDataType(buffer);
+    CompressionType type = ReadWriteIOUtils.readCompressionType(buffer);
+    TSEncoding encoding = ReadWriteIOUtils.readEncoding(buffer);
+    return new ChunkHeader(
+        chunkType,
+        measurementID,
+        dataSize,
+        buffer.position() - startPosition,
+        dataType,
+        type,
+        encoding);
+  }
+
   public int getSerializedSize() {
     return serializedSize;
   }
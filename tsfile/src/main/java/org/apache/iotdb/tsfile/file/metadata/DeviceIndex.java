@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.file.metadata;
+
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DeviceIndex is an optional block written after the bloom filter in TsFileMetadata. For each
+ * device, it keeps the entries of the LEAF_MEASUREMENT nodes of the device, i.e. the first
+ * measurement of every maxDegreeOfIndexNode TimeseriesMetadata and its offset, so that the
+ * TimeseriesMetadata of a series can be read in one I/O without reading any MetadataIndexNode.
+ * Readers which do not know this block stop after the bloom filter and ignore it.
+ *
+ * <p>Devices are stored like a sorted string table, i.e. sorted by their UTF-8 bytes and front
+ * coded, and every {@link #RESTART_INTERVAL} devices there is a restart point whose name is stored
+ * completely. A lookup binary searches the restart points and then scans at most {@link
+ * #RESTART_INTERVAL} entries. The block is kept serialized in memory.
+ *
+ * <p>Format: MARKER, deviceNum (var int), restartNum (var int), restart offsets (int), entries
+ * length (var int), entries. Each entry is: shared length (var int), suffix length (var int),
+ * suffix bytes, body length (var int), body. The body is: offset of the first TimeseriesMetadata
+ * (long), sample number (var int), samples, end offset delta (var int). Each sample is: measurement
+ * (var int length and bytes), offset delta from the previous sample (var int, absent for the first
+ * sample).
+ */
+public class DeviceIndex {
+
+  public static final byte MARKER = (byte) 0x44;
+  private static final int RESTART_INTERVAL = 16;
+
+  private final int deviceNum;
+  private final int[] restartOffsets;
+  private final byte[] entries;
+
+  private DeviceIndex(int deviceNum, int[] restartOffsets, byte[] entries) {
+    this.deviceNum = deviceNum;
+    this.restartOffsets = restartOffsets;
+    this.entries = entries;
+  }
+
+  public int getDeviceNum() {
+    return deviceNum;
+  }
+
+  public boolean containsDevice(String device) {
+    return findBody(device.getBytes(TSFileConfig.STRING_CHARSET)) >= 0;
+  }
+
+  /**
+   * Get the range of the TimeseriesMetadata which contain the measurement if it exists. The range
+   * is the same as the one pointed by the LEAF_MEASUREMENT node, so there are at most
+   * maxDegreeOfIndexNode TimeseriesMetadata in it.
+   *
+   * @return [startOffset, endOffset), or null if the device or the measurement does not exist
+   */
+  public long[] getTimeseriesMetadataRange(String device, String measurement) {
+    int bodyPosition = findBody(device.getBytes(TSFileConfig.STRING_CHARSET));
+    if (bodyPosition < 0) {
+      return null;
+    }
+    ByteBuffer body = ByteBuffer.wrap(entries);
+    body.position(bodyPosition);
+    long sampleOffset = ReadWriteIOUtils.readLong(body);
+    int sampleNum = ReadWriteForEncodingUtils.readUnsignedVarInt(body);
+    long startOffset = -1;
+    for (int i = 0; i < sampleNum; i++) {
+      String sampleMeasurement = readString(body);
+      if (i > 0) {
+        sampleOffset += ReadWriteForEncodingUtils.readUnsignedVarInt(body);
+      }
+      if (sampleMeasurement.compareTo(measurement) > 0) {
+        // the measurement is in the previous range, or before the first one if startOffset < 0
+        return startOffset < 0 ? null : new long[] {startOffset, sampleOffset};
+      }
+      startOffset = sampleOffset;
+    }
+    // skip the rest samples, and the measurement is in the last range
+    long endOffset = sampleOffset + ReadWriteForEncodingUtils.readUnsignedVarInt(body);
+    return new long[] {startOffset, endOffset};
+  }
+
+  /** @return the position of the body of the device in entries, or -1 if it does not exist */
+  private int findBody(byte[] device) {
+    if (restartOffsets.length == 0) {
+      return -1;
+    }
+    // find the last restart point whose device is not greater than the target
+    int low = 0;
+    int high = restartOffsets.length - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      ByteBuffer buffer = ByteBuffer.wrap(entries);
+      buffer.position(restartOffsets[mid]);
+      // the shared length of a restart point is 0
+      ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+      int length = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+      if (compare(entries, buffer.position(), length, device) <= 0) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(entries);
+    buffer.position(restartOffsets[low]);
+    int end = low + 1 < restartOffsets.length ? restartOffsets[low + 1] : entries.length;
+    byte[] name = new byte[0];
+    while (buffer.position() < end) {
+      int sharedLength = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+      int suffixLength = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+      byte[] current = new byte[sharedLength + suffixLength];
+      System.arraycopy(name, 0, current, 0, sharedLength);
+      buffer.get(current, sharedLength, suffixLength);
+      name = current;
+      int bodyLength = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+      int cmp = compare(name, 0, name.length, device);
+      if (cmp == 0) {
+        return buffer.position();
+      } else if (cmp > 0) {
+        return -1;
+      }
+      buffer.position(buffer.position() + bodyLength);
+    }
+    return -1;
+  }
+
+  /** compare bytes[offset, offset + length) with target as unsigned bytes */
+  private static int compare(byte[] bytes, int offset, int length, byte[] target) {
+    int minLength = Math.min(length, target.length);
+    for (int i = 0; i < minLength; i++) {
+      int cmp = Integer.compare(bytes[offset + i] & 0xFF, target[i] & 0xFF);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return Integer.compare(length, target.length);
+  }
+
+  private String readString(ByteBuffer buffer) {
+    int length = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+    String result = new String(entries, buffer.position(), length, TSFileConfig.STRING_CHARSET);
+    buffer.position(buffer.position() + length);
+    return result;
+  }
+
+  public int serializeTo(OutputStream outputStream) throws IOException {
+    int byteLen = ReadWriteIOUtils.write(MARKER, outputStream);
+    byteLen += ReadWriteForEncodingUtils.writeUnsignedVarInt(deviceNum, outputStream);
+    byteLen += ReadWriteForEncodingUtils.writeUnsignedVarInt(restartOffsets.length, outputStream);
+    for (int restartOffset : restartOffsets) {
+      byteLen += ReadWriteIOUtils.write(restartOffset, outputStream);
+    }
+    byteLen += ReadWriteForEncodingUtils.writeUnsignedVarInt(entries.length, outputStream);
+    outputStream.write(entries);
+    byteLen += entries.length;
+    return byteLen;
+  }
+
+  /** @return null if the buffer does not start with a device index block */
+  public static DeviceIndex deserializeFrom(ByteBuffer buffer) {
+    if (buffer.get() != MARKER) {
+      return null;
+    }
+    int deviceNum = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+    int[] restartOffsets = new int[ReadWriteForEncodingUtils.readUnsignedVarInt(buffer)];
+    for (int i = 0; i < restartOffsets.length; i++) {
+      restartOffsets[i] = ReadWriteIOUtils.readInt(buffer);
+    }
+    byte[] entries = new byte[ReadWriteForEncodingUtils.readUnsignedVarInt(buffer)];
+    buffer.get(entries);
+    return new DeviceIndex(deviceNum, restartOffsets, entries);
+  }
+
+  /** Collect the entries of LEAF_MEASUREMENT nodes when constructing the metadata index. */
+  public static class Builder {
+
+    private final Map<byte[], byte[]> deviceBodies = new TreeMap<>(Builder::compareBytes);
+
+    private String currentDevice;
+    private final List<String> measurements = new ArrayList<>();
+    private final List<Long> offsets = new ArrayList<>();
+
+    public void startDevice(String device) {
+      currentDevice = device;
+      measurements.clear();
+      offsets.clear();
+    }
+
+    /** Add an entry of a LEAF_MEASUREMENT node of the current device. */
+    public void addEntry(String measurement, long offset) {
+      measurements.add(measurement);
+      offsets.add(offset);
+    }
+
+    /** @param endOffset the end offset of the last TimeseriesMetadata of the current device */
+    public void endDevice(long endOffset) throws IOException {
+      if (measurements.isEmpty()) {
+        return;
+      }
+      PublicBAOS body = new PublicBAOS();
+      ReadWriteIOUtils.write(offsets.get(0), body);
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(measurements.size(), body);
+      for (int i = 0; i < measurements.size(); i++) {
+        writeString(measurements.get(i), body);
+        if (i > 0) {
+          ReadWriteForEncodingUtils.writeUnsignedVarInt(
+              (int) (offsets.get(i) - offsets.get(i - 1)), body);
+        }
+      }
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(
+          (int) (endOffset - offsets.get(offsets.size() - 1)), body);
+      deviceBodies.put(
+          currentDevice.getBytes(TSFileConfig.STRING_CHARSET),
+          Arrays.copyOf(body.getBuf(), body.size()));
+    }
+
+    public DeviceIndex build() throws IOException {
+      PublicBAOS entries = new PublicBAOS();
+      int[] restartOffsets =
+          new int[(deviceBodies.size() + RESTART_INTERVAL - 1) / RESTART_INTERVAL];
+      byte[] previous = new byte[0];
+      int i = 0;
+      for (Map.Entry<byte[], byte[]> entry : deviceBodies.entrySet()) {
+        byte[] device = entry.getKey();
+        int sharedLength = 0;
+        if (i % RESTART_INTERVAL == 0) {
+          restartOffsets[i / RESTART_INTERVAL] = entries.size();
+        } else {
+          int maxSharedLength = Math.min(previous.length, device.length);
+          while (sharedLength < maxSharedLength && previous[sharedLength] == device[sharedLength]) {
+            sharedLength++;
+          }
+        }
+        ReadWriteForEncodingUtils.writeUnsignedVarInt(sharedLength, entries);
+        ReadWriteForEncodingUtils.writeUnsignedVarInt(device.length - sharedLength, entries);
+        entries.write(device, sharedLength, device.length - sharedLength);
+        ReadWriteForEncodingUtils.writeUnsignedVarInt(entry.getValue().length, entries);
+        entries.write(entry.getValue());
+        previous = device;
+        i++;
+      }
+      return new DeviceIndex(
+          deviceBodies.size(),
+          restartOffsets,
+          Arrays.copyOf(entries.getBuf(), entries.size()));
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+      return compare(a, 0, a.length, b);
+    }
+
+    private static void writeString(String s, OutputStream outputStream) throws IOException {
+      byte[] bytes = s.getBytes(TSFileConfig.STRING_CHARSET);
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(bytes.length, outputStream);
+      outputStream.write(bytes);
+    }
+  }
+}
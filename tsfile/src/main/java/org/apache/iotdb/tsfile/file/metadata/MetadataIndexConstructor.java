@@ -46,10 +46,26 @@ public class MetadataIndexConstructor {
    * @param deviceTimeseriesMetadataMap device => TimeseriesMetadata list
    * @param out tsfile output
    */
-  @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
   public static MetadataIndexNode constructMetadataIndex(
       Map<String, List<TimeseriesMetadata>> deviceTimeseriesMetadataMap, TsFileOutput out)
       throws IOException {
+    return constructMetadataIndex(deviceTimeseriesMetadataMap, out, null);
+  }
+
+  /**
+   * Construct metadata index tree, and collect the entries of LEAF_MEASUREMENT nodes into the
+   * device index builder if it is not null
+   *
+   * @param deviceTimeseriesMetadataMap device => TimeseriesMetadata list
+   * @param out tsfile output
+   * @param deviceIndexBuilder builder of the device index, may be null
+   */
+  @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
+  public static MetadataIndexNode constructMetadataIndex(
+      Map<String, List<TimeseriesMetadata>> deviceTimeseriesMetadataMap,
+      TsFileOutput out,
+      DeviceIndex.Builder deviceIndexBuilder)
+      throws IOException {
 
     Map<String, MetadataIndexNode> deviceMetadataIndexMap = new TreeMap<>();
 
@@ -62,6 +78,9 @@ public class MetadataIndexConstructor {
       TimeseriesMetadata timeseriesMetadata;
       MetadataIndexNode currentIndexNode =
           new MetadataIndexNode(MetadataIndexNodeType.LEAF_MEASUREMENT);
+      if (deviceIndexBuilder != null) {
+        deviceIndexBuilder.startDevice(entry.getKey());
+      }
       for (int i = 0; i < entry.getValue().size(); i++) {
         timeseriesMetadata = entry.getValue().get(i);
         if (i % config.getMaxDegreeOfIndexNode() == 0) {
@@ -71,9 +90,15 @@ public class MetadataIndexConstructor {
           }
           currentIndexNode.addEntry(
               new MetadataIndexEntry(timeseriesMetadata.getMeasurementId(), out.getPosition()));
+          if (deviceIndexBuilder != null) {
+            deviceIndexBuilder.addEntry(timeseriesMetadata.getMeasurementId(), out.getPosition());
+          }
         }
         timeseriesMetadata.serializeTo(out.wrapAsStream());
       }
+      if (deviceIndexBuilder != null) {
+        deviceIndexBuilder.endDevice(out.getPosition());
+      }
       addCurrentIndexNodeToQueue(currentIndexNode, measurementMetadataIndexQueue, out);
       deviceMetadataIndexMap.put(
           entry.getKey(),
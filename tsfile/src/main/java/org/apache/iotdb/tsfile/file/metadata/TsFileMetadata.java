@@ -42,6 +42,9 @@ public class TsFileMetadata {
   // offset of MetaMarker.SEPARATOR
   private long metaOffset;
 
+  // optional, written after the bloom filter
+  private DeviceIndex deviceIndex;
+
   /**
    * deserialize data from the buffer.
    *
@@ -66,6 +69,11 @@ public class TsFileMetadata {
       fileMetaData.bloomFilter = BloomFilter.buildBloomFilter(bytes, filterSize, hashFunctionSize);
     }
 
+    // read device index
+    if (buffer.hasRemaining()) {
+      fileMetaData.deviceIndex = DeviceIndex.deserializeFrom(buffer);
+    }
+
     return fileMetaData;
   }
 
@@ -119,6 +127,16 @@ public class TsFileMetadata {
     return byteLen;
   }
 
+  /**
+   * use the given outputStream to serialize device index.
+   *
+   * @param outputStream -output stream to determine byte length
+   * @return -byte length
+   */
+  public int serializeDeviceIndex(OutputStream outputStream) throws IOException {
+    return deviceIndex == null ? 0 : deviceIndex.serializeTo(outputStream);
+  }
+
   /**
    * build bloom filter
    *
@@ -149,4 +167,12 @@ public class TsFileMetadata {
   public void setMetadataIndex(MetadataIndexNode metadataIndex) {
     this.metadataIndex = metadataIndex;
   }
+
+  public DeviceIndex getDeviceIndex() {
+    return deviceIndex;
+  }
+
+  public void setDeviceIndex(DeviceIndex deviceIndex) {
+    this.deviceIndex = deviceIndex;
+  }
 }
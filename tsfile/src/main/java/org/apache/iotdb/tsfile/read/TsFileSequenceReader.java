@@ -33,6 +33,7 @@ import org.apache.iotdb.tsfile.file.metadata.AlignedChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.AlignedTimeSeriesMetadata;
 import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetadata;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.DeviceIndex;
 import org.apache.iotdb.tsfile.file.metadata.IChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.ITimeSeriesMetadata;
 import org.apache.iotdb.tsfile.file.metadata.MetadataIndexEntry;
@@ -96,6 +97,8 @@ public class TsFileSequenceReader implements AutoCloseable {
   private static final String METADATA_INDEX_NODE_DESERIALIZE_ERROR =
       "Something error happened while deserializing MetadataIndexNode of file {}";
   private static final int MAX_READ_BUFFER_SIZE = 4 * 1024 * 1024;
+  /** chunks are read by one I/O only if the distance between their offsets is not larger */
+  private static final int MAX_COALESCED_CHUNK_DISTANCE = 128 * 1024;
   protected String file;
   protected TsFileInput tsFileInput;
   protected long fileMetadataPos;
@@ -340,6 +343,17 @@ public class TsFileSequenceReader implements AutoCloseable {
   public TimeseriesMetadata readTimeseriesMetadata(Path path, boolean ignoreNotExists)
       throws IOException {
     readFileMetadata();
+    DeviceIndex deviceIndex = tsFileMetaData.getDeviceIndex();
+    if (deviceIndex != null) {
+      Pair<MetadataIndexEntry, Long> metadataIndexPair = getMetadataFromDeviceIndex(path);
+      if (metadataIndexPair == null) {
+        if (ignoreNotExists || deviceIndex.containsDevice(path.getDevice())) {
+          return null;
+        }
+        throw new IOException("Device {" + path.getDevice() + "} is not in tsFileMetaData");
+      }
+      return readTimeseriesMetadata(metadataIndexPair, path.getMeasurement());
+    }
     MetadataIndexNode deviceMetadataIndexNode = tsFileMetaData.getMetadataIndex();
     Pair<MetadataIndexEntry, Long> metadataIndexPair =
         getMetadataAndEndOffset(deviceMetadataIndexNode, path.getDevice(), true, true);
@@ -364,8 +378,14 @@ public class TsFileSequenceReader implements AutoCloseable {
     if (metadataIndexPair == null) {
       return null;
     }
+    return readTimeseriesMetadata(metadataIndexPair, path.getMeasurement());
+  }
+
+  /** Read the TimeseriesMetadata in the range of the leaf entry and find the measurement. */
+  private TimeseriesMetadata readTimeseriesMetadata(
+      Pair<MetadataIndexEntry, Long> metadataIndexPair, String measurement) throws IOException {
     List<TimeseriesMetadata> timeseriesMetadataList = new ArrayList<>();
-    buffer = readData(metadataIndexPair.left.getOffset(), metadataIndexPair.right);
+    ByteBuffer buffer = readData(metadataIndexPair.left.getOffset(), metadataIndexPair.right);
     while (buffer.hasRemaining()) {
       try {
         timeseriesMetadataList.add(TimeseriesMetadata.deserializeFrom(buffer, true));
@@ -376,11 +396,27 @@ public class TsFileSequenceReader implements AutoCloseable {
       }
     }
     // return null if path does not exist in the TsFile
-    int searchResult =
-        binarySearchInTimeseriesMetadataList(timeseriesMetadataList, path.getMeasurement());
+    int searchResult = binarySearchInTimeseriesMetadataList(timeseriesMetadataList, measurement);
     return searchResult >= 0 ? timeseriesMetadataList.get(searchResult) : null;
   }
 
+  /**
+   * Get the leaf entry which contains the path from the device index, without reading any
+   * MetadataIndexNode.
+   *
+   * @return null if the device or the measurement does not exist
+   */
+  private Pair<MetadataIndexEntry, Long> getMetadataFromDeviceIndex(Path path) {
+    long[] range =
+        tsFileMetaData
+            .getDeviceIndex()
+            .getTimeseriesMetadataRange(path.getDevice(), path.getMeasurement());
+    if (range == null) {
+      return null;
+    }
+    return new Pair<>(new MetadataIndexEntry(path.getMeasurement(), range[0]), range[1]);
+  }
+
   // This method is only used for TsFile
   public ITimeSeriesMetadata readITimeseriesMetadata(Path path, boolean ignoreNotExists)
       throws IOException {
@@ -467,6 +503,9 @@ public class TsFileSequenceReader implements AutoCloseable {
   /* Get leaf MetadataIndexPair which contains path */
   private Pair<MetadataIndexEntry, Long> getLeafMetadataIndexPair(Path path) throws IOException {
     readFileMetadata();
+    if (tsFileMetaData.getDeviceIndex() != null) {
+      return getMetadataFromDeviceIndex(path);
+    }
     MetadataIndexNode deviceMetadataIndexNode = tsFileMetaData.getMetadataIndex();
     Pair<MetadataIndexEntry, Long> metadataIndexPair =
         getMetadataAndEndOffset(deviceMetadataIndexNode, path.getDevice(), true, true);
@@ -1036,6 +1075,17 @@ public class TsFileSequenceReader implements AutoCloseable {
     return ChunkHeader.deserializeFrom(tsFileInput.wrapAsInputStream(), chunkType);
   }
 
+  /**
+   * read the header of a chunk without reading its data.
+   *
+   * @param metaData the chunk metadata of the chunk
+   */
+  public ChunkHeader readChunkHeader(IChunkMetadata metaData) throws IOException {
+    return readChunkHeader(
+        metaData.getOffsetOfChunkHeader(),
+        ChunkHeader.getSerializedSize(metaData.getMeasurementUid()));
+  }
+
   /**
    * read the chunk's header.
    *
@@ -1089,6 +1139,74 @@ public class TsFileSequenceReader implements AutoCloseable {
         header, buffer, chunkCacheKey.getDeleteIntervalList(), chunkCacheKey.getStatistics());
   }
 
+  /**
+   * read memory chunks in batch. Chunks whose offsets are close to each other are read by one I/O
+   * instead of reading the header and the data of each chunk separately, which saves lots of small
+   * reads when there are many small chunks, e.g., chunks of different series in one chunk group.
+   *
+   * @param chunkMetadataList given chunk meta data of this file
+   * @return chunks in the same order as chunkMetadataList
+   */
+  public List<Chunk> readMemChunks(List<ChunkMetadata> chunkMetadataList) throws IOException {
+    // offset of chunk header -> one of the chunk metadata, sorted by offset
+    TreeMap<Long, ChunkMetadata> offsetToMetadata = new TreeMap<>();
+    for (ChunkMetadata metaData : chunkMetadataList) {
+      offsetToMetadata.putIfAbsent(metaData.getOffsetOfChunkHeader(), metaData);
+    }
+    List<ChunkMetadata> sortedList = new ArrayList<>(offsetToMetadata.values());
+    Map<Long, Chunk> offsetToChunk = new HashMap<>();
+    int start = 0;
+    while (start < sortedList.size()) {
+      long startOffset = sortedList.get(start).getOffsetOfChunkHeader();
+      // find the last chunk that can be coalesced, each chunk ends before the next one starts
+      int end = start;
+      while (end + 1 < sortedList.size()) {
+        long nextOffset = sortedList.get(end + 1).getOffsetOfChunkHeader();
+        if (nextOffset - sortedList.get(end).getOffsetOfChunkHeader()
+                > MAX_COALESCED_CHUNK_DISTANCE
+            || nextOffset - startOffset > MAX_READ_BUFFER_SIZE) {
+          break;
+        }
+        end++;
+      }
+      if (end > start) {
+        // chunks before the last one are read by one I/O
+        ByteBuffer buffer = readData(startOffset, sortedList.get(end).getOffsetOfChunkHeader());
+        for (int i = start; i < end; i++) {
+          ChunkMetadata metaData = sortedList.get(i);
+          buffer.position((int) (metaData.getOffsetOfChunkHeader() - startOffset));
+          ChunkHeader header = ChunkHeader.deserializeFrom(buffer);
+          ByteBuffer slice = buffer.slice();
+          slice.limit(header.getDataSize());
+          ByteBuffer chunkData = ByteBuffer.allocate(header.getDataSize());
+          chunkData.put(slice);
+          chunkData.flip();
+          offsetToChunk.put(
+              metaData.getOffsetOfChunkHeader(),
+              new Chunk(
+                  header, chunkData, metaData.getDeleteIntervalList(), metaData.getStatistics()));
+        }
+      }
+      // the size of the last chunk is unknown until its header is read, so read it separately
+      ChunkMetadata lastMetaData = sortedList.get(end);
+      offsetToChunk.put(lastMetaData.getOffsetOfChunkHeader(), readMemChunk(lastMetaData));
+      start = end + 1;
+    }
+
+    List<Chunk> chunks = new ArrayList<>(chunkMetadataList.size());
+    for (ChunkMetadata metaData : chunkMetadataList) {
+      Chunk chunk = offsetToChunk.get(metaData.getOffsetOfChunkHeader());
+      // chunk data is consumed by its reader, so each returned chunk owns its buffer view
+      chunks.add(
+          new Chunk(
+              chunk.getHeader(),
+              chunk.getData().duplicate(),
+              metaData.getDeleteIntervalList(),
+              metaData.getStatistics()));
+    }
+    return chunks;
+  }
+
   /**
    * not thread safe.
    *
@@ -70,6 +70,34 @@ public interface Column {
     throw new UnsupportedOperationException(getClass().getName());
   }
 
+  /**
+   * Gets the backing long array of this column, values of this column start from {@link
+   * #getArrayOffset()}. The returned array must not be modified.
+   */
+  default long[] getLongs() {
+    throw new UnsupportedOperationException(getClass().getName());
+  }
+
+  /** Gets the backing int array of this column, see {@link #getLongs()}. */
+  default int[] getInts() {
+    throw new UnsupportedOperationException(getClass().getName());
+  }
+
+  /** Gets the backing float array of this column, see {@link #getLongs()}. */
+  default float[] getFloats() {
+    throw new UnsupportedOperationException(getClass().getName());
+  }
+
+  /** Gets the backing double array of this column, see {@link #getLongs()}. */
+  default double[] getDoubles() {
+    throw new UnsupportedOperationException(getClass().getName());
+  }
+
+  /** Gets the offset of the first value of this column in its backing array. */
+  default int getArrayOffset() {
+    throw new UnsupportedOperationException(getClass().getName());
+  }
+
   /**
    * Is it possible the column may have a null value? If false, the column cannot contain a null,
    * but if true, the column may or may not have a null.
@@ -84,6 +84,16 @@ public class DoubleColumn implements Column {
     return values[position + arrayOffset];
   }
 
+  @Override
+  public double[] getDoubles() {
+    return values;
+  }
+
+  @Override
+  public int getArrayOffset() {
+    return arrayOffset;
+  }
+
   @Override
   public Object getObject(int position) {
     return getDouble(position);
@@ -74,6 +74,16 @@ public class TimeColumn implements Column {
     return values[position + arrayOffset];
   }
 
+  @Override
+  public long[] getLongs() {
+    return values;
+  }
+
+  @Override
+  public int getArrayOffset() {
+    return arrayOffset;
+  }
+
   @Override
   public Object getObject(int position) {
     return getLong(position);
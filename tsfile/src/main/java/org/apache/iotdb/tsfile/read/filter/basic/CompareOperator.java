@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.filter.basic;
+
+/**
+ * Comparison operators used to evaluate filters on a batch of points. Each method compares {@code
+ * count} values starting from {@code offset} of the array with a constant, and clears {@code
+ * selection[i]} if the value at {@code offset + i} doesn't satisfy the comparison.
+ *
+ * <p>The loops are kept tight and branch free, so that the JIT is able to vectorize them. NaN is
+ * regarded as greater than any other value, which is the same as {@link Double#compareTo}; the
+ * caller should not use these methods if the constant is NaN or zero, since {@link
+ * Double#compareTo} also distinguishes 0.0 and -0.0.
+ */
+public enum CompareOperator {
+  /** Greater than. */
+  GT {
+    @Override
+    public void select(int[] values, int offset, int count, long value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] > value);
+      }
+    }
+
+    @Override
+    public void select(long[] values, int offset, int count, long value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] > value);
+      }
+    }
+
+    @Override
+    public void select(float[] values, int offset, int count, double value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] > value | values[offset + i] != values[offset + i]);
+      }
+    }
+
+    @Override
+    public void select(double[] values, int offset, int count, double value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] > value | values[offset + i] != values[offset + i]);
+      }
+    }
+  },
+
+  /** Greater than or equal to. */
+  GT_EQ {
+    @Override
+    public void select(int[] values, int offset, int count, long value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] >= value);
+      }
+    }
+
+    @Override
+    public void select(long[] values, int offset, int count, long value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] >= value);
+      }
+    }
+
+    @Override
+    public void select(float[] values, int offset, int count, double value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] >= value | values[offset + i] != values[offset + i]);
+      }
+    }
+
+    @Override
+    public void select(double[] values, int offset, int count, double value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] >= value | values[offset + i] != values[offset + i]);
+      }
+    }
+  },
+
+  /** Less than. */
+  LT {
+    @Override
+    public void select(int[] values, int offset, int count, long value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] < value);
+      }
+    }
+
+    @Override
+    public void select(long[] values, int offset, int count, long value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] < value);
+      }
+    }
+
+    @Override
+    public void select(float[] values, int offset, int count, double value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] < value);
+      }
+    }
+
+    @Override
+    public void select(double[] values, int offset, int count, double value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] < value);
+      }
+    }
+  },
+
+  /** Less than or equal to. */
+  LT_EQ {
+    @Override
+    public void select(int[] values, int offset, int count, long value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] <= value);
+      }
+    }
+
+    @Override
+    public void select(long[] values, int offset, int count, long value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] <= value);
+      }
+    }
+
+    @Override
+    public void select(float[] values, int offset, int count, double value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] <= value);
+      }
+    }
+
+    @Override
+    public void select(double[] values, int offset, int count, double value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] <= value);
+      }
+    }
+  },
+
+  /** Equal to. */
+  EQ {
+    @Override
+    public void select(int[] values, int offset, int count, long value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] == value);
+      }
+    }
+
+    @Override
+    public void select(long[] values, int offset, int count, long value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] == value);
+      }
+    }
+
+    @Override
+    public void select(float[] values, int offset, int count, double value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] == value);
+      }
+    }
+
+    @Override
+    public void select(double[] values, int offset, int count, double value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] == value);
+      }
+    }
+  },
+
+  /** Not equal to. */
+  NOT_EQ {
+    @Override
+    public void select(int[] values, int offset, int count, long value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] != value);
+      }
+    }
+
+    @Override
+    public void select(long[] values, int offset, int count, long value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] != value);
+      }
+    }
+
+    @Override
+    public void select(float[] values, int offset, int count, double value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] != value);
+      }
+    }
+
+    @Override
+    public void select(double[] values, int offset, int count, double value, boolean[] selection) {
+      for (int i = 0; i < count; i++) {
+        selection[i] &= (values[offset + i] != value);
+      }
+    }
+  };
+
+  public abstract void select(
+      int[] values, int offset, int count, long value, boolean[] selection);
+
+  public abstract void select(
+      long[] values, int offset, int count, long value, boolean[] selection);
+
+  public abstract void select(
+      float[] values, int offset, int count, double value, boolean[] selection);
+
+  public abstract void select(
+      double[] values, int offset, int count, double value, boolean[] selection);
+}
@@ -18,7 +18,9 @@
  */
 package org.apache.iotdb.tsfile.read.filter.basic;
 
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterSerializeId;
 
 import java.io.ByteArrayOutputStream;
@@ -43,6 +45,29 @@ public interface Filter {
    */
   boolean satisfy(long time, Object value);
 
+  /**
+   * To examine whether this filter is able to examine a batch of points by {@link #satisfyBatch}.
+   * The result of {@link #satisfyBatch} must be the same as examining the points one by one.
+   *
+   * @param dataType data type of the value column
+   */
+  default boolean canSatisfyBatch(TSDataType dataType) {
+    return false;
+  }
+
+  /**
+   * To examine a batch of points, {@code selection[i]} is set to false if the i-th point is not
+   * satisfied with the filter, and is left unchanged otherwise. It can only be called if {@link
+   * #canSatisfyBatch} returns true.
+   *
+   * @param timeColumn time column of the points
+   * @param valueColumn value column of the points, which must not contain null
+   * @param selection selection bitmap, whose length is not less than the number of points
+   */
+  default void satisfyBatch(Column timeColumn, Column valueColumn, boolean[] selection) {
+    throw new UnsupportedOperationException(getClass().getName());
+  }
+
   /**
    * To examine whether the min time and max time are satisfied with the filter.
    *
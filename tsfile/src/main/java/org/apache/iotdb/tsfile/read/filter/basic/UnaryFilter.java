@@ -18,6 +18,8 @@
  */
 package org.apache.iotdb.tsfile.read.filter.basic;
 
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterType;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
@@ -58,6 +60,80 @@ public abstract class UnaryFilter<T extends Comparable<T>> implements Filter, Se
     return filterType;
   }
 
+  /**
+   * Returns the operator used to examine a batch of points, or null if this filter doesn't support
+   * batch examination.
+   */
+  protected CompareOperator getCompareOperator() {
+    return null;
+  }
+
+  @Override
+  public boolean canSatisfyBatch(TSDataType dataType) {
+    if (getCompareOperator() == null) {
+      return false;
+    }
+    if (filterType == FilterType.TIME_FILTER) {
+      return value instanceof Long;
+    }
+    // the type of value must be the same as data type, otherwise satisfy(long, Object) would
+    // either fail or always return false for Eq
+    switch (dataType) {
+      case INT32:
+        return value instanceof Integer;
+      case INT64:
+        return value instanceof Long;
+      case FLOAT:
+        return value instanceof Float && isBatchComparable((Float) value);
+      case DOUBLE:
+        return value instanceof Double && isBatchComparable((Double) value);
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * {@link Double#compareTo} regards NaN as equal to itself and 0.0 as greater than -0.0, which is
+   * different from primitive comparison, so such constants are examined point by point.
+   */
+  private static boolean isBatchComparable(double constant) {
+    return !Double.isNaN(constant) && constant != 0.0;
+  }
+
+  @Override
+  public void satisfyBatch(Column timeColumn, Column valueColumn, boolean[] selection) {
+    CompareOperator operator = getCompareOperator();
+    if (filterType == FilterType.TIME_FILTER) {
+      operator.select(
+          timeColumn.getLongs(),
+          timeColumn.getArrayOffset(),
+          timeColumn.getPositionCount(),
+          (Long) value,
+          selection);
+      return;
+    }
+    int offset = valueColumn.getArrayOffset();
+    int count = valueColumn.getPositionCount();
+    switch (valueColumn.getDataType()) {
+      case INT32:
+        operator.select(valueColumn.getInts(), offset, count, (Integer) value, selection);
+        break;
+      case INT64:
+        operator.select(valueColumn.getLongs(), offset, count, (Long) value, selection);
+        break;
+      case FLOAT:
+        operator.select(valueColumn.getFloats(), offset, count, (Float) value, selection);
+        break;
+      case DOUBLE:
+        operator.select(valueColumn.getDoubles(), offset, count, (Double) value, selection);
+        break;
+      default:
+        throw new UnsupportedOperationException(
+            String.format(
+                "%s doesn't support batch examination of %s", this, valueColumn.getDataType()));
+    }
+  }
+
   @Override
   public abstract String toString();
 
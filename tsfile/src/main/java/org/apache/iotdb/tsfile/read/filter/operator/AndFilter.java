@@ -18,7 +18,9 @@
  */
 package org.apache.iotdb.tsfile.read.filter.operator;
 
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
 import org.apache.iotdb.tsfile.read.filter.basic.BinaryFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterSerializeId;
@@ -44,6 +46,17 @@ public class AndFilter extends BinaryFilter {
     return left.satisfy(time, value) && right.satisfy(time, value);
   }
 
+  @Override
+  public boolean canSatisfyBatch(TSDataType dataType) {
+    return left.canSatisfyBatch(dataType) && right.canSatisfyBatch(dataType);
+  }
+
+  @Override
+  public void satisfyBatch(Column timeColumn, Column valueColumn, boolean[] selection) {
+    left.satisfyBatch(timeColumn, valueColumn, selection);
+    right.satisfyBatch(timeColumn, valueColumn, selection);
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     return left.satisfyStartEndTime(startTime, endTime)
@@ -20,6 +20,7 @@ package org.apache.iotdb.tsfile.read.filter.operator;
 
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.filter.basic.CompareOperator;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.filter.basic.UnaryFilter;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterSerializeId;
@@ -60,6 +61,11 @@ public class Eq<T extends Comparable<T>> extends UnaryFilter<T> {
     return this.value.equals(v);
   }
 
+  @Override
+  protected CompareOperator getCompareOperator() {
+    return CompareOperator.EQ;
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     if (filterType == FilterType.TIME_FILTER) {
@@ -20,6 +20,7 @@ package org.apache.iotdb.tsfile.read.filter.operator;
 
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.filter.basic.CompareOperator;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.filter.basic.UnaryFilter;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterSerializeId;
@@ -58,6 +59,11 @@ public class GtEq<T extends Comparable<T>> extends UnaryFilter<T> {
     return this.value.compareTo((T) v) <= 0;
   }
 
+  @Override
+  protected CompareOperator getCompareOperator() {
+    return CompareOperator.GT_EQ;
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     if (filterType == FilterType.TIME_FILTER) {
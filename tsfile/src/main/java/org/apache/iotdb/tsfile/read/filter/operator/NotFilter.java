@@ -18,7 +18,9 @@
  */
 package org.apache.iotdb.tsfile.read.filter.operator;
 
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterSerializeId;
@@ -27,6 +29,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Objects;
 
 /** NotFilter necessary. Use InvertExpressionVisitor */
@@ -55,6 +58,22 @@ public class NotFilter implements Filter, Serializable {
    * Notice that, if the not filter only contains value filter, this method may return false, this
    * may cause misunderstanding.
    */
+  @Override
+  public boolean canSatisfyBatch(TSDataType dataType) {
+    return that.canSatisfyBatch(dataType);
+  }
+
+  @Override
+  public void satisfyBatch(Column timeColumn, Column valueColumn, boolean[] selection) {
+    int count = timeColumn.getPositionCount();
+    boolean[] thatSelection = new boolean[count];
+    Arrays.fill(thatSelection, true);
+    that.satisfyBatch(timeColumn, valueColumn, thatSelection);
+    for (int i = 0; i < count; i++) {
+      selection[i] &= !thatSelection[i];
+    }
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     return !that.satisfyStartEndTime(startTime, endTime);
@@ -18,12 +18,15 @@
  */
 package org.apache.iotdb.tsfile.read.filter.operator;
 
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
 import org.apache.iotdb.tsfile.read.filter.basic.BinaryFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterSerializeId;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 /** Either of the left and right operators of AndExpression must satisfy the condition. */
 public class OrFilter extends BinaryFilter implements Serializable {
@@ -56,6 +59,25 @@ public class OrFilter extends BinaryFilter implements Serializable {
     return left.satisfy(time, value) || right.satisfy(time, value);
   }
 
+  @Override
+  public boolean canSatisfyBatch(TSDataType dataType) {
+    return left.canSatisfyBatch(dataType) && right.canSatisfyBatch(dataType);
+  }
+
+  @Override
+  public void satisfyBatch(Column timeColumn, Column valueColumn, boolean[] selection) {
+    int count = timeColumn.getPositionCount();
+    boolean[] leftSelection = new boolean[count];
+    Arrays.fill(leftSelection, true);
+    left.satisfyBatch(timeColumn, valueColumn, leftSelection);
+    boolean[] rightSelection = new boolean[count];
+    Arrays.fill(rightSelection, true);
+    right.satisfyBatch(timeColumn, valueColumn, rightSelection);
+    for (int i = 0; i < count; i++) {
+      selection[i] &= leftSelection[i] | rightSelection[i];
+    }
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     return left.satisfyStartEndTime(startTime, endTime)
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of the memory mapped regions of all {@link MmapTsFileInput}s. The total size of mapped
+ * regions is bounded by {@link
+ * org.apache.iotdb.tsfile.common.conf.TSFileConfig#getMaxMappedSizeInByte()}. An evicted region is
+ * unmapped by GC once no reader is copying from it, so the bound is on the regions in use rather
+ * than a hard limit of the address space.
+ *
+ * <p>A hit only reads the concurrent map. A region is mapped under the lock of its own key, so
+ * reads of other regions are not blocked by the mmap syscall, and only the eviction is serialized.
+ */
+public class MappedRegionCache {
+
+  /** size of each mapped region, a file is mapped region by region */
+  static final int REGION_SIZE = 16 * 1024 * 1024;
+
+  private final long maxMappedSize;
+  private final AtomicLong mappedSize = new AtomicLong();
+  private final Map<RegionKey, Region> regions = new ConcurrentHashMap<>();
+  private final Object evictionLock = new Object();
+
+  private MappedRegionCache() {
+    this(TSFileDescriptor.getInstance().getConfig().getMaxMappedSizeInByte());
+  }
+
+  MappedRegionCache(long maxMappedSize) {
+    this.maxMappedSize = maxMappedSize;
+  }
+
+  public static MappedRegionCache getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Get the mapped region of the input, the region is mapped if it is not in the cache.
+   *
+   * @param input owner of the region
+   * @param regionIndex the region covers [regionIndex * REGION_SIZE, (regionIndex + 1) *
+   *     REGION_SIZE) of the file
+   */
+  MappedByteBuffer getRegion(MmapTsFileInput input, long regionIndex) throws IOException {
+    RegionKey key = new RegionKey(input, regionIndex);
+    Region region = regions.get(key);
+    if (region == null) {
+      try {
+        region = regions.computeIfAbsent(key, this::map);
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      evictIfNeeded(key);
+    }
+    region.lastAccessTime = System.nanoTime();
+    return region.buffer;
+  }
+
+  private Region map(RegionKey key) {
+    long start = key.regionIndex * REGION_SIZE;
+    long size = Math.min(REGION_SIZE, key.input.size() - start);
+    try {
+      MappedByteBuffer buffer =
+          key.input.wrapAsFileChannel().map(FileChannel.MapMode.READ_ONLY, start, size);
+      mappedSize.addAndGet(size);
+      return new Region(buffer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Evict the least recently used regions, the newest region is always kept. */
+  private void evictIfNeeded(RegionKey newestKey) {
+    if (mappedSize.get() <= maxMappedSize) {
+      return;
+    }
+    synchronized (evictionLock) {
+      while (mappedSize.get() > maxMappedSize) {
+        Map.Entry<RegionKey, Region> eldest = null;
+        for (Map.Entry<RegionKey, Region> entry : regions.entrySet()) {
+          if (!entry.getKey().equals(newestKey)
+              && (eldest == null
+                  || entry.getValue().lastAccessTime < eldest.getValue().lastAccessTime)) {
+            eldest = entry;
+          }
+        }
+        if (eldest == null) {
+          return;
+        }
+        remove(eldest.getKey(), eldest.getValue());
+      }
+    }
+  }
+
+  private void remove(RegionKey key, Region region) {
+    // the region may have been removed by another thread
+    if (regions.remove(key, region)) {
+      mappedSize.addAndGet(-region.buffer.capacity());
+    }
+  }
+
+  /** Remove all regions of the input, called when the input is closed. */
+  void invalidate(MmapTsFileInput input) {
+    for (Map.Entry<RegionKey, Region> entry : regions.entrySet()) {
+      if (entry.getKey().input == input) {
+        remove(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  long getMappedSize() {
+    return mappedSize.get();
+  }
+
+  int getRegionNum() {
+    return regions.size();
+  }
+
+  private static class Region {
+    private final MappedByteBuffer buffer;
+    private volatile long lastAccessTime;
+
+    private Region(MappedByteBuffer buffer) {
+      this.buffer = buffer;
+      this.lastAccessTime = System.nanoTime();
+    }
+  }
+
+  private static class RegionKey {
+    private final MmapTsFileInput input;
+    private final long regionIndex;
+
+    private RegionKey(MmapTsFileInput input, long regionIndex) {
+      this.input = input;
+      this.regionIndex = regionIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      RegionKey that = (RegionKey) o;
+      return input == that.input && regionIndex == that.regionIndex;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(input), regionIndex);
+    }
+  }
+
+  private static class InstanceHolder {
+    private static final MappedRegionCache INSTANCE = new MappedRegionCache();
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * A {@link TsFileInput} of a sealed TsFile, which serves positional reads from memory mapped
+ * regions instead of issuing a syscall for each read. It must only be used for files which will
+ * not be appended any more, because the size of the file is fixed when the input is opened.
+ * Sequential reads and streams still go through the file channel.
+ */
+public class MmapTsFileInput implements TsFileInput {
+
+  private static final Logger logger = LoggerFactory.getLogger(MmapTsFileInput.class);
+
+  private final LocalTsFileInput input;
+  private final MappedRegionCache regionCache;
+  private final long size;
+
+  public MmapTsFileInput(Path file) throws IOException {
+    this(file, MappedRegionCache.getInstance());
+  }
+
+  MmapTsFileInput(Path file, MappedRegionCache regionCache) throws IOException {
+    this.input = new LocalTsFileInput(file);
+    this.regionCache = regionCache;
+    this.size = input.size();
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public long position() throws IOException {
+    return input.position();
+  }
+
+  @Override
+  public TsFileInput position(long newPosition) throws IOException {
+    input.position(newPosition);
+    return this;
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    return input.read(dst);
+  }
+
+  @Override
+  public int read(ByteBuffer dst, long position) throws IOException {
+    if (position < 0) {
+      throw new IllegalArgumentException("Negative position: " + position);
+    }
+    if (position >= size) {
+      return -1;
+    }
+    int readSize = 0;
+    try {
+      while (dst.hasRemaining() && position < size) {
+        long regionIndex = position / MappedRegionCache.REGION_SIZE;
+        ByteBuffer region = regionCache.getRegion(this, regionIndex).duplicate();
+        int offsetInRegion = (int) (position - regionIndex * MappedRegionCache.REGION_SIZE);
+        int length = Math.min(dst.remaining(), region.capacity() - offsetInRegion);
+        region.position(offsetInRegion);
+        region.limit(offsetInRegion + length);
+        dst.put(region);
+        position += length;
+        readSize += length;
+      }
+    } catch (IOException e) {
+      logger.error("Error happened while reading {} from position {}", getFilePath(), position);
+      throw e;
+    }
+    return readSize;
+  }
+
+  @Override
+  public int read() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public FileChannel wrapAsFileChannel() {
+    return input.wrapAsFileChannel();
+  }
+
+  @Override
+  public InputStream wrapAsInputStream() {
+    return input.wrapAsInputStream();
+  }
+
+  @Override
+  public void close() throws IOException {
+    regionCache.invalidate(this);
+    input.close();
+  }
+
+  @Override
+  public int readInt() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public String readVarIntString(long offset) throws IOException {
+    return input.readVarIntString(offset);
+  }
+
+  @Override
+  public String getFilePath() {
+    return input.getFilePath();
+  }
+}
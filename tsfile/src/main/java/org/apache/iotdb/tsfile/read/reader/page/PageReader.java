@@ -28,7 +28,13 @@ import org.apache.iotdb.tsfile.read.common.BatchDataFactory;
 import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.apache.iotdb.tsfile.read.common.block.TsBlock;
 import org.apache.iotdb.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
 import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
+import org.apache.iotdb.tsfile.read.common.block.column.DoubleColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.FloatColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.IntColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.LongColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.TimeColumn;
 import org.apache.iotdb.tsfile.read.common.block.column.TimeColumnBuilder;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.filter.operator.AndFilter;
@@ -38,11 +44,16 @@ import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 public class PageReader implements IPageReader {
 
+  /** initial capacity of arrays used to decode a page if the number of points is unknown */
+  private static final int DEFAULT_BATCH_CAPACITY = 1024;
+
   private PageHeader pageHeader;
 
   protected TSDataType dataType;
@@ -160,6 +171,11 @@ public class PageReader implements IPageReader {
 
   @Override
   public TsBlock getAllSatisfiedData(boolean ascending) throws IOException {
+    if (filter != null && isBatchDecodable(dataType) && filter.canSatisfyBatch(dataType)) {
+      return filter.satisfy(getStatistics())
+          ? getAllSatisfiedDataInBatch()
+          : new TsBlockBuilder(Collections.singletonList(dataType)).build();
+    }
     // TODO we still need to consider data type, ascending and descending here
     TsBlockBuilder builder = new TsBlockBuilder(Collections.singletonList(dataType));
     TimeColumnBuilder timeBuilder = builder.getTimeColumnBuilder();
@@ -239,6 +255,143 @@ public class PageReader implements IPageReader {
     return builder.build();
   }
 
+  private static boolean isBatchDecodable(TSDataType dataType) {
+    return dataType == TSDataType.INT32
+        || dataType == TSDataType.INT64
+        || dataType == TSDataType.FLOAT
+        || dataType == TSDataType.DOUBLE;
+  }
+
+  /**
+   * Decode the whole page into arrays at once, and then examine all points by {@link
+   * Filter#satisfyBatch}, which avoids boxing each value and calling the filter point by point.
+   */
+  private TsBlock getAllSatisfiedDataInBatch() throws IOException {
+    int capacity =
+        pageHeader != null && pageHeader.getStatistics() != null
+            ? (int) pageHeader.getStatistics().getCount()
+            : DEFAULT_BATCH_CAPACITY;
+    long[] times = new long[Math.max(capacity, 1)];
+    Object values;
+    int count = 0;
+    switch (dataType) {
+      case INT32:
+        int[] ints = new int[times.length];
+        while (timeDecoder.hasNext(timeBuffer)) {
+          if (count == times.length) {
+            times = Arrays.copyOf(times, count << 1);
+            ints = Arrays.copyOf(ints, count << 1);
+          }
+          times[count] = timeDecoder.readLong(timeBuffer);
+          ints[count++] = valueDecoder.readInt(valueBuffer);
+        }
+        values = ints;
+        break;
+      case INT64:
+        long[] longs = new long[times.length];
+        while (timeDecoder.hasNext(timeBuffer)) {
+          if (count == times.length) {
+            times = Arrays.copyOf(times, count << 1);
+            longs = Arrays.copyOf(longs, count << 1);
+          }
+          times[count] = timeDecoder.readLong(timeBuffer);
+          longs[count++] = valueDecoder.readLong(valueBuffer);
+        }
+        values = longs;
+        break;
+      case FLOAT:
+        float[] floats = new float[times.length];
+        while (timeDecoder.hasNext(timeBuffer)) {
+          if (count == times.length) {
+            times = Arrays.copyOf(times, count << 1);
+            floats = Arrays.copyOf(floats, count << 1);
+          }
+          times[count] = timeDecoder.readLong(timeBuffer);
+          floats[count++] = valueDecoder.readFloat(valueBuffer);
+        }
+        values = floats;
+        break;
+      case DOUBLE:
+        double[] doubles = new double[times.length];
+        while (timeDecoder.hasNext(timeBuffer)) {
+          if (count == times.length) {
+            times = Arrays.copyOf(times, count << 1);
+            doubles = Arrays.copyOf(doubles, count << 1);
+          }
+          times[count] = timeDecoder.readLong(timeBuffer);
+          doubles[count++] = valueDecoder.readDouble(valueBuffer);
+        }
+        values = doubles;
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+
+    boolean[] selection = new boolean[count];
+    for (int i = 0; i < count; i++) {
+      selection[i] = !isDeleted(times[i]);
+    }
+    filter.satisfyBatch(
+        new TimeColumn(count, times), createValueColumn(count, values), selection);
+
+    // move all selected points to the front of arrays
+    int size = 0;
+    switch (dataType) {
+      case INT32:
+        int[] ints = (int[]) values;
+        for (int i = 0; i < count; i++) {
+          if (selection[i]) {
+            times[size] = times[i];
+            ints[size++] = ints[i];
+          }
+        }
+        break;
+      case INT64:
+        long[] longs = (long[]) values;
+        for (int i = 0; i < count; i++) {
+          if (selection[i]) {
+            times[size] = times[i];
+            longs[size++] = longs[i];
+          }
+        }
+        break;
+      case FLOAT:
+        float[] floats = (float[]) values;
+        for (int i = 0; i < count; i++) {
+          if (selection[i]) {
+            times[size] = times[i];
+            floats[size++] = floats[i];
+          }
+        }
+        break;
+      default:
+        double[] doubles = (double[]) values;
+        for (int i = 0; i < count; i++) {
+          if (selection[i]) {
+            times[size] = times[i];
+            doubles[size++] = doubles[i];
+          }
+        }
+        break;
+    }
+    return new TsBlock(size, new TimeColumn(size, times), createValueColumn(size, values));
+  }
+
+  private Column createValueColumn(int positionCount, Object values) {
+    switch (dataType) {
+      case INT32:
+        return new IntColumn(positionCount, Optional.empty(), (int[]) values);
+      case INT64:
+        return new LongColumn(positionCount, Optional.empty(), (long[]) values);
+      case FLOAT:
+        return new FloatColumn(positionCount, Optional.empty(), (float[]) values);
+      case DOUBLE:
+        return new DoubleColumn(positionCount, Optional.empty(), (double[]) values);
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
   @Override
   public Statistics getStatistics() {
     return pageHeader.getStatistics();
@@ -365,7 +365,7 @@ public class ChunkWriterImpl implements IChunkWriter {
       // serialize pageHeader  see writePageToPageBuffer method
       if (numOfPages == 0) { // record the firstPageStatistics
         this.firstPageStatistics = header.getStatistics();
-        this.sizeWithoutStatistic +=
+        this.sizeWithoutStatistic =
             ReadWriteForEncodingUtils.writeUnsignedVarInt(header.getUncompressedSize(), pageBuffer);
         this.sizeWithoutStatistic +=
             ReadWriteForEncodingUtils.writeUnsignedVarInt(header.getCompressedSize(), pageBuffer);
@@ -25,6 +25,7 @@ import org.apache.iotdb.tsfile.file.header.ChunkGroupHeader;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetadata;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.DeviceIndex;
 import org.apache.iotdb.tsfile.file.metadata.IChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.MetadataIndexConstructor;
 import org.apache.iotdb.tsfile.file.metadata.MetadataIndexNode;
@@ -263,10 +264,15 @@ public class TsFileIOWriter implements AutoCloseable {
       }
     }
 
-    MetadataIndexNode metadataIndex = flushMetadataIndex(chunkMetadataListMap);
+    DeviceIndex.Builder deviceIndexBuilder =
+        config.isEnableDeviceIndex() ? new DeviceIndex.Builder() : null;
+    MetadataIndexNode metadataIndex = flushMetadataIndex(chunkMetadataListMap, deviceIndexBuilder);
     TsFileMetadata tsFileMetaData = new TsFileMetadata();
     tsFileMetaData.setMetadataIndex(metadataIndex);
     tsFileMetaData.setMetaOffset(metaOffset);
+    if (deviceIndexBuilder != null) {
+      tsFileMetaData.setDeviceIndex(deviceIndexBuilder.build());
+    }
 
     long footerIndex = out.getPosition();
     if (logger.isDebugEnabled()) {
@@ -285,6 +291,9 @@ public class TsFileIOWriter implements AutoCloseable {
       logger.debug("finish flushing the bloom filter file pos:{}", out.getPosition());
     }
 
+    // write device index, which is optional and ignored by the readers not knowing it
+    size += tsFileMetaData.serializeDeviceIndex(out.wrapAsStream());
+
     // write TsFileMetaData size
     ReadWriteIOUtils.write(size, out.wrapAsStream()); // write the size of the file metadata.
 
@@ -303,9 +312,11 @@ public class TsFileIOWriter implements AutoCloseable {
    * Flush TsFileMetadata, including ChunkMetadataList and TimeseriesMetaData
    *
    * @param chunkMetadataListMap chunkMetadata that Path.mask == 0
+   * @param deviceIndexBuilder builder of the device index, may be null
    * @return MetadataIndexEntry list in TsFileMetadata
    */
-  private MetadataIndexNode flushMetadataIndex(Map<Path, List<IChunkMetadata>> chunkMetadataListMap)
+  private MetadataIndexNode flushMetadataIndex(
+      Map<Path, List<IChunkMetadata>> chunkMetadataListMap, DeviceIndex.Builder deviceIndexBuilder)
       throws IOException {
 
     // convert ChunkMetadataList to this field
@@ -317,7 +328,8 @@ public class TsFileIOWriter implements AutoCloseable {
     }
 
     // construct TsFileMetadata and return
-    return MetadataIndexConstructor.constructMetadataIndex(deviceTimeseriesMetadataMap, out);
+    return MetadataIndexConstructor.constructMetadataIndex(
+        deviceTimeseriesMetadataMap, out, deviceIndexBuilder);
   }
 
   /**
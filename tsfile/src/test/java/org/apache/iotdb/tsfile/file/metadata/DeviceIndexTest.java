@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.file.metadata;
+
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.FileGenerator;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeviceIndexTest {
+
+  private static final int DEVICE_NUM = 40;
+  private static final int MEASUREMENT_NUM = 10;
+
+  private final TSFileConfig conf = TSFileDescriptor.getInstance().getConfig();
+  private int maxDegreeOfIndexNode;
+  private boolean enableDeviceIndex;
+
+  @Before
+  public void before() {
+    maxDegreeOfIndexNode = conf.getMaxDegreeOfIndexNode();
+    enableDeviceIndex = conf.isEnableDeviceIndex();
+    conf.setMaxDegreeOfIndexNode(3);
+  }
+
+  @After
+  public void after() {
+    conf.setMaxDegreeOfIndexNode(maxDegreeOfIndexNode);
+    conf.setEnableDeviceIndex(enableDeviceIndex);
+  }
+
+  @Test
+  public void testSerializeAndLookup() throws IOException {
+    DeviceIndex.Builder builder = new DeviceIndex.Builder();
+    // devices are not added in the order of their bytes
+    for (int i = DEVICE_NUM - 1; i >= 0; i--) {
+      builder.startDevice("root.sg.d" + i);
+      for (int j = 0; j < MEASUREMENT_NUM; j += 3) {
+        builder.addEntry("s" + j, i * 1000L + j * 10);
+      }
+      builder.endDevice(i * 1000L + MEASUREMENT_NUM * 10);
+    }
+    PublicBAOS out = new PublicBAOS();
+    int size = builder.build().serializeTo(out);
+    Assert.assertEquals(out.size(), size);
+
+    DeviceIndex deviceIndex =
+        DeviceIndex.deserializeFrom(ByteBuffer.wrap(out.getBuf(), 0, out.size()));
+    Assert.assertNotNull(deviceIndex);
+    Assert.assertEquals(DEVICE_NUM, deviceIndex.getDeviceNum());
+    for (int i = 0; i < DEVICE_NUM; i++) {
+      String device = "root.sg.d" + i;
+      Assert.assertTrue(deviceIndex.containsDevice(device));
+      // "s0" <= "s1" < "s3"
+      Assert.assertArrayEquals(
+          new long[] {i * 1000L, i * 1000L + 30},
+          deviceIndex.getTimeseriesMetadataRange(device, "s1"));
+      // "s9" is the last sample, so the range ends at the end of the device
+      Assert.assertArrayEquals(
+          new long[] {i * 1000L + 90, i * 1000L + 100},
+          deviceIndex.getTimeseriesMetadataRange(device, "s95"));
+      // before the first measurement
+      Assert.assertNull(deviceIndex.getTimeseriesMetadataRange(device, "a"));
+    }
+    Assert.assertFalse(deviceIndex.containsDevice("root.sg.d"));
+    Assert.assertFalse(deviceIndex.containsDevice("root.sg.d400"));
+    Assert.assertNull(deviceIndex.getTimeseriesMetadataRange("root.sg.e", "s1"));
+
+    // a buffer without the marker is not a device index
+    Assert.assertNull(DeviceIndex.deserializeFrom(ByteBuffer.wrap(new byte[] {0})));
+  }
+
+  @Test
+  public void testReadTimeseriesMetadata() throws IOException {
+    conf.setEnableDeviceIndex(true);
+    FileGenerator.generateFile(10000, DEVICE_NUM, MEASUREMENT_NUM);
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(FileGenerator.outputDataFile)) {
+      TsFileMetadata tsFileMetadata = reader.readFileMetadata();
+      DeviceIndex deviceIndex = tsFileMetadata.getDeviceIndex();
+      Assert.assertNotNull(deviceIndex);
+      Assert.assertNotNull(tsFileMetadata.getBloomFilter());
+
+      List<Path> paths = new ArrayList<>();
+      for (int i = 0; i < DEVICE_NUM; i++) {
+        for (int j = 0; j < MEASUREMENT_NUM; j++) {
+          paths.add(
+              new Path(
+                  "d" + FileGenerator.generateIndexString(i, DEVICE_NUM),
+                  "s" + FileGenerator.generateIndexString(j, MEASUREMENT_NUM)));
+        }
+      }
+      List<TimeseriesMetadata> withIndex = new ArrayList<>();
+      for (Path path : paths) {
+        withIndex.add(reader.readTimeseriesMetadata(path, false));
+      }
+      Assert.assertNull(reader.readTimeseriesMetadata(new Path("d00", "s100"), false));
+      Assert.assertNull(reader.readTimeseriesMetadata(new Path("d100", "s00"), true));
+      try {
+        reader.readTimeseriesMetadata(new Path("d100", "s00"), false);
+        Assert.fail();
+      } catch (IOException e) {
+        // expected
+      }
+
+      // read again through the metadata index tree
+      tsFileMetadata.setDeviceIndex(null);
+      for (int i = 0; i < paths.size(); i++) {
+        TimeseriesMetadata expected = reader.readTimeseriesMetadata(paths.get(i), false);
+        Assert.assertNotNull(expected);
+        Assert.assertEquals(expected.getMeasurementId(), withIndex.get(i).getMeasurementId());
+        Assert.assertEquals(expected.getStatistics(), withIndex.get(i).getStatistics());
+      }
+    } finally {
+      FileGenerator.after();
+    }
+  }
+}
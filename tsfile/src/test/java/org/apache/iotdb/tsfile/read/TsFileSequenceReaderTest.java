@@ -29,6 +29,7 @@ import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.utils.FileGenerator;
 import org.apache.iotdb.tsfile.utils.Pair;
@@ -45,6 +46,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -135,6 +137,33 @@ public class TsFileSequenceReaderTest {
     reader.close();
   }
 
+  @Test
+  public void testReadMemChunks() throws IOException {
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(FILE_PATH)) {
+      List<ChunkMetadata> chunkMetadataList = new ArrayList<>();
+      for (String device : new String[] {"d1", "d2"}) {
+        for (List<ChunkMetadata> list : reader.readChunkMetadataInDevice(device).values()) {
+          chunkMetadataList.addAll(list);
+        }
+      }
+      Collections.shuffle(chunkMetadataList);
+      // the same chunk may be required more than once
+      chunkMetadataList.add(chunkMetadataList.get(0));
+
+      List<Chunk> chunks = reader.readMemChunks(chunkMetadataList);
+      Assert.assertEquals(chunkMetadataList.size(), chunks.size());
+      for (int i = 0; i < chunks.size(); i++) {
+        Chunk expected = reader.readMemChunk(chunkMetadataList.get(i));
+        Chunk actual = chunks.get(i);
+        Assert.assertEquals(
+            expected.getHeader().getMeasurementID(), actual.getHeader().getMeasurementID());
+        Assert.assertEquals(
+            expected.getHeader().getSerializedSize(), actual.getHeader().getSerializedSize());
+        Assert.assertEquals(expected.getData(), actual.getData());
+      }
+    }
+  }
+
   @Test
   public void testReadEmptyPageInSelfCheck() throws IOException, WriteProcessException {
     int oldMaxPagePointNum =
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.filter;
+
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
+import org.apache.iotdb.tsfile.read.common.block.column.DoubleColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.IntColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.LongColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.TimeColumn;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+
+public class BatchFilterTest {
+
+  private static final int POINT_NUM = 100;
+
+  private final long[] times = new long[POINT_NUM];
+  private final int[] ints = new int[POINT_NUM];
+  private final long[] longs = new long[POINT_NUM];
+  private final double[] doubles = new double[POINT_NUM];
+
+  public BatchFilterTest() {
+    for (int i = 0; i < POINT_NUM; i++) {
+      times[i] = i * 10L;
+      ints[i] = i % 7 - 3;
+      longs[i] = i * 3L - 50;
+      doubles[i] = i % 10 == 0 ? Double.NaN : i * 0.5 - 20;
+    }
+    doubles[1] = -0.0;
+    doubles[2] = 0.0;
+  }
+
+  @Test
+  public void testTimeFilter() {
+    checkBatch(TimeFilter.gt(200L), TSDataType.INT32);
+    checkBatch(TimeFilter.gtEq(200L), TSDataType.INT64);
+    checkBatch(TimeFilter.lt(200L), TSDataType.DOUBLE);
+    checkBatch(TimeFilter.ltEq(200L), TSDataType.INT32);
+    checkBatch(TimeFilter.eq(200L), TSDataType.INT64);
+    checkBatch(TimeFilter.notEq(200L), TSDataType.DOUBLE);
+  }
+
+  @Test
+  public void testValueFilter() {
+    checkBatch(ValueFilter.gt(1), TSDataType.INT32);
+    checkBatch(ValueFilter.ltEq(-1), TSDataType.INT32);
+    checkBatch(ValueFilter.eq(10L), TSDataType.INT64);
+    checkBatch(ValueFilter.notEq(10L), TSDataType.INT64);
+    checkBatch(ValueFilter.gt(-5.5), TSDataType.DOUBLE);
+    checkBatch(ValueFilter.gtEq(-5.5), TSDataType.DOUBLE);
+    checkBatch(ValueFilter.lt(3.0), TSDataType.DOUBLE);
+    checkBatch(ValueFilter.ltEq(3.0), TSDataType.DOUBLE);
+    checkBatch(ValueFilter.eq(4.5), TSDataType.DOUBLE);
+    checkBatch(ValueFilter.notEq(4.5), TSDataType.DOUBLE);
+  }
+
+  @Test
+  public void testCompositeFilter() {
+    checkBatch(FilterFactory.and(TimeFilter.gtEq(100L), ValueFilter.lt(2)), TSDataType.INT32);
+    checkBatch(FilterFactory.or(TimeFilter.lt(100L), ValueFilter.gt(20L)), TSDataType.INT64);
+    checkBatch(
+        FilterFactory.and(
+            TimeFilter.not(TimeFilter.eq(300L)),
+            FilterFactory.or(ValueFilter.lt(-10.0), ValueFilter.not(ValueFilter.ltEq(5.0)))),
+        TSDataType.DOUBLE);
+  }
+
+  @Test
+  public void testUnsupportedFilter() {
+    // the type of value is different from data type
+    Assert.assertFalse(ValueFilter.gt(1L).canSatisfyBatch(TSDataType.INT32));
+    // NaN and zero are compared differently by Double.compareTo
+    Assert.assertFalse(ValueFilter.gt(Double.NaN).canSatisfyBatch(TSDataType.DOUBLE));
+    Assert.assertFalse(ValueFilter.lt(0.0).canSatisfyBatch(TSDataType.DOUBLE));
+    Assert.assertFalse(ValueFilter.lt(-0.0).canSatisfyBatch(TSDataType.DOUBLE));
+    Assert.assertFalse(ValueFilter.gt(true).canSatisfyBatch(TSDataType.BOOLEAN));
+    Assert.assertFalse(
+        FilterFactory.and(TimeFilter.gt(1L), ValueFilter.in(new HashSet<>(Arrays.asList(1, 2)), false))
+            .canSatisfyBatch(TSDataType.INT32));
+  }
+
+  private void checkBatch(Filter filter, TSDataType dataType) {
+    Assert.assertTrue(filter.toString(), filter.canSatisfyBatch(dataType));
+    // use a region so that the offset of arrays is not zero
+    int offset = 5;
+    Column timeColumn = new TimeColumn(POINT_NUM, times).getRegion(offset, POINT_NUM - offset);
+    Column valueColumn;
+    switch (dataType) {
+      case INT32:
+        valueColumn = new IntColumn(POINT_NUM, Optional.empty(), ints);
+        break;
+      case INT64:
+        valueColumn = new LongColumn(POINT_NUM, Optional.empty(), longs);
+        break;
+      default:
+        valueColumn = new DoubleColumn(POINT_NUM, Optional.empty(), doubles);
+        break;
+    }
+    valueColumn = valueColumn.getRegion(offset, POINT_NUM - offset);
+
+    boolean[] selection = new boolean[POINT_NUM - offset];
+    Arrays.fill(selection, true);
+    // points already filtered out must stay filtered out
+    selection[3] = false;
+    filter.satisfyBatch(timeColumn, valueColumn, selection);
+
+    for (int i = 0; i < POINT_NUM - offset; i++) {
+      boolean expected =
+          i != 3 && filter.satisfy(timeColumn.getLong(i), valueColumn.getObject(i));
+      Assert.assertEquals(filter + " at " + i, expected, selection[i]);
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.utils.FileGenerator;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class MmapTsFileInputTest {
+
+  private static final String FILE_PATH = FileGenerator.outputDataFile;
+
+  @Before
+  public void before() throws IOException {
+    FileGenerator.generateFile(100, 10000);
+  }
+
+  @After
+  public void after() {
+    FileGenerator.after();
+  }
+
+  @Test
+  public void testPositionalRead() throws IOException {
+    Path path = Paths.get(FILE_PATH);
+    MappedRegionCache regionCache = new MappedRegionCache(Long.MAX_VALUE);
+    LocalTsFileInput localInput = new LocalTsFileInput(path);
+    try {
+      MmapTsFileInput mmapInput = new MmapTsFileInput(path, regionCache);
+      long size = localInput.size();
+      Assert.assertEquals(size, mmapInput.size());
+
+      for (long position : new long[] {0, 1, size / 3, size - 10}) {
+        ByteBuffer expected = ByteBuffer.allocate(10);
+        ByteBuffer actual = ByteBuffer.allocate(10);
+        Assert.assertEquals(localInput.read(expected, position), mmapInput.read(actual, position));
+        Assert.assertEquals(expected.flip(), actual.flip());
+      }
+      // read beyond the end of the file
+      ByteBuffer buffer = ByteBuffer.allocate(20);
+      Assert.assertEquals(5, mmapInput.read(buffer, size - 5));
+      Assert.assertEquals(-1, mmapInput.read(buffer, size));
+      Assert.assertEquals(1, regionCache.getRegionNum());
+
+      mmapInput.close();
+      Assert.assertEquals(0, regionCache.getRegionNum());
+      Assert.assertEquals(0, regionCache.getMappedSize());
+    } finally {
+      localInput.close();
+    }
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    Path path = Paths.get(FILE_PATH);
+    // only one region can be kept
+    MappedRegionCache regionCache = new MappedRegionCache(1);
+    MmapTsFileInput input1 = new MmapTsFileInput(path, regionCache);
+    MmapTsFileInput input2 = new MmapTsFileInput(path, regionCache);
+    try {
+      ByteBuffer buffer1 = ByteBuffer.allocate(100);
+      ByteBuffer buffer2 = ByteBuffer.allocate(100);
+      input1.read(buffer1, 0);
+      input2.read(buffer2, 0);
+      Assert.assertEquals(1, regionCache.getRegionNum());
+      Assert.assertEquals(buffer1.flip(), buffer2.flip());
+    } finally {
+      input1.close();
+      input2.close();
+    }
+    Assert.assertEquals(0, regionCache.getMappedSize());
+  }
+
+  @Test
+  public void testConcurrentRead() throws Exception {
+    Path path = Paths.get(FILE_PATH);
+    // each read maps a region and evicts the others
+    MappedRegionCache regionCache = new MappedRegionCache(1);
+    LocalTsFileInput localInput = new LocalTsFileInput(path);
+    List<MmapTsFileInput> mmapInputs = new ArrayList<>();
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      long size = localInput.size();
+      ByteBuffer expected = ByteBuffer.allocate((int) size);
+      localInput.read(expected, 0);
+      expected.flip();
+      List<Future<ByteBuffer>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        MmapTsFileInput mmapInput = new MmapTsFileInput(path, regionCache);
+        mmapInputs.add(mmapInput);
+        futures.add(
+            pool.submit(
+                () -> {
+                  ByteBuffer actual = ByteBuffer.allocate((int) size);
+                  for (long position = 0; position < size; position += 1000) {
+                    actual.limit((int) Math.min(size, position + 1000));
+                    mmapInput.read(actual, position);
+                  }
+                  actual.flip();
+                  return actual;
+                }));
+      }
+      for (Future<ByteBuffer> future : futures) {
+        Assert.assertEquals(expected, future.get());
+      }
+      Assert.assertEquals(1, regionCache.getRegionNum());
+    } finally {
+      pool.shutdown();
+      for (MmapTsFileInput mmapInput : mmapInputs) {
+        mmapInput.close();
+      }
+      localInput.close();
+    }
+    Assert.assertEquals(0, regionCache.getMappedSize());
+  }
+
+  @Test
+  public void testReadChunks() throws IOException {
+    try (TsFileSequenceReader expectedReader = new TsFileSequenceReader(FILE_PATH);
+        TsFileSequenceReader mmapReader =
+            new TsFileSequenceReader(
+                new MmapTsFileInput(Paths.get(FILE_PATH), new MappedRegionCache(Long.MAX_VALUE)))) {
+      for (List<ChunkMetadata> chunkMetadataList :
+          mmapReader.readChunkMetadataInDevice("d1").values()) {
+        for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+          Chunk expected = expectedReader.readMemChunk(chunkMetadata);
+          Chunk actual = mmapReader.readMemChunk(chunkMetadata);
+          Assert.assertEquals(expected.getData(), actual.getData());
+        }
+      }
+    }
+  }
+}